@@ -1,6 +1,12 @@
+import server.MoblimaServer;
+
 public class Moblima {
 
-    public static void main(String[] args) {
-        MoblimaApp.run();
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--server")) {
+            MoblimaApp.runServer(args.length > 1 ? Integer.parseInt(args[1]) : MoblimaServer.DEFAULT_PORT);
+        } else {
+            MoblimaApp.run();
+        }
     }
 }
@@ -1,4 +1,7 @@
 import controller.DBController;
+import server.MoblimaServer;
+
+import java.io.IOException;
 
 import java.util.Scanner;
 
@@ -7,11 +10,33 @@ import static view.LandingPageView.*;
 public class MoblimaApp {
     private static final Scanner scanner = new Scanner(System.in);
 
+    /**
+     * Method to run MOBLIMA as an HTTP server, saving the database when the server is shut down
+     * @param port
+     * @throws IOException if the database cannot be read or the port cannot be opened
+     */
+    public static void runServer(int port) throws IOException {
+        DBController dbController = DBController.getInstance();
+        dbController.load();
+        MoblimaServer server = new MoblimaServer();
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(5);
+            dbController.save();
+        }));
+        System.out.println("[System: MOBLIMA server listening on port " + server.getPort() + "]");
+    }
+
     public static void run() {
         int choice = 0;
         boolean stillRunning = true;
         DBController dbController = DBController.getInstance();
-        dbController.load();
+        try {
+            dbController.load();
+        } catch (IOException e) {
+            System.out.println("[System: " + e.getMessage() + "]");
+            return;
+        }
         while (stillRunning) {
             System.out.println("=====================================================================");
             System.out.println("Welcome to MOvie Booking and LIsting Management Application (MOBLIMA)\n");
@@ -0,0 +1,630 @@
+package controller;
+
+import model.AgeGroup;
+import model.PublicHoliday;
+import model.account.Admin;
+import model.account.Customer;
+import model.cinema.Cinema;
+import model.cinema.CinemaType;
+import model.cinema.Cineplex;
+import model.cinema.Seat;
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+import model.movie.Movie;
+import model.movie.MovieEnums;
+import model.transaction.Booking;
+import model.transaction.Refund;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * This is the hand-written binary codec of the SerializedDB. It replaces Java serialization of the database:
+ * there are no class descriptors and no reflection, dates and times are written as ints, and the object graph is
+ * flattened into tables (movies, cinemas, cineplexes, showtimes, customers, bookings) that refer to each other by
+ * their position instead of being walked recursively. Movies, cinemas, cineplexes, showtimes and customers are
+ * written with their ID, so that they keep it across a save and a load. Refunds follow the sales and refer to
+ * their booking by its transaction ID.
+ *
+ * A snapshot starts with MAGIC and FORMAT_VERSION, and a snapshot of another version is refused. Snapshots written
+ * with Java serialization are recognised by their stream header and are read by the LegacySnapshot into the
+ * current classes, so existing .dat files are migrated on the next save.
+ **/
+public class BinaryCodec {
+    /**
+     * first four bytes of a binary snapshot ("MBDB")
+     */
+    public static final int MAGIC = 0x4D424442;
+    /**
+     * version of the snapshot format written by this codec
+     */
+    public static final int FORMAT_VERSION = 1;
+    /**
+     * first two bytes of a snapshot written by Java serialization
+     */
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+
+    private final ArrayList<Movie> movies = new ArrayList<>();
+    private final ArrayList<Cinema> cinemas = new ArrayList<>();
+    private final ArrayList<Cineplex> cineplexes = new ArrayList<>();
+    private final ArrayList<ShowTime> showTimes = new ArrayList<>();
+    private final ArrayList<Customer> customers = new ArrayList<>();
+    private final ArrayList<Booking> bookings = new ArrayList<>();
+    private final IdentityHashMap<Object, Integer> index = new IdentityHashMap<>();
+    /**
+     * seats of the bookings not cancelled of each showtime written, one word per row
+     */
+    private final IdentityHashMap<ShowTime, long[]> bookedSeats = new IdentityHashMap<>();
+    /**
+     * database being written, whose registries give the showtime and customer of each booking
+     */
+    private SerializedDB db;
+
+    /**
+     * private constructor, the codec is used through encode and decode
+     */
+    private BinaryCodec() { }
+
+    /**This method writes the database as a binary snapshot
+     * @param serializedDB  The database to be written
+     * @param stream        The stream the snapshot is written to
+     * @throws IOException  If the stream cannot be written
+     */
+    public static void encode(SerializedDB serializedDB, OutputStream stream) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        new BinaryCodec().write(serializedDB, out);
+        out.flush();
+    }
+
+    /**This method reads a snapshot, either binary or written by Java serialization
+     * @param stream        The stream the snapshot is read from
+     * @return The database read from the snapshot
+     * @throws IOException  If the snapshot is malformed or of an unknown version
+     */
+    public static SerializedDB decode(InputStream stream) throws IOException {
+
+        BufferedInputStream buffered = new BufferedInputStream(stream, 1 << 16);
+        buffered.mark(4);
+        DataInputStream in = new DataInputStream(buffered);
+        int header = in.readInt();
+        if (header >>> 16 == JAVA_SERIALIZATION_MAGIC) {
+            buffered.reset();
+            return LegacySnapshot.read(buffered);
+        }
+        if (header != MAGIC) throw new IOException("Not a database snapshot");
+        int version = readVarInt(in);
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported snapshot version " + version);
+        return new BinaryCodec().read(in);
+    }
+
+    /**
+     * This method collects the entity tables and writes them
+     */
+    private void write(SerializedDB db, DataOutputStream out) throws IOException {
+
+        this.db = db;
+        // collect every entity reachable from the database, in a stable order
+        for (Movie movie : db.getMovies()) add(movies, movie);
+        for (Cineplex cineplex : db.getCineplexes().values()) {
+            add(cineplexes, cineplex);
+            for (Cinema cinema : cineplex.getCinemas()) add(cinemas, cinema);
+            for (ArrayList<ShowTime> day : cineplex.getShowTimes().values()) {
+                for (ShowTime showTime : day) addShowTime(showTime);
+            }
+        }
+        for (Customer customer : db.getCustomers()) {
+            add(customers, customer);
+            for (Booking booking : customer.getBookingHistory()) addBooking(booking);
+        }
+        for (Booking booking : db.getBookings()) addBooking(booking);
+        for (Booking booking : bookings) {
+            if (booking.isCancelled()) continue;
+            long[] rows = bookedSeats.computeIfAbsent(showTimeOf(booking),
+                    showTime -> new long[showTime.getSeatMap().getLayout().getRows()]);
+            for (Seat seat : booking.getSeats()) rows[seat.getRow() - 'A'] |= 1L << (seat.getCol() - 1);
+        }
+
+        out.writeInt(MAGIC);
+        writeVarInt(out, FORMAT_VERSION);
+        out.writeLong(db.getCheckpointLsn());
+
+        // the next ID of each registry, as the entities that are no longer referred to are not saved
+        writeVarInt(out, db.getMovieRegistry().getNextId());
+        writeVarInt(out, db.getCineplexRegistry().getNextId());
+        writeVarInt(out, db.getCinemaRegistry().getNextId());
+        writeVarInt(out, db.getShowTimeRegistry().getNextId());
+        writeVarInt(out, db.getCustomerRegistry().getNextId());
+
+        // ticket pricing
+        out.writeDouble(db.getBasePrice());
+        out.writeDouble(db.getWeekendCharges());
+        out.writeDouble(db.getPublicHolidayCharges());
+        writeDoubles(out, db.getMovieType());
+        writeDoubles(out, db.getCinemaType());
+        writeDoubles(out, db.getAgeGroup());
+        writeVarInt(out, db.getPublicHolidayDates().size());
+        for (PublicHoliday publicHoliday : db.getPublicHolidayDates()) {
+            writeString(out, publicHoliday.getPublicHolidayName());
+            out.writeInt((int) publicHoliday.getPublicHolidayDate().toEpochDay());
+        }
+
+        // movies, with the listed movies first
+        writeVarInt(out, movies.size());
+        writeVarInt(out, db.getMovies().size());
+        for (Movie movie : movies) writeMovie(out, movie, db.getReviewStore());
+
+        writeVarInt(out, cinemas.size());
+        for (Cinema cinema : cinemas) {
+            writeVarInt(out, cinema.getId());
+            writeString(out, cinema.getName());
+            out.writeChar(cinema.getMaxRow());
+            writeVarInt(out, cinema.getMaxCol());
+            out.writeByte(cinema.getCinemaType().ordinal());
+        }
+
+        writeVarInt(out, showTimes.size());
+        for (ShowTime showTime : showTimes) writeShowTime(out, showTime);
+
+        // cineplexes, with the listed cineplexes first, and their cinemas and showtimes by position
+        writeVarInt(out, cineplexes.size());
+        writeVarInt(out, db.getCineplexes().size());
+        for (Cineplex cineplex : cineplexes) {
+            writeVarInt(out, cineplex.getId());
+            writeString(out, cineplex.getName());
+            writeVarInt(out, cineplex.getCinemas().size());
+            for (Cinema cinema : cineplex.getCinemas()) writeVarInt(out, index.get(cinema));
+            writeVarInt(out, cineplex.getShowTimes().size());
+            for (Map.Entry<LocalDate, ArrayList<ShowTime>> day : cineplex.getShowTimes().entrySet()) {
+                out.writeInt((int) day.getKey().toEpochDay());
+                writeVarInt(out, day.getValue().size());
+                for (ShowTime showTime : day.getValue()) writeVarInt(out, index.get(showTime));
+            }
+        }
+
+        writeVarInt(out, db.getAdmins().size());
+        for (Admin admin : db.getAdmins()) {
+            writeString(out, admin.getUsername());
+            writeString(out, admin.getPassword());
+        }
+
+        writeVarInt(out, customers.size());
+        for (Customer customer : customers) {
+            writeVarInt(out, customer.getId());
+            writeString(out, customer.getUserName());
+            writeString(out, customer.getPassword());
+            writeString(out, customer.getMobileNumber());
+            writeString(out, customer.getEmailAddress());
+        }
+
+        writeVarInt(out, bookings.size());
+        for (Booking booking : bookings) writeBooking(out, booking);
+        for (Customer customer : customers) {
+            ArrayList<Booking> history = customer.getBookingHistory();
+            writeVarInt(out, history.size());
+            for (Booking booking : history) writeVarInt(out, index.get(booking));
+        }
+        writeVarInt(out, db.getBookings().size());
+        for (Booking booking : db.getBookings()) writeVarInt(out, index.get(booking));
+
+        ArrayList<SalesLedger.Entry> sales = db.getSalesLedger().getEntries();
+        writeVarInt(out, sales.size());
+        for (SalesLedger.Entry sale : sales) {
+            writeVarInt(out, sale.getMovieId());
+            writeString(out, sale.getCineplex());
+            out.writeBoolean(sale.getDate() != null);
+            if (sale.getDate() != null) out.writeInt((int) sale.getDate().toEpochDay());
+            writeVarLong(out, sale.getTickets());
+            writeVarLong(out, sale.getRevenueCents());
+        }
+
+        writeVarInt(out, db.getRefunds().size());
+        for (Refund refund : db.getRefunds()) {
+            writeVarLong(out, refund.getTransactionNumber());
+            writeVarLong(out, refund.getAmountCents());
+            out.writeLong(refund.getRefundedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(refund.getRefundedAt().getNano());
+        }
+    }
+
+    /**
+     * This method reads the entity tables and links them back together
+     */
+    private SerializedDB read(DataInputStream in) throws IOException {
+
+        SerializedDB db = new SerializedDB();
+        db.setCheckpointLsn(in.readLong());
+
+        db.getMovieRegistry().reserve(readVarInt(in));
+        db.getCineplexRegistry().reserve(readVarInt(in));
+        db.getCinemaRegistry().reserve(readVarInt(in));
+        db.getShowTimeRegistry().reserve(readVarInt(in));
+        db.getCustomerRegistry().reserve(readVarInt(in));
+
+        double basePrice = in.readDouble();
+        double weekendCharges = in.readDouble();
+        double publicHolidayCharges = in.readDouble();
+        readDoubles(in, db.getMovieType());
+        readDoubles(in, db.getCinemaType());
+        readDoubles(in, db.getAgeGroup());
+        int numOfHolidays = readVarInt(in);
+        ArrayList<PublicHoliday> publicHolidays = new ArrayList<>(numOfHolidays);
+        for (int i = 0; i < numOfHolidays; i++) {
+            String name = readString(in);
+            publicHolidays.add(new PublicHoliday(name, LocalDate.ofEpochDay(in.readInt())));
+        }
+        db.setTicketPricing(publicHolidays, publicHolidayCharges, weekendCharges, basePrice);
+
+        int numOfMovies = readVarInt(in);
+        int numOfListedMovies = readVarInt(in);
+        for (int i = 0; i < numOfMovies; i++) movies.add(readMovie(in, db.getReviewStore(), i));
+        db.setMovies(new ArrayList<>(movies.subList(0, numOfListedMovies)));
+
+        int numOfCinemas = readVarInt(in);
+        for (int i = 0; i < numOfCinemas; i++) {
+            int id = readVarInt(in);
+            String name = readString(in);
+            char maxRow = in.readChar();
+            int maxCol = readVarInt(in);
+            Cinema cinema = new Cinema(name, maxRow, maxCol, CinemaType.values()[in.readByte()]);
+            cinema.setId(id);
+            cinemas.add(cinema);
+        }
+
+        // showtimes refer to cineplexes that are only read afterwards, so they are linked in a second pass
+        int numOfShowTimes = readVarInt(in);
+        int[] showTimeCineplex = new int[numOfShowTimes];
+        for (int i = 0; i < numOfShowTimes; i++) showTimeCineplex[i] = readShowTime(in, i);
+
+        int numOfCineplexes = readVarInt(in);
+        int numOfListedCineplexes = readVarInt(in);
+        HashMap<String, Cineplex> listedCineplexes = new HashMap<>();
+        for (int i = 0; i < numOfCineplexes; i++) {
+            int id = readVarInt(in);
+            Cineplex cineplex = new Cineplex(readString(in));
+            cineplex.setId(id);
+            int numOfCineplexCinemas = readVarInt(in);
+            for (int j = 0; j < numOfCineplexCinemas; j++) cineplex.getCinemas().add(cinemas.get(readVarInt(in)));
+            int numOfDays = readVarInt(in);
+            for (int j = 0; j < numOfDays; j++) {
+                LocalDate date = LocalDate.ofEpochDay(in.readInt());
+                int numOfDayShowTimes = readVarInt(in);
+                ArrayList<ShowTime> day = new ArrayList<>(numOfDayShowTimes);
+                for (int k = 0; k < numOfDayShowTimes; k++) day.add(showTimes.get(readVarInt(in)));
+                cineplex.getShowTimes().put(date, day);
+            }
+            cineplexes.add(cineplex);
+            if (i < numOfListedCineplexes) listedCineplexes.put(cineplex.getName(), cineplex);
+        }
+        db.setCineplexes(listedCineplexes);
+        for (int i = 0; i < numOfShowTimes; i++) showTimes.get(i).setCineplex(cineplexes.get(showTimeCineplex[i]));
+
+        int numOfAdmins = readVarInt(in);
+        for (int i = 0; i < numOfAdmins; i++) db.getAdmins().add(new Admin(readString(in), readString(in)));
+
+        int numOfCustomers = readVarInt(in);
+        for (int i = 0; i < numOfCustomers; i++) {
+            int id = readVarInt(in);
+            Customer customer = new Customer(readString(in), readString(in), readString(in), readString(in));
+            customer.setId(id);
+            customers.add(customer);
+            db.addCustomer(customer);
+        }
+
+        // every entity read is registered by its ID, including the ones that are no longer listed
+        for (Movie movie : movies) db.getMovieRegistry().register(movie);
+        for (Cineplex cineplex : cineplexes) db.getCineplexRegistry().register(cineplex);
+        for (Cinema cinema : cinemas) db.getCinemaRegistry().register(cinema);
+        for (ShowTime showTime : showTimes) db.getShowTimeRegistry().register(showTime);
+        for (Customer customer : customers) db.getCustomerRegistry().register(customer);
+
+        int numOfBookings = readVarInt(in);
+        for (int i = 0; i < numOfBookings; i++) bookings.add(readBooking(in));
+        for (Customer customer : customers) {
+            int numOfHistory = readVarInt(in);
+            for (int i = 0; i < numOfHistory; i++) customer.addBookingHistory(bookings.get(readVarInt(in)));
+        }
+        int numOfListedBookings = readVarInt(in);
+        for (int i = 0; i < numOfListedBookings; i++) db.getBookings().add(bookings.get(readVarInt(in)));
+
+        int numOfSales = readVarInt(in);
+        SalesLedger ledger = new SalesLedger();
+        for (int i = 0; i < numOfSales; i++) {
+            int movie = readVarInt(in);
+            String cineplex = readString(in);
+            LocalDate date = in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+            ledger.record(movie, cineplex, date, readVarLong(in), readVarLong(in));
+        }
+        db.setSalesLedger(ledger);
+
+        int numOfRefunds = readVarInt(in);
+        for (int i = 0; i < numOfRefunds; i++) {
+            long transactionNumber = readVarLong(in);
+            long amountCents = readVarLong(in);
+            LocalDateTime refundedAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            db.getRefunds().add(new Refund(transactionNumber, amountCents, refundedAt));
+        }
+        return db;
+    }
+
+    private void writeMovie(DataOutputStream out, Movie movie, ReviewStore reviewStore) throws IOException {
+
+        writeVarInt(out, movie.getId());
+        writeString(out, movie.getTitle());
+        writeString(out, movie.getDirector());
+        writeVarInt(out, movie.getCast().size());
+        for (String cast : movie.getCast()) writeString(out, cast);
+        writeString(out, movie.getSynopsis());
+        out.writeByte(movie.getLanguage().ordinal());
+        out.writeByte(movie.getSubtitle().ordinal());
+        out.writeByte(movie.getMovieStatus().ordinal());
+        out.writeByte(movie.getMovieRating().ordinal());
+        out.writeByte(movie.getMovieType().ordinal());
+        // only the headers of the reviews, their texts are in the body file of the review store
+        ArrayList<ReviewStore.Header> reviews = reviewStore.getHeaders(movie);
+        writeVarInt(out, reviews.size());
+        for (ReviewStore.Header review : reviews) {
+            LocalDateTime timestamp = review.getTimestamp();
+            out.writeInt((int) timestamp.toLocalDate().toEpochDay());
+            out.writeInt(timestamp.toLocalTime().toSecondOfDay());
+            out.writeByte(review.getRating());
+            writeString(out, review.getNameOfReviewer());
+            writeVarLong(out, review.getBodyOffset() + 1);
+        }
+        for (int count : movie.getRatingHistogram()) writeVarInt(out, count);
+    }
+
+    private Movie readMovie(DataInputStream in, ReviewStore reviewStore, int position) throws IOException {
+
+        int id = readVarInt(in);
+        String title = readString(in);
+        String director = readString(in);
+        int numOfCast = readVarInt(in);
+        ArrayList<String> cast = new ArrayList<>(numOfCast);
+        for (int i = 0; i < numOfCast; i++) cast.add(readString(in));
+        String synopsis = readString(in);
+        Movie movie = new Movie(title, director, cast, synopsis,
+                MovieEnums.Language.values()[in.readByte()],
+                MovieEnums.Subtitle.values()[in.readByte()],
+                MovieEnums.MovieStatus.values()[in.readByte()],
+                MovieEnums.MovieRating.values()[in.readByte()],
+                MovieEnums.MovieType.values()[in.readByte()]);
+        movie.setId(id);
+        int numOfReviews = readVarInt(in);
+        for (int i = 0; i < numOfReviews; i++) {
+            LocalDate date = LocalDate.ofEpochDay(in.readInt());
+            LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+            int rating = in.readByte();
+            String reviewer = readString(in);
+            reviewStore.restore(movie, LocalDateTime.of(date, time), rating, reviewer, readVarLong(in) - 1);
+        }
+        int[] histogram = new int[Movie.MAX_RATING];
+        for (int i = 0; i < histogram.length; i++) histogram[i] = readVarInt(in);
+        movie.setRatingHistogram(histogram);
+        return movie;
+    }
+
+    private void writeShowTime(DataOutputStream out, ShowTime showTime) throws IOException {
+
+        writeVarInt(out, showTime.getId());
+        writeVarInt(out, index.get(showTime.getMovie()));
+        writeVarInt(out, index.get(showTime.getCineplex()));
+        writeVarInt(out, index.get(showTime.getCinema()));
+        out.writeInt((int) showTime.getDateOfMovie().toEpochDay());
+        out.writeInt(showTime.getTimeOfMovie().toSecondOfDay());
+        out.writeByte(showTime.getLanguage().ordinal());
+        out.writeByte(showTime.getSubtitle().ordinal());
+        out.writeByte(showTime.getMovieType().ordinal());
+
+        // the seats of the bookings, one word per row; the layout is the one of the cinema. Seats only held or kept
+        // for a waitlist are occupied in the SeatMap but not saved, as the holds and the waitlists are not saved
+        long[] booked = bookedSeats.get(showTime);
+        for (int row = 0; row < showTime.getSeatMap().getLayout().getRows(); row++) {
+            writeVarLong(out, booked == null ? 0 : booked[row]);
+        }
+    }
+
+    /**
+     * This method reads a showtime and returns the position of its cineplex, which is linked later
+     */
+    private int readShowTime(DataInputStream in, int position) throws IOException {
+
+        int id = readVarInt(in);
+        Movie movie = movies.get(readVarInt(in));
+        int cineplex = readVarInt(in);
+        Cinema cinema = cinemas.get(readVarInt(in));
+        LocalDate date = LocalDate.ofEpochDay(in.readInt());
+        LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+        MovieEnums.Language language = MovieEnums.Language.values()[in.readByte()];
+        MovieEnums.Subtitle subtitle = MovieEnums.Subtitle.values()[in.readByte()];
+        MovieEnums.MovieType movieType = MovieEnums.MovieType.values()[in.readByte()];
+
+        SeatMap seatMap = cinema.copyCinemaLayout();
+        for (int row = 0; row < seatMap.getLayout().getRows(); row++) {
+            seatMap.setRowBits(row, readVarLong(in));
+        }
+        ShowTime showTime = new ShowTime(movie, date, time, seatMap, null, cinema, language, subtitle, movieType);
+        showTime.setId(id);
+        showTimes.add(showTime);
+        return cineplex;
+    }
+
+    private void writeBooking(DataOutputStream out, Booking booking) throws IOException {
+
+        Customer customer = customerOf(booking);
+        writeVarInt(out, customer == null ? 0 : index.get(customer) + 1);
+        writeVarInt(out, index.get(showTimeOf(booking)));
+        writeVarLong(out, booking.getTransactionNumber());
+        out.writeInt((int) booking.getDateOfBooking().toEpochDay());
+        out.writeInt(booking.getTimeOfBooking().toSecondOfDay());
+        writeVarInt(out, booking.getSeats().length);
+        for (Seat seat : booking.getSeats()) {
+            out.writeChar(seat.getRow());
+            writeVarInt(out, seat.getCol());
+        }
+        writeVarInt(out, booking.getNumOfTickets());
+        for (int i = 0; i < booking.getNumOfTickets(); i++) out.writeByte(booking.getAgeGroup(i).ordinal());
+        writeVarLong(out, booking.getPriceCents());
+        out.writeBoolean(booking.isCancelled());
+    }
+
+    private Booking readBooking(DataInputStream in) throws IOException {
+
+        int customer = readVarInt(in);
+        ShowTime showTime = showTimes.get(readVarInt(in));
+        long transactionNumber = readVarLong(in);
+        LocalDate dateOfBooking = LocalDate.ofEpochDay(in.readInt());
+        LocalTime timeOfBooking = LocalTime.ofSecondOfDay(in.readInt());
+        Seat[] seats = new Seat[readVarInt(in)];
+        for (int i = 0; i < seats.length; i++) {
+            char row = in.readChar();
+            seats[i] = showTime.getSeatMap().getLayout().getSeat(row - 'A', readVarInt(in) - 1);
+        }
+        Booking booking = new Booking(dateOfBooking, timeOfBooking, showTime, seats,
+                customer == 0 ? null : customers.get(customer - 1));
+        booking.setTransactionNumber(transactionNumber);
+        AgeGroup[] ageGroups = new AgeGroup[readVarInt(in)];
+        for (int i = 0; i < ageGroups.length; i++) ageGroups[i] = AgeGroup.values()[in.readByte()];
+        booking.restoreTickets(ageGroups, readVarLong(in));
+        booking.setCancelled(in.readBoolean());
+        return booking;
+    }
+
+    /**
+     * This method adds an entity to its table if it is not there yet
+     */
+    private <T> void add(ArrayList<T> table, T entity) {
+
+        if (!index.containsKey(entity)) {
+            index.put(entity, table.size());
+            table.add(entity);
+        }
+    }
+
+    /**
+     * This method adds a showtime and the entities it refers to, including ones no longer listed in the database
+     */
+    private void addShowTime(ShowTime showTime) {
+
+        add(movies, showTime.getMovie());
+        add(cineplexes, showTime.getCineplex());
+        add(cinemas, showTime.getCinema());
+        add(showTimes, showTime);
+    }
+
+    /**
+     * This method adds a booking and the entities it refers to
+     */
+    private void addBooking(Booking booking) {
+
+        addShowTime(showTimeOf(booking));
+        Customer customer = customerOf(booking);
+        if (customer != null) add(customers, customer);
+        add(bookings, booking);
+    }
+
+    /**
+     * This method returns the showtime of a booking being written
+     */
+    private ShowTime showTimeOf(Booking booking) {
+
+        return db.getShowTimeRegistry().get(booking.getShowTimeId());
+    }
+
+    /**
+     * This method returns the customer of a booking being written, or null if it has none
+     */
+    private Customer customerOf(Booking booking) {
+
+        return booking.getCustomerId() == 0 ? null : db.getCustomerRegistry().get(booking.getCustomerId());
+    }
+
+    /**
+     * This method writes a list of prices, its size first
+     */
+    private static void writeDoubles(DataOutputStream out, List<Double> values) throws IOException {
+
+        writeVarInt(out, values.size());
+        for (double value : values) out.writeDouble(value);
+    }
+
+    /**
+     * This method reads a list of prices written by writeDoubles into the given list
+     */
+    private static void readDoubles(DataInputStream in, List<Double> values) throws IOException {
+
+        int size = readVarInt(in);
+        for (int i = 0; i < size; i++) values.add(in.readDouble());
+    }
+
+    /**
+     * This method writes a non-negative int in 7-bit groups, so that small counts take a single byte
+     */
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * This method writes a string as its UTF-8 length plus one (zero for null) followed by its bytes
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+
+        int length = readVarInt(in) - 1;
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,6 +1,7 @@
 package controller;
 
 import model.AgeGroup;
+import model.PublicHoliday;
 import model.account.Admin;
 import model.account.Customer;
 import model.cinema.Cinema;
@@ -11,13 +12,35 @@ import model.movie.Movie;
 import model.movie.MovieEnums;
 import model.movie.Review;
 import model.transaction.Booking;
+import model.transaction.Refund;
+import event.BookingCancelled;
+import event.BookingCreated;
+import event.DomainEvent;
+import event.EventBus;
+import event.PriceChanged;
+import event.ReviewAdded;
+import event.ShowTimeAdded;
+import event.ShowTimeRemoved;
+import service.SeatReservationEngine;
+import service.WaitlistService;
+import service.TransactionIdService;
+import service.TicketPriceService;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import static service.TicketPriceService.*;
 
@@ -27,6 +50,32 @@ import static service.TicketPriceService.*;
   - add/remove cineplex
   - add/remove showtimes
   - add/get sales
+  Every mutation is also appended to the write-ahead Journal, so that saving costs the size of the change and not
+  the size of the database. The full snapshot is only rewritten at a checkpoint.
+
+  The DBController is safe to use from many threads at once:
+  - reads take no lock. The lists and maps returned (cineplexes, movies, admins, customers, and the cinemas and
+    showtimes of a cineplex) are copy-on-write snapshots that are never changed once returned, and the indexes,
+    registries, leaderboards and sales ledger are concurrent or synchronized.
+  - changes to the movies, cineplexes and cinemas, whose journal records refer to positions in the lists, are made
+    one at a time under the catalog lock.
+  - changes to the showtimes and bookings of a cineplex are made under the lock of its stripe, so that a showtime
+    cannot be cancelled while one of its bookings is being recorded, while the cineplexes of other stripes are
+    changed in parallel. A change is journaled under the lock it is made under, so that the journal replays the
+    changes of a cineplex in the order they were made.
+  - every change shares the checkpoint lock, which a checkpoint takes alone, so that a snapshot never holds a
+    change that is half made.
+  Locks are always taken in the order catalog lock, cineplex stripe, then the locks of the objects themselves.
+
+  A change records itself and its journal record, and publishes a domain event on the EventBus for the rest, which
+  subscribers apply asynchronously and in batches on threads of their own:
+  - sales: the tickets and revenue of the bookings made and cancelled, in the sales ledger.
+  - leaderboards: the ticket, revenue and rating leaderboards, once per movie per batch, after the sales.
+  - showtime index: the showtimes added and removed.
+  - persistence: a checkpoint, on a thread of its own, once the journal is full.
+  A thread reading the sales, the leaderboards or the showtime index waits for the events it published itself, so it
+  always sees its own changes. The events are published under the lock the change is made under, so the events of a
+  cineplex are published in the order its changes were made.
  **/
 
 public class DBController {
@@ -35,14 +84,123 @@ public class DBController {
      */
     private SerializedDB serializedDB = SerializedDB.getInstance();
     /**
-     * singleton instance of DBController
+     * holder of the singleton instance of DBController, created the first time it is asked for
      */
-    private static DBController dbController = null;
+    private static final class Holder {
+        /**
+         * singleton instance of DBController
+         */
+        private static final DBController INSTANCE = new DBController();
+    }
+    /**
+     * number of journal records after which a checkpoint rewrites the snapshot and empties the journal
+     */
+    public static final int CHECKPOINT_INTERVAL = 1000;
+    /**
+     * write-ahead journal of the mutations made since the last checkpoint
+     */
+    private volatile Journal journal;
+    /**
+     * true while the journal is being replayed, so that replayed mutations are not journaled again
+     */
+    private boolean replaying = false;
+    /**
+     * index of the showtimes by movie, ordered by date and time
+     */
+    private final ShowTimeIndex showTimeIndex = new ShowTimeIndex();
+    /**
+     * index of the bookings by transaction ID
+     */
+    private final ConcurrentHashMap<Long, Booking> bookingIndex = new ConcurrentHashMap<>();
+    /**
+     * index of the bookings by the ID of their showtime, used to refund every booking of a cancelled showtime
+     */
+    private final ConcurrentHashMap<Integer, ArrayList<Booking>> bookingsByShowTime = new ConcurrentHashMap<>();
+    /**
+     * index of the customers by username, the first customer with a username kept
+     */
+    private final ConcurrentHashMap<String, Customer> customersByUserName = new ConcurrentHashMap<>();
+    /**
+     * index of the admins by username, the first admin with a username kept
+     */
+    private final ConcurrentHashMap<String, Admin> adminsByUsername = new ConcurrentHashMap<>();
+    /**
+     * number of movies kept in each leaderboard
+     */
+    public static final int LEADERBOARD_SIZE = 10;
+    /**
+     * IDs of the movies with the most tickets sold
+     */
+    private final Leaderboard<Integer> ticketLeaderboard = new Leaderboard<>(LEADERBOARD_SIZE);
+    /**
+     * IDs of the movies with the most revenue
+     */
+    private final Leaderboard<Integer> revenueLeaderboard = new Leaderboard<>(LEADERBOARD_SIZE);
+    /**
+     * listed movies with the best average rating
+     */
+    private final Leaderboard<Integer> ratingLeaderboard = new Leaderboard<>(LEADERBOARD_SIZE);
+
+    /**
+     * number of locks the cineplexes are striped over, a power of two
+     */
+    private static final int CINEPLEX_LOCK_STRIPES = 64;
+    /**
+     * locks of the showtimes and bookings of the cineplexes, chosen by the ID of the cineplex
+     */
+    private final Object[] cineplexLocks = new Object[CINEPLEX_LOCK_STRIPES];
+    /**
+     * lock of the changes to the movies, cineplexes and cinemas
+     */
+    private final Object catalogLock = new Object();
+    /**
+     * lock shared by every change and taken alone by a checkpoint
+     */
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    /**
+     * bus of the domain events published by the changes
+     */
+    private final EventBus eventBus = new EventBus();
+    /**
+     * subscription recording the sales of the bookings
+     */
+    private final EventBus.Subscription salesSubscription;
+    /**
+     * subscription updating the leaderboards, after the sales are recorded
+     */
+    private final EventBus.Subscription leaderboardSubscription;
+    /**
+     * subscription updating the showtime index
+     */
+    private final EventBus.Subscription showTimeIndexSubscription;
+    /**
+     * thread the checkpoints asked for by the persistence subscriber are made on
+     */
+    private final ExecutorService checkpointer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "moblima-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * true while a checkpoint is asked for and not yet made
+     */
+    private final AtomicBoolean checkpointPending = new AtomicBoolean();
+    /**
+     * true once the database file or its journal could not be read, so that neither is written over by a checkpoint
+     */
+    private volatile boolean unreadable = false;
 
     /**
      * private constructor for DBController
      */
-    private DBController(){ }
+    private DBController(){
+
+        for (int i = 0; i < CINEPLEX_LOCK_STRIPES; i++) cineplexLocks[i] = new Object();
+        salesSubscription = eventBus.subscribe("sales", this::recordSales);
+        leaderboardSubscription = eventBus.subscribe("leaderboards", this::updateLeaderboards, salesSubscription);
+        showTimeIndexSubscription = eventBus.subscribe("showtime-index", this::updateShowTimeIndex);
+        eventBus.subscribe("persistence", events -> requestCheckpoint());
+    }
 
     /**
      * This method is defined to create the .dat file
@@ -81,15 +239,14 @@ public class DBController {
         File myFile = new File(dir + DBName + ".dat");
         if(!myFile.exists()) {
             myFile.createNewFile();
-        }else {
-            SerializeDB.writeSerializedObject(dir + DBName + ".dat", serializedDB);
         }
+        SerializeDB.writeSerializedObject(dir + DBName + ".dat", serializedDB);
     }
 
     /**This method is defined to read data from .dat file
      * @param  DBName       The name of the database that wants to be read
-     * @return A list of stored items in the .dat file
-     * @throws IOException  If the file is not found
+     * @return A list of stored items in the .dat file, empty if the file is new or empty
+     * @throws IOException  If the file cannot be read or decoded
      */
     public SerializedDB readDB(String DBName) throws IOException {
 
@@ -99,17 +256,50 @@ public class DBController {
         if(!myFile.exists()) {
             myFile.createNewFile();
         }else {
-            serializedDB = SerializeDB.readSerializedObject(dir + DBName + ".dat");
+            SerializedDB stored = SerializeDB.readSerializedObject(dir + DBName + ".dat");
+            if (stored != null) {
+                serializedDB = stored;
+            }
         }
         return serializedDB;
     }
 
     /**
-     * method to add a Customer object to the serialized data object
+     * method to add a Customer object to the serialized data object. The username is claimed before the customer
+     * is stored, so that two sign-ups cannot both take it.
+     * @param customer
+     * @return true if the customer is added, false if the username is already taken
+     */
+    public boolean addCustomer(Customer customer) {
+        return change(() -> {
+            if (customersByUserName.putIfAbsent(customer.getUserName(), customer) != null) return false;
+            serializedDB.getCustomerRegistry().register(customer);
+            serializedDB.addCustomer(customer);
+            log(JournalRecords.ADD_CUSTOMER, JournalRecords.addCustomer(customer));
+            return true;
+        });
+    }
+
+    /**
+     * method to find a Customer object by its username
+     * @param username
+     * @return the customer, or null if there is no customer with that username
+     */
+    public Customer findCustomer(String username) {
+        return username == null ? null : customersByUserName.get(username);
+    }
+
+    /**
+     * method to change the password of a Customer, such as when a password from before passwords were hashed is
+     * hashed on login
      * @param customer
+     * @param password the new password, hashed
      */
-    public void addCustomer(Customer customer) {
-        serializedDB.addCustomer(customer);
+    public void setCustomerPassword(Customer customer, String password) {
+        change(() -> {
+            customer.setPassword(password);
+            log(JournalRecords.UPDATE_PASSWORD, JournalRecords.updatePassword(false, customer.getUserName(), password));
+        });
     }
 
     /**
@@ -120,12 +310,42 @@ public class DBController {
     }
 
     /**
-     * method to add a new Admin object to the serialized database
+     * method to add a new Admin object to the serialized database. The username is claimed before the admin is
+     * stored, so that two sign-ups cannot both take it.
      * @param username
      * @param password
+     * @return the new Admin object, or null if the username is already taken
+     */
+    public Admin addAdmin(String username, String password) {
+        Admin admin = new Admin(username, password);
+        return change(() -> {
+            if (adminsByUsername.putIfAbsent(username, admin) != null) return null;
+            serializedDB.addAdmin(admin);
+            log(JournalRecords.ADD_ADMIN, JournalRecords.addAdmin(username, password));
+            return admin;
+        });
+    }
+
+    /**
+     * method to find an Admin object by its username
+     * @param username
+     * @return the admin, or null if there is no admin with that username
+     */
+    public Admin findAdmin(String username) {
+        return username == null ? null : adminsByUsername.get(username);
+    }
+
+    /**
+     * method to change the password of an Admin, such as when a password from before passwords were hashed is
+     * hashed on login
+     * @param admin
+     * @param password the new password, hashed
      */
-    public void addAdmin(String username, String password) {
-        serializedDB.getAdmins().add(new Admin(username, password));
+    public void setAdminPassword(Admin admin, String password) {
+        change(() -> {
+            admin.setPassword(password);
+            log(JournalRecords.UPDATE_PASSWORD, JournalRecords.updatePassword(true, admin.getUsername(), password));
+        });
     }
 
     /**
@@ -155,7 +375,13 @@ public class DBController {
      */
     public void addCineplex(Cineplex cineplex){
 
-        serializedDB.addCineplexes(cineplex);
+        change(() -> {
+            synchronized (catalogLock) {
+                serializedDB.getCineplexRegistry().register(cineplex);
+                serializedDB.addCineplexes(cineplex);
+                log(JournalRecords.ADD_CINEPLEX, JournalRecords.cineplex(cineplex.getName()));
+            }
+        });
     }
 
     /**This method is defined to remove the cineplex from the temporary database
@@ -163,9 +389,20 @@ public class DBController {
      */
     public void removeCineplex(String name){
 
-        HashMap<String, Cineplex> cineplexes = serializedDB.getCineplexes();
-        cineplexes.remove(name);
-        serializedDB.setCineplexes(cineplexes);
+        change(() -> {
+            synchronized (catalogLock) {
+                Cineplex removed = serializedDB.getCineplexes().get(name);
+                if (removed != null) {
+                    synchronized (lockOf(removed)) {
+                        serializedDB.removeCineplex(name);
+                        for (ArrayList<ShowTime> day : removed.getShowTimes().values()) {
+                            for (ShowTime showTime : day) eventBus.publish(new ShowTimeRemoved(showTime));
+                        }
+                    }
+                }
+                log(JournalRecords.REMOVE_CINEPLEX, JournalRecords.cineplex(name));
+            }
+        });
     }
 
     /**This method is defined to add the cinema into the temporary database
@@ -174,13 +411,14 @@ public class DBController {
      */
     public void addCinema(Cineplex cineplex, Cinema cinema){
 
-        HashMap<String, Cineplex> cineplexes = serializedDB.getCineplexes();
-        Cineplex selected_cineplex = cineplexes.get(cineplex.getName());
-        ArrayList<Cinema> cinema_list= selected_cineplex.getCinemas();
-        cinema_list.add(cinema);
-        cineplex.setCinemas(cinema_list);
-        cineplexes.replace(cineplex.getName(), cineplex);
-        serializedDB.setCineplexes(cineplexes);
+        change(() -> {
+            synchronized (catalogLock) {
+                Cineplex selected_cineplex = serializedDB.getCineplexes().get(cineplex.getName());
+                serializedDB.getCinemaRegistry().register(cinema);
+                selected_cineplex.addCinema(cinema);
+                log(JournalRecords.ADD_CINEMA, JournalRecords.addCinema(cineplex, cinema));
+            }
+        });
     }
 
     /**This method is defined to remove the cinema from the temporary database
@@ -189,13 +427,13 @@ public class DBController {
      */
     public void removeCinema(Cineplex cineplex, Cinema cinema){
 
-        HashMap<String, Cineplex> cineplexes = serializedDB.getCineplexes();
-        Cineplex selected_cineplex = cineplexes.get(cineplex.getName());
-        ArrayList<Cinema> cinema_list= selected_cineplex.getCinemas();
-        cinema_list.remove(cinema);
-        cineplex.setCinemas(cinema_list);
-        cineplexes.replace(cineplex.getName(), cineplex);
-        serializedDB.setCineplexes(cineplexes);
+        change(() -> {
+            synchronized (catalogLock) {
+                Cineplex selected_cineplex = serializedDB.getCineplexes().get(cineplex.getName());
+                selected_cineplex.removeCinema(cinema.getId());
+                log(JournalRecords.REMOVE_CINEMA, JournalRecords.removeCinema(cineplex, cinema));
+            }
+        });
     }
 
     /**
@@ -203,7 +441,7 @@ public class DBController {
      * @param showTime
      */
     public void addShowTimes(ShowTime showTime) {
-        serializedDB.getCineplexes().get(showTime.getCineplex().getName()).getShowTimes().get(showTime.getDateOfMovie()).add(showTime);
+        addShowTimes(showTime.getCineplex(), showTime.getDateOfMovie(), showTime);
     }
 
     /**This method is defined to add the showtime into the temporary database
@@ -213,12 +451,15 @@ public class DBController {
      */
     public void addShowTimes(Cineplex cineplex, LocalDate dateOfMovie, ShowTime newShowTime){
 
-        try {
-            serializedDB.getCineplexes().get(cineplex.getName()).getShowTimes().get(dateOfMovie).add(newShowTime);
-        } catch (NullPointerException e) {
-            serializedDB.getCineplexes().get(cineplex.getName()).getShowTimes().put(dateOfMovie, new ArrayList<ShowTime>());
-            addShowTimes(cineplex, dateOfMovie, newShowTime);
-        }
+        change(() -> {
+            registerShowTime(newShowTime);
+            Cineplex listed = serializedDB.getCineplexes().get(cineplex.getName());
+            synchronized (lockOf(listed)) {
+                listed.addShowTime(dateOfMovie, newShowTime);
+                eventBus.publish(new ShowTimeAdded(newShowTime));
+                log(JournalRecords.ADD_SHOWTIME, JournalRecords.addShowTime(newShowTime));
+            }
+        });
     }
 
     /**
@@ -240,13 +481,115 @@ public class DBController {
     public void removeShowTimes(Movie movie, LocalDate dateOfMovie, LocalTime timeOfMovie, Cinema cinema,
                                 Cineplex cineplex){
 
-        ArrayList<ShowTime> showTimes = serializedDB.getCineplexes().get(cineplex.getName()).getShowTimes().get(dateOfMovie);
-        for (ShowTime showTime : showTimes) {
-            if (showTime.getMovie() == movie && showTime.getTimeOfMovie() == timeOfMovie &&
-                    showTime.getCinema() == cinema) {
-                serializedDB.getCineplexes().get(cineplex.getName()).getShowTimes().get(dateOfMovie).remove(showTime);
+        change(() -> {
+            Cineplex listed = serializedDB.getCineplexes().get(cineplex.getName());
+            synchronized (lockOf(listed)) {
+                ArrayList<ShowTime> removed = listed.removeShowTimes(dateOfMovie, showTime ->
+                        showTime.getMovie().getId() == movie.getId() && showTime.getTimeOfMovie().equals(timeOfMovie)
+                                && showTime.getCinema().getId() == cinema.getId());
+                for (ShowTime showTime : removed) eventBus.publish(new ShowTimeRemoved(showTime));
+                if (!removed.isEmpty()) {
+                    log(JournalRecords.REMOVE_SHOWTIME, JournalRecords.removeShowTime(movie, dateOfMovie, timeOfMovie, cinema, cineplex));
+                }
+            }
+        });
+    }
+
+    /**This method is defined to get the showtimes of a movie over a number of days from the index
+     * @param movie  The movie of the showtimes
+     * @param from   The first day
+     * @param days   The number of days
+     * @return the showtimes ordered by date, time, cineplex and cinema
+     */
+    public ArrayList<ShowTime> getShowTimes(Movie movie, LocalDate from, int days) {
+
+        eventBus.awaitOwnEvents(showTimeIndexSubscription);
+        return showTimeIndex.getShowTimes(movie, from, days);
+    }
+
+    /**This method is defined to find a showtime by the names of its cineplex, cinema and movie
+     * @param cineplexName  The name of the cineplex
+     * @param dateOfMovie   The date of the showtime
+     * @param timeOfMovie   The time of the showtime
+     * @param cinemaName    The name of the cinema
+     * @param movieTitle    The title of the movie
+     * @return the showtime, or null if there is no such showtime
+     */
+    public ShowTime findShowTime(String cineplexName, LocalDate dateOfMovie, LocalTime timeOfMovie, String cinemaName,
+                                 String movieTitle) {
+
+        Cineplex cineplex = serializedDB.getCineplexes().get(cineplexName);
+        if (cineplex == null || cineplex.getShowTimes().get(dateOfMovie) == null) return null;
+        for (ShowTime showTime : cineplex.getShowTimes().get(dateOfMovie)) {
+            if (showTime.getTimeOfMovie().equals(timeOfMovie) && showTime.getCinema().getName().equals(cinemaName)
+                    && showTime.getMovie().getTitle().equals(movieTitle)) {
+                return showTime;
             }
         }
+        return null;
+    }
+
+    /**This method is defined to get a movie by its ID
+     * @param id  The ID of the movie
+     * @return the movie, or null if there is no movie with that ID
+     */
+    public Movie getMovie(int id) {
+
+        return serializedDB.getMovieRegistry().get(id);
+    }
+
+    /**This method is defined to get a cineplex by its ID
+     * @param id  The ID of the cineplex
+     * @return the cineplex, or null if there is no cineplex with that ID
+     */
+    public Cineplex getCineplex(int id) {
+
+        return serializedDB.getCineplexRegistry().get(id);
+    }
+
+    /**This method is defined to get a cinema by its ID
+     * @param id  The ID of the cinema
+     * @return the cinema, or null if there is no cinema with that ID
+     */
+    public Cinema getCinema(int id) {
+
+        return serializedDB.getCinemaRegistry().get(id);
+    }
+
+    /**This method is defined to get a showtime by its ID
+     * @param id  The ID of the showtime
+     * @return the showtime, or null if there is no showtime with that ID
+     */
+    public ShowTime getShowTime(int id) {
+
+        return serializedDB.getShowTimeRegistry().get(id);
+    }
+
+    /**This method is defined to get a customer by its ID
+     * @param id  The ID of the customer
+     * @return the customer, or null if there is no customer with that ID
+     */
+    public Customer getCustomer(int id) {
+
+        return serializedDB.getCustomerRegistry().get(id);
+    }
+
+    /**This method is defined to get the showtime of a booking
+     * @param booking  The booking
+     * @return the showtime booked, or null if it is not registered
+     */
+    public ShowTime getShowTime(Booking booking) {
+
+        return getShowTime(booking.getShowTimeId());
+    }
+
+    /**This method is defined to get the customer who made a booking
+     * @param booking  The booking
+     * @return the customer, or null if it is not registered
+     */
+    public Customer getCustomer(Booking booking) {
+
+        return getCustomer(booking.getCustomerId());
     }
 
     /**This method is to return an instance of its own
@@ -255,38 +598,275 @@ public class DBController {
     public static DBController getInstance()
     {
 
-        if (dbController == null)
-            dbController = new DBController();
-
-        return dbController;
+        return Holder.INSTANCE;
     }
 
-    /**This method is defined to load all the data from the database into the system
-     * @throws IOException  If the file is not found
+    /**This method is defined to load all the data from the database into the system. A database file that cannot be
+     * read is left as it is: the system must not start on an empty database, and nothing is saved over the file.
+     * @throws IOException  If the database file cannot be read or decoded, or its journal cannot be replayed
      */
-    public void load()  {
+    public void load() throws IOException {
 
         DBController dbController = DBController.getInstance();
+        // the events of the database being replaced must not reach the loaded one
+        eventBus.awaitDrained();
+        SerializedDB serializedDBObj;
         try {
             //Retrieve all the data from database to list
-            SerializedDB serializedDBObj = dbController.readDB("SerializedDB");
+            serializedDBObj = dbController.readDB("SerializedDB");
+        } catch (IOException e) {
+            unreadable = true;
+            throw new IOException("The database cannot be read and is left as it is: " + e, e);
+        }
+        unreadable = false;
+
+        //Loads all the prices from the data into the system
+        serializedDB.setTicketPricing(serializedDBObj.getPublicHolidayDates(), serializedDBObj.getPublicHolidayCharges(), serializedDBObj.getWeekendCharges(), serializedDBObj.getBasePrice());
+        serializedDB.setCineplexes(serializedDBObj.getCineplexes());
+        serializedDB.setAdmins(serializedDBObj.getAdmins());
+        serializedDB.setBookings(serializedDBObj.getBookings());
+        serializedDB.setCustomers(serializedDBObj.getCustomers());
+        serializedDB.setMovies(serializedDBObj.getMovies());
+        serializedDB.setSalesLedger(serializedDBObj.getSalesLedger());
+        serializedDB.setRefunds(serializedDBObj.getRefunds());
+        serializedDB.setRegistries(serializedDBObj);
+        registerEntities();
+        openReviewStore(serializedDBObj.getReviewStore());
 
-            //Loads all the prices from the data into the system
-            serializedDB.setTicketPricing(serializedDBObj.getPublicHolidayDates(), serializedDBObj.getPublicHolidayCharges(), serializedDBObj.getWeekendCharges(), serializedDBObj.getBasePrice());
-            serializedDB.setCineplexes(serializedDBObj.getCineplexes());
-            serializedDB.setAdmins(serializedDBObj.getAdmins());
-            serializedDB.setBookings(serializedDBObj.getBookings());
-            serializedDB.setCustomers(serializedDBObj.getCustomers());
-            serializedDB.setMovies(serializedDBObj.getMovies());
+        try {
+            loadEnums(serializedDBObj);
+        }catch(Exception e){
+            System.out.println("[System: Error in loading enums]");
+        }
+        setEnums();
+        setAllPrices();
+        priceRestoredBookings();
+        bookingIndex.clear();
+        bookingsByShowTime.clear();
+        for (Booking booking : serializedDB.getBookings()) {
+            indexBooking(booking);
+        }
+        showTimeIndex.rebuild(serializedDB.getCineplexes());
+        rebuildLeaderboards();
+
+        //Replays the mutations made after the last checkpoint
+        try {
+            openJournal(serializedDBObj.getCheckpointLsn());
+        } catch (IOException e) {
+            // a checkpoint would drop the records that were not replayed
+            unreadable = true;
+            throw e;
+        } finally {
+            eventBus.awaitDrained();
+        }
+    }
+
+    /**This method is defined to register the listed entities of the loaded database. The snapshot already
+     * registered every entity it read, with its ID, including a database written by Java serialization, which the
+     * LegacySnapshot numbers as it converts it.
+     */
+    private void registerEntities() {
+
+        for (Movie movie : serializedDB.getMovies()) serializedDB.getMovieRegistry().register(movie);
+        for (Cineplex cineplex : serializedDB.getCineplexes().values()) {
+            serializedDB.getCineplexRegistry().register(cineplex);
+            for (Cinema cinema : cineplex.getCinemas()) serializedDB.getCinemaRegistry().register(cinema);
+            for (ArrayList<ShowTime> day : cineplex.getShowTimes().values()) {
+                for (ShowTime showTime : day) registerShowTime(showTime);
+            }
+        }
+        customersByUserName.clear();
+        for (Customer customer : serializedDB.getCustomers()) {
+            serializedDB.getCustomerRegistry().register(customer);
+            customersByUserName.putIfAbsent(customer.getUserName(), customer);
+        }
+        adminsByUsername.clear();
+        for (Admin admin : serializedDB.getAdmins()) adminsByUsername.putIfAbsent(admin.getUsername(), admin);
+    }
+
+    /**This method is defined to price the bookings read from an older database that did not keep the price paid,
+     * at the loaded prices
+     */
+    private void priceRestoredBookings() {
+
+        for (Booking booking : serializedDB.getBookings()) {
+            if (booking.getPriceCents() == Booking.UNPRICED) {
+                booking.setPriceCents(Math.round(booking.getPrice(booking.getDateOfMovie()) * 100));
+            }
+        }
+    }
+
+    /**This method is defined to register a showtime and the entities it refers to
+     * @param showTime  The showtime
+     */
+    private void registerShowTime(ShowTime showTime) {
 
+        if (showTime == null) return;
+        if (showTime.getMovie() != null) serializedDB.getMovieRegistry().register(showTime.getMovie());
+        if (showTime.getCineplex() != null) serializedDB.getCineplexRegistry().register(showTime.getCineplex());
+        if (showTime.getCinema() != null) serializedDB.getCinemaRegistry().register(showTime.getCinema());
+        serializedDB.getShowTimeRegistry().register(showTime);
+    }
+
+    /**This method is defined to open the review store read from the snapshot on its body file, and to move into it
+     * the reviews of movies read from an older database
+     * @param reviewStore  The review store read from the snapshot
+     */
+    private void openReviewStore(ReviewStore reviewStore) {
+
+        serializedDB.getReviewStore().close();
+        serializedDB.setReviewStore(reviewStore);
+        try {
+            reviewStore.open(new File("src/database/SerializedDB.reviews"));
+        } catch (IOException e) {
+            System.out.println("[System: Error in opening the reviews]");
+        }
+        for (Movie movie : serializedDB.getMovies()) {
+            for (Review review : movie.takeLegacyReviews()) {
+                reviewStore.add(movie, review);
+            }
+        }
+    }
+
+    /**This method is defined to replay the journal on top of the loaded snapshot and to open it for appending. A
+     * record that cannot be replayed ends the replay, and the journal is left as it is and not opened.
+     * @param checkpointLsn  The log sequence number covered by the loaded snapshot
+     * @throws IOException  If the journal cannot be read or a record cannot be replayed
+     */
+    private void openJournal(long checkpointLsn) throws IOException {
+
+        if (journal != null) {
+            journal.close();
+        }
+        journal = new Journal(new File("src/database/SerializedDB.journal"));
+        replaying = true;
+        try {
+            journal.open(checkpointLsn, (lsn, op, payload) -> JournalRecords.apply(this, op, payload));
+        } finally {
+            replaying = false;
+        }
+    }
+
+    /**This method is defined to append a mutation to the journal
+     * @param op       The operation code of the record
+     * @param payload  The encoded record
+     * @throws java.io.UncheckedIOException  If the record cannot be written, so the change is not durable
+     */
+    private void log(byte op, byte[] payload) {
+
+        Journal journal = this.journal;
+        if (journal == null || replaying) return;
+        journal.append(op, payload);
+    }
+
+    /**This method is defined to make a change to the database while sharing the checkpoint lock
+     * @param change  The change
+     * @return The result of the change
+     */
+    private <T> T change(Supplier<T> change) {
+
+        checkpointLock.readLock().lock();
+        try {
+            return change.get();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**This method is defined to ask for a checkpoint when the journal is full. The checkpoint is made on the
+     * checkpoint thread, as it waits for the changes being made, which may be waiting for the subscribers.
+     */
+    private void requestCheckpoint() {
+
+        if (!isJournalFull() || !checkpointPending.compareAndSet(false, true)) return;
+        checkpointer.execute(() -> {
             try {
-                loadEnums(serializedDBObj);
-            }catch(Exception e){
-                System.out.println("[System: Error in loading enums]");
+                // another checkpoint may have emptied the journal
+                if (isJournalFull()) checkpoint();
+            } finally {
+                checkpointPending.set(false);
             }
-            setAllPrices();
-        } catch(IOException e){
-            serializedDB = new SerializedDB();
+        });
+    }
+
+    /**This method is defined to check whether the journal has grown long enough to be checkpointed
+     * @return true if a checkpoint is due
+     */
+    private boolean isJournalFull() {
+
+        Journal journal = this.journal;
+        return journal != null && !replaying && journal.getRecordsSinceCheckpoint() >= CHECKPOINT_INTERVAL;
+    }
+
+    /**This method is defined to make a change to the database that has no result
+     * @param change  The change
+     */
+    private void change(Runnable change) {
+
+        change(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**This method is defined to return the lock of the stripe of a cineplex, held while its showtimes and bookings
+     * are changed
+     * @param cineplex  The cineplex, or null for the showtimes of no cineplex
+     * @return The lock
+     */
+    private Object lockOf(Cineplex cineplex) {
+
+        return cineplexLocks[cineplex == null ? 0 : cineplex.getId() & (CINEPLEX_LOCK_STRIPES - 1)];
+    }
+
+    /**This method is defined to return the lock of the stripe of the cineplex of a showtime
+     * @param showTime  The showtime, or null
+     * @return The lock
+     */
+    private Object lockOf(ShowTime showTime) {
+
+        return lockOf(showTime == null ? null : showTime.getCineplex());
+    }
+
+    /**This method is defined to write the whole database into a snapshot and to empty the journal. It waits for the
+     * changes being made to finish and for the subscribers to apply their events, and holds new changes off until it
+     * is done. No checkpoint is written once an event subscriber is stopped, so that the journal keeps the changes
+     * it missed.
+     */
+    public void checkpoint() {
+
+        if (unreadable) {
+            System.out.println("[System: The database could not be read, so no checkpoint is written over it]");
+            return;
+        }
+        checkpointLock.writeLock().lock();
+        try {
+            // the sales ledger is written with the snapshot
+            eventBus.awaitDrained();
+            if (eventBus.getFailure() != null) {
+                // the journal still holds every change, so the next start rebuilds what the stopped subscriber kept
+                System.out.println("[System: An event subscriber is stopped, so no checkpoint is written: "
+                        + eventBus.getFailure() + "]");
+                return;
+            }
+            Journal journal = this.journal;
+            if (journal != null) {
+                serializedDB.setCheckpointLsn(journal.getLastLsn());
+            }
+            // the snapshot refers to review texts by their offset, so they must be on disk first
+            serializedDB.getReviewStore().sync();
+            try {
+                updateDB(serializedDB, "SerializedDB");
+            } catch (IOException e) {
+                // the journal is only emptied once the snapshot holding its records is in place
+                System.out.println("[System: Error in writing the checkpoint, the journal is kept: " + e + "]");
+                return;
+            }
+            if (journal != null) {
+                journal.reset();
+            }
+        } finally {
+            checkpointLock.writeLock().unlock();
         }
     }
 
@@ -333,35 +913,345 @@ public class DBController {
      */
     public void save() {
 
-        DBController dbController = DBController.getInstance();
+        if (unreadable) {
+            System.out.println("[System: The database could not be read, so nothing is saved over it]");
+            return;
+        }
         try {
-            //Saves all the base/holiday/weekend pricing and holiday dates into the database
-            dbController.updateDB(serializedDB, "SerializedDB");
-        }catch(IOException e){
-            try {
-                createDB("SerializedDB");
-                dbController.updateDB(serializedDB, "SerializedDB");
-            }catch (IOException i){
-                System.out.println("[System: Error in creating database]");
+            createDB("SerializedDB");
+        }catch (IOException i){
+            System.out.println("[System: Error in creating database]");
+            return;
+        }
+        //Saves all the data into the snapshot and empties the journal
+        checkpointLock.writeLock().lock();
+        try {
+            checkpoint();
+            if (journal != null) {
+                journal.close();
+                journal = null;
             }
+        } finally {
+            checkpointLock.writeLock().unlock();
         }
     }
 
-    /**This method is defined to increment the sales each time based on the number of tickets for each booking
-     * @param booking  The booking selected to add to the sales
+    /**This method is defined to record a booking made by a customer in the booking history of the customer and in
+     * the sales. A booking is not recorded once its showtime has been removed, as its seats may have been reserved
+     * before the showtime was cancelled.
+     * @param booking  The booking made
+     * @return true if the booking is recorded, false if its showtime is no longer listed
      */
-    public void addSales(Booking booking){
+    public boolean addBooking(Booking booking){
+
+        return change(() -> {
+            ShowTime showTime = getShowTime(booking);
+            Customer customer = getCustomer(booking);
+            synchronized (lockOf(showTime)) {
+                if (!isListed(showTime)) return false;
+                customer.addBookingHistory(booking);
+                serializedDB.addBooking(booking);
+                indexBooking(booking);
+                log(JournalRecords.ADD_BOOKING, JournalRecords.addBooking(booking, showTime, customer));
+                eventBus.publish(new BookingCreated(booking));
+                return true;
+            }
+        });
+    }
+
+    /**This method is defined to check whether a showtime is listed in its cineplex
+     * @param showTime  The showtime
+     * @return true if the showtime is listed
+     */
+    public boolean isListed(ShowTime showTime) {
+
+        if (showTime == null || showTime.getCineplex() == null) return false;
+        Cineplex cineplex = serializedDB.getCineplexes().get(showTime.getCineplex().getName());
+        ArrayList<ShowTime> day = cineplex == null ? null : cineplex.getShowTimes().get(showTime.getDateOfMovie());
+        return day != null && day.contains(showTime);
+    }
+
+    /**This method is defined to find a booking by its transaction ID
+     * @param transactionNumber  The transaction ID of the booking
+     * @return the booking, or null if there is no booking with that transaction ID
+     */
+    public Booking findBooking(long transactionNumber){
+
+        return bookingIndex.get(transactionNumber);
+    }
+
+    /**This method is defined to find a booking by its transaction ID as it is printed
+     * @param transactionID  The printed transaction ID of the booking
+     * @return the booking, or null if there is no booking with that transaction ID
+     */
+    public Booking findBooking(String transactionID){
+
+        long transactionNumber = TransactionIdService.decode(transactionID == null ? null : transactionID.trim());
+        return transactionNumber < 0 ? null : bookingIndex.get(transactionNumber);
+    }
+
+    /**This method is defined to cancel a booking. Its seats are released, its tickets and revenue are taken off
+     * the sales and its price is refunded.
+     * @param booking  The booking to be cancelled
+     * @return The refund, or null if the booking is already cancelled
+     */
+    public Refund cancelBooking(Booking booking){
+
+        return cancelBooking(booking, LocalDateTime.now());
+    }
+
+    /**This method is defined to cancel a booking with a refund made at the given time
+     * @param booking     The booking to be cancelled
+     * @param refundedAt  The date and time of the refund
+     * @return The refund, or null if the booking is already cancelled
+     */
+    public Refund cancelBooking(Booking booking, LocalDateTime refundedAt){
 
-        serializedDB.addSales(booking.getMovie().getTitle(), booking.getTickets().size());
+        return change(() -> {
+            synchronized (lockOf(getShowTime(booking))) {
+                return refund(booking, refundedAt);
+            }
+        });
+    }
+
+    /**This method is defined to cancel a showtime. Every booking of the showtime is cancelled and refunded in one
+     * batch, and the showtime is removed.
+     * @param showTime  The showtime to be cancelled
+     * @return The refunds of the bookings of the showtime
+     */
+    public ArrayList<Refund> cancelShowTime(ShowTime showTime){
+
+        return change(() -> {
+            // no booking of the showtime is recorded while it is being cancelled
+            synchronized (lockOf(showTime)) {
+                ArrayList<Refund> refunds = new ArrayList<>();
+                // nobody waiting gets the seats released by the refunds
+                WaitlistService.getInstance().close(showTime);
+                ArrayList<Booking> bookings = bookingsByShowTime.get(showTime.getId());
+                if (bookings != null) {
+                    LocalDateTime refundedAt = LocalDateTime.now();
+                    for (Booking booking : bookings) {
+                        Refund refund = refund(booking, refundedAt);
+                        if (refund != null) refunds.add(refund);
+                    }
+                }
+                removeShowTimes(showTime);
+                return refunds;
+            }
+        });
+    }
+
+    /**This method is defined to get the refunds of the cancelled bookings
+     * @return The refunds, oldest first
+     */
+    public ArrayList<Refund> getRefunds(){
+
+        return serializedDB.copyRefunds();
+    }
+
+    /**This method is defined to mark a booking as cancelled, release its seats and record its refund
+     * @param booking     The booking to be cancelled
+     * @param refundedAt  The date and time of the refund
+     * @return The refund, or null if the booking is already cancelled
+     */
+    private Refund refund(Booking booking, LocalDateTime refundedAt){
+
+        if (booking.isCancelled()) return null;
+        booking.setCancelled(true);
+        SeatReservationEngine.release(getShowTime(booking), booking.getSeats());
+        Refund refund = new Refund(booking.getTransactionNumber(), booking.getPriceCents(), refundedAt);
+        serializedDB.addRefund(refund);
+        log(JournalRecords.CANCEL_BOOKING, JournalRecords.cancelBooking(booking, refundedAt));
+        eventBus.publish(new BookingCancelled(booking, refund));
+        return refund;
+    }
+
+    /**This method is defined to add the tickets and revenue of a booking to the sales ledger, or to take them off
+     * @param booking  The booking
+     * @param sign     1 to add the booking, -1 to take it off
+     */
+    private void recordSales(Booking booking, int sign){
+
+        ShowTime showTime = getShowTime(booking);
+        String cineplexName = showTime.getCineplex() == null ? null : showTime.getCineplex().getName();
+        serializedDB.addSales(showTime.getMovie().getId(), cineplexName, booking.getDateOfMovie(),
+                sign * booking.getNumOfTickets(), sign * booking.getPriceCents());
+    }
+
+    /**This method is defined to record the sales of the bookings made and cancelled, as the sales subscriber
+     * @param events  The events published
+     */
+    private void recordSales(List<DomainEvent> events){
+
+        for (DomainEvent event : events) {
+            if (event instanceof BookingCreated) {
+                recordSales(((BookingCreated) event).getBooking(), 1);
+            } else if (event instanceof BookingCancelled) {
+                recordSales(((BookingCancelled) event).getBooking(), -1);
+            }
+        }
+    }
+
+    /**This method is defined to update the leaderboards of the movies booked, cancelled and reviewed, once per movie
+     * per batch, as the leaderboard subscriber
+     * @param events  The events published
+     */
+    private void updateLeaderboards(List<DomainEvent> events){
+
+        HashSet<Integer> sold = new HashSet<>();
+        HashSet<Movie> reviewed = new HashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof BookingCreated) {
+                sold.add(getShowTime(((BookingCreated) event).getBooking()).getMovie().getId());
+            } else if (event instanceof BookingCancelled) {
+                sold.add(getShowTime(((BookingCancelled) event).getBooking()).getMovie().getId());
+            } else if (event instanceof ReviewAdded) {
+                reviewed.add(((ReviewAdded) event).getMovie());
+            }
+        }
+        SalesLedger ledger = serializedDB.getSalesLedger();
+        for (int movieId : sold) {
+            ticketLeaderboard.update(movieId, ledger.getTickets(movieId));
+            revenueLeaderboard.update(movieId, ledger.getRevenueCents(movieId));
+        }
+        for (Movie movie : reviewed) {
+            // a movie removed since its review is not put back on the leaderboard
+            synchronized (ratingLeaderboard) {
+                if (serializedDB.getMovies().contains(movie)) {
+                    ratingLeaderboard.update(movie.getId(), movie.getAverageRating());
+                }
+            }
+        }
+    }
+
+    /**This method is defined to add the showtimes added to the showtime index and to take the showtimes removed off
+     * it, as the showtime index subscriber
+     * @param events  The events published
+     */
+    private void updateShowTimeIndex(List<DomainEvent> events){
+
+        for (DomainEvent event : events) {
+            if (event instanceof ShowTimeAdded) {
+                showTimeIndex.add(((ShowTimeAdded) event).getShowTime());
+            } else if (event instanceof ShowTimeRemoved) {
+                showTimeIndex.remove(((ShowTimeRemoved) event).getShowTime());
+            }
+        }
+    }
+
+    /**This method is defined to get the bus of the domain events published by the changes to the database
+     * @return The event bus
+     */
+    public EventBus getEventBus(){
+
+        return eventBus;
+    }
+
+    /**This method is defined to wait until the subscribers have applied every event published so far, so that the
+     * sales, the leaderboards and the showtime index reflect every change made
+     */
+    public void awaitEvents(){
+
+        eventBus.awaitDrained();
+    }
+
+    /**This method is defined to add a booking to the indexes by transaction ID and by showtime. It is called under
+     * the lock of the stripe of the cineplex of the booking, which guards the list of the bookings of a showtime.
+     * @param booking  The booking
+     */
+    private void indexBooking(Booking booking){
+
+        bookingIndex.put(booking.getTransactionNumber(), booking);
+        bookingsByShowTime.computeIfAbsent(booking.getShowTimeId(), id -> new ArrayList<>()).add(booking);
     }
 
     /**
-     * Method to add a review to SerializedDB
+     * Method to add a review to SerializedDB. A review whose text cannot be written is neither journaled nor
+     * published.
      * @param movie
      * @param review
+     * @throws java.io.UncheckedIOException if the text of the review or its journal record cannot be written
      */
     public void addReview(Movie movie, Review review) {
-        serializedDB.addReview(movie, review);
+        change(() -> {
+            // the reviews of a movie are journaled in the order they are stored
+            synchronized (movie) {
+                serializedDB.addReview(movie, review);
+                log(JournalRecords.ADD_REVIEW, JournalRecords.addReview(movie, review));
+                eventBus.publish(new ReviewAdded(movie, review));
+            }
+        });
+    }
+
+    /**This method is defined to get the titles of the movies with the most tickets sold
+     * @param k  The number of movies wanted, at most LEADERBOARD_SIZE
+     * @return The titles, most tickets first
+     */
+    public ArrayList<String> getTopMoviesByTickets(int k){
+
+        eventBus.awaitOwnEvents(leaderboardSubscription);
+        return titlesOf(ticketLeaderboard.getTop(k));
+    }
+
+    /**This method is defined to get the titles of the movies with the most revenue
+     * @param k  The number of movies wanted, at most LEADERBOARD_SIZE
+     * @return The titles, most revenue first
+     */
+    public ArrayList<String> getTopMoviesByRevenue(int k){
+
+        eventBus.awaitOwnEvents(leaderboardSubscription);
+        return titlesOf(revenueLeaderboard.getTop(k));
+    }
+
+    /**This method is defined to get the current titles of movies, so that a leaderboard follows a renamed movie
+     * @param movieIds  The IDs of the movies
+     * @return The titles of the movies, in the same order
+     */
+    private ArrayList<String> titlesOf(ArrayList<Integer> movieIds){
+
+        ArrayList<String> titles = new ArrayList<>(movieIds.size());
+        for (int id : movieIds) titles.add(serializedDB.getMovieRegistry().get(id).getTitle());
+        return titles;
+    }
+
+    /**This method is defined to get the listed movies with the best average rating
+     * @param k  The number of movies wanted, at most LEADERBOARD_SIZE
+     * @return The movies, best rating first
+     */
+    public ArrayList<Movie> getTopMoviesByRating(int k){
+
+        eventBus.awaitOwnEvents(leaderboardSubscription);
+        ArrayList<Movie> movies = new ArrayList<>();
+        for (int id : ratingLeaderboard.getTop(k)) movies.add(serializedDB.getMovieRegistry().get(id));
+        return movies;
+    }
+
+    /**This method is defined to fill the leaderboards from the sales ledger and the reviews of the listed movies
+     */
+    private void rebuildLeaderboards(){
+
+        ticketLeaderboard.clear();
+        revenueLeaderboard.clear();
+        ratingLeaderboard.clear();
+        SalesLedger ledger = serializedDB.getSalesLedger();
+        for (int movieId : ledger.getTicketsByMovie().keySet()) {
+            ticketLeaderboard.update(movieId, ledger.getTickets(movieId));
+            revenueLeaderboard.update(movieId, ledger.getRevenueCents(movieId));
+        }
+        for (Movie movie : serializedDB.getMovies()) {
+            ratingLeaderboard.update(movie.getId(), movie.getAverageRating());
+        }
+    }
+
+    /**This method is defined to get a page of the reviews of a movie, newest first
+     * @param movie  The movie
+     * @param after  The cursor returned with the previous page, null for the newest reviews
+     * @param limit  The number of reviews in the page
+     * @return The page of reviews
+     */
+    public ReviewStore.Page getReviews(Movie movie, ReviewStore.Cursor after, int limit) {
+
+        return serializedDB.getReviewStore().getPage(movie, after, limit);
     }
 
     /**This method is defined to get the array of the sales
@@ -369,15 +1259,26 @@ public class DBController {
      */
     public HashMap<String, Integer> getSales(){
 
+        eventBus.awaitOwnEvents(salesSubscription);
         return serializedDB.getSales();
     }
 
+    /**This method is defined to get the sales ledger, with the tickets and revenue by movie, cineplex and date
+     * @return The sales ledger
+     */
+    public SalesLedger getSalesLedger(){
+
+        eventBus.awaitOwnEvents(salesSubscription);
+        return serializedDB.getSalesLedger();
+    }
+
     /**This method is defined to get the sales for a given movie
      * @param movieName  the movie name used to get the number of sales
      * @return: the number of sales for the specified movie
      */
     public Integer getSalesFigure(String movieName){
 
+        eventBus.awaitOwnEvents(salesSubscription);
         return serializedDB.getSalesFigure(movieName);
     }
 
@@ -386,8 +1287,33 @@ public class DBController {
      */
     public void commitTicketDetails() {
 
+        change(() -> {
+            // the charges are read under the lock they are set under, so that they are committed together
+            synchronized (TicketPriceService.class) {
+                setEnums();
+                serializedDB.setTicketPricing(getPublicHolidayDates(), getPublicHolidayCharges(), getWeekendCharges(), getBasePrice());
+                log(JournalRecords.TICKET_PRICING, JournalRecords.ticketPricing(getPublicHolidayDates(),
+                        getPublicHolidayCharges(), getWeekendCharges(), getBasePrice()));
+                eventBus.publish(new PriceChanged(getPriceMatrix()));
+            }
+        });
+    }
+
+    /**
+     * This method is defined to restore the ticket pricing from the journal. The enum prices must already be set.
+     *
+     * @param publicHolidays        The public holiday dates
+     * @param publicHolidayCharges  The extra charges during a public holiday
+     * @param weekendCharges        The extra charges during the weekends
+     * @param basePrice             The base price of a ticket
+     */
+    public void restoreTicketPricing(ArrayList<PublicHoliday> publicHolidays, double publicHolidayCharges,
+                                     double weekendCharges, double basePrice) {
+
         setEnums();
-        serializedDB.setTicketPricing(getPublicHolidayDates(), getPublicHolidayCharges(), getWeekendCharges(), getBasePrice());
+        serializedDB.setTicketPricing(publicHolidays, publicHolidayCharges, weekendCharges, basePrice);
+        setAllPrices();
+        eventBus.publish(new PriceChanged(getPriceMatrix()));
     }
 
     /**This method is defined to add movies into the temporary database when the application is running
@@ -395,7 +1321,70 @@ public class DBController {
      */
     public void addMovies(Movie movie){
 
-        serializedDB.addMovies(movie);
+        change(() -> {
+            synchronized (catalogLock) {
+                serializedDB.getMovieRegistry().register(movie);
+                serializedDB.addMovies(movie);
+                ratingLeaderboard.update(movie.getId(), movie.getAverageRating());
+                log(JournalRecords.ADD_MOVIE, JournalRecords.addMovie(movie));
+            }
+        });
+    }
+
+    /**This method is defined to record the changes made to a movie of the movie list. When the given movie is not
+     * the one in the list, its details are copied into the movie in the list.
+     * @param index The position of the movie in the movie list
+     * @param movie The movie with its updated details
+     */
+    public void updateMovie(int index, Movie movie){
+
+        change(() -> {
+            synchronized (catalogLock) {
+                Movie listed = serializedDB.getMovies().get(index);
+                if (listed != movie) {
+                    listed.setTitle(movie.getTitle());
+                    listed.setDirector(movie.getDirector());
+                    listed.setCast(movie.getCast());
+                    listed.setSynopsis(movie.getSynopsis());
+                    listed.setLanguage(movie.getLanguage());
+                    listed.setSubtitle(movie.getSubtitle());
+                    listed.setMovieStatus(movie.getMovieStatus());
+                    listed.setMovieRating(movie.getMovieRating());
+                    listed.setMovieType(movie.getMovieType());
+                }
+                log(JournalRecords.UPDATE_MOVIE, JournalRecords.updateMovie(index, listed));
+            }
+        });
+    }
+
+    /**This method is defined to remove a movie from the movie list
+     * @param index The position of the movie in the movie list
+     */
+    public void removeMovie(int index){
+
+        change(() -> {
+            synchronized (catalogLock) {
+                // the movie leaves the list and the leaderboard together, so that no review puts it back
+                synchronized (ratingLeaderboard) {
+                    ratingLeaderboard.remove(serializedDB.removeMovie(index).getId());
+                }
+                log(JournalRecords.REMOVE_MOVIE, JournalRecords.removeMovie(index));
+            }
+        });
+    }
+
+    /**This method is defined to find a movie by its title
+     * @param title The title of the movie
+     * @return the movie, or null if there is no movie with that title
+     */
+    public Movie findMovie(String title){
+
+        for (Movie movie : serializedDB.getMovies()) {
+            if (movie.getTitle().equals(title)) {
+                return movie;
+            }
+        }
+        return null;
     }
 
 }
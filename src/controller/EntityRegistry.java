@@ -0,0 +1,104 @@
+package controller;
+
+import model.Entity;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This is the registry of one type of entity by ID. IDs are compact integers handed out from 1 upwards, so the
+ * registry is an array indexed by ID and a lookup is a single array load. An ID is never handed out twice: an
+ * entity removed from the listings stays registered, since showtimes, bookings and reviews may still refer to it,
+ * and the next ID is saved with the snapshot so that the IDs of entities that were not saved are not reused.
+ *
+ * Lookups take no lock. Registrations are serialized, and the array is copied into a larger one when it is full,
+ * so a lookup always reads a complete array.
+ *
+ * @param <T> The type of the entities
+ **/
+public class EntityRegistry<T extends Entity> {
+    /**
+     * the entities, at the position of their ID; position 0 is never used
+     */
+    private volatile AtomicReferenceArray<T> entities = new AtomicReferenceArray<>(16);
+    /**
+     * ID given to the next entity registered without one
+     */
+    private int nextId = 1;
+
+    /**
+     * This method registers an entity under its ID. An entity without an ID is given the next free one; an entity
+     * read from the database keeps the ID it was saved with.
+     *
+     * @param entity The entity to be registered
+     * @return The ID of the entity
+     */
+    public synchronized int register(T entity) {
+
+        int id = entity.getId();
+        if (id <= 0) {
+            id = nextId;
+            entity.setId(id);
+        }
+        AtomicReferenceArray<T> current = entities;
+        if (id >= current.length()) {
+            AtomicReferenceArray<T> grown = new AtomicReferenceArray<>(Math.max(id + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) grown.set(i, current.get(i));
+            entities = current = grown;
+        }
+        current.set(id, entity);
+        nextId = Math.max(nextId, id + 1);
+        return id;
+    }
+
+    /**
+     * This method returns the entity with the given ID
+     *
+     * @param id The ID of the entity
+     * @return The entity, or null if there is no entity with that ID
+     */
+    public T get(int id) {
+
+        AtomicReferenceArray<T> current = entities;
+        return id > 0 && id < current.length() ? current.get(id) : null;
+    }
+
+    /**
+     * This method returns the number of IDs handed out so far
+     *
+     * @return The highest ID in use
+     */
+    public synchronized int size() {
+
+        return nextId - 1;
+    }
+
+    /**
+     * This method returns the ID given to the next entity registered without one
+     *
+     * @return The next ID
+     */
+    public synchronized int getNextId() {
+
+        return nextId;
+    }
+
+    /**
+     * This method makes sure that no ID below the given one is handed out, as it was handed out before the
+     * database was saved
+     *
+     * @param nextId The next ID saved with the database
+     */
+    public synchronized void reserve(int nextId) {
+
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    /**
+     * This method removes every entity and starts the IDs from 1 again
+     */
+    public synchronized void clear() {
+
+        entities = new AtomicReferenceArray<>(16);
+        nextId = 1;
+    }
+}
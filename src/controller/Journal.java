@@ -0,0 +1,288 @@
+package controller;
+
+import java.io.*;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * This is the append-only write-ahead journal of the database. Every mutation made through the DBController is
+ * appended here as a small record instead of rewriting the whole SerializedDB. Records are flushed to disk by a
+ * background group commit every GROUP_COMMIT_MILLIS, so a crash loses at most the last group-commit window.
+ *
+ * Each record on disk is laid out as:
+ * [int payload length][long log sequence number][byte operation][payload bytes][int CRC32 of lsn, op and payload]
+ **/
+public class Journal {
+    /**
+     * interval in milliseconds between two group commits
+     */
+    public static final long GROUP_COMMIT_MILLIS = 200;
+    /**
+     * the journal file
+     */
+    private final File file;
+    /**
+     * stream the records are appended to
+     */
+    private DataOutputStream out;
+    /**
+     * file stream underneath the buffered stream, used to force the data to disk
+     */
+    private FileOutputStream fileOut;
+    /**
+     * log sequence number of the last record appended
+     */
+    private long lastLsn;
+    /**
+     * number of records appended since the last checkpoint
+     */
+    private int recordsSinceCheckpoint;
+    /**
+     * true if there are records that are not yet forced to disk
+     */
+    private boolean dirty;
+    /**
+     * background thread that performs the group commits
+     */
+    private ScheduledExecutorService groupCommitter;
+
+    /**
+     * Interface for the consumer of the records during the replay of the journal
+     */
+    public interface RecordHandler {
+        /**
+         * This method is called once for every valid record in the journal
+         *
+         * @param lsn     The log sequence number of the record
+         * @param op      The operation code of the record
+         * @param payload The payload of the record
+         * @throws IOException If the payload cannot be decoded
+         */
+        void apply(long lsn, byte op, DataInputStream payload) throws IOException;
+    }
+
+    /**
+     * This is the constructor for the journal
+     *
+     * @param file The file the journal is kept in
+     */
+    public Journal(File file) {
+
+        this.file = file;
+    }
+
+    /**
+     * This method replays every record with a log sequence number greater than the given one, then opens the
+     * journal for appending. A torn or corrupted record at the tail (from a crash in the middle of a write) ends
+     * the replay and is cut off from the file; a record whose length goes past the end of the file is torn. A
+     * record the handler fails to apply ends the replay without changing the file: the journal is not opened, and
+     * every start fails on the same record until the journal is repaired.
+     *
+     * @param afterLsn The log sequence number covered by the last checkpoint
+     * @param handler  The consumer of the records
+     * @throws IOException If the journal file cannot be read or opened, or a record cannot be replayed
+     */
+    public synchronized void open(long afterLsn, RecordHandler handler) throws IOException {
+
+        lastLsn = afterLsn;
+        long validLength = 0;
+        long fileLength = file.length();
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                CRC32 crc = new CRC32();
+                while (true) {
+                    int length;
+                    long lsn;
+                    byte op;
+                    byte[] payload;
+                    int checksum;
+                    try {
+                        length = in.readInt();
+                        // a length torn or corrupted is not trusted with an allocation
+                        if (length < 0 || length > fileLength - validLength - (4 + 8 + 1 + 4)) break;
+                        lsn = in.readLong();
+                        op = in.readByte();
+                        payload = new byte[length];
+                        in.readFully(payload);
+                        checksum = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(longToBytes(lsn));
+                    crc.update(op);
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) break;
+
+                    if (lsn > afterLsn) {
+                        try {
+                            handler.apply(lsn, op, new DataInputStream(new ByteArrayInputStream(payload)));
+                        } catch (IOException | RuntimeException e) {
+                            throw new IOException("Journal record " + lsn + " cannot be replayed, the journal "
+                                    + file + " is left as it is: " + e, e);
+                        }
+                        recordsSinceCheckpoint++;
+                    }
+                    lastLsn = Math.max(lastLsn, lsn);
+                    validLength += 4 + 8 + 1 + length + 4;
+                }
+            }
+            if (validLength != fileLength) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(validLength);
+                }
+            }
+        }
+        openForAppend();
+        if (groupCommitter == null) {
+            groupCommitter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "journal-group-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            groupCommitter.scheduleWithFixedDelay(this::sync, GROUP_COMMIT_MILLIS, GROUP_COMMIT_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * This method appends a record to the journal. The record is buffered and becomes durable on the next group
+     * commit. A record that cannot be written closes the journal, as part of it may have been written, so that no
+     * record is appended after it until the journal is emptied by a checkpoint.
+     *
+     * @param op      The operation code of the record
+     * @param payload The encoded payload of the record
+     * @return The log sequence number assigned to the record
+     * @throws UncheckedIOException If the journal is not open or the record cannot be written
+     */
+    public synchronized long append(byte op, byte[] payload) {
+
+        if (out == null) {
+            throw new UncheckedIOException(new IOException("The journal " + file + " is not open"));
+        }
+        long lsn = ++lastLsn;
+        CRC32 crc = new CRC32();
+        crc.update(longToBytes(lsn));
+        crc.update(op);
+        crc.update(payload);
+        try {
+            out.writeInt(payload.length);
+            out.writeLong(lsn);
+            out.writeByte(op);
+            out.write(payload);
+            out.writeInt((int) crc.getValue());
+            dirty = true;
+            recordsSinceCheckpoint++;
+        } catch (IOException e) {
+            lastLsn--;
+            try {
+                out.close();
+            } catch (IOException closing) {
+                e.addSuppressed(closing);
+            }
+            out = null;
+            throw new UncheckedIOException("The change cannot be written to the journal " + file, e);
+        }
+        return lsn;
+    }
+
+    /**
+     * This method forces all buffered records to disk. It is called by the group committer and can also be called
+     * directly when durability is required immediately.
+     */
+    public synchronized void sync() {
+
+        if (!dirty || out == null) return;
+        try {
+            out.flush();
+            fileOut.getFD().sync();
+            dirty = false;
+        } catch (IOException e) {
+            System.out.println("[System: Error in syncing the journal]");
+        }
+    }
+
+    /**
+     * This method empties the journal after a checkpoint has written every record into the snapshot
+     */
+    public synchronized void reset() {
+
+        try {
+            if (out != null) out.close();
+            new FileOutputStream(file).close();
+            recordsSinceCheckpoint = 0;
+            dirty = false;
+            openForAppend();
+        } catch (IOException e) {
+            System.out.println("[System: Error in resetting the journal]");
+        }
+    }
+
+    /**
+     * This method syncs and closes the journal and stops the group committer
+     */
+    public synchronized void close() {
+
+        sync();
+        if (groupCommitter != null) {
+            groupCommitter.shutdown();
+            groupCommitter = null;
+        }
+        try {
+            if (out != null) out.close();
+        } catch (IOException e) {
+            System.out.println("[System: Error in closing the journal]");
+        }
+        out = null;
+    }
+
+    /**
+     * This method returns the log sequence number of the last record appended
+     *
+     * @return The last log sequence number
+     */
+    public synchronized long getLastLsn() {
+
+        return lastLsn;
+    }
+
+    /**
+     * This method returns the number of records appended since the last checkpoint
+     *
+     * @return The number of records since the last checkpoint
+     */
+    public synchronized int getRecordsSinceCheckpoint() {
+
+        return recordsSinceCheckpoint;
+    }
+
+    /**
+     * This method opens the journal file in append mode
+     *
+     * @throws IOException If the file cannot be opened
+     */
+    private void openForAppend() throws IOException {
+
+        fileOut = new FileOutputStream(file, true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut));
+    }
+
+    /**
+     * This method converts a long into its big-endian bytes for the checksum
+     *
+     * @param value The value to be converted
+     * @return The 8 bytes of the value
+     */
+    private static byte[] longToBytes(long value) {
+
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,579 @@
+package controller;
+
+import model.AgeGroup;
+import model.PublicHoliday;
+import model.account.Admin;
+import model.account.Customer;
+import model.cinema.Cinema;
+import model.cinema.CinemaType;
+import model.cinema.Cineplex;
+import model.cinema.Seat;
+import model.cinema.ShowTime;
+import model.movie.Movie;
+import model.movie.MovieEnums;
+import model.movie.Review;
+import model.transaction.Booking;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+
+/**
+ * This class contains the encoding of every journal record written by the DBController and the replay of those
+ * records back into the DBController when the database is loaded.
+ * Entities are referred to by their natural keys (cineplex name, cinema name, movie title, customer username) so
+ * that a record only contains the data of the change itself.
+ **/
+public class JournalRecords {
+    public static final byte ADD_CUSTOMER = 1;
+    public static final byte ADD_ADMIN = 2;
+    public static final byte ADD_MOVIE = 3;
+    public static final byte UPDATE_MOVIE = 4;
+    public static final byte REMOVE_MOVIE = 5;
+    public static final byte ADD_CINEPLEX = 6;
+    public static final byte REMOVE_CINEPLEX = 7;
+    public static final byte ADD_CINEMA = 8;
+    public static final byte REMOVE_CINEMA = 9;
+    public static final byte ADD_SHOWTIME = 10;
+    public static final byte REMOVE_SHOWTIME = 11;
+    public static final byte ADD_BOOKING = 12;
+    public static final byte ADD_REVIEW = 13;
+    public static final byte TICKET_PRICING = 14;
+    public static final byte CANCEL_BOOKING = 15;
+    public static final byte UPDATE_PASSWORD = 16;
+
+    /**
+     * Interface for the body of a record encoder
+     */
+    private interface Encoder {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * This method runs an encoder into a byte array
+     *
+     * @param encoder The encoder of the record
+     * @return The encoded payload
+     */
+    private static byte[] encode(Encoder encoder) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encoder.write(out);
+        } catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**This method encodes the creation of a customer account
+     * @param customer      The customer added
+     * @return The encoded payload
+     */
+    public static byte[] addCustomer(Customer customer) {
+
+        return encode(out -> {
+            writeString(out, customer.getUserName());
+            writeString(out, customer.getPassword());
+            writeString(out, customer.getMobileNumber());
+            writeString(out, customer.getEmailAddress());
+        });
+    }
+
+    /**This method encodes the creation of an admin account
+     * @param username      The username of the admin
+     * @param password      The password of the admin
+     * @return The encoded payload
+     */
+    public static byte[] addAdmin(String username, String password) {
+
+        return encode(out -> {
+            writeString(out, username);
+            writeString(out, password);
+        });
+    }
+
+    /**This method encodes the creation of a movie
+     * @param movie         The movie added
+     * @return The encoded payload
+     */
+    public static byte[] addMovie(Movie movie) {
+
+        return encode(out -> writeMovie(out, movie));
+    }
+
+    /**This method encodes the update of the movie at a position of the movie list
+     * @param index         The position of the movie in the movie list
+     * @param movie         The updated movie
+     * @return The encoded payload
+     */
+    public static byte[] updateMovie(int index, Movie movie) {
+
+        return encode(out -> {
+            out.writeInt(index);
+            writeMovie(out, movie);
+        });
+    }
+
+    /**This method encodes the removal of the movie at a position of the movie list
+     * @param index         The position of the movie in the movie list
+     * @return The encoded payload
+     */
+    public static byte[] removeMovie(int index) {
+
+        return encode(out -> out.writeInt(index));
+    }
+
+    /**This method encodes the creation or removal of a cineplex
+     * @param name          The name of the cineplex
+     * @return The encoded payload
+     */
+    public static byte[] cineplex(String name) {
+
+        return encode(out -> writeString(out, name));
+    }
+
+    /**This method encodes the creation of a cinema
+     * @param cineplex      The cineplex of the cinema
+     * @param cinema        The cinema added
+     * @return The encoded payload
+     */
+    public static byte[] addCinema(Cineplex cineplex, Cinema cinema) {
+
+        return encode(out -> {
+            writeString(out, cineplex.getName());
+            writeString(out, cinema.getName());
+            out.writeChar(cinema.getMaxRow());
+            out.writeInt(cinema.getMaxCol());
+            out.writeByte(cinema.getCinemaType().ordinal());
+        });
+    }
+
+    /**This method encodes the removal of a cinema
+     * @param cineplex      The cineplex of the cinema
+     * @param cinema        The cinema removed
+     * @return The encoded payload
+     */
+    public static byte[] removeCinema(Cineplex cineplex, Cinema cinema) {
+
+        return encode(out -> {
+            writeString(out, cineplex.getName());
+            writeString(out, cinema.getName());
+        });
+    }
+
+    /**This method encodes the creation of a showtime
+     * @param showTime      The showtime added
+     * @return The encoded payload
+     */
+    public static byte[] addShowTime(ShowTime showTime) {
+
+        return encode(out -> {
+            writeShowTimeKey(out, showTime.getCineplex().getName(), showTime.getDateOfMovie(),
+                    showTime.getTimeOfMovie(), showTime.getCinema().getName(), showTime.getMovie().getTitle());
+            out.writeByte(showTime.getLanguage().ordinal());
+            out.writeByte(showTime.getSubtitle().ordinal());
+            out.writeByte(showTime.getMovieType().ordinal());
+        });
+    }
+
+    /**This method encodes the removal of a showtime
+     * @param movie         The movie of the showtime
+     * @param dateOfMovie   The date of the showtime
+     * @param timeOfMovie   The time of the showtime
+     * @param cinema        The cinema of the showtime
+     * @param cineplex      The cineplex of the showtime
+     * @return The encoded payload
+     */
+    public static byte[] removeShowTime(Movie movie, LocalDate dateOfMovie, LocalTime timeOfMovie, Cinema cinema,
+                                        Cineplex cineplex) {
+
+        return encode(out -> writeShowTimeKey(out, cineplex.getName(), dateOfMovie, timeOfMovie, cinema.getName(),
+                movie.getTitle()));
+    }
+
+    /**This method encodes a booking made by a customer
+     * @param booking       The booking made
+     * @param showTime      The showtime booked
+     * @param customer      The customer who made the booking
+     * @return The encoded payload
+     */
+    public static byte[] addBooking(Booking booking, ShowTime showTime, Customer customer) {
+
+        return encode(out -> {
+            writeString(out, customer.getUserName());
+            writeShowTimeKey(out, showTime.getCineplex().getName(), showTime.getDateOfMovie(),
+                    showTime.getTimeOfMovie(), showTime.getCinema().getName(), showTime.getMovie().getTitle());
+            out.writeLong(booking.getDateOfBooking().toEpochDay());
+            out.writeInt(booking.getTimeOfBooking().toSecondOfDay());
+            Seat[] seats = booking.getSeats();
+            out.writeShort(seats.length);
+            for (Seat seat : seats) {
+                out.writeChar(seat.getRow());
+                out.writeShort(seat.getCol());
+            }
+            out.writeShort(booking.getNumOfTickets());
+            for (int i = 0; i < booking.getNumOfTickets(); i++) {
+                out.writeByte(booking.getAgeGroup(i).ordinal());
+            }
+            out.writeLong(booking.getPriceCents());
+            out.writeLong(booking.getTransactionNumber());
+        });
+    }
+
+    /**This method encodes the cancellation of a booking
+     * @param booking       The booking cancelled
+     * @param refundedAt    The date and time of the refund
+     * @return The encoded payload
+     */
+    public static byte[] cancelBooking(Booking booking, LocalDateTime refundedAt) {
+
+        return encode(out -> {
+            out.writeLong(booking.getTransactionNumber());
+            out.writeLong(refundedAt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(refundedAt.getNano());
+        });
+    }
+
+    /**This method encodes the change of the password of an account
+     * @param admin         true for an admin account, false for a customer account
+     * @param username      The username of the account
+     * @param password      The new password, hashed
+     * @return The encoded payload
+     */
+    public static byte[] updatePassword(boolean admin, String username, String password) {
+
+        return encode(out -> {
+            out.writeBoolean(admin);
+            writeString(out, username);
+            writeString(out, password);
+        });
+    }
+
+    /**This method encodes a review left for a movie
+     * @param movie         The movie reviewed
+     * @param review        The review left
+     * @return The encoded payload
+     */
+    public static byte[] addReview(Movie movie, Review review) {
+
+        return encode(out -> {
+            writeString(out, movie.getTitle());
+            out.writeLong(review.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(review.getTimestamp().getNano());
+            out.writeInt(review.getRating());
+            writeString(out, review.getReview());
+            writeString(out, review.getNameOfReviewer());
+        });
+    }
+
+    /**This method encodes the ticket pricing committed by the admin
+     * @param publicHolidays        The public holiday dates
+     * @param publicHolidayCharges  The extra charges during a public holiday
+     * @param weekendCharges        The extra charges during the weekends
+     * @param basePrice             The base price of a ticket
+     * @return The encoded payload
+     */
+    public static byte[] ticketPricing(ArrayList<PublicHoliday> publicHolidays, double publicHolidayCharges,
+                                       double weekendCharges, double basePrice) {
+
+        return encode(out -> {
+            out.writeDouble(publicHolidayCharges);
+            out.writeDouble(weekendCharges);
+            out.writeDouble(basePrice);
+            out.writeInt(publicHolidays.size());
+            for (PublicHoliday publicHoliday : publicHolidays) {
+                writeString(out, publicHoliday.getPublicHolidayName());
+                out.writeLong(publicHoliday.getPublicHolidayDate().toEpochDay());
+            }
+            for (MovieEnums.MovieType movieType : MovieEnums.MovieType.values()) {
+                out.writeDouble(movieType.getTicketPrice());
+            }
+            for (CinemaType cinemaType : CinemaType.values()) {
+                out.writeDouble(cinemaType.getTicketPrice());
+            }
+            for (AgeGroup ageGroup : AgeGroup.values()) {
+                out.writeDouble(ageGroup.getTicketPrice());
+            }
+        });
+    }
+
+    /**This method applies a record read from the journal to the DBController
+     * @param dbController  The DBController to apply the record to
+     * @param op            The operation code of the record
+     * @param in            The payload of the record
+     * @throws IOException If the payload is malformed or refers to an entity that does not exist
+     */
+    public static void apply(DBController dbController, byte op, DataInputStream in) throws IOException {
+
+        switch (op) {
+            case ADD_CUSTOMER:
+                dbController.addCustomer(new Customer(readString(in), readString(in), readString(in), readString(in)));
+                break;
+            case ADD_ADMIN:
+                dbController.addAdmin(readString(in), readString(in));
+                break;
+            case ADD_MOVIE:
+                dbController.addMovies(readMovie(in));
+                break;
+            case UPDATE_MOVIE: {
+                int index = in.readInt();
+                dbController.updateMovie(index, readMovie(in));
+                break;
+            }
+            case REMOVE_MOVIE:
+                dbController.removeMovie(in.readInt());
+                break;
+            case ADD_CINEPLEX:
+                dbController.addCineplex(new Cineplex(readString(in)));
+                break;
+            case REMOVE_CINEPLEX:
+                dbController.removeCineplex(readString(in));
+                break;
+            case ADD_CINEMA: {
+                Cineplex cineplex = requireCineplex(dbController, readString(in));
+                String name = readString(in);
+                char maxRow = in.readChar();
+                int maxCol = in.readInt();
+                CinemaType cinemaType = CinemaType.values()[in.readByte()];
+                dbController.addCinema(cineplex, new Cinema(name, maxRow, maxCol, cinemaType));
+                break;
+            }
+            case REMOVE_CINEMA: {
+                Cineplex cineplex = requireCineplex(dbController, readString(in));
+                dbController.removeCinema(cineplex, requireCinema(cineplex, readString(in)));
+                break;
+            }
+            case ADD_SHOWTIME: {
+                Cineplex cineplex = requireCineplex(dbController, readString(in));
+                LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+                Cinema cinema = requireCinema(cineplex, readString(in));
+                Movie movie = requireMovie(dbController, readString(in));
+                MovieEnums.Language language = MovieEnums.Language.values()[in.readByte()];
+                MovieEnums.Subtitle subtitle = MovieEnums.Subtitle.values()[in.readByte()];
+                MovieEnums.MovieType movieType = MovieEnums.MovieType.values()[in.readByte()];
+                dbController.addShowTimes(cineplex, date, new ShowTime(movie, date, time, cinema.copyCinemaLayout(),
+                        cineplex, cinema, language, subtitle, movieType));
+                break;
+            }
+            case REMOVE_SHOWTIME: {
+                Cineplex cineplex = requireCineplex(dbController, readString(in));
+                LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+                Cinema cinema = requireCinema(cineplex, readString(in));
+                Movie movie = requireMovie(dbController, readString(in));
+                dbController.removeShowTimes(movie, date, time, cinema, cineplex);
+                break;
+            }
+            case ADD_BOOKING: {
+                Customer customer = dbController.findCustomer(readString(in));
+                ShowTime showTime = readShowTime(dbController, in);
+                LocalDate dateOfBooking = LocalDate.ofEpochDay(in.readLong());
+                LocalTime timeOfBooking = LocalTime.ofSecondOfDay(in.readInt());
+                Seat[] seats = new Seat[in.readShort()];
+                for (int i = 0; i < seats.length; i++) {
+                    char row = in.readChar();
+                    int col = in.readShort();
+                    seats[i] = showTime.getSeatMap().getLayout().getSeat(row - 'A', col - 1);
+                    showTime.getSeatMap().book(seats[i]);
+                }
+                Booking booking = new Booking(dateOfBooking, timeOfBooking, showTime, seats, customer);
+                int numOfTickets = in.readShort();
+                for (int i = 0; i < numOfTickets; i++) {
+                    booking.makeBooking(AgeGroup.values()[in.readByte()]);
+                }
+                booking.setPriceCents(in.readLong());
+                booking.setTransactionNumber(in.readLong());
+                dbController.addBooking(booking);
+                break;
+            }
+            case ADD_REVIEW: {
+                Movie movie = requireMovie(dbController, readString(in));
+                LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                int rating = in.readInt();
+                String text = readString(in);
+                String reviewer = readString(in);
+                dbController.addReview(movie, new Review(timestamp, rating, text, reviewer, movie));
+                break;
+            }
+            case TICKET_PRICING: {
+                double publicHolidayCharges = in.readDouble();
+                double weekendCharges = in.readDouble();
+                double basePrice = in.readDouble();
+                int numOfHolidays = in.readInt();
+                ArrayList<PublicHoliday> publicHolidays = new ArrayList<>(numOfHolidays);
+                for (int i = 0; i < numOfHolidays; i++) {
+                    String name = readString(in);
+                    publicHolidays.add(new PublicHoliday(name, LocalDate.ofEpochDay(in.readLong())));
+                }
+                for (MovieEnums.MovieType movieType : MovieEnums.MovieType.values()) {
+                    movieType.setTicketPrice(in.readDouble());
+                }
+                for (CinemaType cinemaType : CinemaType.values()) {
+                    cinemaType.setTicketPrice(in.readDouble());
+                }
+                for (AgeGroup ageGroup : AgeGroup.values()) {
+                    ageGroup.setTicketPrice(in.readDouble());
+                }
+                dbController.restoreTicketPricing(publicHolidays, publicHolidayCharges, weekendCharges, basePrice);
+                break;
+            }
+            case CANCEL_BOOKING: {
+                long transactionNumber = in.readLong();
+                Booking booking = dbController.findBooking(transactionNumber);
+                if (booking == null) {
+                    throw new IOException("Unknown booking " + transactionNumber);
+                }
+                dbController.cancelBooking(booking, LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(),
+                        ZoneOffset.UTC));
+                break;
+            }
+            case UPDATE_PASSWORD: {
+                boolean admin = in.readBoolean();
+                String username = readString(in);
+                String password = readString(in);
+                if (admin) {
+                    Admin account = dbController.findAdmin(username);
+                    if (account == null) {
+                        throw new IOException("Unknown admin " + username);
+                    }
+                    dbController.setAdminPassword(account, password);
+                } else {
+                    Customer account = dbController.findCustomer(username);
+                    if (account == null) {
+                        throw new IOException("Unknown customer " + username);
+                    }
+                    dbController.setCustomerPassword(account, password);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record " + op);
+        }
+    }
+
+    /**
+     * This method writes the fields of a movie
+     */
+    private static void writeMovie(DataOutputStream out, Movie movie) throws IOException {
+
+        writeString(out, movie.getTitle());
+        writeString(out, movie.getDirector());
+        out.writeInt(movie.getCast().size());
+        for (String cast : movie.getCast()) {
+            writeString(out, cast);
+        }
+        writeString(out, movie.getSynopsis());
+        out.writeByte(movie.getLanguage().ordinal());
+        out.writeByte(movie.getSubtitle().ordinal());
+        out.writeByte(movie.getMovieStatus().ordinal());
+        out.writeByte(movie.getMovieRating().ordinal());
+        out.writeByte(movie.getMovieType().ordinal());
+    }
+
+    /**
+     * This method reads the fields of a movie
+     */
+    private static Movie readMovie(DataInputStream in) throws IOException {
+
+        String title = readString(in);
+        String director = readString(in);
+        int numOfCast = in.readInt();
+        ArrayList<String> cast = new ArrayList<>(numOfCast);
+        for (int i = 0; i < numOfCast; i++) {
+            cast.add(readString(in));
+        }
+        String synopsis = readString(in);
+        return new Movie(title, director, cast, synopsis,
+                MovieEnums.Language.values()[in.readByte()],
+                MovieEnums.Subtitle.values()[in.readByte()],
+                MovieEnums.MovieStatus.values()[in.readByte()],
+                MovieEnums.MovieRating.values()[in.readByte()],
+                MovieEnums.MovieType.values()[in.readByte()]);
+    }
+
+    /**
+     * This method writes the natural key of a showtime
+     */
+    private static void writeShowTimeKey(DataOutputStream out, String cineplex, LocalDate date, LocalTime time,
+                                         String cinema, String movie) throws IOException {
+
+        writeString(out, cineplex);
+        out.writeLong(date.toEpochDay());
+        out.writeInt(time.toSecondOfDay());
+        writeString(out, cinema);
+        writeString(out, movie);
+    }
+
+    /**
+     * This method reads the natural key of a showtime and finds the showtime
+     */
+    private static ShowTime readShowTime(DBController dbController, DataInputStream in) throws IOException {
+
+        String cineplex = readString(in);
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+        String cinema = readString(in);
+        String movie = readString(in);
+        ShowTime showTime = dbController.findShowTime(cineplex, date, time, cinema, movie);
+        if (showTime == null) throw new IOException("Unknown showtime of " + movie + " at " + cineplex);
+        return showTime;
+    }
+
+    private static Cineplex requireCineplex(DBController dbController, String name) throws IOException {
+
+        Cineplex cineplex = dbController.getCineplexes().get(name);
+        if (cineplex == null) throw new IOException("Unknown cineplex " + name);
+        return cineplex;
+    }
+
+    private static Cinema requireCinema(Cineplex cineplex, String name) throws IOException {
+
+        for (Cinema cinema : cineplex.getCinemas()) {
+            if (cinema.getName().equals(name)) return cinema;
+        }
+        throw new IOException("Unknown cinema " + name);
+    }
+
+    private static Movie requireMovie(DBController dbController, String title) throws IOException {
+
+        Movie movie = dbController.findMovie(title);
+        if (movie == null) throw new IOException("Unknown movie " + title);
+        return movie;
+    }
+
+    /**
+     * This method writes a string that may be null or longer than 64KB
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * This method reads a string written by writeString
+     */
+    static String readString(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,200 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * This is a leaderboard that keeps the top K members by score as scores change. Every member has a score, but
+ * only the top K are kept ordered, in a bounded TreeSet, so an update costs O(log K) and reading the top is O(K).
+ * A member that rises or joins is compared with the lowest of the top only. The top is only rebuilt from all the
+ * scores when one of its members drops below the lowest of the top, because the member that should take its place
+ * is not known.
+ *
+ * @param <K> The type of the members
+ **/
+public class Leaderboard<K> {
+    /**
+     * number of members kept in the top
+     */
+    private final int capacity;
+    /**
+     * every member with its score
+     */
+    private final HashMap<K, Node<K>> nodes = new HashMap<>();
+    /**
+     * the top members, highest score first, members with the same score in the order they joined
+     */
+    private final TreeSet<Node<K>> top = new TreeSet<>(
+            Comparator.<Node<K>>comparingDouble(node -> -node.score).thenComparingLong(node -> node.seq));
+    /**
+     * order given to the next member that joins
+     */
+    private long nextSeq = 0;
+
+    /**
+     * This is a member of the leaderboard with its score
+     *
+     * @param <K> The type of the members
+     */
+    private static final class Node<K> {
+        /**
+         * the member
+         */
+        private final K key;
+        /**
+         * order in which the member joined, to break ties
+         */
+        private final long seq;
+        /**
+         * score of the member, only changed while the node is out of the top
+         */
+        private double score;
+        /**
+         * true if the node is in the top
+         */
+        private boolean inTop;
+
+        /**
+         * This is the constructor for the node
+         *
+         * @param key The member
+         * @param seq The order in which the member joined
+         */
+        private Node(K key, long seq) {
+
+            this.key = key;
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * This is the constructor for the leaderboard
+     *
+     * @param capacity The number of members kept in the top
+     */
+    public Leaderboard(int capacity) {
+
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    /**
+     * This method sets the score of a member, adding the member if it is new
+     *
+     * @param key   The member
+     * @param score The new score of the member
+     */
+    public synchronized void update(K key, double score) {
+
+        Node<K> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key, nextSeq++);
+            nodes.put(key, node);
+        } else if (node.inTop) {
+            top.remove(node);
+            node.inTop = false;
+            boolean dropped = score < node.score;
+            node.score = score;
+            // every member out of the top scores no more than the lowest of the top, so a member that drops but
+            // still beats the lowest keeps its place without a rebuild
+            if (dropped && nodes.size() > capacity
+                    && (top.isEmpty() || top.comparator().compare(node, top.last()) > 0)) {
+                rebuild();
+                return;
+            }
+            insert(node);
+            return;
+        }
+        node.score = score;
+        offer(node);
+    }
+
+    /**
+     * This method removes a member
+     *
+     * @param key The member
+     */
+    public synchronized void remove(K key) {
+
+        Node<K> node = nodes.remove(key);
+        if (node != null && node.inTop) {
+            top.remove(node);
+            if (nodes.size() >= capacity) rebuild();
+        }
+    }
+
+    /**
+     * This method removes every member
+     */
+    public synchronized void clear() {
+
+        nodes.clear();
+        top.clear();
+    }
+
+    /**
+     * This method returns the score of a member
+     *
+     * @param key The member
+     * @return The score, or 0 if the member is not in the leaderboard
+     */
+    public synchronized double getScore(K key) {
+
+        Node<K> node = nodes.get(key);
+        return node == null ? 0 : node.score;
+    }
+
+    /**
+     * This method returns the top members
+     *
+     * @param k The number of members wanted, at most the capacity of the leaderboard
+     * @return The top members, highest score first
+     */
+    public synchronized ArrayList<K> getTop(int k) {
+
+        ArrayList<K> result = new ArrayList<>(Math.min(k, top.size()));
+        for (Node<K> node : top) {
+            if (result.size() == k) break;
+            result.add(node.key);
+        }
+        return result;
+    }
+
+    /**
+     * This method puts a node that is out of the top into the top if it beats the lowest member of the top
+     *
+     * @param node The node
+     */
+    private void offer(Node<K> node) {
+
+        if (top.size() < capacity) {
+            insert(node);
+        } else if (top.comparator().compare(node, top.last()) < 0) {
+            top.pollLast().inTop = false;
+            insert(node);
+        }
+    }
+
+    /**
+     * This method inserts a node into the top
+     *
+     * @param node The node
+     */
+    private void insert(Node<K> node) {
+
+        top.add(node);
+        node.inTop = true;
+    }
+
+    /**
+     * This method builds the top again from every member
+     */
+    private void rebuild() {
+
+        for (Node<K> node : top) node.inTop = false;
+        top.clear();
+        for (Node<K> node : nodes.values()) offer(node);
+    }
+}
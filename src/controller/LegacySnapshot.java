@@ -0,0 +1,385 @@
+package controller;
+
+import model.AgeGroup;
+import model.PublicHoliday;
+import model.account.Admin;
+import model.account.Customer;
+import model.cinema.Cinema;
+import model.cinema.CinemaType;
+import model.cinema.Cineplex;
+import model.cinema.Seat;
+import model.cinema.SeatLayout;
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+import model.movie.Movie;
+import model.movie.Review;
+import model.transaction.Booking;
+import service.TransactionIdService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class reads a database written by Java serialization, before the BinaryCodec, and converts it into the current
+ * SerializedDB. The classes of the model have changed shape since, so the objects of the file are read into the
+ * classes of controller.legacy, which keep the old fields and serial versions, and then rebuilt with the current
+ * classes: the seats of each showtime become its seat map, the entities are numbered by their position as the
+ * BinaryCodec does for snapshots without IDs, and the bookings keep the price paid.
+ */
+class LegacySnapshot {
+    /**
+     * the classes of controller.legacy by the name of the class they were written as
+     */
+    private static final Map<String, Class<?>> LEGACY_CLASSES = new HashMap<>();
+
+    static {
+        LEGACY_CLASSES.put("controller.SerializedDB", controller.legacy.SerializedDB.class);
+        LEGACY_CLASSES.put("model.account.Admin", controller.legacy.Admin.class);
+        LEGACY_CLASSES.put("model.account.Customer", controller.legacy.Customer.class);
+        LEGACY_CLASSES.put("model.cinema.Cinema", controller.legacy.Cinema.class);
+        LEGACY_CLASSES.put("model.cinema.Cineplex", controller.legacy.Cineplex.class);
+        LEGACY_CLASSES.put("model.cinema.Seat", controller.legacy.Seat.class);
+        LEGACY_CLASSES.put("[Lmodel.cinema.Seat;", controller.legacy.Seat[].class);
+        LEGACY_CLASSES.put("model.cinema.ShowTime", controller.legacy.ShowTime.class);
+        LEGACY_CLASSES.put("model.movie.Movie", controller.legacy.Movie.class);
+        LEGACY_CLASSES.put("model.movie.Review", controller.legacy.Review.class);
+        LEGACY_CLASSES.put("model.transaction.Booking", controller.legacy.Booking.class);
+        LEGACY_CLASSES.put("model.transaction.Ticket", controller.legacy.Ticket.class);
+    }
+
+    /**
+     * The stream reading the objects of the old classes into the classes of controller.legacy
+     */
+    private static class LegacyObjectInputStream extends ObjectInputStream {
+
+        /**
+         * This is the constructor for the stream
+         * @param in the stream the database is read from
+         * @throws IOException if the stream header cannot be read
+         */
+        private LegacyObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        /**
+         * This method finds the class an object of the file is read into
+         * @param desc the class the object was written as
+         * @return the class of controller.legacy of the same shape, or the class itself if it has not changed
+         */
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+
+            Class<?> legacy = LEGACY_CLASSES.get(desc.getName());
+            return legacy != null ? legacy : super.resolveClass(desc);
+        }
+    }
+
+    /**
+     * the current movies by the movie they were read from
+     */
+    private final IdentityHashMap<controller.legacy.Movie, Movie> movies = new IdentityHashMap<>();
+    /**
+     * the current cineplexes by the cineplex they were read from
+     */
+    private final IdentityHashMap<controller.legacy.Cineplex, Cineplex> cineplexes = new IdentityHashMap<>();
+    /**
+     * the current cinemas by the cinema they were read from
+     */
+    private final IdentityHashMap<controller.legacy.Cinema, Cinema> cinemas = new IdentityHashMap<>();
+    /**
+     * the current showtimes by the showtime they were read from
+     */
+    private final IdentityHashMap<controller.legacy.ShowTime, ShowTime> showTimes = new IdentityHashMap<>();
+    /**
+     * the current customers by the customer they were read from
+     */
+    private final IdentityHashMap<controller.legacy.Customer, Customer> customers = new IdentityHashMap<>();
+    /**
+     * the current bookings by the booking they were read from
+     */
+    private final IdentityHashMap<controller.legacy.Booking, Booking> bookings = new IdentityHashMap<>();
+    /**
+     * the database being built
+     */
+    private final SerializedDB db = new SerializedDB();
+    /**
+     * number of bookings given a transaction ID from the time they were made
+     */
+    private int legacyBookings;
+
+    /**
+     * This is the constructor for the conversion of one database
+     */
+    private LegacySnapshot() {
+    }
+
+    /**This method reads a database written by Java serialization and converts it
+     * @param in            The stream positioned at the start of the serialized database
+     * @return The database converted to the current classes
+     * @throws IOException  If the file is malformed or holds objects this version cannot convert
+     */
+    static SerializedDB read(InputStream in) throws IOException {
+
+        Object stored;
+        try {
+            stored = new LegacyObjectInputStream(in).readObject();
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException("Legacy snapshot refers to unknown class " + e.getMessage());
+        }
+        if (!(stored instanceof controller.legacy.SerializedDB)) {
+            throw new InvalidObjectException("Legacy snapshot does not hold a database");
+        }
+        try {
+            return new LegacySnapshot().convert((controller.legacy.SerializedDB) stored);
+        } catch (RuntimeException e) {
+            throw new InvalidObjectException("Legacy snapshot cannot be converted: " + e);
+        }
+    }
+
+    /**This method converts the database read from the file
+     * @param legacy        The database as it was written
+     * @return The database with the current classes
+     * @throws IOException  If an object of the database cannot be converted
+     */
+    private SerializedDB convert(controller.legacy.SerializedDB legacy) throws IOException {
+
+        db.setTicketPricing(legacy.publicHolidayDates == null ? new ArrayList<PublicHoliday>() : legacy.publicHolidayDates,
+                legacy.publicHolidayCharges, legacy.weekendCharges, legacy.basePrice);
+        copyPrices(legacy.movieType, db.getMovieType());
+        copyPrices(legacy.cinemaType, db.getCinemaType());
+        copyPrices(legacy.ageGroup, db.getAgeGroup());
+
+        ArrayList<Movie> listedMovies = new ArrayList<>();
+        for (controller.legacy.Movie movie : nonNull(legacy.movies)) listedMovies.add(movie(movie));
+        db.setMovies(listedMovies);
+
+        HashMap<String, Cineplex> listedCineplexes = new HashMap<>();
+        if (legacy.cineplexes != null) {
+            for (Map.Entry<String, controller.legacy.Cineplex> cineplex : legacy.cineplexes.entrySet()) {
+                listedCineplexes.put(cineplex.getKey(), cineplex(cineplex.getValue()));
+            }
+        }
+        db.setCineplexes(listedCineplexes);
+
+        for (controller.legacy.Admin admin : nonNull(legacy.admins)) {
+            db.getAdmins().add(new Admin(admin.username, admin.password));
+        }
+        for (controller.legacy.Customer customer : nonNull(legacy.customers)) db.addCustomer(customer(customer));
+        for (controller.legacy.Booking booking : nonNull(legacy.bookings)) db.getBookings().add(booking(booking));
+        db.setSales(legacy.sales);
+        return db;
+    }
+
+    /**This method converts a movie, once, with its reviews and their rating aggregates
+     * @param legacy  The movie as it was written
+     * @return The current movie
+     */
+    private Movie movie(controller.legacy.Movie legacy) {
+
+        if (legacy == null) return null;
+        Movie movie = movies.get(legacy);
+        if (movie != null) return movie;
+        movie = new Movie(legacy.title, legacy.director, legacy.cast == null ? new ArrayList<>() : legacy.cast,
+                legacy.synopsis);
+        if (legacy.language != null) movie.setLanguage(legacy.language);
+        if (legacy.subtitle != null) movie.setSubtitle(legacy.subtitle);
+        if (legacy.movieStatus != null) movie.setMovieStatus(legacy.movieStatus);
+        if (legacy.movieRating != null) movie.setMovieRating(legacy.movieRating);
+        if (legacy.movieType != null) movie.setMovieType(legacy.movieType);
+        movie.setId(movies.size() + 1);
+        movies.put(legacy, movie);
+        db.getMovieRegistry().register(movie);
+
+        // the texts are moved into the review store on load, as for the older binary snapshots
+        int[] histogram = new int[Movie.MAX_RATING];
+        for (controller.legacy.Review review : nonNull(legacy.reviews)) {
+            movie.getLegacyReviews().add(new Review(review.timestamp, review.rating, review.review,
+                    review.nameOfReviewer, movie));
+            if (review.rating != null && review.rating >= 1 && review.rating <= Movie.MAX_RATING) {
+                histogram[review.rating - 1]++;
+            }
+        }
+        movie.setRatingHistogram(histogram);
+        return movie;
+    }
+
+    /**This method converts a cineplex, once, with its cinemas and showtimes
+     * @param legacy  The cineplex as it was written
+     * @return The current cineplex
+     * @throws IOException  If a showtime of the cineplex cannot be converted
+     */
+    private Cineplex cineplex(controller.legacy.Cineplex legacy) throws IOException {
+
+        if (legacy == null) return null;
+        Cineplex cineplex = cineplexes.get(legacy);
+        if (cineplex != null) return cineplex;
+        cineplex = new Cineplex(legacy.name);
+        cineplex.setId(cineplexes.size() + 1);
+        // the showtimes refer back to their cineplex
+        cineplexes.put(legacy, cineplex);
+        db.getCineplexRegistry().register(cineplex);
+        for (controller.legacy.Cinema cinema : nonNull(legacy.cinemas)) cineplex.getCinemas().add(cinema(cinema));
+        if (legacy.showTimes != null) {
+            for (Map.Entry<LocalDate, ArrayList<controller.legacy.ShowTime>> day : legacy.showTimes.entrySet()) {
+                ArrayList<ShowTime> showTimesOfDay = new ArrayList<>(day.getValue().size());
+                for (controller.legacy.ShowTime showTime : day.getValue()) showTimesOfDay.add(showTime(showTime));
+                cineplex.getShowTimes().put(day.getKey(), showTimesOfDay);
+            }
+        }
+        return cineplex;
+    }
+
+    /**This method converts a cinema, once. Its seats are not kept, the layout is made from its size.
+     * @param legacy  The cinema as it was written
+     * @return The current cinema
+     */
+    private Cinema cinema(controller.legacy.Cinema legacy) {
+
+        if (legacy == null) return null;
+        Cinema cinema = cinemas.get(legacy);
+        if (cinema != null) return cinema;
+        cinema = new Cinema(legacy.name, legacy.maxRow, legacy.maxCol,
+                legacy.cinemaType == null ? CinemaType.STANDARD : legacy.cinemaType);
+        cinema.setId(cinemas.size() + 1);
+        cinemas.put(legacy, cinema);
+        db.getCinemaRegistry().register(cinema);
+        return cinema;
+    }
+
+    /**This method converts a showtime, once, turning the occupancy of its seats into its seat map
+     * @param legacy  The showtime as it was written
+     * @return The current showtime
+     * @throws IOException  If an occupied seat is outside the cinema of the showtime
+     */
+    private ShowTime showTime(controller.legacy.ShowTime legacy) throws IOException {
+
+        if (legacy == null) return null;
+        ShowTime showTime = showTimes.get(legacy);
+        if (showTime != null) return showTime;
+        Cinema cinema = cinema(legacy.cinema);
+        if (cinema == null) throw new InvalidObjectException("Legacy showtime without a cinema");
+        SeatMap seatMap = cinema.copyCinemaLayout();
+        if (legacy.seatLayout != null) {
+            for (controller.legacy.Seat[] row : legacy.seatLayout.values()) {
+                for (controller.legacy.Seat seat : row) {
+                    if (seat != null && seat.isOccupied) seatMap.book(seatOf(seatMap.getLayout(), seat));
+                }
+            }
+        }
+        showTime = new ShowTime(movie(legacy.movie), legacy.dateOfMovie, legacy.timeOfMovie, seatMap, null, cinema,
+                legacy.language, legacy.subtitle, legacy.movieType);
+        showTime.setId(showTimes.size() + 1);
+        showTimes.put(legacy, showTime);
+        db.getShowTimeRegistry().register(showTime);
+        showTime.setCineplex(cineplex(legacy.cineplex));
+        return showTime;
+    }
+
+    /**This method converts a customer, once, with its booking history
+     * @param legacy  The customer as it was written
+     * @return The current customer
+     * @throws IOException  If a booking of the customer cannot be converted
+     */
+    private Customer customer(controller.legacy.Customer legacy) throws IOException {
+
+        if (legacy == null) return null;
+        Customer customer = customers.get(legacy);
+        if (customer != null) return customer;
+        customer = new Customer(legacy.userName, legacy.password, legacy.mobileNumber, legacy.emailAddress);
+        customer.setId(customers.size() + 1);
+        // the bookings refer back to their customer
+        customers.put(legacy, customer);
+        db.getCustomerRegistry().register(customer);
+        for (controller.legacy.Booking booking : nonNull(legacy.bookingHistory)) {
+            customer.addBookingHistory(booking(booking));
+        }
+        return customer;
+    }
+
+    /**This method converts a booking, once. The booking keeps the price that was paid; a booking whose price was
+     * never worked out is priced again once the prices are loaded.
+     * @param legacy  The booking as it was written
+     * @return The current booking
+     * @throws IOException  If the booking has no showtime or a seat outside its cinema
+     */
+    private Booking booking(controller.legacy.Booking legacy) throws IOException {
+
+        Booking booking = bookings.get(legacy);
+        if (booking != null) return booking;
+        Customer customer = customer(legacy.customer);
+        // the booking is converted with the booking history of its customer
+        booking = bookings.get(legacy);
+        if (booking != null) return booking;
+        ShowTime showTime = showTime(legacy.showTime);
+        if (showTime == null || legacy.dateOfBooking == null || legacy.timeOfBooking == null) {
+            throw new InvalidObjectException("Legacy booking " + legacy.transactionID + " without a showtime or time");
+        }
+        controller.legacy.Seat[] legacySeats = legacy.seats == null ? new controller.legacy.Seat[0] : legacy.seats;
+        Seat[] seats = new Seat[legacySeats.length];
+        for (int i = 0; i < seats.length; i++) seats[i] = seatOf(showTime.getSeatMap().getLayout(), legacySeats[i]);
+        booking = new Booking(legacy.dateOfBooking, legacy.timeOfBooking, showTime, seats, customer);
+        booking.setTransactionNumber(TransactionIdService.fromTimestamp(
+                LocalDateTime.of(legacy.dateOfBooking, legacy.timeOfBooking).toEpochSecond(ZoneOffset.UTC) * 1000,
+                legacyBookings++));
+        bookings.put(legacy, booking);
+
+        List<controller.legacy.Ticket> tickets = nonNull(legacy.tickets);
+        AgeGroup[] ageGroups = new AgeGroup[tickets.size()];
+        for (int i = 0; i < ageGroups.length; i++) {
+            AgeGroup ageGroup = tickets.get(i) == null ? null : tickets.get(i).ageGroup;
+            ageGroups[i] = ageGroup == null ? AgeGroup.STANDARD : ageGroup;
+        }
+        booking.restoreTickets(ageGroups, legacy.price > 0 || ageGroups.length == 0
+                ? Math.round(legacy.price * 100) : Booking.UNPRICED);
+        return booking;
+    }
+
+    /**This method finds the seat of a layout a seat of the file stands for
+     * @param layout  The layout of the showtime
+     * @param legacy  The seat as it was written
+     * @return The seat of the layout
+     * @throws IOException  If the seat is outside the layout
+     */
+    private static Seat seatOf(SeatLayout layout, controller.legacy.Seat legacy) throws IOException {
+
+        int row = legacy == null ? -1 : legacy.row - 'A';
+        int col = legacy == null ? -1 : legacy.col - 1;
+        if (row < 0 || row >= layout.getRows() || col < 0 || col >= layout.getCols()) {
+            throw new InvalidObjectException("Legacy seat " + (legacy == null ? null : "" + legacy.row + legacy.col)
+                    + " is outside its cinema");
+        }
+        return layout.getSeat(row, col);
+    }
+
+    /**This method copies the prices of the file into a price list of the database
+     * @param prices  The prices as they were written, or null
+     * @param to      The price list of the database
+     */
+    private static void copyPrices(List<Double> prices, List<Double> to) {
+
+        if (prices == null) return;
+        to.clear();
+        to.addAll(prices);
+    }
+
+    /**This method returns a list of the file, or an empty list for a list that was not written
+     * @param list  The list, or null
+     * @return The list
+     */
+    private static <T> List<T> nonNull(List<T> list) {
+
+        return list == null ? new ArrayList<>() : list;
+    }
+}
@@ -0,0 +1,422 @@
+package controller;
+
+import model.movie.Movie;
+import model.movie.Review;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the store of the reviews, kept apart from the movies. For every movie it holds the headers of its
+ * reviews (time, rating and reviewer) ordered by time; the text of a review is appended to a separate body file
+ * and only read back when a page of reviews is asked for, so loading the catalogue never loads review text.
+ *
+ * Pages are read newest first with a Cursor that marks where the previous page ended, so reviews added while a
+ * customer is paging do not shift the pages already read. The headers are saved in the snapshot with their movie;
+ * the body file must be synced before a snapshot that refers to it is written.
+ **/
+public class ReviewStore {
+    /**
+     * number of reviews in a page when no other size is asked for
+     */
+    public static final int PAGE_SIZE = 20;
+    /**
+     * number of review bodies kept in memory after being read
+     */
+    private static final int BODY_CACHE_SIZE = 256;
+    /**
+     * headers of the reviews of every movie by movie ID, oldest first
+     */
+    private final HashMap<Integer, ArrayList<Header>> byMovie = new HashMap<>();
+    /**
+     * file the review bodies are appended to
+     */
+    private RandomAccessFile bodies;
+    /**
+     * order given to the next review, to keep apart reviews made at the same time
+     */
+    private long nextSeq = 0;
+    /**
+     * most recently read review bodies by their offset in the body file
+     */
+    private final LinkedHashMap<Long, String> bodyCache = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > BODY_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * This is the header of a review, everything but its text
+     */
+    public static final class Header {
+        /**
+         * time the review was made
+         */
+        private final LocalDateTime timestamp;
+        /**
+         * rating given by the review
+         */
+        private final int rating;
+        /**
+         * name of the reviewer
+         */
+        private final String nameOfReviewer;
+        /**
+         * offset of the text in the body file, -1 if the review has no text
+         */
+        private final long bodyOffset;
+        /**
+         * order in which the review was added
+         */
+        private final long seq;
+
+        /**
+         * This is the constructor for the header
+         *
+         * @param timestamp      The time the review was made
+         * @param rating         The rating given by the review
+         * @param nameOfReviewer The name of the reviewer
+         * @param bodyOffset     The offset of the text in the body file, -1 if the review has no text
+         * @param seq            The order in which the review was added
+         */
+        private Header(LocalDateTime timestamp, int rating, String nameOfReviewer, long bodyOffset, long seq) {
+
+            this.timestamp = timestamp;
+            this.rating = rating;
+            this.nameOfReviewer = nameOfReviewer;
+            this.bodyOffset = bodyOffset;
+            this.seq = seq;
+        }
+
+        /**This method will return the time of the review
+         * @return The time the review was made
+         */
+        public LocalDateTime getTimestamp() {
+
+            return timestamp;
+        }
+
+        /**This method will return the rating of the review
+         * @return The rating given by the review
+         */
+        public int getRating() {
+
+            return rating;
+        }
+
+        /**This method will return the reviewer
+         * @return The name of the reviewer
+         */
+        public String getNameOfReviewer() {
+
+            return nameOfReviewer;
+        }
+
+        /**This method will return where the text of the review is
+         * @return The offset of the text in the body file, -1 if the review has no text
+         */
+        public long getBodyOffset() {
+
+            return bodyOffset;
+        }
+
+        /**This method will return if the header comes before another, by time and then by order of adding
+         * @param other The other header
+         * @return true if this header is older
+         */
+        private boolean isBefore(Header other) {
+
+            int result = timestamp.compareTo(other.timestamp);
+            return result < 0 || result == 0 && seq < other.seq;
+        }
+    }
+
+    /**
+     * This is the position in the reviews of a movie where a page ended
+     */
+    public static final class Cursor {
+        /**
+         * the oldest review of the page
+         */
+        private final Header last;
+
+        /**
+         * This is the constructor for the cursor
+         *
+         * @param last The oldest review of the page
+         */
+        private Cursor(Header last) {
+
+            this.last = last;
+        }
+    }
+
+    /**
+     * This is a page of reviews, newest first
+     */
+    public static final class Page {
+        /**
+         * reviews of the page
+         */
+        private final ArrayList<Review> reviews;
+        /**
+         * cursor of the next page, null if this is the last page
+         */
+        private final Cursor next;
+
+        /**
+         * This is the constructor for the page
+         *
+         * @param reviews The reviews of the page
+         * @param next    The cursor of the next page, null if this is the last page
+         */
+        private Page(ArrayList<Review> reviews, Cursor next) {
+
+            this.reviews = reviews;
+            this.next = next;
+        }
+
+        /**This method will return the reviews of the page
+         * @return The reviews, newest first
+         */
+        public ArrayList<Review> getReviews() {
+
+            return reviews;
+        }
+
+        /**This method will return the cursor of the next page
+         * @return The cursor, null if this is the last page
+         */
+        public Cursor getNext() {
+
+            return next;
+        }
+    }
+
+    /**
+     * This method opens the body file the review texts are appended to
+     *
+     * @param file The body file
+     * @throws IOException If the file cannot be opened
+     */
+    public synchronized void open(File file) throws IOException {
+
+        close();
+        bodies = new RandomAccessFile(file, "rw");
+    }
+
+    /**
+     * This method adds a review of a movie, appending its text to the body file. A review whose text cannot be
+     * written is not added.
+     *
+     * @param movie  The movie reviewed
+     * @param review The review
+     * @throws UncheckedIOException If the text cannot be written to the body file
+     */
+    public synchronized void add(Movie movie, Review review) {
+
+        long offset = -1;
+        if (review.getReview() != null) {
+            try {
+                offset = append(review.getReview());
+            } catch (IOException e) {
+                throw new UncheckedIOException("The review cannot be written", e);
+            }
+            bodyCache.put(offset, review.getReview());
+        }
+        insert(movie, new Header(review.getTimestamp(), review.getRating(), review.getNameOfReviewer(), offset,
+                nextSeq++));
+    }
+
+    /**
+     * This method restores the header of a review whose text is already in the body file, used when the store is
+     * read from a snapshot
+     *
+     * @param movie          The movie reviewed
+     * @param timestamp      The time the review was made
+     * @param rating         The rating given by the review
+     * @param nameOfReviewer The name of the reviewer
+     * @param bodyOffset     The offset of the text in the body file, -1 if the review has no text
+     */
+    public synchronized void restore(Movie movie, LocalDateTime timestamp, int rating, String nameOfReviewer,
+                                     long bodyOffset) {
+
+        insert(movie, new Header(timestamp, rating, nameOfReviewer, bodyOffset, nextSeq++));
+    }
+
+    /**
+     * This method returns the headers of the reviews of a movie, used to save them in the snapshot
+     *
+     * @param movie The movie
+     * @return A copy of the headers, oldest first
+     */
+    public synchronized ArrayList<Header> getHeaders(Movie movie) {
+
+        ArrayList<Header> headers = byMovie.get(movie.getId());
+        return headers == null ? new ArrayList<>() : new ArrayList<>(headers);
+    }
+
+    /**
+     * This method returns the number of reviews of a movie
+     *
+     * @param movie The movie
+     * @return The number of reviews
+     */
+    public synchronized int count(Movie movie) {
+
+        ArrayList<Header> headers = byMovie.get(movie.getId());
+        return headers == null ? 0 : headers.size();
+    }
+
+    /**
+     * This method returns a page of the reviews of a movie, newest first. Only the texts of the reviews of the
+     * page are read.
+     *
+     * @param movie The movie
+     * @param after The cursor returned with the previous page, null for the newest reviews
+     * @param limit The number of reviews in the page
+     * @return The page
+     */
+    public synchronized Page getPage(Movie movie, Cursor after, int limit) {
+
+        ArrayList<Review> reviews = new ArrayList<>();
+        ArrayList<Header> headers = byMovie.get(movie.getId());
+        if (headers == null || limit <= 0) return new Page(reviews, null);
+
+        // index of the newest review older than the cursor
+        int from = headers.size() - 1;
+        if (after != null) {
+            int low = 0, high = headers.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (headers.get(mid).isBefore(after.last)) low = mid + 1;
+                else high = mid;
+            }
+            from = low - 1;
+        }
+        int to = Math.max(-1, from - limit);
+        for (int i = from; i > to; i--) {
+            Header header = headers.get(i);
+            reviews.add(new Review(header.timestamp, header.rating, readBody(header.bodyOffset),
+                    header.nameOfReviewer, movie));
+        }
+        Cursor next = to >= 0 ? new Cursor(headers.get(to + 1)) : null;
+        return new Page(reviews, next);
+    }
+
+    /**
+     * This method removes every review of a movie from the store. Their texts stay in the body file.
+     *
+     * @param movie The movie
+     */
+    public synchronized void removeMovie(Movie movie) {
+
+        byMovie.remove(movie.getId());
+    }
+
+    /**
+     * This method forces the review texts to disk
+     */
+    public synchronized void sync() {
+
+        if (bodies == null) return;
+        try {
+            bodies.getFD().sync();
+        } catch (IOException e) {
+            System.out.println("[System: Error in syncing the reviews]");
+        }
+    }
+
+    /**
+     * This method syncs and closes the body file
+     */
+    public synchronized void close() {
+
+        if (bodies == null) return;
+        sync();
+        try {
+            bodies.close();
+        } catch (IOException e) {
+            System.out.println("[System: Error in closing the reviews]");
+        }
+        bodies = null;
+    }
+
+    /**
+     * This method inserts a header in time order; reviews normally arrive in time order, so it is appended
+     *
+     * @param movie  The movie reviewed
+     * @param header The header
+     */
+    private void insert(Movie movie, Header header) {
+
+        ArrayList<Header> headers = byMovie.computeIfAbsent(movie.getId(), key -> new ArrayList<>());
+        int i = headers.size();
+        while (i > 0 && header.isBefore(headers.get(i - 1))) i--;
+        headers.add(i, header);
+    }
+
+    /**
+     * This method appends a review text to the body file
+     *
+     * @param body The text
+     * @return The offset of the text
+     * @throws IOException If the file cannot be written
+     */
+    private long append(String body) throws IOException {
+
+        if (bodies == null) throw new IOException("review store is not open");
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        long offset = bodies.length();
+        bodies.seek(offset);
+        try {
+            bodies.writeInt(bytes.length);
+            bodies.write(bytes);
+        } catch (IOException e) {
+            // a text written in part would be read back as a length followed by garbage
+            try {
+                bodies.setLength(offset);
+            } catch (IOException ignored) {
+                // the next text is appended after the part written, and this one is never referred to
+            }
+            throw e;
+        }
+        return offset;
+    }
+
+    /**
+     * This method reads a review text from the body file
+     *
+     * @param offset The offset of the text, -1 if the review has no text
+     * @return The text, or null if there is none or it cannot be read
+     */
+    private String readBody(long offset) {
+
+        if (offset < 0) return null;
+        String body = bodyCache.get(offset);
+        if (body != null || bodies == null) return body;
+        try {
+            bodies.seek(offset);
+            int length = bodies.readInt();
+            if (length < 0 || length > bodies.length() - offset - 4) {
+                throw new IOException("The review at " + offset + " is longer than the body file");
+            }
+            byte[] bytes = new byte[length];
+            bodies.readFully(bytes);
+            body = new String(bytes, StandardCharsets.UTF_8);
+            bodyCache.put(offset, body);
+        } catch (IOException e) {
+            System.out.println("[System: Error in reading a review]");
+        }
+        return body;
+    }
+}
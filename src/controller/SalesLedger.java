@@ -0,0 +1,264 @@
+package controller;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the ledger of the ticket sales. Tickets and revenue are counted per movie, cineplex and show date in
+ * LongAdder counters, so bookings made at the same time never contend on a counter, and the totals per movie are
+ * kept beside them so that reports do not have to add up every entry. Reading a counter while bookings are being
+ * recorded gives a consistent value for that counter, which is all the reports need.
+ *
+ * Movies are counted by their ID, so a movie keeps its sales when its title is changed. Entries migrated from the
+ * old per-movie sales have no cineplex and no show date.
+ **/
+public class SalesLedger implements Serializable {
+    /**
+     * tickets and revenue of every movie, cineplex and show date
+     */
+    private final ConcurrentHashMap<Key, Counters> entries = new ConcurrentHashMap<>();
+    /**
+     * tickets and revenue of every movie over all cineplexes and dates
+     */
+    private final ConcurrentHashMap<Integer, Counters> byMovie = new ConcurrentHashMap<>();
+
+    /**
+     * This is the key of an entry of the ledger
+     */
+    private static final class Key implements Serializable {
+        /**
+         * ID of the movie
+         */
+        private final int movie;
+        /**
+         * name of the cineplex, null if unknown
+         */
+        private final String cineplex;
+        /**
+         * date of the show, null if unknown
+         */
+        private final LocalDate date;
+
+        /**
+         * This is the constructor for the key
+         *
+         * @param movie    The ID of the movie
+         * @param cineplex The name of the cineplex, null if unknown
+         * @param date     The date of the show, null if unknown
+         */
+        private Key(int movie, String cineplex, LocalDate date) {
+
+            this.movie = movie;
+            this.cineplex = cineplex;
+            this.date = date;
+        }
+
+        /**
+         * This method compares the keys by movie, cineplex and date
+         *
+         * @param o The object to compare with
+         * @return true if the keys are equal
+         */
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return movie == other.movie && Objects.equals(cineplex, other.cineplex)
+                    && Objects.equals(date, other.date);
+        }
+
+        /**
+         * This method returns the hash code of the key
+         *
+         * @return The hash code of the movie, cineplex and date
+         */
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(movie, cineplex, date);
+        }
+    }
+
+    /**
+     * These are the counters of an entry of the ledger
+     */
+    private static final class Counters implements Serializable {
+        /**
+         * number of tickets sold
+         */
+        private final LongAdder tickets = new LongAdder();
+        /**
+         * revenue in cents
+         */
+        private final LongAdder revenueCents = new LongAdder();
+    }
+
+    /**
+     * This is a snapshot of one entry of the ledger, used for reports and to persist the ledger
+     */
+    public static final class Entry {
+        /**
+         * ID of the movie
+         */
+        private final int movie;
+        /**
+         * name of the cineplex, null if unknown
+         */
+        private final String cineplex;
+        /**
+         * date of the show, null if unknown
+         */
+        private final LocalDate date;
+        /**
+         * number of tickets sold
+         */
+        private final long tickets;
+        /**
+         * revenue in cents
+         */
+        private final long revenueCents;
+
+        /**
+         * This is the constructor for the entry
+         *
+         * @param movie        The ID of the movie
+         * @param cineplex     The name of the cineplex, null if unknown
+         * @param date         The date of the show, null if unknown
+         * @param tickets      The number of tickets sold
+         * @param revenueCents The revenue in cents
+         */
+        public Entry(int movie, String cineplex, LocalDate date, long tickets, long revenueCents) {
+
+            this.movie = movie;
+            this.cineplex = cineplex;
+            this.date = date;
+            this.tickets = tickets;
+            this.revenueCents = revenueCents;
+        }
+
+        /**This method will return the ID of the movie
+         * @return The ID of the movie
+         */
+        public int getMovieId() {
+
+            return movie;
+        }
+
+        /**This method will return the name of the cineplex
+         * @return The name of the cineplex, null if unknown
+         */
+        public String getCineplex() {
+
+            return cineplex;
+        }
+
+        /**This method will return the date of the show
+         * @return The date of the show, null if unknown
+         */
+        public LocalDate getDate() {
+
+            return date;
+        }
+
+        /**This method will return the number of tickets sold
+         * @return The number of tickets
+         */
+        public long getTickets() {
+
+            return tickets;
+        }
+
+        /**This method will return the revenue
+         * @return The revenue in cents
+         */
+        public long getRevenueCents() {
+
+            return revenueCents;
+        }
+    }
+
+    /**
+     * This method records a sale
+     *
+     * @param movie        The ID of the movie
+     * @param cineplex     The name of the cineplex, null if unknown
+     * @param date         The date of the show, null if unknown
+     * @param tickets      The number of tickets sold
+     * @param revenueCents The revenue in cents
+     */
+    public void record(int movie, String cineplex, LocalDate date, long tickets, long revenueCents) {
+
+        Counters entry = entries.computeIfAbsent(new Key(movie, cineplex, date), key -> new Counters());
+        entry.tickets.add(tickets);
+        entry.revenueCents.add(revenueCents);
+        Counters total = byMovie.computeIfAbsent(movie, key -> new Counters());
+        total.tickets.add(tickets);
+        total.revenueCents.add(revenueCents);
+    }
+
+    /**
+     * This method returns the number of tickets sold for a movie
+     *
+     * @param movie The ID of the movie
+     * @return The number of tickets, 0 if none were sold
+     */
+    public long getTickets(int movie) {
+
+        Counters total = byMovie.get(movie);
+        return total == null ? 0 : total.tickets.sum();
+    }
+
+    /**
+     * This method returns the revenue of a movie
+     *
+     * @param movie The ID of the movie
+     * @return The revenue in cents, 0 if no tickets were sold
+     */
+    public long getRevenueCents(int movie) {
+
+        Counters total = byMovie.get(movie);
+        return total == null ? 0 : total.revenueCents.sum();
+    }
+
+    /**
+     * This method returns true if any ticket of a movie has been recorded
+     *
+     * @param movie The ID of the movie
+     * @return true if the movie has sales
+     */
+    public boolean hasSales(int movie) {
+
+        return byMovie.containsKey(movie);
+    }
+
+    /**
+     * This method returns a snapshot of the number of tickets sold for every movie
+     *
+     * @return The number of tickets by movie ID
+     */
+    public HashMap<Integer, Long> getTicketsByMovie() {
+
+        HashMap<Integer, Long> snapshot = new HashMap<>();
+        byMovie.forEach((movie, total) -> snapshot.put(movie, total.tickets.sum()));
+        return snapshot;
+    }
+
+    /**
+     * This method returns a snapshot of every entry of the ledger
+     *
+     * @return The entries of the ledger
+     */
+    public ArrayList<Entry> getEntries() {
+
+        ArrayList<Entry> snapshot = new ArrayList<>(entries.size());
+        entries.forEach((key, counters) -> snapshot.add(new Entry(key.movie, key.cineplex, key.date,
+                counters.tickets.sum(), counters.revenueCents.sum())));
+        return snapshot;
+    }
+}
@@ -1,10 +1,13 @@
 package controller;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 /**
  * This class contains methods read from a binary file containing persisted objects
- * from SerializedDB
+ * from SerializedDB. The file is written with the BinaryCodec; files written with Java serialization by earlier
+ * versions are still read.
  */
 public class SerializeDB {
     /**
@@ -12,27 +15,19 @@ public class SerializeDB {
      * file name.
      *
      * @param filename The file name of the .dat database to be loaded into the application
-     * @return The data that was written into the .dat database
+     * @return The data that was written into the .dat database, or null if the file is empty
+     * @throws IOException If the file cannot be read or decoded, in which case it must not be written over
      */
-    public static SerializedDB readSerializedObject(String filename) {
+    public static SerializedDB readSerializedObject(String filename) throws IOException {
 
-        SerializedDB serializedDB = null;
-        FileInputStream fis = null;
-        ObjectInputStream in = null;
-        try {
-            fis = new FileInputStream(filename);
-            in = new ObjectInputStream(fis);
-            serializedDB = (SerializedDB) in.readObject();
-            in.close();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        } catch (ClassNotFoundException ex) {
-            ex.printStackTrace();
+        File file = new File(filename);
+        if (file.length() == 0) {
+            // an empty database file
+            return null;
+        }
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return BinaryCodec.decode(fis);
         }
-        // print out the size
-        //System.out.println(" Details Size: " + pDetails.size());
-        //System.out.println();
-        return serializedDB;
     }
 
     /**
@@ -41,19 +36,23 @@ public class SerializeDB {
      *
      * @param filename The file name of the .dat database in order to save the data from the application into
      *                 the .dat database file.
+     * @throws IOException If the data cannot be written or moved over the database, which is then left as it was
      */
-    public static void writeSerializedObject(String filename, SerializedDB serializedDB) {
+    public static void writeSerializedObject(String filename, SerializedDB serializedDB) throws IOException {
 
-        FileOutputStream fos = null;
-        ObjectOutputStream out = null;
+        // the snapshot is written next to the database and then moved over it, so that a crash while writing
+        // never leaves a half written database behind
+        File temp = new File(filename + ".tmp");
         try {
-            fos = new FileOutputStream(filename);
-            out = new ObjectOutputStream(fos);
-            out.writeObject(serializedDB);
-            out.close();
-            //	System.out.println("Object Persisted");
+            try (FileOutputStream fos = new FileOutputStream(temp)) {
+                BinaryCodec.encode(serializedDB, fos);
+                fos.getFD().sync();
+            }
+            Files.move(temp.toPath(), new File(filename).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException ex) {
-            ex.printStackTrace();
+            temp.delete();
+            throw ex;
         }
     }
 }
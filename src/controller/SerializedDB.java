@@ -4,17 +4,22 @@ import model.AgeGroup;
 import model.PublicHoliday;
 import model.account.Admin;
 import model.account.Customer;
+import model.cinema.Cinema;
 import model.cinema.CinemaType;
 import model.cinema.Cineplex;
+import model.cinema.ShowTime;
 import model.movie.Movie;
 import model.movie.MovieEnums;
 import model.movie.Review;
 import model.transaction.Booking;
+import model.transaction.Refund;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is the database (SerializedDatabase) where it will store all the data into a temporary database when the
@@ -23,65 +28,111 @@ import java.util.List;
  * add/set/get cineplexes
  * set/get ticket pricing
  * add/get sales
+ *
+ * The lists and maps read by the views (cineplexes, movies, admins and customers) are copy-on-write: they are never
+ * changed once published, a change copies them and publishes the copy through a volatile field, so they can be
+ * iterated by any number of threads without a lock. The bookings and refunds, which grow with every sale, are
+ * appended under the lock of this object instead and are only iterated by a checkpoint, which holds every writer off.
  **/
 
 public class SerializedDB implements Serializable {
+    /**
+     * serial version of the database, kept fixed so that snapshots written by earlier versions can still be read
+     */
+    private static final long serialVersionUID = 0xdcf43a2d05ecb2f6L;
     /**
      * an instance of the serializedDB object
      */
     private static SerializedDB serializedDB = null;
     /**
-     * a hashmap of Cineplex objects
+     * a hashmap of Cineplex objects, copy-on-write
      */
-    private HashMap<String, Cineplex> cineplexes;
+    private volatile HashMap<String, Cineplex> cineplexes;
     /**
-     * an arraylist of Movie objects
+     * an arraylist of Movie objects, copy-on-write
      */
-    private ArrayList<Movie> movies;
+    private volatile ArrayList<Movie> movies;
     /**
-     * an arraylist of Admin objects
+     * an arraylist of Admin objects, copy-on-write
      */
-    private ArrayList<Admin> admins;
+    private volatile ArrayList<Admin> admins;
     /**
-     * an arraylist of Customer objects
+     * an arraylist of Customer objects, copy-on-write
      */
-    private ArrayList<Customer> customers;
+    private volatile ArrayList<Customer> customers;
     /**
      * an arraylist of Booking objects
      */
     private ArrayList<Booking> bookings;
+    /**
+     * an arraylist of the Refund objects of cancelled bookings
+     */
+    private ArrayList<Refund> refunds;
     /**
      * an arraylist of public holiday dates
      */
     private ArrayList<PublicHoliday> publicHolidayDates;
     /**
-     * a HashMap containing sales figures for each movie title
+     * a HashMap containing sales figures for each movie title, only read from snapshots written before the
+     * SalesLedger and migrated into it
      */
     private HashMap<String, Integer> sales;
+    /**
+     * ledger of the tickets and revenue by movie, cineplex and show date
+     */
+    private SalesLedger salesLedger;
+    /**
+     * store of the reviews of the movies, saved by the BinaryCodec with the movies
+     */
+    private transient ReviewStore reviewStore;
+    /**
+     * movies by ID, including movies no longer listed that showtimes and bookings still refer to
+     */
+    private transient EntityRegistry<Movie> movieRegistry;
+    /**
+     * cineplexes by ID
+     */
+    private transient EntityRegistry<Cineplex> cineplexRegistry;
+    /**
+     * cinemas by ID
+     */
+    private transient EntityRegistry<Cinema> cinemaRegistry;
+    /**
+     * showtimes by ID, including showtimes no longer listed that bookings still refer to
+     */
+    private transient EntityRegistry<ShowTime> showTimeRegistry;
+    /**
+     * customers by ID
+     */
+    private transient EntityRegistry<Customer> customerRegistry;
     /**
      * public holiday ticket price
      */
-    private double publicHolidayCharges;
+    private volatile double publicHolidayCharges;
     /**
      * weekend ticket price
      */
-    private double weekendCharges;
+    private volatile double weekendCharges;
     /**
      * base ticket price
      */
-    private double basePrice;
+    private volatile double basePrice;
     /**
      * List of movieType enums - 3D, DIGITAL, IMAX
      */
-    private List movieType;
+    private List<Double> movieType;
     /**
      * List of cinema type enums - STANDARD, PLATINUM
      */
-    private List cinemaType;
+    private List<Double> cinemaType;
     /**
      * List of enums for ticket prices for different age groups
      */
-    private List ageGroup;
+    private List<Double> ageGroup;
+    /**
+     * log sequence number of the last journal record contained in this snapshot
+     */
+    private long checkpointLsn;
 
     /**
      * Constructor is for the SerializedDB
@@ -95,6 +146,7 @@ public class SerializedDB implements Serializable {
         bookings = new ArrayList<>();
         publicHolidayDates = new ArrayList<>();
         sales = new HashMap<>();
+        salesLedger = new SalesLedger();
         movieType = new ArrayList<>();
         cinemaType = new ArrayList<>();
         ageGroup = new ArrayList<>();
@@ -105,7 +157,7 @@ public class SerializedDB implements Serializable {
      *
      * @return A movieType enum list is return
      */
-    public List getMovieType(){
+    public List<Double> getMovieType(){
 
         return movieType;
     }
@@ -113,7 +165,7 @@ public class SerializedDB implements Serializable {
     /**This method is used to return the cinemaType enum list
      * @return A cinemaType enum list is return
      */
-    public List getCinemaType(){
+    public List<Double> getCinemaType(){
 
         return cinemaType;
     }
@@ -121,15 +173,18 @@ public class SerializedDB implements Serializable {
     /**This method is used to return the ageGroup enum list
      * @return A ageGroup enum list is return
      */
-    public List getAgeGroup(){
+    public List<Double> getAgeGroup(){
 
         return ageGroup;
     }
 
     /**This method is used to set all the enums in the serializedDB
      */
-    public void setEnum(){
+    public synchronized void setEnum(){
 
+        movieType.clear();
+        cinemaType.clear();
+        ageGroup.clear();
         for (MovieEnums.MovieType m : MovieEnums.MovieType.values()){
             movieType.add(m.getTicketPrice());
         }
@@ -171,9 +226,24 @@ public class SerializedDB implements Serializable {
     /**This method is used to add a cineplex
      * @param cineplex      The selected cineplex to be added to the cineplexes list
      */
-    protected void addCineplexes(Cineplex cineplex){
+    protected synchronized void addCineplexes(Cineplex cineplex){
 
-        this.cineplexes.put(cineplex.getName(), cineplex);
+        HashMap<String, Cineplex> copy = new HashMap<>(cineplexes);
+        copy.put(cineplex.getName(), cineplex);
+        this.cineplexes = copy;
+    }
+
+    /**This method is used to remove a cineplex
+     * @param name          The name of the cineplex to be removed from the cineplexes list
+     * @return The removed cineplex, or null if there is no cineplex with that name
+     */
+    protected synchronized Cineplex removeCineplex(String name){
+
+        if (!cineplexes.containsKey(name)) return null;
+        HashMap<String, Cineplex> copy = new HashMap<>(cineplexes);
+        Cineplex removed = copy.remove(name);
+        this.cineplexes = copy;
+        return removed;
     }
 
     /**This method is used to return the admin list
@@ -192,12 +262,24 @@ public class SerializedDB implements Serializable {
         this.admins = admins;
     }
 
+    /**This method is used to add an admin to the admin list
+     * @param admin         The admin to be added
+     */
+    protected synchronized void addAdmin(Admin admin) {
+
+        ArrayList<Admin> copy = new ArrayList<>(admins);
+        copy.add(admin);
+        this.admins = copy;
+    }
+
     /**
      * method to add a Customer object to the arraylist of customer objects
      * @param customer
      */
-    protected void addCustomer(Customer customer) {
-        customers.add(customer);
+    protected synchronized void addCustomer(Customer customer) {
+        ArrayList<Customer> copy = new ArrayList<>(customers);
+        copy.add(customer);
+        this.customers = copy;
     }
 
     /**This method is used to return the list of customer
@@ -224,6 +306,49 @@ public class SerializedDB implements Serializable {
         return bookings;
     }
 
+    /**This method is used to add a booking to the list of bookings
+     * @param booking        The booking to be added
+     */
+    protected synchronized void addBooking(Booking booking) {
+
+        bookings.add(booking);
+    }
+
+    /**This method is used to get the list of refunds
+     * @return An array list containing the refunds of the cancelled bookings
+     */
+    protected synchronized ArrayList<Refund> getRefunds() {
+
+        if (refunds == null) {
+            refunds = new ArrayList<>();
+        }
+        return refunds;
+    }
+
+    /**This method is used to update the list of refunds
+     * @param refunds        An array list containing the refunds of the cancelled bookings
+     */
+    protected synchronized void setRefunds(ArrayList<Refund> refunds) {
+
+        this.refunds = refunds;
+    }
+
+    /**This method is used to add a refund to the list of refunds
+     * @param refund         The refund of a cancelled booking
+     */
+    protected synchronized void addRefund(Refund refund) {
+
+        getRefunds().add(refund);
+    }
+
+    /**This method is used to copy the list of refunds, so that it can be read while bookings are being cancelled
+     * @return A new array list containing the refunds of the cancelled bookings
+     */
+    protected synchronized ArrayList<Refund> copyRefunds() {
+
+        return new ArrayList<>(getRefunds());
+    }
+
     /**This method is used to update the list of bookings
      * @param bookings       An array list containing a list of bookings would be used to update the list
      */
@@ -271,7 +396,7 @@ public class SerializedDB implements Serializable {
      * @param weekendCharges            The extra charges during the weekends
      * @param basePrice                 The base price of a ticket
      */
-    public void setTicketPricing(ArrayList<PublicHoliday> publicHolidayDates, double publicHolidayCharges, double weekendCharges, double basePrice) {
+    public synchronized void setTicketPricing(ArrayList<PublicHoliday> publicHolidayDates, double publicHolidayCharges, double weekendCharges, double basePrice) {
 
         this.publicHolidayCharges = publicHolidayCharges;
         this.publicHolidayDates = publicHolidayDates;
@@ -282,7 +407,7 @@ public class SerializedDB implements Serializable {
     /**This method is to return an instance of its own
      * @return: An instance of SerializedDB
      */
-    public static SerializedDB getInstance() {
+    public static synchronized SerializedDB getInstance() {
 
         if (serializedDB == null)
             serializedDB = new SerializedDB();
@@ -292,7 +417,7 @@ public class SerializedDB implements Serializable {
     /**This method is to return an instance of its own
      * @return: An instance of SerializedDB
      */
-    public static void setInstance(SerializedDB S) {
+    public static synchronized void setInstance(SerializedDB S) {
         serializedDB = S;
     }
 
@@ -303,28 +428,203 @@ public class SerializedDB implements Serializable {
      */
     public void addSales(String movieName, int numOfTickets){
 
-        sales.put(movieName, numOfTickets);
+        int movieId = findMovieId(movieName);
+        if (movieId > 0) getSalesLedger().record(movieId, null, null, numOfTickets, 0);
+    }
+
+    /**This method is defined to add the tickets and revenue of a booking to the sales
+     * @param movieId       The ID of the movie
+     * @param cineplexName  The name of the cineplex
+     * @param dateOfMovie   The date of the show
+     * @param numOfTickets  The number of tickets sold for the movie
+     * @param revenueCents  The revenue of the tickets in cents
+     */
+    public void addSales(int movieId, String cineplexName, LocalDate dateOfMovie, int numOfTickets,
+                         long revenueCents){
+
+        getSalesLedger().record(movieId, cineplexName, dateOfMovie, numOfTickets, revenueCents);
+    }
+
+    /**This method is defined to find the ID of a movie by its current title, among the listed movies first and
+     * then among every movie registered
+     * @param movieName The title of the movie
+     * @return The ID of the movie, or 0 if no movie has that title
+     */
+    private int findMovieId(String movieName){
+
+        for (Movie movie : movies) {
+            if (movie.getTitle().equals(movieName)) return movie.getId();
+        }
+        EntityRegistry<Movie> registry = getMovieRegistry();
+        for (int id = 1; id <= registry.size(); id++) {
+            Movie movie = registry.get(id);
+            if (movie != null && movie.getTitle().equals(movieName)) return id;
+        }
+        return 0;
     }
 
     /**
-     * method to add Review object to a Movie object
+     * method to add a Review of a Movie to the review store and to the rating of the movie
      * @param movieOfChoice
      * @param review
+     * @throws java.io.UncheckedIOException if the text of the review cannot be written, in which case the rating
+     * is not counted
      */
     public void addReview(Movie movieOfChoice, Review review) {
-        for(Movie movie : movies) {
-            if(movie.equals(movieOfChoice)) {
-                movie.getReviews().add(review);
+        getReviewStore().add(movieOfChoice, review);
+        movieOfChoice.addRating(review.getRating());
+    }
+
+    /**This method is used to return the store of the reviews
+     * @return The review store
+     */
+    public synchronized ReviewStore getReviewStore() {
+
+        if (reviewStore == null) {
+            reviewStore = new ReviewStore();
+        }
+        return reviewStore;
+    }
+
+    /**This method is used to set the store of the reviews
+     * @param reviewStore   The review store
+     */
+    protected synchronized void setReviewStore(ReviewStore reviewStore) {
+
+        this.reviewStore = reviewStore;
+    }
+
+    /**This method is used to return the registry of the movies by ID
+     * @return The movie registry
+     */
+    public synchronized EntityRegistry<Movie> getMovieRegistry() {
+
+        if (movieRegistry == null) {
+            movieRegistry = new EntityRegistry<>();
+        }
+        return movieRegistry;
+    }
+
+    /**This method is used to return the registry of the cineplexes by ID
+     * @return The cineplex registry
+     */
+    public synchronized EntityRegistry<Cineplex> getCineplexRegistry() {
+
+        if (cineplexRegistry == null) {
+            cineplexRegistry = new EntityRegistry<>();
+        }
+        return cineplexRegistry;
+    }
+
+    /**This method is used to return the registry of the cinemas by ID
+     * @return The cinema registry
+     */
+    public synchronized EntityRegistry<Cinema> getCinemaRegistry() {
+
+        if (cinemaRegistry == null) {
+            cinemaRegistry = new EntityRegistry<>();
+        }
+        return cinemaRegistry;
+    }
+
+    /**This method is used to return the registry of the showtimes by ID
+     * @return The showtime registry
+     */
+    public synchronized EntityRegistry<ShowTime> getShowTimeRegistry() {
+
+        if (showTimeRegistry == null) {
+            showTimeRegistry = new EntityRegistry<>();
+        }
+        return showTimeRegistry;
+    }
+
+    /**This method is used to return the registry of the customers by ID
+     * @return The customer registry
+     */
+    public synchronized EntityRegistry<Customer> getCustomerRegistry() {
+
+        if (customerRegistry == null) {
+            customerRegistry = new EntityRegistry<>();
+        }
+        return customerRegistry;
+    }
+
+    /**This method is used to take over the registries of a database read from a snapshot
+     * @param other         The database read from the snapshot
+     */
+    protected synchronized void setRegistries(SerializedDB other) {
+
+        this.movieRegistry = other.getMovieRegistry();
+        this.cineplexRegistry = other.getCineplexRegistry();
+        this.cinemaRegistry = other.getCinemaRegistry();
+        this.showTimeRegistry = other.getShowTimeRegistry();
+        this.customerRegistry = other.getCustomerRegistry();
+    }
+
+    /**This method is used to update the sales of each movie
+     * @param sales         The HashMap of sales for each movie
+     */
+    protected void setSales(HashMap<String, Integer> sales) {
+
+        this.sales = sales == null ? new HashMap<>() : sales;
+        this.salesLedger = null;
+    }
+
+    /**This method is used to return the sales ledger, migrating the sales of an older snapshot into it the first
+     * time it is used. The older sales are kept by title, and the sales of a title that no movie has any more are
+     * dropped.
+     * @return The sales ledger
+     */
+    public synchronized SalesLedger getSalesLedger() {
+
+        if (salesLedger == null) {
+            salesLedger = new SalesLedger();
+            if (sales != null) {
+                for (Map.Entry<String, Integer> sale : sales.entrySet()) {
+                    int movieId = findMovieId(sale.getKey());
+                    if (movieId > 0) salesLedger.record(movieId, null, null, sale.getValue(), 0);
+                }
+                sales.clear();
             }
         }
+        return salesLedger;
+    }
+
+    /**This method is used to set the sales ledger
+     * @param salesLedger   The sales ledger
+     */
+    protected synchronized void setSalesLedger(SalesLedger salesLedger) {
+
+        this.salesLedger = salesLedger;
+    }
+
+    /**This method is used to return the log sequence number of the last journal record contained in the snapshot
+     * @return The log sequence number of the checkpoint
+     */
+    public long getCheckpointLsn() {
+
+        return checkpointLsn;
+    }
+
+    /**This method is used to set the log sequence number of the last journal record contained in the snapshot
+     * @param checkpointLsn The log sequence number of the checkpoint
+     */
+    public void setCheckpointLsn(long checkpointLsn) {
+
+        this.checkpointLsn = checkpointLsn;
     }
 
     /**This method is defined to get the array of the sales
-     * @return An array list of sales for each movie
+     * @return An array list of sales for each movie, by its current title
      */
     public HashMap<String, Integer> getSales(){
 
-        return sales;
+        HashMap<String, Integer> snapshot = new HashMap<>();
+        getSalesLedger().getTicketsByMovie().forEach((movieId, tickets) -> {
+            Movie movie = getMovieRegistry().get(movieId);
+            if (movie != null) snapshot.merge(movie.getTitle(), tickets.intValue(), Integer::sum);
+        });
+        return snapshot;
     }
 
     /**This method is defined to get the sales for a given movie
@@ -333,15 +633,31 @@ public class SerializedDB implements Serializable {
      */
     public Integer getSalesFigure(String movieName){
 
-        return sales.get(movieName);
+        SalesLedger ledger = getSalesLedger();
+        int movieId = findMovieId(movieName);
+        return ledger.hasSales(movieId) ? (int) ledger.getTickets(movieId) : null;
     }
 
     /**This method is defined to add movies into the temporary database
      * @param movie The movie created to be added into the database
      */
-    public void addMovies(Movie movie){
+    public synchronized void addMovies(Movie movie){
+
+        ArrayList<Movie> copy = new ArrayList<>(movies);
+        copy.add(movie);
+        this.movies = copy;
+    }
+
+    /**This method is defined to remove a movie from the movie list
+     * @param index The position of the movie in the movie list
+     * @return The removed movie
+     */
+    protected synchronized Movie removeMovie(int index){
 
-        this.movies.add(movie);
+        ArrayList<Movie> copy = new ArrayList<>(movies);
+        Movie removed = copy.remove(index);
+        this.movies = copy;
+        return removed;
     }
 
     /**This method is used to set the current list of movie database with another list of movies
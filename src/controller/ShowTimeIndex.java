@@ -0,0 +1,169 @@
+package controller;
+
+import model.cinema.Cineplex;
+import model.cinema.ShowTime;
+import model.movie.Movie;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * This is the secondary index of the showtimes by movie. For every movie it keeps a NavigableMap of its showtimes
+ * ordered by date, time, cineplex and cinema, so that the showtimes of a movie over a range of days are a sub-map
+ * of the index instead of a scan of every showtime of every cineplex. It is kept up to date by the DBController
+ * and rebuilt from the cineplexes when the database is loaded.
+ **/
+public class ShowTimeIndex {
+    /**
+     * number of seconds in a day
+     */
+    private static final long SECONDS_PER_DAY = 86400;
+    /**
+     * showtimes of every movie by movie ID, ordered by their key
+     */
+    private final HashMap<Integer, TreeMap<Key, ShowTime>> byMovie = new HashMap<>();
+    /**
+     * key of every indexed showtime, used to remove it
+     */
+    private final IdentityHashMap<ShowTime, Key> keys = new IdentityHashMap<>();
+    /**
+     * sequence number given to the next showtime, to keep apart showtimes with the same date, time and place
+     */
+    private long nextSeq = 0;
+
+    /**
+     * This is the sort key of a showtime in the index
+     */
+    private static final class Key implements Comparable<Key> {
+        /**
+         * seconds from the epoch day 0 to the start of the showtime
+         */
+        private final long when;
+        /**
+         * name of the cineplex
+         */
+        private final String cineplex;
+        /**
+         * name of the cinema
+         */
+        private final String cinema;
+        /**
+         * insertion order of the showtime
+         */
+        private final long seq;
+
+        /**
+         * This is the constructor for the key
+         *
+         * @param when     The seconds from the epoch day 0 to the start of the showtime
+         * @param cineplex The name of the cineplex
+         * @param cinema   The name of the cinema
+         * @param seq      The insertion order of the showtime
+         */
+        private Key(long when, String cineplex, String cinema, long seq) {
+
+            this.when = when;
+            this.cineplex = cineplex;
+            this.cinema = cinema;
+            this.seq = seq;
+        }
+
+        /**
+         * This method returns the smallest key at the start of a day
+         *
+         * @param date The day
+         * @return A key before every showtime of the day
+         */
+        private static Key startOf(LocalDate date) {
+
+            return new Key(date.toEpochDay() * SECONDS_PER_DAY, "", "", Long.MIN_VALUE);
+        }
+
+        /**
+         * This method compares the keys by time, cineplex, cinema and insertion order
+         *
+         * @param other The key to compare with
+         * @return A negative, zero or positive number as this key is before, equal to or after the other
+         */
+        @Override
+        public int compareTo(Key other) {
+
+            int result = Long.compare(when, other.when);
+            if (result == 0) result = cineplex.compareTo(other.cineplex);
+            if (result == 0) result = cinema.compareTo(other.cinema);
+            if (result == 0) result = Long.compare(seq, other.seq);
+            return result;
+        }
+    }
+
+    /**
+     * This method adds a showtime to the index
+     *
+     * @param showTime The showtime to be added
+     */
+    public synchronized void add(ShowTime showTime) {
+
+        if (showTime.getMovie() == null || keys.containsKey(showTime)) return;
+        Key key = new Key(showTime.getDateOfMovie().toEpochDay() * SECONDS_PER_DAY
+                + showTime.getTimeOfMovie().toSecondOfDay(),
+                showTime.getCineplex() == null ? "" : showTime.getCineplex().getName(),
+                showTime.getCinema() == null ? "" : showTime.getCinema().getName(), nextSeq++);
+        keys.put(showTime, key);
+        byMovie.computeIfAbsent(showTime.getMovie().getId(), movie -> new TreeMap<>()).put(key, showTime);
+    }
+
+    /**
+     * This method removes a showtime from the index
+     *
+     * @param showTime The showtime to be removed
+     */
+    public synchronized void remove(ShowTime showTime) {
+
+        Key key = keys.remove(showTime);
+        if (key == null) return;
+        TreeMap<Key, ShowTime> showTimes = byMovie.get(showTime.getMovie().getId());
+        if (showTimes == null) return;
+        showTimes.remove(key);
+        if (showTimes.isEmpty()) byMovie.remove(showTime.getMovie().getId());
+    }
+
+    /**
+     * This method returns the showtimes of a movie from the start of a day over a number of days
+     *
+     * @param movie The movie of the showtimes
+     * @param from  The first day
+     * @param days  The number of days
+     * @return The showtimes ordered by date, time, cineplex and cinema
+     */
+    public synchronized ArrayList<ShowTime> getShowTimes(Movie movie, LocalDate from, int days) {
+
+        TreeMap<Key, ShowTime> showTimes = byMovie.get(movie.getId());
+        if (showTimes == null) return new ArrayList<>();
+        NavigableMap<Key, ShowTime> range = showTimes.subMap(Key.startOf(from), true,
+                Key.startOf(from.plusDays(days)), false);
+        return new ArrayList<>(range.values());
+    }
+
+    /**
+     * This method empties the index and fills it with every showtime of the cineplexes
+     *
+     * @param cineplexes The cineplexes of the database
+     */
+    public synchronized void rebuild(Map<String, Cineplex> cineplexes) {
+
+        byMovie.clear();
+        keys.clear();
+        for (Cineplex cineplex : cineplexes.values()) {
+            for (ArrayList<ShowTime> showTimes : cineplex.getShowTimes().values()) {
+                for (ShowTime showTime : showTimes) {
+                    add(showTime);
+                }
+            }
+        }
+    }
+}
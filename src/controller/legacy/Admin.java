@@ -0,0 +1,21 @@
+package controller.legacy;
+
+import java.io.Serializable;
+
+/**
+ * The shape of an Admin as written by Java serialization, only read to migrate an older database file.
+ */
+public class Admin implements Serializable {
+    /**
+     * serial version of the admin written by Java serialization
+     */
+    private static final long serialVersionUID = 6942346643490851524L;
+    /**
+     * username of the admin
+     */
+    public String username;
+    /**
+     * password of the admin
+     */
+    public String password;
+}
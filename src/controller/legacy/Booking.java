@@ -0,0 +1,61 @@
+package controller.legacy;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+
+/**
+ * The shape of a Booking as written by Java serialization, when a booking kept its seats and tickets as objects and
+ * its transaction ID as text. Only read to migrate an older database file.
+ */
+public class Booking implements Serializable {
+    /**
+     * serial version of the booking written by Java serialization
+     */
+    private static final long serialVersionUID = 1016514431142220233L;
+    /**
+     * price of the booking, 0 if it was never worked out
+     */
+    public double price;
+    /**
+     * transaction ID, made of the minute of the booking
+     */
+    public String transactionID;
+    /**
+     * customer who made the booking
+     */
+    public Customer customer;
+    /**
+     * date of the booking
+     */
+    public LocalDate dateOfBooking;
+    /**
+     * time of the booking
+     */
+    public LocalTime timeOfBooking;
+    /**
+     * showtime booked
+     */
+    public ShowTime showTime;
+    /**
+     * cineplex of the showtime
+     */
+    public Cineplex cineplex;
+    /**
+     * cinema of the showtime
+     */
+    public Cinema cinema;
+    /**
+     * movie of the showtime
+     */
+    public Movie movie;
+    /**
+     * seats booked, taken from the seats of the showtime
+     */
+    public Seat[] seats;
+    /**
+     * tickets issued, one for each seat
+     */
+    public ArrayList<Ticket> tickets;
+}
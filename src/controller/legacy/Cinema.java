@@ -0,0 +1,37 @@
+package controller.legacy;
+
+import model.cinema.CinemaType;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/**
+ * The shape of a Cinema as written by Java serialization, when every cinema kept a Seat object for each of its seats.
+ * Only read to migrate an older database file.
+ */
+public class Cinema implements Serializable {
+    /**
+     * serial version of the cinema written by Java serialization
+     */
+    private static final long serialVersionUID = 4262483974812408569L;
+    /**
+     * name of the cinema
+     */
+    public String name;
+    /**
+     * seats of the cinema by row letter
+     */
+    public HashMap<Character, Seat[]> cinemaLayout;
+    /**
+     * type of the cinema
+     */
+    public CinemaType cinemaType;
+    /**
+     * letter of the last row
+     */
+    public char maxRow;
+    /**
+     * number of seats in a row
+     */
+    public int maxCol;
+}
@@ -0,0 +1,29 @@
+package controller.legacy;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The shape of a Cineplex as written by Java serialization, before cineplexes had IDs. Only read to migrate an older
+ * database file.
+ */
+public class Cineplex implements Serializable {
+    /**
+     * serial version of the cineplex written by Java serialization
+     */
+    private static final long serialVersionUID = -1920309994639915803L;
+    /**
+     * name of the cineplex
+     */
+    public String name;
+    /**
+     * cinemas of the cineplex
+     */
+    public ArrayList<Cinema> cinemas;
+    /**
+     * showtimes of the cineplex by date
+     */
+    public HashMap<LocalDate, ArrayList<ShowTime>> showTimes;
+}
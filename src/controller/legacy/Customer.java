@@ -0,0 +1,35 @@
+package controller.legacy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * The shape of a Customer as written by Java serialization, before customers had IDs. Only read to migrate an older
+ * database file.
+ */
+public class Customer implements Serializable {
+    /**
+     * serial version of the customer written by Java serialization
+     */
+    private static final long serialVersionUID = -3472179132449322061L;
+    /**
+     * username of the customer
+     */
+    public String userName;
+    /**
+     * password of the customer
+     */
+    public String password;
+    /**
+     * mobile number of the customer
+     */
+    public String mobileNumber;
+    /**
+     * email address of the customer
+     */
+    public String emailAddress;
+    /**
+     * bookings made by the customer
+     */
+    public ArrayList<Booking> bookingHistory;
+}
@@ -0,0 +1,61 @@
+package controller.legacy;
+
+import model.movie.MovieEnums;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * The shape of a Movie as written by Java serialization, when a movie kept its reviews. Only read to migrate an older
+ * database file.
+ */
+public class Movie implements Serializable {
+    /**
+     * serial version of the movie written by Java serialization
+     */
+    private static final long serialVersionUID = 9205058468991691666L;
+    /**
+     * title of the movie
+     */
+    public String title;
+    /**
+     * director of the movie
+     */
+    public String director;
+    /**
+     * cast of the movie
+     */
+    public ArrayList<String> cast;
+    /**
+     * synopsis of the movie
+     */
+    public String synopsis;
+    /**
+     * language of the movie
+     */
+    public MovieEnums.Language language;
+    /**
+     * subtitle of the movie
+     */
+    public MovieEnums.Subtitle subtitle;
+    /**
+     * status of the movie
+     */
+    public MovieEnums.MovieStatus movieStatus;
+    /**
+     * rating of the movie
+     */
+    public MovieEnums.MovieRating movieRating;
+    /**
+     * type of the movie
+     */
+    public MovieEnums.MovieType movieType;
+    /**
+     * average rating of the reviews, worked out again from the reviews
+     */
+    public Float overallRating;
+    /**
+     * reviews of the movie
+     */
+    public ArrayList<Review> reviews;
+}
@@ -0,0 +1,34 @@
+package controller.legacy;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The shape of a Review as written by Java serialization, only read to migrate an older database file.
+ */
+public class Review implements Serializable {
+    /**
+     * serial version of the review written by Java serialization
+     */
+    private static final long serialVersionUID = -8097923973449163143L;
+    /**
+     * movie reviewed
+     */
+    public Movie movie;
+    /**
+     * name of the reviewer
+     */
+    public String nameOfReviewer;
+    /**
+     * rating given
+     */
+    public Integer rating;
+    /**
+     * text of the review
+     */
+    public String review;
+    /**
+     * date and time of the review
+     */
+    public LocalDateTime timestamp;
+}
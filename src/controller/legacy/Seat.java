@@ -0,0 +1,30 @@
+package controller.legacy;
+
+import java.io.Serializable;
+
+/**
+ * The shape of a Seat as written by Java serialization, when each showtime kept its own seats with their occupancy.
+ * Only read to migrate an older database file.
+ */
+public class Seat implements Serializable {
+    /**
+     * serial version of the seat written by Java serialization
+     */
+    private static final long serialVersionUID = 2575137089598507198L;
+    /**
+     * true if the seat is booked
+     */
+    public boolean isOccupied;
+    /**
+     * cinema of the seat
+     */
+    public Cinema cinema;
+    /**
+     * row letter of the seat
+     */
+    public char row;
+    /**
+     * column of the seat, counted from 1
+     */
+    public int col;
+}
@@ -0,0 +1,71 @@
+package controller.legacy;
+
+import model.PublicHoliday;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The shape of the database as written by Java serialization, before the BinaryCodec. It is only read, to migrate an
+ * older database file, and is converted into the current SerializedDB by the LegacySnapshot of the controller.
+ */
+public class SerializedDB implements Serializable {
+    /**
+     * serial version of the database written by Java serialization
+     */
+    private static final long serialVersionUID = -2525329526000667914L;
+    /**
+     * cineplexes by name
+     */
+    public HashMap<String, Cineplex> cineplexes;
+    /**
+     * listed movies
+     */
+    public ArrayList<Movie> movies;
+    /**
+     * admins
+     */
+    public ArrayList<Admin> admins;
+    /**
+     * customers
+     */
+    public ArrayList<Customer> customers;
+    /**
+     * bookings
+     */
+    public ArrayList<Booking> bookings;
+    /**
+     * public holidays
+     */
+    public ArrayList<PublicHoliday> publicHolidayDates;
+    /**
+     * number of tickets sold by movie title
+     */
+    public HashMap<String, Integer> sales;
+    /**
+     * public holiday ticket price
+     */
+    public double publicHolidayCharges;
+    /**
+     * weekend ticket price
+     */
+    public double weekendCharges;
+    /**
+     * base ticket price
+     */
+    public double basePrice;
+    /**
+     * ticket price of each movie type
+     */
+    public List<Double> movieType;
+    /**
+     * ticket price of each cinema type
+     */
+    public List<Double> cinemaType;
+    /**
+     * ticket price of each age group
+     */
+    public List<Double> ageGroup;
+}
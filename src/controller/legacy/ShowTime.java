@@ -0,0 +1,55 @@
+package controller.legacy;
+
+import model.movie.MovieEnums;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+
+/**
+ * The shape of a ShowTime as written by Java serialization, when every showtime kept a Seat object for each of its
+ * seats. Only read to migrate an older database file.
+ */
+public class ShowTime implements Serializable {
+    /**
+     * serial version of the showtime written by Java serialization
+     */
+    private static final long serialVersionUID = 8219632401295287944L;
+    /**
+     * movie shown
+     */
+    public Movie movie;
+    /**
+     * date of the showtime
+     */
+    public LocalDate dateOfMovie;
+    /**
+     * time of the showtime
+     */
+    public LocalTime timeOfMovie;
+    /**
+     * seats of the showtime with their occupancy, by row letter
+     */
+    public HashMap<Character, Seat[]> seatLayout;
+    /**
+     * cinema of the showtime
+     */
+    public Cinema cinema;
+    /**
+     * cineplex of the showtime
+     */
+    public Cineplex cineplex;
+    /**
+     * language of the showtime
+     */
+    public MovieEnums.Language language;
+    /**
+     * subtitle of the showtime
+     */
+    public MovieEnums.Subtitle subtitle;
+    /**
+     * movie type of the showtime
+     */
+    public MovieEnums.MovieType movieType;
+}
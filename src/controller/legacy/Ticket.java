@@ -0,0 +1,37 @@
+package controller.legacy;
+
+import model.AgeGroup;
+import model.cinema.CinemaType;
+import model.movie.MovieEnums;
+
+import java.io.Serializable;
+
+/**
+ * The shape of a Ticket as written by Java serialization, only read to migrate an older database file.
+ */
+public class Ticket implements Serializable {
+    /**
+     * serial version of the ticket written by Java serialization
+     */
+    private static final long serialVersionUID = 6931678917347511048L;
+    /**
+     * movie of the ticket
+     */
+    public Movie movie;
+    /**
+     * movie type of the ticket
+     */
+    public MovieEnums.MovieType movieType;
+    /**
+     * cinema type of the ticket
+     */
+    public CinemaType cinemaType;
+    /**
+     * age group of the ticket
+     */
+    public AgeGroup ageGroup;
+    /**
+     * base price of the ticket
+     */
+    public double basePrice;
+}
@@ -0,0 +1,44 @@
+package event;
+
+import model.transaction.Booking;
+import model.transaction.Refund;
+
+/**
+ * Event published when a booking is cancelled and refunded
+ */
+public class BookingCancelled extends DomainEvent {
+    /**
+     * the booking cancelled
+     */
+    private final Booking booking;
+    /**
+     * the refund of the booking
+     */
+    private final Refund refund;
+
+    /**
+     * This is the constructor for the event
+     * @param booking
+     * @param refund
+     */
+    public BookingCancelled(Booking booking, Refund refund) {
+        this.booking = booking;
+        this.refund = refund;
+    }
+
+    /**
+     * Method to get the booking cancelled
+     * @return the booking
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    /**
+     * Method to get the refund of the booking
+     * @return the refund
+     */
+    public Refund getRefund() {
+        return refund;
+    }
+}
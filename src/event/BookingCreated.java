@@ -0,0 +1,29 @@
+package event;
+
+import model.transaction.Booking;
+
+/**
+ * Event published when a booking is recorded
+ */
+public class BookingCreated extends DomainEvent {
+    /**
+     * the booking recorded
+     */
+    private final Booking booking;
+
+    /**
+     * This is the constructor for the event
+     * @param booking
+     */
+    public BookingCreated(Booking booking) {
+        this.booking = booking;
+    }
+
+    /**
+     * Method to get the booking recorded
+     * @return the booking
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+}
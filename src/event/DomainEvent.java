@@ -0,0 +1,28 @@
+package event;
+
+/**
+ * Base class of the events published on the EventBus when the database changes. An event is published after the
+ * change is made, and is numbered by the bus with its position in the order of all events.
+ */
+public abstract class DomainEvent {
+    /**
+     * position of the event in the order of all events, -1 until it is published
+     */
+    private long sequence = -1;
+
+    /**
+     * Method to get the position of the event in the order of all events
+     * @return the sequence of the event, -1 if it is not yet published
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Method to number the event when it is published
+     * @param sequence
+     */
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,300 @@
+package event;
+
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The in-process bus of the domain events, kept in a ring buffer of RING_SIZE slots. Publishers claim the next
+ * sequence with one atomic increment, fill the slot of the sequence and mark it published, so publishing takes no
+ * lock and allocates nothing but the event. Every subscriber runs on a thread of its own and follows the ring with a
+ * sequence of its own, taking every event published since its last batch, up to MAX_BATCH, in one call.
+ *
+ * A slot is only reused once every subscriber has handled its event, so a publisher that laps the slowest
+ * subscriber waits for it. A subscriber can follow others, and then only sees an event once they have handled it.
+ * Subscribers that are waiting for events park, and are unparked by the publisher or by the subscriber they follow.
+ *
+ * A subscriber that throws is stopped at the batch it failed on, and so are the subscribers following it: the batch
+ * is not skipped, as the state kept by the subscriber would no longer match the events. A stopped subscription no
+ * longer holds the publishers back nor is waited for by awaitDrained(), and awaitOwnEvents() throws once the
+ * subscription waited for is stopped. getFailure() tells whether a subscriber was stopped.
+ */
+public class EventBus {
+    /**
+     * number of slots of the ring, a power of two
+     */
+    public static final int RING_SIZE = 1 << 14;
+    /**
+     * greatest number of events given to a subscriber in one batch
+     */
+    public static final int MAX_BATCH = 512;
+    /**
+     * nanoseconds a publisher waiting for a slot, or a thread waiting for the subscribers, parks between checks
+     */
+    private static final long WAIT_NANOS = 50_000;
+    /**
+     * nanoseconds a subscriber without events parks at most, in case its wake-up is missed
+     */
+    private static final long IDLE_NANOS = 10_000_000;
+    /**
+     * events by the slot of their sequence
+     */
+    private final DomainEvent[] ring = new DomainEvent[RING_SIZE];
+    /**
+     * sequence of the event published in each slot, -1 for a slot never used
+     */
+    private final AtomicLongArray published = new AtomicLongArray(RING_SIZE);
+    /**
+     * last sequence claimed by a publisher
+     */
+    private final AtomicLong claimed = new AtomicLong(-1);
+    /**
+     * subscriptions to the bus
+     */
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    /**
+     * lowest sequence handled by the subscribers when last looked at, so that publishers only look again near a lap
+     */
+    private volatile long gatingSequence = -1;
+    /**
+     * last sequence published by each thread
+     */
+    private final ThreadLocal<long[]> lastPublished = ThreadLocal.withInitial(() -> new long[]{-1});
+    /**
+     * failure of the first subscriber stopped, null while every subscriber runs
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * A subscriber following the ring on a thread of its own
+     */
+    public final class Subscription implements Runnable {
+        /**
+         * name of the subscription, used to name its thread
+         */
+        private final String name;
+        /**
+         * the subscriber
+         */
+        private final EventSubscriber subscriber;
+        /**
+         * subscriptions that must handle an event before this one
+         */
+        private final Subscription[] after;
+        /**
+         * subscriptions following this one, woken when it moves on
+         */
+        private final CopyOnWriteArrayList<Subscription> followers = new CopyOnWriteArrayList<>();
+        /**
+         * thread of the subscription
+         */
+        private final Thread thread;
+        /**
+         * last sequence handled
+         */
+        private volatile long sequence;
+        /**
+         * true while the subscription is parked waiting for events
+         */
+        private volatile boolean waiting;
+        /**
+         * what the subscription was stopped by, null while it runs
+         */
+        private volatile Throwable failure;
+
+        /**
+         * This is the constructor for the subscription
+         * @param name
+         * @param subscriber
+         * @param after
+         */
+        private Subscription(String name, EventSubscriber subscriber, Subscription[] after) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.after = after;
+            this.sequence = claimed.get();
+            this.thread = new Thread(this, "moblima-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Method to get the last sequence handled by the subscription
+         * @return the sequence
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Method to get what the subscription was stopped by
+         * @return the failure of the subscriber, or of a subscription it follows, null while it runs
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        /**
+         * Method to hand the events to the subscriber in batches, until the subscriber or one it follows fails
+         */
+        @Override
+        public void run() {
+            while (true) {
+                for (Subscription followed : after) {
+                    if (followed.failure != null) {
+                        stop(new IllegalStateException("The " + followed.name + " subscriber it follows has failed",
+                                followed.failure));
+                        return;
+                    }
+                }
+                long next = sequence + 1;
+                long last = lastAvailable(next);
+                if (last < next) {
+                    waiting = true;
+                    // an event published after the flag is set unparks this thread
+                    if (lastAvailable(next) < next) LockSupport.parkNanos(this, IDLE_NANOS);
+                    waiting = false;
+                    continue;
+                }
+                ArrayList<DomainEvent> batch = new ArrayList<>((int) (last - next + 1));
+                for (long s = next; s <= last; s++) batch.add(ring[(int) s & (RING_SIZE - 1)]);
+                try {
+                    subscriber.onEvents(batch);
+                } catch (Throwable e) {
+                    // the batch is not skipped: the subscription stays at the last event it handled
+                    stop(e);
+                    return;
+                }
+                sequence = last;
+                for (Subscription follower : followers) {
+                    if (follower.waiting) LockSupport.unpark(follower.thread);
+                }
+            }
+        }
+
+        /**
+         * Method to stop the subscription, so that it no longer holds the publishers back
+         * @param e what the subscription is stopped by
+         */
+        private void stop(Throwable e) {
+            failure = e;
+            EventBus.this.failure.compareAndSet(null, e);
+            System.out.println("[System: The " + name + " subscriber is stopped after event " + sequence + ": "
+                    + e + "]");
+            for (Subscription follower : followers) LockSupport.unpark(follower.thread);
+        }
+
+        /**
+         * Method to find the last event of the next batch
+         * @param next the first sequence of the batch
+         * @return the last sequence of the batch, next - 1 if there is no event to handle
+         */
+        private long lastAvailable(long next) {
+            long limit = next + MAX_BATCH - 1;
+            for (Subscription subscription : after) limit = Math.min(limit, subscription.sequence);
+            long last = next - 1;
+            while (last < limit && published.get((int) (last + 1) & (RING_SIZE - 1)) == last + 1) last++;
+            return last;
+        }
+    }
+
+    /**
+     * This is the constructor for the event bus
+     */
+    public EventBus() {
+        for (int i = 0; i < RING_SIZE; i++) published.set(i, -1);
+    }
+
+    /**
+     * Method to subscribe to the events published from now on
+     * @param name the name of the subscription
+     * @param subscriber
+     * @param after subscriptions that must handle an event before the subscriber is given it
+     * @return the subscription
+     */
+    public Subscription subscribe(String name, EventSubscriber subscriber, Subscription... after) {
+        Subscription subscription = new Subscription(name, subscriber, after);
+        for (Subscription followed : after) followed.followers.add(subscription);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Method to publish an event to every subscriber
+     * @param event
+     * @return the sequence of the event
+     */
+    public long publish(DomainEvent event) {
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - RING_SIZE;
+        if (wrapPoint > gatingSequence) {
+            long lowest;
+            // the slot still holds an event a subscriber has not handled
+            while (wrapPoint > (lowest = lowestSequence(sequence - 1))) LockSupport.parkNanos(WAIT_NANOS);
+            gatingSequence = lowest;
+        }
+        int slot = (int) sequence & (RING_SIZE - 1);
+        event.setSequence(sequence);
+        ring[slot] = event;
+        published.set(slot, sequence);
+        lastPublished.get()[0] = sequence;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.after.length == 0 && subscription.waiting) LockSupport.unpark(subscription.thread);
+        }
+        return sequence;
+    }
+
+    /**
+     * Method to wait until a subscription has handled every event published by the current thread, so that a
+     * thread reads its own changes
+     * @param subscription
+     * @throws IllegalStateException if the subscription is stopped, as what it keeps no longer matches the events
+     */
+    public void awaitOwnEvents(Subscription subscription) {
+        long own = lastPublished.get()[0];
+        if (Thread.currentThread() == subscription.thread) return;
+        while (subscription.sequence < own) {
+            if (subscription.failure != null) {
+                throw new IllegalStateException("The " + subscription.name + " subscriber is stopped",
+                        subscription.failure);
+            }
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Method to wait until every subscription still running has handled every event published so far. Events
+     * published while waiting may not be handled yet.
+     */
+    public void awaitDrained() {
+        long target = claimed.get();
+        for (Subscription subscription : subscriptions) {
+            if (Thread.currentThread() == subscription.thread) continue;
+            while (subscription.sequence < target && subscription.failure == null) LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Method to get what the first subscriber stopped was stopped by
+     * @return the failure, null while every subscriber runs
+     */
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    /**
+     * Method to find the lowest sequence handled by the subscribers still running
+     * @param none the sequence returned when there is no subscriber running
+     * @return the lowest sequence
+     */
+    private long lowestSequence(long none) {
+        long lowest = none;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.failure == null) lowest = Math.min(lowest, subscription.sequence);
+        }
+        return lowest;
+    }
+}
@@ -0,0 +1,15 @@
+package event;
+
+import java.util.List;
+
+/**
+ * Interface of a subscriber to the EventBus. A subscriber is given the events in the order they were published, in
+ * batches, on a thread of its own.
+ */
+public interface EventSubscriber {
+    /**
+     * Method called with the next events published
+     * @param events the events, oldest first, never empty
+     */
+    void onEvents(List<DomainEvent> events);
+}
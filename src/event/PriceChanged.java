@@ -0,0 +1,29 @@
+package event;
+
+import service.PriceMatrix;
+
+/**
+ * Event published when the ticket prices are committed
+ */
+public class PriceChanged extends DomainEvent {
+    /**
+     * the charges in force from now on
+     */
+    private final PriceMatrix priceMatrix;
+
+    /**
+     * This is the constructor for the event
+     * @param priceMatrix
+     */
+    public PriceChanged(PriceMatrix priceMatrix) {
+        this.priceMatrix = priceMatrix;
+    }
+
+    /**
+     * Method to get the charges in force from now on
+     * @return the price matrix
+     */
+    public PriceMatrix getPriceMatrix() {
+        return priceMatrix;
+    }
+}
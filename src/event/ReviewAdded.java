@@ -0,0 +1,44 @@
+package event;
+
+import model.movie.Movie;
+import model.movie.Review;
+
+/**
+ * Event published when a review of a movie is added
+ */
+public class ReviewAdded extends DomainEvent {
+    /**
+     * the movie reviewed
+     */
+    private final Movie movie;
+    /**
+     * the review added
+     */
+    private final Review review;
+
+    /**
+     * This is the constructor for the event
+     * @param movie
+     * @param review
+     */
+    public ReviewAdded(Movie movie, Review review) {
+        this.movie = movie;
+        this.review = review;
+    }
+
+    /**
+     * Method to get the movie reviewed
+     * @return the movie
+     */
+    public Movie getMovie() {
+        return movie;
+    }
+
+    /**
+     * Method to get the review added
+     * @return the review
+     */
+    public Review getReview() {
+        return review;
+    }
+}
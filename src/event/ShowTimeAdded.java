@@ -0,0 +1,29 @@
+package event;
+
+import model.cinema.ShowTime;
+
+/**
+ * Event published when a showtime is added to a cineplex
+ */
+public class ShowTimeAdded extends DomainEvent {
+    /**
+     * the showtime added
+     */
+    private final ShowTime showTime;
+
+    /**
+     * This is the constructor for the event
+     * @param showTime
+     */
+    public ShowTimeAdded(ShowTime showTime) {
+        this.showTime = showTime;
+    }
+
+    /**
+     * Method to get the showtime added
+     * @return the showtime
+     */
+    public ShowTime getShowTime() {
+        return showTime;
+    }
+}
@@ -0,0 +1,29 @@
+package event;
+
+import model.cinema.ShowTime;
+
+/**
+ * Event published when a showtime is removed from its cineplex, on its own or with its cineplex
+ */
+public class ShowTimeRemoved extends DomainEvent {
+    /**
+     * the showtime removed
+     */
+    private final ShowTime showTime;
+
+    /**
+     * This is the constructor for the event
+     * @param showTime
+     */
+    public ShowTimeRemoved(ShowTime showTime) {
+        this.showTime = showTime;
+    }
+
+    /**
+     * Method to get the showtime removed
+     * @return the showtime
+     */
+    public ShowTime getShowTime() {
+        return showTime;
+    }
+}
@@ -11,7 +11,7 @@ public enum AgeGroup {
     CHILDREN("CHILDREN", 0);
 
     private String groupType;
-    private double price;
+    private volatile double price;
 
     AgeGroup(String groupType, double price){
         this.groupType = groupType;
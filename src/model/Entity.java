@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * Entity interface that is implemented by the POJO classes that are looked up by a numeric ID. The ID is assigned by
+ * the DBController when the entity is added to the database and never changes afterwards; 0 means not yet assigned.
+ */
+public interface Entity extends Model {
+
+    /**
+     * This method will return the ID of the entity
+     *
+     * @return the ID of the entity, 0 if it is not yet assigned
+     */
+    int getId();
+
+    /**
+     * This method will set the ID of the entity
+     *
+     * @param id the ID of the entity
+     */
+    void setId(int id);
+}
@@ -4,6 +4,10 @@ import java.io.Serializable;
 import java.time.LocalDate;
 
 public class PublicHoliday implements Serializable {
+    /**
+     * serial version of the public holiday, kept so that databases written by Java serialization can still be read
+     */
+    private static final long serialVersionUID = 8603418420088024746L;
     private String publicHolidayName;
     private LocalDate publicHolidayDate;
 
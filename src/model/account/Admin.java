@@ -45,4 +45,12 @@ public class Admin implements Model {
 
         return password;
     }
+
+    /**This method sets the password of the admin
+     * @param password the password of the admin
+     */
+    public void setPassword(String password) {
+
+        this.password = password;
+    }
 }
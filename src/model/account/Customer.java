@@ -1,6 +1,6 @@
 package model.account;
 
-import model.Model;
+import model.Entity;
 import model.transaction.Booking;
 
 import java.util.ArrayList;
@@ -10,7 +10,11 @@ import java.util.ArrayList;
     - mobile number
     - email address
  **/
-public class Customer implements Model {
+public class Customer implements Entity {
+    /**
+     * ID of the customer, assigned by the DBController
+     */
+    private int id;
     /**
      * username of Customer
      */
@@ -127,19 +131,37 @@ public class Customer implements Model {
      *
      * @param booking The booking to be added into the customer's booking history
      */
-    public void addBookingHistory(Booking booking) {
+    public synchronized void addBookingHistory(Booking booking) {
 
         bookingHistory.add(booking);
     }
 
     /**
-     * This method will get the bookings into the customer's booking history
+     * This method will get the bookings into the customer's booking history. The history is copied, so that it can
+     * be read while the customer makes another booking.
      *
-     * @return The customer's booking history
+     * @return A copy of the customer's booking history
      */
-    public ArrayList<Booking> getBookingHistory() {
+    public synchronized ArrayList<Booking> getBookingHistory() {
 
-        return bookingHistory;
+        return new ArrayList<>(bookingHistory);
     }
 
+    /**This method will return the ID of the customer
+     * @return the ID of the customer, 0 if it is not yet added to the database
+     */
+    @Override
+    public int getId() {
+
+        return id;
+    }
+
+    /**This method will set the ID of the customer
+     * @param id                        the ID of the customer
+     */
+    @Override
+    public void setId(int id) {
+
+        this.id = id;
+    }
 }
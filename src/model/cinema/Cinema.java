@@ -1,13 +1,15 @@
 package model.cinema;
 
-import model.Model;
-
-import java.util.HashMap;
+import model.Entity;
 
 /**
  * Cinema class
  */
-public class Cinema implements Model {
+public class Cinema implements Entity {
+    /**
+     * ID of the cinema, assigned by the DBController
+     */
+    private int id;
 //    private static final Scanner scanner = new Scanner(System.in);
 
 //    private UUID uuid;
@@ -16,9 +18,9 @@ public class Cinema implements Model {
      */
     private String name;
     /**
-     * a template layout of the cinema
+     * a template layout of the cinema, shared with every cinema of the same size
      */
-    private HashMap<Character, Seat[]> cinemaLayout;
+    private SeatLayout cinemaLayout;
     /**
      * IMAX, DIGITAL or 3D
      */
@@ -89,13 +91,13 @@ public class Cinema implements Model {
     }
 
     /**
-     * This method will clone the layout of the cinema
+     * This method will create an empty seat map of the cinema layout for a new showtime
      *
-     * @return The clone version of the cinema layout
+     * @return A seat map with every seat free
      */
-    public HashMap<Character, Seat[]> copyCinemaLayout() {
+    public SeatMap copyCinemaLayout() {
 
-        return (HashMap<Character, Seat[]>) (cinemaLayout.clone());
+        return new SeatMap(cinemaLayout);
     }
 
     /**
@@ -103,7 +105,7 @@ public class Cinema implements Model {
      *
      * @return The cinema layout
      */
-    public HashMap<Character, Seat[]> getCinemaLayout() {
+    public SeatLayout getCinemaLayout() {
 
         return cinemaLayout;
     }
@@ -150,8 +152,27 @@ public class Cinema implements Model {
 
         return "Cinema{" +
                 "name='" + name + '\'' +
-                ", cinemaLayout=" + cinemaLayout +
+                ", rows=" + cinemaLayout.getRows() +
+                ", columns=" + cinemaLayout.getCols() +
                 ", cinemaType=" + cinemaType +
                 '}';
     }
+
+    /**This method will return the ID of the cinema
+     * @return the ID of the cinema, 0 if it is not yet added to the database
+     */
+    @Override
+    public int getId() {
+
+        return id;
+    }
+
+    /**This method will set the ID of the cinema
+     * @param id                        the ID of the cinema
+     */
+    @Override
+    public void setId(int id) {
+
+        this.id = id;
+    }
 }
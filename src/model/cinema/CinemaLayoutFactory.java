@@ -1,9 +1,10 @@
 package model.cinema;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Factory class to create layouts of a cinema based on number of columns and number of rows supplied
+ * Factory class to create layouts of a cinema based on number of columns and number of rows supplied. Layouts are
+ * immutable, so one instance is shared by every cinema and showtime with the same dimensions.
  */
 public class CinemaLayoutFactory {
     /**
@@ -14,6 +15,10 @@ public class CinemaLayoutFactory {
      * default value for number of rows
      */
     private static Character maxRow = 'J';
+    /**
+     * shared layouts by their dimensions
+     */
+    private static final ConcurrentHashMap<Integer, SeatLayout> layouts = new ConcurrentHashMap<>();
 
     /**
      * This method is used to get the cinema layout based on a given cinema
@@ -21,17 +26,9 @@ public class CinemaLayoutFactory {
      * @param cinema the cinema selected to obtain the seat layout
      * @return the layout of the cinema
      */
-    public static HashMap<Character, Seat[]> getCinemaLayout(Cinema cinema) {
-
-        HashMap<Character, Seat[]> layout = new HashMap<>();
-        for (char c = cinema.getMaxRow(); c >= 'A'; c--) {
-            Seat[] row = new Seat[cinema.getMaxCol()];
-            for (int i = 0; i < cinema.getMaxCol(); i++) {
-                row[i] = new Seat(cinema, c, i + 1);
-            }
-            layout.put(c, row);
-        }
-        return layout;
+    public static SeatLayout getCinemaLayout(Cinema cinema) {
+
+        return getLayout(cinema.getMaxRow(), cinema.getMaxCol());
     }
 
     /**
@@ -42,17 +39,21 @@ public class CinemaLayoutFactory {
      * @param maxCol the maximum number of seats for a column
      * @return the layout of the cinema
      */
-    public static HashMap<Character, Seat[]> getCinemaLayout(Cinema cinema, char maxRow, int maxCol) {
-
-        HashMap<Character, Seat[]> layout = new HashMap<>();
-        for (char c = maxRow; c >= 'A'; c--) {
-            Seat[] row = new Seat[maxCol];
-            for (int i = 0; i < maxCol; i++) {
-                row[i] = new Seat(cinema, c, i + 1);
-            }
-            layout.put(c, row);
-        }
-        return layout;
+    public static SeatLayout getCinemaLayout(Cinema cinema, char maxRow, int maxCol) {
+
+        return getLayout(maxRow, maxCol);
+    }
+
+    /**
+     * This method is used to get the shared layout with the given maximum row and column
+     *
+     * @param maxRow the letter of the last row
+     * @param maxCol the number of seats in each row
+     * @return the shared layout
+     */
+    public static SeatLayout getLayout(char maxRow, int maxCol) {
+
+        return layouts.computeIfAbsent(maxRow * 128 + maxCol, key -> new SeatLayout(maxRow, maxCol));
     }
 
 }
@@ -9,7 +9,7 @@ public enum CinemaType {
     IMAX("IMAX", 0);
 
     private String name;
-    private double prices;
+    private volatile double prices;
 
     CinemaType(String name, double prices) {
         this.name = name;
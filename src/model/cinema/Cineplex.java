@@ -1,15 +1,22 @@
 package model.cinema;
 
-import model.Model;
+import model.Entity;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.function.Predicate;
 
 /**
- * Cineplex class
+ * Cineplex class. The cinemas and showtimes of a cineplex are copy-on-write: the lists and map returned are never
+ * changed once published and can be iterated without a lock. Changes are made under the lock of the cineplex, so
+ * that showtimes of different cineplexes are added and removed in parallel.
  */
-public class Cineplex implements Model {
+public class Cineplex implements Entity {
+    /**
+     * ID of the cineplex, assigned by the DBController
+     */
+    private int id;
     /**
      * name of Cineplex
      */
@@ -17,11 +24,11 @@ public class Cineplex implements Model {
     /**
      * ArrayList of all Cinema objects in the Cineplex object
      */
-    private ArrayList<Cinema> cinemas;
+    private volatile ArrayList<Cinema> cinemas;
     /**
      * HashMap of ShowTimes identified by their dates
      */
-    private HashMap<LocalDate, ArrayList<ShowTime>> showTimes;
+    private volatile HashMap<LocalDate, ArrayList<ShowTime>> showTimes;
 
     /**
      * This is constructor for Cineplex
@@ -75,6 +82,32 @@ public class Cineplex implements Model {
         this.cinemas = cinemas;
     }
 
+    /**
+     * This method is defined to add a cinema to the cineplex
+     *
+     * @param cinema The cinema to be added
+     */
+    public synchronized void addCinema(Cinema cinema) {
+
+        ArrayList<Cinema> copy = new ArrayList<>(cinemas);
+        copy.add(cinema);
+        this.cinemas = copy;
+    }
+
+    /**
+     * This method is defined to remove a cinema from the cineplex
+     *
+     * @param id The ID of the cinema to be removed
+     * @return true if the cinema was removed
+     */
+    public synchronized boolean removeCinema(int id) {
+
+        ArrayList<Cinema> copy = new ArrayList<>(cinemas);
+        if (!copy.removeIf(cinema -> cinema.getId() == id)) return false;
+        this.cinemas = copy;
+        return true;
+    }
+
     /**This method is defined to get and return the showtime that are set and configured by the admin
      * @return The HashMap of showtime for different movies
      */
@@ -90,5 +123,58 @@ public class Cineplex implements Model {
 
         this.showTimes = showTimes;
     }
-}
 
+    /**This method is defined to add a showtime on a date
+     * @param dateOfMovie   The date of the showtime
+     * @param showTime      The showtime to be added
+     */
+    public synchronized void addShowTime(LocalDate dateOfMovie, ShowTime showTime) {
+
+        HashMap<LocalDate, ArrayList<ShowTime>> copy = new HashMap<>(showTimes);
+        ArrayList<ShowTime> day = copy.get(dateOfMovie);
+        day = day == null ? new ArrayList<>() : new ArrayList<>(day);
+        day.add(showTime);
+        copy.put(dateOfMovie, day);
+        this.showTimes = copy;
+    }
+
+    /**This method is defined to remove the showtimes of a date that match a condition
+     * @param dateOfMovie   The date of the showtimes
+     * @param filter        The condition of the showtimes to be removed
+     * @return The removed showtimes
+     */
+    public synchronized ArrayList<ShowTime> removeShowTimes(LocalDate dateOfMovie, Predicate<ShowTime> filter) {
+
+        ArrayList<ShowTime> removed = new ArrayList<>();
+        ArrayList<ShowTime> day = showTimes.get(dateOfMovie);
+        if (day == null) return removed;
+        ArrayList<ShowTime> kept = new ArrayList<>(day.size());
+        for (ShowTime showTime : day) {
+            if (filter.test(showTime)) removed.add(showTime);
+            else kept.add(showTime);
+        }
+        if (removed.isEmpty()) return removed;
+        HashMap<LocalDate, ArrayList<ShowTime>> copy = new HashMap<>(showTimes);
+        copy.put(dateOfMovie, kept);
+        this.showTimes = copy;
+        return removed;
+    }
+
+    /**This method will return the ID of the cineplex
+     * @return the ID of the cineplex, 0 if it is not yet added to the database
+     */
+    @Override
+    public int getId() {
+
+        return id;
+    }
+
+    /**This method will set the ID of the cineplex
+     * @param id                        the ID of the cineplex
+     */
+    @Override
+    public void setId(int id) {
+
+        this.id = id;
+    }
+}
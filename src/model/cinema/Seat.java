@@ -3,72 +3,53 @@ package model.cinema;
 import model.Model;
 
 /**
- * Seat class
+ * Seat class. A seat only identifies a position in a SeatLayout; whether it is occupied for a showtime is kept in
+ * the SeatMap of the showtime.
  */
 public class Seat implements Model {
 
-    /**
-     * indicate if a seat is occupied or not
-     */
-    private boolean isOccupied = false;
-    /**
-     * Cinema the seat belongs to
-     */
-    private Cinema cinema;
     /**
      * Row index
      */
-    private char row;
+    private final char row;
     /**
      * column index
      */
-    private int col;
+    private final int col;
 
     /**
      * This is constructor for Seat
      *
-     * @param cinema The cinema that consist of the seat
      * @param row    The alphabetically numbered row of the seat
      * @param col    The column number of the seat
      */
-    public Seat(Cinema cinema, char row, int col) {
+    public Seat(char row, int col) {
 
-        this.cinema = cinema;
         this.row = row;
         this.col = col;
     }
-    /**This method will return a string that is formatted to show if the seat is occupied or not occupied
-     * @return A string formatted that shows if a seat is occupied or unoccupied
+
+    /**This method will return the row of the seat
+     * @return The alphabetically numbered row of the seat
      */
-    public String toString() {
+    public char getRow() {
 
-        return isOccupied ? "[X]" : "[ ]";
+        return row;
     }
 
-    /**This method will change the status of the seat to occupied where it means that the seat has been booked
-     * @return true if the selected seat is unoccupied
-     * @return false id the selected seat is occupied already
+    /**This method will return the column of the seat
+     * @return The column number of the seat
      */
-    public boolean makeBooking() {
+    public int getCol() {
 
-        if (!isOccupied) {
-            isOccupied = true;
-            return true;
-        }
-        return false;
+        return col;
     }
 
-    /**This method will change the status of the seat to unoccupied where it means that the booked seat has been
-     * cancelled
-     * @return true if the selected seat is occupied
-     * @return false id the selected seat is unoccupied
+    /**This method will return the code of the seat, such as A1
+     * @return The code of the seat
      */
-    public boolean cancelBooking() {
+    public String toString() {
 
-        if (isOccupied) {
-            isOccupied = false;
-            return true;
-        }
-        return false;
+        return row + Integer.toString(col);
     }
 }
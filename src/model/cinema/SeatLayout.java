@@ -0,0 +1,129 @@
+package model.cinema;
+
+import model.Model;
+
+/**
+ * Immutable template of the seats of a cinema hall. A layout is shared by every cinema and every showtime with the
+ * same number of rows and columns, and is obtained from CinemaLayoutFactory.
+ * Rows are indexed from 0 ('A') and columns from 0 (seat 1). A row holds at most MAX_COLS seats so that the
+ * occupancy of a row fits in one long of a SeatMap.
+ */
+public class SeatLayout implements Model {
+    /**
+     * maximum number of seats in a row
+     */
+    public static final int MAX_COLS = 64;
+    /**
+     * number of rows
+     */
+    private final int rows;
+    /**
+     * number of seats in each row
+     */
+    private final int cols;
+    /**
+     * the seats of the layout, by row and column
+     */
+    private final Seat[][] seats;
+
+    /**
+     * This is the constructor for the layout, use CinemaLayoutFactory to obtain a shared instance
+     *
+     * @param maxRow The letter of the last row
+     * @param maxCol The number of seats in each row
+     */
+    SeatLayout(char maxRow, int maxCol) {
+
+        if (maxRow < 'A' || maxRow > 'Z') throw new IllegalArgumentException("Rows must be between A and Z");
+        if (maxCol < 1 || maxCol > MAX_COLS)
+            throw new IllegalArgumentException("Columns must be between 1 and " + MAX_COLS);
+        this.rows = maxRow - 'A' + 1;
+        this.cols = maxCol;
+        this.seats = new Seat[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                seats[r][c] = new Seat((char) ('A' + r), c + 1);
+            }
+        }
+    }
+
+    /**This method will return the number of rows
+     * @return The number of rows
+     */
+    public int getRows() {
+
+        return rows;
+    }
+
+    /**This method will return the number of seats in each row
+     * @return The number of columns
+     */
+    public int getCols() {
+
+        return cols;
+    }
+
+    /**This method will return the letter of the last row
+     * @return The letter of the last row
+     */
+    public char getMaxRow() {
+
+        return (char) ('A' + rows - 1);
+    }
+
+    /**This method will return the bit mask covering every seat of a row
+     * @return The mask of a full row
+     */
+    public long getRowMask() {
+
+        return cols == 64 ? -1L : (1L << cols) - 1;
+    }
+
+    /**This method will return the total number of seats
+     * @return The number of seats in the layout
+     */
+    public int getCapacity() {
+
+        return rows * cols;
+    }
+
+    /**This method will return the seat at a row and column index
+     * @param row   The row index, 0 for row A
+     * @param col   The column index, 0 for seat 1
+     * @return The seat
+     */
+    public Seat getSeat(int row, int col) {
+
+        return seats[row][col];
+    }
+
+    /**This method will parse a seat code such as "A1" or "c12"
+     * @param code  The seat code entered by the customer
+     * @return The seat, or null if the code is not a seat of this layout
+     */
+    public Seat parseSeat(String code) {
+
+        if (code == null) return null;
+        code = code.trim();
+        if (code.length() < 2) return null;
+        int row = Character.toUpperCase(code.charAt(0)) - 'A';
+        int col = 0;
+        for (int i = 1; i < code.length(); i++) {
+            int digit = Character.digit(code.charAt(i), 10);
+            if (digit < 0 || col > cols) return null;
+            col = col * 10 + digit;
+        }
+        if (row < 0 || row >= rows || col < 1 || col > cols) return null;
+        return seats[row][col - 1];
+    }
+
+    /**
+     * This method makes sure a layout read by Java serialization is the shared instance
+     *
+     * @return The shared layout with the same dimensions
+     */
+    private Object readResolve() {
+
+        return CinemaLayoutFactory.getLayout(getMaxRow(), cols);
+    }
+}
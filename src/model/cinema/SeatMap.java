@@ -0,0 +1,269 @@
+package model.cinema;
+
+import model.Model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The seats of a showtime: a shared, immutable SeatLayout plus the occupancy of the showtime, kept as one long per
+ * row with one bit per seat (bit 0 is seat 1). Booking, cancellation and availability counts all work on the bits.
+ *
+ * The words are updated with compare-and-set only, and every seat has exactly one owner: the thread whose
+ * compare-and-set turned its bit on. Seats of one row are reserved with a single compare-and-set, without a lock.
+ * Reservations over several rows are not lock-free: they take the monitor of the seat map, so there is one at a
+ * time per showtime, and set the rows in ascending order, clearing the rows already set if a seat of a later row is
+ * taken. A reservation of one row that finds its seat held by a reservation over several rows blocks on the same
+ * monitor until that reservation has finished, then tries again. So a reservation only fails when a seat is really
+ * taken, never because of a reservation that is rolled back, at the cost of serializing the reservations over
+ * several rows of a showtime; readers of the rows may still see such a reservation half made.
+ */
+public class SeatMap implements Model {
+    /**
+     * template of the seats of the cinema
+     */
+    private final SeatLayout layout;
+    /**
+     * occupied seats, one word per row
+     */
+    private final AtomicLongArray occupancy;
+    /**
+     * told after the occupancy changes, null when nobody is listening
+     */
+    private transient volatile Runnable occupancyListener;
+    /**
+     * the seats being reserved by the reservation over several rows being made, null when there is none
+     */
+    private transient volatile long[] reserving;
+
+    /**
+     * This is the constructor for an empty seat map
+     *
+     * @param layout The layout of the cinema
+     */
+    public SeatMap(SeatLayout layout) {
+
+        this.layout = layout;
+        this.occupancy = new AtomicLongArray(layout.getRows());
+    }
+
+    /**This method will return the layout of the seat map
+     * @return The layout of the cinema
+     */
+    public SeatLayout getLayout() {
+
+        return layout;
+    }
+
+    /**This method will return if a seat is occupied
+     * @param seat  The seat of the layout
+     * @return true if the seat has been booked
+     */
+    public boolean isOccupied(Seat seat) {
+
+        return isOccupied(seat.getRow() - 'A', seat.getCol() - 1);
+    }
+
+    /**This method will return if a seat is occupied
+     * @param row   The row index, 0 for row A
+     * @param col   The column index, 0 for seat 1
+     * @return true if the seat has been booked
+     */
+    public boolean isOccupied(int row, int col) {
+
+        return (occupancy.get(row) & (1L << col)) != 0;
+    }
+
+    /**This method will mark a seat as occupied
+     * @param seat  The seat to be booked
+     * @return true if the seat was free, false if it was already occupied
+     */
+    public boolean book(Seat seat) {
+
+        return reserveRow(seat.getRow() - 'A', 1L << (seat.getCol() - 1));
+    }
+
+    /**This method will mark a seat as free
+     * @param seat  The seat to be cancelled
+     * @return true if the seat was occupied, false if it was already free
+     */
+    public boolean cancel(Seat seat) {
+
+        return releaseRow(seat.getRow() - 'A', 1L << (seat.getCol() - 1));
+    }
+
+    /**This method will reserve a set of seats all-or-nothing. Seats of one row are reserved without a lock; seats
+     * over several rows are reserved under the monitor of the seat map.
+     * @param rowMasks  The seats to be reserved, one mask per row as given by toRowMasks
+     * @return true if every seat was free and is now reserved, false if a seat was taken and nothing is reserved
+     */
+    public boolean reserve(long[] rowMasks) {
+
+        int firstRow = -1;
+        int numOfRows = 0;
+        for (int row = 0; row < rowMasks.length; row++) {
+            if (rowMasks[row] != 0) {
+                if (firstRow < 0) firstRow = row;
+                numOfRows++;
+            }
+        }
+        if (numOfRows <= 1) return numOfRows == 0 || reserveRow(firstRow, rowMasks[firstRow]);
+        synchronized (this) {
+            reserving = rowMasks;
+            try {
+                for (int row = firstRow; row < rowMasks.length; row++) {
+                    if (rowMasks[row] != 0 && !setRow(row, rowMasks[row])) {
+                        // roll back the rows reserved so far
+                        for (int done = firstRow; done < row; done++) {
+                            if (rowMasks[done] != 0) releaseRow(done, rowMasks[done]);
+                        }
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                reserving = null;
+            }
+        }
+    }
+
+    /**This method will release a set of seats
+     * @param rowMasks  The seats to be released, one mask per row as given by toRowMasks
+     * @return true if every seat was occupied before it was released
+     */
+    public boolean release(long[] rowMasks) {
+
+        boolean allOccupied = true;
+        for (int row = 0; row < rowMasks.length; row++) {
+            if (rowMasks[row] != 0 && !releaseRow(row, rowMasks[row])) {
+                allOccupied = false;
+            }
+        }
+        return allOccupied;
+    }
+
+    /**This method will convert seats of the layout into one bit mask per row
+     * @param seats The seats of the layout
+     * @return The masks of the seats, or null if the same seat is given twice
+     */
+    public long[] toRowMasks(Seat[] seats) {
+
+        long[] rowMasks = new long[layout.getRows()];
+        for (Seat seat : seats) {
+            int row = seat.getRow() - 'A';
+            long bit = 1L << (seat.getCol() - 1);
+            if ((rowMasks[row] & bit) != 0) return null;
+            rowMasks[row] |= bit;
+        }
+        return rowMasks;
+    }
+
+    /**
+     * This method sets the bits of a row if none of them is set. A bit held by the reservation over several rows
+     * being made is waited for, as that reservation may be rolled back.
+     *
+     * @param row   The row index
+     * @param mask  The bits to be set
+     * @return true if the bits were set, false if one of them is taken
+     */
+    private boolean reserveRow(int row, long mask) {
+
+        while (true) {
+            if (setRow(row, mask)) return true;
+            long[] pending = reserving;
+            if (pending == null || (pending[row] & mask) == 0) return false;
+            synchronized (this) {
+                // the reservation over several rows has finished once the monitor is taken
+            }
+        }
+    }
+
+    /**
+     * This method sets the bits of a row if none of them is set, without waiting
+     *
+     * @param row   The row index
+     * @param mask  The bits to be set
+     * @return true if the bits were set, false if one of them was already set
+     */
+    private boolean setRow(int row, long mask) {
+
+        while (true) {
+            long current = occupancy.get(row);
+            if ((current & mask) != 0) return false;
+            if (occupancy.compareAndSet(row, current, current | mask)) {
+                occupancyChanged();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * This method clears the bits of a row
+     *
+     * @param row   The row index
+     * @param mask  The bits to be cleared
+     * @return true if all the bits were set before they were cleared
+     */
+    private boolean releaseRow(int row, long mask) {
+
+        long previous = occupancy.getAndUpdate(row, current -> current & ~mask);
+        if ((previous & mask) != 0) occupancyChanged();
+        return (previous & mask) == mask;
+    }
+
+    /**This method will set the listener told after the occupancy changes. The listener is called by the thread that
+     * changed the seats, once per row changed, and must return quickly.
+     * @param occupancyListener  The listener, or null to stop telling anyone
+     */
+    public void setOccupancyListener(Runnable occupancyListener) {
+
+        this.occupancyListener = occupancyListener;
+    }
+
+    /**
+     * This method tells the listener that the occupancy changed
+     */
+    private void occupancyChanged() {
+
+        Runnable listener = occupancyListener;
+        if (listener != null) listener.run();
+    }
+
+    /**This method will return the occupied seats of a row
+     * @param row   The row index, 0 for row A
+     * @return The occupancy bits of the row
+     */
+    public long getRowBits(int row) {
+
+        return occupancy.get(row);
+    }
+
+    /**This method will set the occupied seats of a row, used when a seat map is restored from the database
+     * @param row   The row index, 0 for row A
+     * @param bits  The occupancy bits of the row
+     */
+    public void setRowBits(int row, long bits) {
+
+        occupancy.set(row, bits & layout.getRowMask());
+        occupancyChanged();
+    }
+
+    /**This method will return the number of occupied seats
+     * @return The number of booked seats
+     */
+    public int getOccupiedCount() {
+
+        int count = 0;
+        for (int row = 0; row < occupancy.length(); row++) {
+            count += Long.bitCount(occupancy.get(row));
+        }
+        return count;
+    }
+
+    /**This method will return the number of free seats
+     * @return The number of seats that can still be booked
+     */
+    public int getAvailableCount() {
+
+        return layout.getCapacity() - getOccupiedCount();
+    }
+}
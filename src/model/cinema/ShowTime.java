@@ -1,17 +1,21 @@
 package model.cinema;
 
-import model.Model;
+import model.Entity;
 import model.movie.Movie;
 import model.movie.MovieEnums;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.HashMap;
 
 /**
  * ShowTime class
  */
-public class ShowTime implements Model {
+public class ShowTime implements Entity {
+
+    /**
+     * ID of the showtime, assigned by the DBController
+     */
+    private int id;
 
     /**
      * Movie screened
@@ -29,9 +33,9 @@ public class ShowTime implements Model {
     private LocalTime timeOfMovie;
 
     /**
-     * A copy of the seat layout of the cinema screening the movie
+     * The seats of the cinema screening the movie and which of them are booked for this showtime
      */
-    private HashMap<Character, Seat[]> seatLayout;
+    private SeatMap seatMap;
 
     /**
      * Cinema the movie is screened in
@@ -64,20 +68,20 @@ public class ShowTime implements Model {
      * @param movie       The movie of the showtime
      * @param dateOfMovie The date of when the movie is showed for that showtime
      * @param timeOfMovie The time of when the movie is showed for that showtime
-     * @param seatLayout  The seat layout of the cinema for the showtime
+     * @param seatMap     The seat map of the cinema for the showtime
      * @param cineplex    The cineplex of the showtime
      * @param cinema      The cinema of the showtime
      * @param language    The language of the movie for that showtime
      * @param subtitle    The subtitle of the movie for that showtime
      * @param movieType   The type of the movie for that showtime
      */
-    public ShowTime(Movie movie, LocalDate dateOfMovie, LocalTime timeOfMovie, HashMap<Character, Seat[]> seatLayout,
+    public ShowTime(Movie movie, LocalDate dateOfMovie, LocalTime timeOfMovie, SeatMap seatMap,
                     Cineplex cineplex, Cinema cinema, MovieEnums.Language language, MovieEnums.Subtitle subtitle, MovieEnums.MovieType movieType) {
 
         this.movie = movie;
         this.dateOfMovie = dateOfMovie;
         this.timeOfMovie = timeOfMovie;
-        this.seatLayout = seatLayout;
+        this.seatMap = seatMap;
         this.cinema = cinema;
         this.cineplex = cineplex;
         this.language = language;
@@ -89,17 +93,17 @@ public class ShowTime implements Model {
      * @param movie                     The movie of the showtime
      * @param dateOfMovie               The date of when the movie is showed for that showtime
      * @param timeOfMovie               The time of when the movie is showed for that showtime
-     * @param seatLayout                The seat layout of the cinema for the showtime
+     * @param seatMap                   The seat map of the cinema for the showtime
      * @param cineplex                  The cineplex of the showtime
      * @param cinema                    The cinema of the showtime
      */
-    public ShowTime(Movie movie, LocalDate dateOfMovie, LocalTime timeOfMovie, HashMap<Character, Seat[]> seatLayout,
+    public ShowTime(Movie movie, LocalDate dateOfMovie, LocalTime timeOfMovie, SeatMap seatMap,
                     Cineplex cineplex, Cinema cinema) {
 
         this.movie = movie;
         this.dateOfMovie = dateOfMovie;
         this.timeOfMovie = timeOfMovie;
-        this.seatLayout = seatLayout;
+        this.seatMap = seatMap;
         this.cinema = cinema;
         this.cineplex = cineplex;
         this.language = MovieEnums.Language.ENGLISH;
@@ -155,20 +159,20 @@ public class ShowTime implements Model {
         this.timeOfMovie = timeOfMovie;
     }
 
-    /**This method will get and return the seat layout of the cinema for the showtime
-     * @return the seat layout for the showtime
+    /**This method will get and return the seat map of the cinema for the showtime
+     * @return the seat map for the showtime
      */
-    public HashMap<Character, Seat[]> getSeatLayout() {
+    public SeatMap getSeatMap() {
 
-        return seatLayout;
+        return seatMap;
     }
 
-    /**This method will set the seat layout of the cinema for the showtime
-     * @param seatLayout                the seat layout for the showtime
+    /**This method will set the seat map of the cinema for the showtime
+     * @param seatMap                   the seat map for the showtime
      */
-    public void setSeatLayout(HashMap<Character, Seat[]> seatLayout) {
+    public void setSeatMap(SeatMap seatMap) {
 
-        this.seatLayout = seatLayout;
+        this.seatMap = seatMap;
     }
 
     /**This method will get the cinema of the showtime
@@ -267,4 +271,22 @@ public class ShowTime implements Model {
                 "\n Subtitle: " + subtitle +
                 "\n Movie Type: " + movieType + "\n\n";
     }
+
+    /**This method will return the ID of the showtime
+     * @return the ID of the showtime, 0 if it is not yet added to the database
+     */
+    @Override
+    public int getId() {
+
+        return id;
+    }
+
+    /**This method will set the ID of the showtime
+     * @param id                        the ID of the showtime
+     */
+    @Override
+    public void setId(int id) {
+
+        this.id = id;
+    }
 }
@@ -1,13 +1,17 @@
 package model.movie;
 
-import model.Model;
+import model.Entity;
 
 import java.util.ArrayList;
 
 /**
  * Class containing information of a Movie
  */
-public class Movie implements Model {
+public class Movie implements Entity {
+    /**
+     * ID of the movie, assigned by the DBController
+     */
+    private int id;
     /**
      * title of movie
      */
@@ -45,13 +49,29 @@ public class Movie implements Model {
      */
     private MovieEnums.MovieType movieType = MovieEnums.MovieType.DIGITAL;
     /**
-     * overall rating of the movie
+     * overall rating of the movie, null until the movie is reviewed
      */
     private Float overallRating = null;
     /**
-     * arraylist of reviews of the movie
+     * reviews of the movie read from a database written before the ReviewStore, moved into the store on load
      */
     private ArrayList<Review> reviews;
+    /**
+     * highest rating a review can give
+     */
+    public static final int MAX_RATING = 5;
+    /**
+     * number of reviews giving each rating, index 0 for a rating of 1
+     */
+    private int[] ratingHistogram = new int[MAX_RATING];
+    /**
+     * sum of the ratings of all reviews
+     */
+    private long ratingSum;
+    /**
+     * number of reviews
+     */
+    private int ratingCount;
 
     /**
      * constructor for Movie
@@ -66,7 +86,6 @@ public class Movie implements Model {
         this.director = director;
         this.cast = cast;
         this.synopsis = synopsis;
-        reviews = new ArrayList<>();
     }
 
     /**
@@ -91,7 +110,6 @@ public class Movie implements Model {
         this.movieStatus = movieStatus;
         this.movieRating = movieRating;
         this.movieType = movieType;
-        reviews = new ArrayList<>();
     }
 
 
@@ -256,19 +274,99 @@ public class Movie implements Model {
     }
 
     /**
-     * get all reviews of the movie
-     * @return arraylist of review objects
+     * count the rating of a new review in the rating aggregates
+     * @param rating
+     */
+    public synchronized void addRating(int rating) {
+        if (rating < 1 || rating > MAX_RATING) {
+            throw new IllegalArgumentException("rating must be between 1 and " + MAX_RATING);
+        }
+        ensureRatingAggregates();
+        ratingHistogram[rating - 1]++;
+        ratingSum += rating;
+        ratingCount++;
+        overallRating = (float) ratingSum / ratingCount;
+    }
+
+    /**
+     * get the average rating of the movie without going through its reviews
+     * @return average rating, 0 if the movie has no reviews
+     */
+    public synchronized double getAverageRating() {
+        ensureRatingAggregates();
+        return ratingCount == 0 ? 0 : (double) ratingSum / ratingCount;
+    }
+
+    /**
+     * get the number of reviews of the movie
+     * @return number of reviews
+     */
+    public synchronized int getRatingCount() {
+        ensureRatingAggregates();
+        return ratingCount;
+    }
+
+    /**
+     * get the number of reviews giving each rating
+     * @return copy of the histogram, index 0 for a rating of 1
+     */
+    public synchronized int[] getRatingHistogram() {
+        ensureRatingAggregates();
+        return ratingHistogram.clone();
+    }
+
+    /**
+     * set the rating aggregates from a stored histogram, used when a movie is restored from the database
+     * @param histogram number of reviews giving each rating, index 0 for a rating of 1
+     */
+    public synchronized void setRatingHistogram(int[] histogram) {
+        ratingHistogram = new int[MAX_RATING];
+        ratingSum = 0;
+        ratingCount = 0;
+        for (int i = 0; i < MAX_RATING && i < histogram.length; i++) {
+            ratingHistogram[i] = histogram[i];
+            ratingSum += (long) (i + 1) * histogram[i];
+            ratingCount += histogram[i];
+        }
+        overallRating = ratingCount == 0 ? null : (float) ratingSum / ratingCount;
+    }
+
+    /**
+     * count the ratings of the reviews once for a movie read from an older database, which has no aggregates
+     */
+    private void ensureRatingAggregates() {
+        if (ratingHistogram != null) {
+            return;
+        }
+        int[] histogram = new int[MAX_RATING];
+        for (Review review : getLegacyReviews()) {
+            int rating = review.getRating();
+            if (rating >= 1 && rating <= MAX_RATING) {
+                histogram[rating - 1]++;
+            }
+        }
+        setRatingHistogram(histogram);
+    }
+
+    /**
+     * get the reviews of the movie read from an older database that are not yet in the ReviewStore
+     * @return arraylist of review objects, empty once they have been moved
      */
-    public ArrayList<Review> getReviews() {
+    public ArrayList<Review> getLegacyReviews() {
+        if (reviews == null) {
+            reviews = new ArrayList<>();
+        }
         return reviews;
     }
 
     /**
-     * set reviews of the movie
-     * @param reviews
+     * hand over the reviews of the movie read from an older database, which are then no longer kept in the movie
+     * @return arraylist of review objects
      */
-    public void setReviews(ArrayList<Review> reviews) {
-        this.reviews = reviews;
+    public ArrayList<Review> takeLegacyReviews() {
+        ArrayList<Review> legacy = getLegacyReviews();
+        reviews = null;
+        return legacy;
     }
 
     /**
@@ -303,4 +401,22 @@ public class Movie implements Model {
         }
         return castString;
     }
+
+    /**This method will return the ID of the movie
+     * @return the ID of the movie, 0 if it is not yet added to the database
+     */
+    @Override
+    public int getId() {
+
+        return id;
+    }
+
+    /**This method will set the ID of the movie
+     * @param id                        the ID of the movie
+     */
+    @Override
+    public void setId(int id) {
+
+        this.id = id;
+    }
 }
@@ -51,7 +51,7 @@ public class MovieEnums implements Model {
 
 
         private String description;
-        protected double prices;
+        protected volatile double prices;
 
         MovieType(String description, double prices) {
 
@@ -25,9 +25,9 @@ public class Review implements Model {
      */
     String nameOfReviewer;
     /**
-     * movie being reviewed
+     * movie being reviewed, not stored with the review
      */
-    Movie movie;
+    transient Movie movie;
 
     /**
      * Constructor for Review
@@ -3,68 +3,96 @@ package model.transaction;
 import model.AgeGroup;
 import model.Model;
 import model.account.Customer;
-import model.cinema.Cinema;
-import model.cinema.Cineplex;
+import model.cinema.CinemaType;
 import model.cinema.Seat;
 import model.cinema.ShowTime;
 import model.movie.Movie;
+import model.movie.MovieEnums;
+import service.PriceMatrix;
+import service.TransactionIdService;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 
-import static service.TicketPriceService.isHoliday;
-import static service.TicketPriceService.isWeekend;
+import static service.TicketPriceService.getBasePrice;
+import static service.TicketPriceService.getDayKind;
+import static service.TicketPriceService.getPriceMatrix;
 
 /**
- * Class containing information on Bookings
+ * Class containing information on Bookings. A booking is kept compact so that years of booking history can stay in
+ * memory: it refers to its showtime and customer by ID, keeps each seat and the age group of its ticket packed into
+ * one int, and keeps the price paid in cents. Its showtime and customer are found from their IDs by the
+ * DBController; the booking only keeps what its tickets are priced with, the types of the cinema and of the movie
+ * and the date of the showtime. The seats and tickets are materialized when asked for.
  */
 public class Booking implements Model {
     /**
-     * price of the booking
+     * price in cents of a booking restored from a database that did not keep the price paid, until it is priced
      */
-    private double price;
+    public static final long UNPRICED = -1;
     /**
-     * transaction id
+     * bits of a packed seat holding the column of the seat, counted from 0
      */
-    private String transactionID;
+    private static final int COL_MASK = 0xFF;
     /**
-     * Customer who made the booking
+     * position of the bits of a packed seat holding the row of the seat, counted from 0
      */
-    private Customer customer;
+    private static final int ROW_SHIFT = 8;
     /**
-     * Date the booking is made
+     * position of the bits of a packed seat holding the age group of its ticket plus one, 0 if it has no ticket yet
      */
-    private LocalDate dateOfBooking;
+    private static final int AGE_GROUP_SHIFT = 16;
     /**
-     * Time the booking is made
+     * the age groups, by ordinal
      */
-    private LocalTime timeOfBooking;
+    private static final AgeGroup[] AGE_GROUPS = AgeGroup.values();
     /**
-     * The show time the booking was made under
+     * price of the booking in cents, fixed when the tickets are issued
      */
-    private ShowTime showTime;
+    private long priceCents;
     /**
-     * Cineplex containing the cinema showing the movie
+     * transaction id, issued by the TransactionIdService
      */
-    private Cineplex cineplex;
+    private long transactionNumber;
     /**
-     * Cinema showing the movie
+     * ID of the customer who made the booking
      */
-    private Cinema cinema;
+    private int customerId;
     /**
-     * Movie being shown
+     * Date and time the booking is made, in seconds from the epoch
      */
-    private Movie movie;
+    private long bookedAt;
     /**
-     * Seats being booked
+     * ID of the show time the booking was made under, through which the movie, cinema and cineplex are found
      */
-    private Seat[] seats;
+    private int showTimeId;
     /**
-     * Tickets purchased
+     * type of the cinema of the show time, by ordinal
      */
-    private ArrayList<Ticket> tickets = new ArrayList<>();
+    private byte cinemaType;
+    /**
+     * type of the movie of the show time, by ordinal
+     */
+    private byte movieType;
+    /**
+     * date of the show time, in days from the epoch
+     */
+    private int dateOfMovie;
+    /**
+     * Seats being booked, each packed with the age group of its ticket
+     */
+    private int[] seats;
+    /**
+     * number of tickets issued, for the first seats
+     */
+    private int numOfTickets;
+    /**
+     * true once the booking is cancelled and refunded
+     */
+    private boolean cancelled;
 
     /**
      * This constructor is for the booking
@@ -77,62 +105,149 @@ public class Booking implements Model {
      */
     public Booking(LocalDate dateOfBooking, LocalTime timeOfBooking, ShowTime showTime, Seat[] seats, Customer customer) {
 
-        this.dateOfBooking = dateOfBooking;
-        this.timeOfBooking = timeOfBooking;
-        this.showTime = showTime;
-        this.seats = seats;
-        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyyMMdd");
-        DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HHmm");
-        this.transactionID = "CUS" + this.dateOfBooking.format(dateFormat) + this.timeOfBooking.format(timeFormat);
-        this.customer = customer;
-        this.movie = this.showTime.getMovie();
-        this.cinema = this.showTime.getCinema();
-        this.cineplex = this.showTime.getCineplex();
+        this.bookedAt = LocalDateTime.of(dateOfBooking, timeOfBooking).toEpochSecond(ZoneOffset.UTC);
+        this.showTimeId = showTime.getId();
+        this.cinemaType = (byte) showTime.getCinema().getCinemaType().ordinal();
+        this.movieType = (byte) showTime.getMovieType().ordinal();
+        this.dateOfMovie = (int) showTime.getDateOfMovie().toEpochDay();
+        this.seats = new int[seats.length];
+        for (int i = 0; i < seats.length; i++) {
+            this.seats[i] = (seats[i].getRow() - 'A') << ROW_SHIFT | (seats[i].getCol() - 1);
+        }
+        this.customerId = customer == null ? 0 : customer.getId();
+        this.transactionNumber = TransactionIdService.next();
     }
 
     /**This method is used to add the tickets into the booking
      */
     public void makeBooking() {
 
-        tickets.add(new Ticket(movie, showTime.getMovieType(), cinema.getCinemaType()));
+        makeBooking(AgeGroup.STANDARD);
     }
 
-    /**This method is used to add the tickets based on the age of the citizen into the booking
+    /**This method is used to add the tickets based on the age of the citizen into the booking. The ticket is issued
+     * for the next seat without one and its price is added to the booking.
      */
     public void makeBooking(AgeGroup ageGroup) {
 
-        Ticket ticket = new Ticket(movie, showTime.getMovieType(), cinema.getCinemaType());
-        ticket.setAgeGroup(ageGroup);
-        tickets.add(ticket);
+        if (numOfTickets == seats.length) return;
+        seats[numOfTickets++] |= (ageGroup.ordinal() + 1) << AGE_GROUP_SHIFT;
+        double charges = getBasePrice() + getPriceMatrix().getCharges(CinemaType.values()[cinemaType],
+                MovieEnums.MovieType.values()[movieType], ageGroup, getDayKind(getDateOfMovie()));
+        priceCents += Math.round(charges * 100);
+    }
+
+    /**This method will restore the tickets and the price of the booking, used when a booking is restored from the
+     * database
+     * @param ageGroups                   The age group of every ticket, in the order of the seats
+     * @param priceCents                  The price of the booking in cents
+     */
+    public void restoreTickets(AgeGroup[] ageGroups, long priceCents) {
+
+        numOfTickets = Math.min(ageGroups.length, seats.length);
+        for (int i = 0; i < numOfTickets; i++) {
+            seats[i] = seats[i] & ((1 << AGE_GROUP_SHIFT) - 1) | (ageGroups[i].ordinal() + 1) << AGE_GROUP_SHIFT;
+        }
+        this.priceCents = priceCents;
+    }
+
+    /**This method will return the number of tickets issued in the booking
+     * @return The number of tickets
+     */
+    public int getNumOfTickets() {
+
+        return numOfTickets;
+    }
+
+    /**This method will return the age group of a ticket of the booking
+     * @param ticket                      The position of the ticket
+     * @return The age group of the ticket
+     */
+    public AgeGroup getAgeGroup(int ticket) {
+
+        return AGE_GROUPS[(seats[ticket] >>> AGE_GROUP_SHIFT) - 1];
     }
 
     /**This method will return a list of tickets that was selected in the booking
+     * @param movie                       The movie of the showtime of the booking
      * @return An array list of tickets
      */
-    public ArrayList<Ticket> getTickets() {
-
+    public ArrayList<Ticket> getTickets(Movie movie) {
+
+        ArrayList<Ticket> tickets = new ArrayList<>(numOfTickets);
+        for (int i = 0; i < numOfTickets; i++) {
+            Ticket ticket = new Ticket(movie, MovieEnums.MovieType.values()[movieType],
+                    CinemaType.values()[cinemaType]);
+            ticket.setAgeGroup(getAgeGroup(i));
+            tickets.add(ticket);
+        }
         return tickets;
     }
 
-    /**This method will get the total price of the booking based on the number of tickets and the price of each
-     * ticket
-     * @param date                        The date when the booking is made
-     * @return The total price of the booking
+    /**This method will quote the total price of the tickets of the booking at the current prices
+     * @param date                        The date of the showtime
+     * @return The total price of the tickets at the current prices
      */
     public double getPrice(LocalDate date) {
 
-        price = 0;
-        for (Ticket ticket : tickets) {
-            price += ticket.getTicketCharges(isHoliday(date), isWeekend(date));
+        // quoted from the packed seats, as the tickets would be, without materializing them
+        CinemaType cinemaType = CinemaType.values()[this.cinemaType];
+        MovieEnums.MovieType movieType = MovieEnums.MovieType.values()[this.movieType];
+        PriceMatrix priceMatrix = getPriceMatrix();
+        int dayKind = getDayKind(date);
+        double basePrice = getBasePrice();
+        double total = 0;
+        for (int i = 0; i < numOfTickets; i++) {
+            total += basePrice + priceMatrix.getCharges(cinemaType, movieType, getAgeGroup(i), dayKind);
         }
-        return price;
+        return total;
+    }
+
+    /**This method will return the price paid for the booking
+     * @return The price of the booking
+     */
+    public double getPrice() {
+
+        return priceCents / 100.0;
+    }
+
+    /**This method will return the price paid for the booking in cents
+     * @return The price of the booking in cents
+     */
+    public long getPriceCents() {
+
+        return priceCents;
+    }
+
+    /**This method will set the price paid for the booking, used when a booking is restored from the database
+     * @param priceCents                  The price of the booking in cents
+     */
+    public void setPriceCents(long priceCents) {
+
+        this.priceCents = priceCents;
+    }
+
+    /**This method will return whether the booking is cancelled
+     * @return true if the booking is cancelled and refunded
+     */
+    public boolean isCancelled() {
+
+        return cancelled;
+    }
+
+    /**This method will set whether the booking is cancelled
+     * @param cancelled                   true if the booking is cancelled and refunded
+     */
+    public void setCancelled(boolean cancelled) {
+
+        this.cancelled = cancelled;
     }
 
     /**This method will return the date of the booking
      * @return The date when the booking is made
      */
     public LocalDate getDateOfBooking() {
-        return dateOfBooking;
+        return getBookedAt().toLocalDate();
     }
 
 
@@ -141,7 +256,7 @@ public class Booking implements Model {
      */
     public void setDateOfBooking(LocalDate dateOfBooking) {
 
-        this.dateOfBooking = dateOfBooking;
+        this.bookedAt = LocalDateTime.of(dateOfBooking, getTimeOfBooking()).toEpochSecond(ZoneOffset.UTC);
     }
 
     /**This method will return the date of booking
@@ -149,7 +264,7 @@ public class Booking implements Model {
      */
     public LocalTime getTimeOfBooking() {
 
-        return timeOfBooking;
+        return getBookedAt().toLocalTime();
     }
 
     /**This method will set the time of booking
@@ -157,86 +272,74 @@ public class Booking implements Model {
      */
     public void setTimeOfBooking(LocalTime timeOfBooking) {
 
-        this.timeOfBooking = timeOfBooking;
-    }
-
-    /**This method will return the cineplex of the specific booking
-     * @return The cineplex where the movie is shown for the booking
-     */
-    public Cineplex getCineplex() {
-
-        return cineplex;
+        this.bookedAt = LocalDateTime.of(getDateOfBooking(), timeOfBooking).toEpochSecond(ZoneOffset.UTC);
     }
 
-    /**This method will set the cineplex for the specific booking
-     * @param cineplex                    The cineplex where the movie is showed
+    /**This method will return the date of the showtime of the booking
+     * @return The date the movie is shown
      */
-    public void setCineplex(Cineplex cineplex) {
+    public LocalDate getDateOfMovie() {
 
-        this.cineplex = cineplex;
+        return LocalDate.ofEpochDay(dateOfMovie);
     }
 
-    /**This method will get the cinema of the movie for that specific booking
-     * @return The cinema where the movie is showed
+    /**This method will return the seats for the booking
+     * @return The seats of the cinema
      */
-    public Cinema getCinema() {
+    public Seat[] getSeats() {
 
-        return cinema;
+        Seat[] booked = new Seat[seats.length];
+        for (int i = 0; i < seats.length; i++) {
+            booked[i] = new Seat((char) ('A' + (seats[i] >>> ROW_SHIFT & 0xFF)), (seats[i] & COL_MASK) + 1);
+        }
+        return booked;
     }
 
-    /**This method will set the cinema of the movie for that specific booking
-     * @param cinema                      The cinema where the movie is showed
+    /**This method will return the transaction ID of the booking as it is printed
+     * @return transactionID               The transaction ID of the booking
      */
-    public void setCinema(Cinema cinema) {
+    public String getTransactionID() {
 
-        this.cinema = cinema;
+        return TransactionIdService.encode(transactionNumber);
     }
 
-    /**This method will return the movie of the booking
-     * @return movie                      The movie of the specific booking
+    /**This method will return the transaction ID of the booking as a number
+     * @return The transaction ID of the booking
      */
-    public Movie getMovie() {
+    public long getTransactionNumber() {
 
-        return movie;
+        return transactionNumber;
     }
 
-    /**This method will set the movie for the booking
-     * @param movie                       The movie selected by the user
+    /**This method will return the ID of the customer who made the booking
+     * @return The ID of the customer, 0 if the booking has no customer
      */
-    public void setMovie(Movie movie) {
+    public int getCustomerId() {
 
-        this.movie = movie;
+        return customerId;
     }
 
-    /**This method will return the seats for the booking
-     * @return The seats of the cinema
+    /**This method will set the transaction ID of the booking, used when a booking is restored from the database
+     * @param transactionNumber           The transaction ID of the booking
      */
-    public Seat[] getSeats() {
+    public void setTransactionNumber(long transactionNumber) {
 
-        return seats;
+        this.transactionNumber = transactionNumber;
     }
 
-    /**This method will set the seats for the booking
-     * @param seats                       The seats of the cinema
+    /**
+     * Method to return the ID of the Show Time of the booking
+     * @return showTimeId
      */
-    public void setSeats(Seat[] seats) {
-
-        this.seats = seats;
+    public int getShowTimeId() {
+        return showTimeId;
     }
 
-    /**This method will return the transaction ID of the booking
-     * @return transactionID               The transaction ID of the booking
+    /**This method will return the date and time of the booking
+     * @return The date and time when the booking is made
      */
-    public String getTransactionID() {
-
-        return transactionID;
-    }
+    private LocalDateTime getBookedAt() {
 
-    /**
-     * Method to return the Show Time object of the booking
-     * @return showTime
-     */
-    public ShowTime getShowTime() {
-        return showTime;
-    }
+        return LocalDateTime.ofEpochSecond(bookedAt, 0, ZoneOffset.UTC);
     }
+}
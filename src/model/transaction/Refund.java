@@ -0,0 +1,78 @@
+package model.transaction;
+
+import model.Model;
+import service.TransactionIdService;
+
+import java.time.LocalDateTime;
+
+/**
+ * Class containing information on the Refund of a cancelled Booking
+ */
+public class Refund implements Model {
+    /**
+     * transaction id of the booking refunded
+     */
+    private final long transactionNumber;
+    /**
+     * amount refunded in cents
+     */
+    private final long amountCents;
+    /**
+     * Date and time the refund is made
+     */
+    private final LocalDateTime refundedAt;
+
+    /**
+     * This constructor is for the refund
+     *
+     * @param transactionNumber The transaction ID of the booking refunded
+     * @param amountCents       The amount refunded in cents
+     * @param refundedAt        The date and time the refund is made
+     */
+    public Refund(long transactionNumber, long amountCents, LocalDateTime refundedAt) {
+
+        this.transactionNumber = transactionNumber;
+        this.amountCents = amountCents;
+        this.refundedAt = refundedAt;
+    }
+
+    /**This method will return the transaction ID of the booking refunded
+     * @return The transaction ID of the booking
+     */
+    public long getTransactionNumber() {
+
+        return transactionNumber;
+    }
+
+    /**This method will return the transaction ID of the booking refunded as it is printed
+     * @return The printed transaction ID of the booking
+     */
+    public String getTransactionID() {
+
+        return TransactionIdService.encode(transactionNumber);
+    }
+
+    /**This method will return the amount refunded
+     * @return The amount refunded
+     */
+    public double getAmount() {
+
+        return amountCents / 100.0;
+    }
+
+    /**This method will return the amount refunded in cents
+     * @return The amount refunded in cents
+     */
+    public long getAmountCents() {
+
+        return amountCents;
+    }
+
+    /**This method will return the date and time of the refund
+     * @return The date and time the refund is made
+     */
+    public LocalDateTime getRefundedAt() {
+
+        return refundedAt;
+    }
+}
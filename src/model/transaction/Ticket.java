@@ -5,6 +5,7 @@ import model.Model;
 import model.cinema.CinemaType;
 import model.movie.Movie;
 import model.movie.MovieEnums;
+import service.PriceMatrix;
 import service.TicketPriceService;
 
 import static service.TicketPriceService.getBasePrice;
@@ -52,16 +53,18 @@ public class Ticket implements Model {
      */
     public double getTicketCharges(boolean isHoliday, boolean isWeekend) {
 
-        double ticketPrice = basePrice;
-        ticketPrice += cinemaType.getTicketPrice();
-        ticketPrice += movieType.getTicketPrice();
-        ticketPrice -= ageGroup.getTicketPrice();
-        if (isHoliday) {
-            ticketPrice += TicketPriceService.getPublicHolidayCharges();
-        } else if (isWeekend) {
-            ticketPrice += TicketPriceService.getWeekendCharges();
-        }
-        return ticketPrice;
+        return getTicketCharges(TicketPriceService.getPriceMatrix(), PriceMatrix.dayKind(isHoliday, isWeekend));
+    }
+
+    /**This method will get the ticket charges from a compiled price matrix, which holds the charges of the cinema
+     * type, movie type, age group and kind of day together
+     * @param priceMatrix           The price matrix to quote from
+     * @param dayKind               The kind of day of the showtime
+     * @return the final price of the ticket
+     */
+    public double getTicketCharges(PriceMatrix priceMatrix, int dayKind) {
+
+        return basePrice + priceMatrix.getCharges(cinemaType, movieType, ageGroup, dayKind);
     }
 
     /**This method will set which category is the customer based on their age which may provide certain discounts to
@@ -73,6 +76,30 @@ public class Ticket implements Model {
         this.ageGroup = ageGroup;
     }
 
+    /**This method will return the category of the customer for the ticket
+     * @return the age group of the ticket
+     */
+    public AgeGroup getAgeGroup() {
+
+        return ageGroup;
+    }
+
+    /**This method will return the base price of the ticket at the time it was issued
+     * @return the base price of the ticket
+     */
+    public double getBasePrice() {
+
+        return basePrice;
+    }
+
+    /**This method will set the base price of the ticket, used when a ticket is restored from the database
+     * @param basePrice             the base price of the ticket
+     */
+    public void setBasePrice(double basePrice) {
+
+        this.basePrice = basePrice;
+    }
+
     /**This method will return the specific movie of the ticket
      * @return the specific movie of the ticket
      */
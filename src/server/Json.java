@@ -0,0 +1,321 @@
+package server;
+
+import java.util.HashMap;
+
+/**
+ * Class to write the JSON responses of the HTTP API and to read the JSON bodies of its requests. Responses are
+ * written straight into a StringBuilder, with commas put in as values are added. Request bodies are flat objects
+ * whose values are strings, numbers, booleans or null, which is all the API takes, so they are read into a map of
+ * strings without any object model.
+ */
+public class Json {
+    /**
+     * the JSON text written so far
+     */
+    private final StringBuilder out = new StringBuilder();
+    /**
+     * true if the next value is the first of its object or array, and needs no comma
+     */
+    private boolean first = true;
+
+    /**
+     * Method to start an object, as a value or as the member named by the last call to name
+     * @return this writer
+     */
+    public Json beginObject() {
+        comma();
+        out.append('{');
+        first = true;
+        return this;
+    }
+
+    /**
+     * Method to end an object
+     * @return this writer
+     */
+    public Json endObject() {
+        out.append('}');
+        first = false;
+        return this;
+    }
+
+    /**
+     * Method to start an array
+     * @return this writer
+     */
+    public Json beginArray() {
+        comma();
+        out.append('[');
+        first = true;
+        return this;
+    }
+
+    /**
+     * Method to end an array
+     * @return this writer
+     */
+    public Json endArray() {
+        out.append(']');
+        first = false;
+        return this;
+    }
+
+    /**
+     * Method to name the next member of an object
+     * @param name
+     * @return this writer
+     */
+    public Json name(String name) {
+        comma();
+        quote(name);
+        out.append(':');
+        first = true;
+        return this;
+    }
+
+    /**
+     * Method to write a string, or null
+     * @param value
+     * @return this writer
+     */
+    public Json value(String value) {
+        comma();
+        if (value == null) out.append("null");
+        else quote(value);
+        first = false;
+        return this;
+    }
+
+    /**
+     * Method to write a number
+     * @param value
+     * @return this writer
+     */
+    public Json value(long value) {
+        comma();
+        out.append(value);
+        first = false;
+        return this;
+    }
+
+    /**
+     * Method to write a number
+     * @param value
+     * @return this writer
+     */
+    public Json value(double value) {
+        comma();
+        out.append(Double.isFinite(value) ? Double.toString(value) : "null");
+        first = false;
+        return this;
+    }
+
+    /**
+     * Method to write a boolean
+     * @param value
+     * @return this writer
+     */
+    public Json value(boolean value) {
+        comma();
+        out.append(value);
+        first = false;
+        return this;
+    }
+
+    /**
+     * Method to write a member of an object holding a string
+     * @param name
+     * @param value
+     * @return this writer
+     */
+    public Json member(String name, String value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Method to write a member of an object holding a number
+     * @param name
+     * @param value
+     * @return this writer
+     */
+    public Json member(String name, long value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Method to write a member of an object holding a number
+     * @param name
+     * @param value
+     * @return this writer
+     */
+    public Json member(String name, double value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Method to write a member of an object holding a boolean
+     * @param name
+     * @param value
+     * @return this writer
+     */
+    public Json member(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Method to get the JSON text written
+     * @return the JSON text
+     */
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    /**
+     * Method to read a flat JSON object
+     * @param text
+     * @return the members of the object, with every value as a string and null values left out
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    public static HashMap<String, String> parseObject(String text) {
+        HashMap<String, String> members = new HashMap<>();
+        int[] pos = {skip(text, 0)};
+        if (text.isBlank()) return members;
+        expect(text, pos, '{');
+        if (peek(text, pos) == '}') {
+            pos[0]++;
+        } else {
+            while (true) {
+                String name = readString(text, pos);
+                expect(text, pos, ':');
+                String value = readValue(text, pos);
+                if (value != null) members.put(name, value);
+                if (peek(text, pos) == ',') {
+                    pos[0]++;
+                    continue;
+                }
+                expect(text, pos, '}');
+                break;
+            }
+        }
+        if (skip(text, pos[0]) != text.length()) throw new IllegalArgumentException("Unexpected text after object");
+        return members;
+    }
+
+    /**
+     * Method to put in a comma before a value that is not the first of its object or array
+     */
+    private void comma() {
+        if (!first) out.append(',');
+        first = false;
+    }
+
+    /**
+     * Method to write a quoted string
+     * @param value
+     */
+    private void quote(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Method to read a value of a member
+     * @param text
+     * @param pos
+     * @return the value as a string, or null for a JSON null
+     */
+    private static String readValue(String text, int[] pos) {
+        char c = peek(text, pos);
+        if (c == '"') return readString(text, pos);
+        int start = pos[0];
+        while (pos[0] < text.length() && ",} \t\r\n".indexOf(text.charAt(pos[0])) < 0) pos[0]++;
+        String literal = text.substring(start, pos[0]);
+        if (literal.equals("null")) return null;
+        if (literal.equals("true") || literal.equals("false") || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+            return literal;
+        }
+        throw new IllegalArgumentException("Unexpected value " + literal);
+    }
+
+    /**
+     * Method to read a quoted string
+     * @param text
+     * @param pos
+     * @return the string
+     */
+    private static String readString(String text, int[] pos) {
+        expect(text, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (pos[0] >= text.length()) throw new IllegalArgumentException("Unterminated string");
+            char c = text.charAt(pos[0]++);
+            if (c == '"') return value.toString();
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos[0] >= text.length()) throw new IllegalArgumentException("Unterminated string");
+            char escaped = text.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > text.length()) throw new IllegalArgumentException("Bad escape");
+                    value.append((char) Integer.parseInt(text.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: value.append(escaped);
+            }
+        }
+    }
+
+    /**
+     * Method to check the next character and move past it
+     * @param text
+     * @param pos
+     * @param c the character expected
+     */
+    private static void expect(String text, int[] pos, char c) {
+        if (peek(text, pos) != c) throw new IllegalArgumentException("Expected " + c + " at " + pos[0]);
+        pos[0]++;
+    }
+
+    /**
+     * Method to look at the next character that is not white space
+     * @param text
+     * @param pos
+     * @return the character, or 0 at the end of the text
+     */
+    private static char peek(String text, int[] pos) {
+        pos[0] = skip(text, pos[0]);
+        return pos[0] < text.length() ? text.charAt(pos[0]) : 0;
+    }
+
+    /**
+     * Method to skip white space
+     * @param text
+     * @param pos
+     * @return the position of the next character that is not white space
+     */
+    private static int skip(String text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        return pos;
+    }
+}
@@ -0,0 +1,958 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.DBController;
+import model.AgeGroup;
+import model.account.Customer;
+import model.cinema.Cinema;
+import model.cinema.Cineplex;
+import model.cinema.Seat;
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+import model.movie.Movie;
+import model.movie.MovieEnums;
+import model.movie.Review;
+import model.transaction.Booking;
+import model.transaction.Refund;
+import service.AccountService;
+import service.AdminCineplexService;
+import service.MovieGoerCineplexService;
+import service.SeatDelta;
+import service.SeatHold;
+import service.TicketPriceService;
+import service.WaitlistEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The HTTP API of MOBLIMA, serving many customers and admins at once on the JDK's built-in HTTP server. It exposes
+ * the same services as the console views over JSON under /api/:
+ *
+ * POST   /api/accounts                   create a customer account {username, password, mobileNumber, email}
+ * POST   /api/login                      log in {username, password, admin}, returns a session token
+ * GET    /api/movies                     list the movies
+ * GET    /api/movies/top?by=             top movies by tickets, revenue or rating
+ * GET    /api/movies/{id}                details of a movie
+ * GET    /api/movies/{id}/reviews        latest reviews of a movie, ?limit=
+ * POST   /api/movies/{id}/reviews        leave a review {rating, review}
+ * GET    /api/cineplexes                 list the cineplexes and their cinemas
+ * GET    /api/showtimes?movie=&days=     showtimes of a movie, or ?cineplex=&date= showtimes of a cineplex on a day
+ * GET    /api/showtimes/{id}/seats       seat map of a showtime, one hex word of occupied seats per row
+ * GET    /api/showtimes/{id}/seats/stream  server-sent events of the seat map then its changes, each event the
+ *                                        base64 of an encoded SeatDelta
+ * POST   /api/bookings                   book {showTime, seats: "A1,A2"} or {showTime, numOfSeats}, and ageGroup
+ * GET    /api/bookings                   booking history of the customer
+ * DELETE /api/bookings/{transactionID}   cancel a booking and refund it
+ * POST   /api/waitlist                   join the waitlist of a sold-out showtime {showTime, numOfSeats}
+ * GET    /api/prices                     ticket prices
+ * PUT    /api/admin/prices               set the ticket prices {basePrice, weekendCharges, publicHolidayCharges}
+ * POST   /api/admin/showtimes            add a showtime {movie, cineplex, cinema, date, time}
+ * DELETE /api/admin/showtimes/{id}       cancel a showtime and refund its bookings
+ *
+ * Requests other than account creation and login carry the session token as "Authorization: Bearer token".
+ * Every request runs on a virtual thread when the JDK has them, and on a cached pool of threads otherwise.
+ * Requests call the services directly without a lock of their own: the DBController is safe for many readers and
+ * writers, and seats are reserved with the SeatReservationEngine, which locks only the seat map of a showtime and
+ * only for reservations over several rows.
+ */
+public class MoblimaServer {
+    /**
+     * port the server listens on unless another is given
+     */
+    public static final int DEFAULT_PORT = 8080;
+    /**
+     * number of connections waiting to be accepted
+     */
+    private static final int BACKLOG = 1024;
+    /**
+     * number of random bytes of a session token
+     */
+    private static final int TOKEN_BYTES = 16;
+    /**
+     * number of reviews returned unless another limit is given
+     */
+    private static final int DEFAULT_REVIEWS = 10;
+
+    /**
+     * instance of DBController to access the database
+     */
+    private final DBController dbController = DBController.getInstance();
+    /**
+     * services of the customers
+     */
+    private final MovieGoerCineplexService movieGoerService = new MovieGoerCineplexService();
+    /**
+     * services of the admins
+     */
+    private final AdminCineplexService adminService = new AdminCineplexService();
+    /**
+     * sessions by their token
+     */
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    /**
+     * source of the session tokens
+     */
+    private final SecureRandom random = new SecureRandom();
+    /**
+     * the HTTP server, null until started
+     */
+    private HttpServer httpServer;
+    /**
+     * executor running the requests
+     */
+    private ExecutorService executor;
+
+    /**
+     * The session of a customer or an admin who logged in
+     */
+    public static final class Session {
+        /**
+         * username of the account
+         */
+        private final String userName;
+        /**
+         * customer of the session, null for an admin
+         */
+        private final Customer customer;
+
+        /**
+         * This is the constructor for the session
+         * @param userName
+         * @param customer the customer, or null for an admin
+         */
+        private Session(String userName, Customer customer) {
+            this.userName = userName;
+            this.customer = customer;
+        }
+
+        /**
+         * Method to get the username of the session
+         * @return the username
+         */
+        public String getUserName() {
+            return userName;
+        }
+
+        /**
+         * Method to get the customer of the session
+         * @return the customer, or null for an admin
+         */
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        /**
+         * Method to check if the session is an admin's
+         * @return true for an admin
+         */
+        public boolean isAdmin() {
+            return customer == null;
+        }
+    }
+
+    /**
+     * Error of a request, sent back with its HTTP status
+     */
+    private static final class ApiException extends RuntimeException {
+        /**
+         * HTTP status of the error
+         */
+        private final int status;
+
+        /**
+         * This is the constructor for the error
+         * @param status
+         * @param message
+         */
+        private ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Watcher writing the seat changes of a showtime to a stream of server-sent events. The next delta is only
+     * requested once the previous one is written, so a slow client is sent the changes it missed as one delta.
+     */
+    private final class SeatStreamWriter implements Flow.Subscriber<SeatDelta> {
+        /**
+         * the exchange the events are written to
+         */
+        private final HttpExchange exchange;
+        /**
+         * the subscription to the seat changes
+         */
+        private volatile Flow.Subscription subscription;
+
+        /**
+         * This is the constructor for the writer
+         * @param exchange
+         */
+        private SeatStreamWriter(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        /**
+         * Method to ask for the seat map once subscribed
+         * @param subscription
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        /**
+         * Method to write a delta, on a thread of the requests so that a slow client holds no thread of the deltas
+         * @param delta
+         */
+        @Override
+        public void onNext(SeatDelta delta) {
+            String event = "id: " + delta.getVersion() + "\ndata: "
+                    + Base64.getEncoder().encodeToString(delta.encode()) + "\n\n";
+            executor.execute(() -> {
+                synchronized (this) {
+                    try {
+                        OutputStream out = exchange.getResponseBody();
+                        out.write(event.getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                    } catch (IOException e) {
+                        // the client has gone
+                        subscription.cancel();
+                        exchange.close();
+                        return;
+                    }
+                }
+                subscription.request(1);
+            });
+        }
+
+        /**
+         * Method to end the stream when the watching fails
+         * @param error
+         */
+        @Override
+        public void onError(Throwable error) {
+            onComplete();
+        }
+
+        /**
+         * Method to end the stream once the showtime is removed
+         */
+        @Override
+        public void onComplete() {
+            executor.execute(() -> {
+                synchronized (this) {
+                    exchange.close();
+                }
+            });
+        }
+    }
+
+    /**
+     * Method to start the server
+     * @param port
+     * @throws IOException if the port cannot be opened
+     */
+    public synchronized void start(int port) throws IOException {
+        // responses are written as headers then body, which Nagle's algorithm would hold back for a delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        httpServer = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = newRequestExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/api/", this::handle);
+        httpServer.start();
+    }
+
+    /**
+     * Method to stop the server, letting the requests running finish
+     * @param delaySeconds the most time given to the requests running
+     */
+    public synchronized void stop(int delaySeconds) {
+        if (httpServer == null) return;
+        httpServer.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        httpServer = null;
+    }
+
+    /**
+     * Method to get the port the server listens on
+     * @return the port
+     */
+    public synchronized int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Method to make the executor of the requests: one virtual thread per request on a JDK that has virtual
+     * threads, otherwise a cached pool of daemon threads
+     * @return the executor
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "moblima-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Method to handle a request
+     * @param exchange
+     * @throws IOException if the response cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        String response;
+        try {
+            response = route(exchange);
+            // a stream has already sent its response
+            if (response == null) return;
+        } catch (ApiException e) {
+            status = e.status;
+            response = error(e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            status = 400;
+            response = error("Bad request: " + e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            response = error("Internal error");
+            System.out.println("[System: Error in request " + exchange.getRequestURI() + ": " + e + "]");
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Method to send a request to its handler
+     * @param exchange
+     * @return the JSON response
+     * @throws IOException if the body cannot be read
+     */
+    private String route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        HashMap<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        HashMap<String, String> body = method.equals("GET") || method.equals("DELETE") ? new HashMap<>()
+                : Json.parseObject(readBody(exchange.getRequestBody()));
+        String resource = path[0];
+        String id = path.length > 1 ? path[1] : null;
+        String sub = path.length > 2 ? path[2] : null;
+
+        switch (method + " " + resource) {
+            case "POST accounts":
+                return createAccount(body);
+            case "POST login":
+                return login(body);
+            case "GET movies":
+                if (id == null) return listMovies();
+                if (id.equals("top")) return topMovies(query.getOrDefault("by", "tickets"));
+                if (sub == null) return movieDetails(movie(id));
+                if (sub.equals("reviews")) return reviews(movie(id), query);
+                break;
+            case "POST movies":
+                if (id != null && "reviews".equals(sub)) {
+                    Session session = session(exchange, false);
+                    return addReview(session, movie(id), body);
+                }
+                break;
+            case "GET cineplexes":
+                return listCineplexes();
+            case "GET showtimes":
+                if (id == null) return searchShowTimes(query);
+                if ("seats".equals(sub) && path.length > 3 && path[3].equals("stream")) {
+                    streamSeats(exchange, showTime(id));
+                    return null;
+                }
+                if ("seats".equals(sub)) return seatMap(showTime(id));
+                break;
+            case "GET bookings": {
+                Session session = session(exchange, false);
+                return bookingHistory(session);
+            }
+            case "POST bookings":
+                return book(session(exchange, false), body);
+            case "DELETE bookings": {
+                Session session = session(exchange, false);
+                return cancelBooking(session, id);
+            }
+            case "POST waitlist":
+                return joinWaitlist(session(exchange, false), body);
+            case "GET prices":
+                return prices();
+            case "PUT admin":
+                if ("prices".equals(id)) {
+                    session(exchange, true);
+                    return setPrices(body);
+                }
+                break;
+            case "POST admin":
+                if ("showtimes".equals(id)) {
+                    session(exchange, true);
+                    return addShowTime(body);
+                }
+                break;
+            case "DELETE admin":
+                if ("showtimes".equals(id) && sub != null) {
+                    session(exchange, true);
+                    return cancelShowTime(showTime(sub));
+                }
+                break;
+            default:
+                break;
+        }
+        throw new ApiException(404, "No such resource");
+    }
+
+    /**
+     * Method to create a customer account
+     * @param body
+     * @return the username of the account
+     */
+    private String createAccount(HashMap<String, String> body) {
+        String username = required(body, "username");
+        if (AccountService.isCustomerUsernameTaken(username)) {
+            throw new ApiException(409, "Username is already taken");
+        }
+        boolean created = AccountService.createMovieGoerAccount(username, required(body, "password"),
+                required(body, "mobileNumber"), required(body, "email"));
+        if (!created) throw new ApiException(400, "The account could not be created");
+        return new Json().beginObject().member("username", username).endObject().toString();
+    }
+
+    /**
+     * Method to log in a customer or an admin
+     * @param body
+     * @return the session token
+     */
+    private String login(HashMap<String, String> body) {
+        String username = required(body, "username");
+        String password = required(body, "password");
+        boolean admin = Boolean.parseBoolean(body.get("admin"));
+        Session session;
+        if (admin) {
+            if (!AccountService.checkIfAdminAccountExists(username, password)) {
+                throw new ApiException(401, "Invalid username or password");
+            }
+            session = new Session(username, null);
+        } else {
+            if (!AccountService.checkIfCustomerAccountExists(username, password)) {
+                throw new ApiException(401, "Invalid username or password");
+            }
+            session = new Session(username, AccountService.getCustomer(username));
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        sessions.put(token, session);
+        return new Json().beginObject().member("token", token).member("admin", admin).endObject().toString();
+    }
+
+    /**
+     * Method to list the movies
+     * @return the movies
+     */
+    private String listMovies() {
+        Json json = new Json().beginArray();
+        for (Movie movie : dbController.getMovies()) writeMovie(json, movie);
+        return json.endArray().toString();
+    }
+
+    /**
+     * Method to list the top 5 movies
+     * @param by tickets, revenue or rating
+     * @return the titles of the movies
+     */
+    private String topMovies(String by) {
+        Json json = new Json().beginArray();
+        switch (by) {
+            case "tickets":
+                for (String title : dbController.getTopMoviesByTickets(5)) json.value(title);
+                break;
+            case "revenue":
+                for (String title : dbController.getTopMoviesByRevenue(5)) json.value(title);
+                break;
+            case "rating":
+                for (Movie movie : dbController.getTopMoviesByRating(5)) json.value(movie.getTitle());
+                break;
+            default:
+                throw new ApiException(400, "Top movies are by tickets, revenue or rating");
+        }
+        return json.endArray().toString();
+    }
+
+    /**
+     * Method to show the details of a movie
+     * @param movie
+     * @return the movie
+     */
+    private String movieDetails(Movie movie) {
+        Json json = new Json();
+        writeMovie(json, movie);
+        return json.toString();
+    }
+
+    /**
+     * Method to list the latest reviews of a movie
+     * @param movie
+     * @param query
+     * @return the reviews, latest first
+     */
+    private String reviews(Movie movie, HashMap<String, String> query) {
+        int limit = Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_REVIEWS)));
+        Json json = new Json().beginArray();
+        for (Review review : dbController.getReviews(movie, null, limit).getReviews()) {
+            json.beginObject()
+                    .member("timestamp", review.getTimestamp().toString())
+                    .member("rating", review.getRating())
+                    .member("review", review.getReview())
+                    .member("reviewer", review.getNameOfReviewer())
+                    .endObject();
+        }
+        return json.endArray().toString();
+    }
+
+    /**
+     * Method to leave a review of a movie
+     * @param session
+     * @param movie
+     * @param body
+     * @return the movie with its new rating
+     */
+    private String addReview(Session session, Movie movie, HashMap<String, String> body) {
+        int rating = Integer.parseInt(required(body, "rating"));
+        if (rating < 1 || rating > Movie.MAX_RATING) {
+            throw new ApiException(400, "The rating must be between 1 and " + Movie.MAX_RATING);
+        }
+        dbController.addReview(movie, new Review(LocalDateTime.now(), rating, body.getOrDefault("review", ""),
+                session.getUserName(), movie));
+        return movieDetails(movie);
+    }
+
+    /**
+     * Method to list the cineplexes and their cinemas
+     * @return the cineplexes
+     */
+    private String listCineplexes() {
+        Json json = new Json().beginArray();
+        for (Cineplex cineplex : dbController.getCineplexes().values()) {
+            json.beginObject().member("id", cineplex.getId()).member("name", cineplex.getName());
+            json.name("cinemas").beginArray();
+            for (Cinema cinema : cineplex.getCinemas()) {
+                json.beginObject()
+                        .member("id", cinema.getId())
+                        .member("name", cinema.getName())
+                        .member("type", cinema.getCinemaType().name())
+                        .member("rows", cinema.getMaxRow() - 'A' + 1)
+                        .member("cols", cinema.getMaxCol())
+                        .endObject();
+            }
+            json.endArray().endObject();
+        }
+        return json.endArray().toString();
+    }
+
+    /**
+     * Method to search the showtimes of a movie or of a cineplex
+     * @param query
+     * @return the showtimes
+     */
+    private String searchShowTimes(HashMap<String, String> query) {
+        ArrayList<ShowTime> showTimes;
+        if (query.containsKey("movie")) {
+            int days = Integer.parseInt(query.getOrDefault("days", "3"));
+            showTimes = dbController.getShowTimes(movie(query.get("movie")), LocalDate.now(), days);
+        } else if (query.containsKey("cineplex")) {
+            Cineplex cineplex = dbController.getCineplex(Integer.parseInt(query.get("cineplex")));
+            if (cineplex == null) throw new ApiException(404, "No such cineplex");
+            LocalDate date = LocalDate.parse(query.getOrDefault("date", LocalDate.now().toString()));
+            showTimes = movieGoerService.getShowTimes(cineplex, date);
+        } else {
+            throw new ApiException(400, "Showtimes are searched by movie or by cineplex");
+        }
+        Json json = new Json().beginArray();
+        if (showTimes != null) {
+            for (ShowTime showTime : showTimes) writeShowTime(json, showTime);
+        }
+        return json.endArray().toString();
+    }
+
+    /**
+     * Method to show the seat map of a showtime
+     * @param showTime
+     * @return the occupied seats, one hex word per row with bit 0 for seat 1
+     */
+    private String seatMap(ShowTime showTime) {
+        SeatMap seatMap = showTime.getSeatMap();
+        Json json = new Json().beginObject()
+                .member("showTime", showTime.getId())
+                .member("rows", seatMap.getLayout().getRows())
+                .member("cols", seatMap.getLayout().getCols())
+                .member("available", seatMap.getAvailableCount());
+        json.name("occupied").beginArray();
+        for (int row = 0; row < seatMap.getLayout().getRows(); row++) {
+            json.value(Long.toHexString(seatMap.getRowBits(row)));
+        }
+        return json.endArray().endObject().toString();
+    }
+
+    /**
+     * Method to stream the seat map of a showtime and its changes as server-sent events. The response stays open
+     * until the client leaves or the showtime is removed.
+     * @param exchange
+     * @param showTime
+     * @throws IOException if the response cannot be sent
+     */
+    private void streamSeats(HttpExchange exchange, ShowTime showTime) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        movieGoerService.watchAvailableSeats(showTime, new SeatStreamWriter(exchange));
+    }
+
+    /**
+     * Method to list the bookings of a customer
+     * @param session
+     * @return the bookings
+     */
+    private String bookingHistory(Session session) {
+        Json json = new Json().beginArray();
+        for (Booking booking : customer(session).getBookingHistory()) writeBooking(json, booking);
+        return json.endArray().toString();
+    }
+
+    /**
+     * Method to book seats of a showtime, either the seats given or the best ones side by side
+     * @param session
+     * @param body
+     * @return the booking
+     */
+    private String book(Session session, HashMap<String, String> body) {
+        Customer customer = customer(session);
+        ShowTime showTime = showTime(required(body, "showTime"));
+        AgeGroup ageGroup = AgeGroup.valueOf(body.getOrDefault("ageGroup", AgeGroup.STANDARD.name()));
+        // the seats are reserved all of them or none
+        SeatHold hold;
+        if (body.containsKey("seats")) {
+            hold = movieGoerService.holdSeats(showTime, body.get("seats").split(","), customer);
+        } else {
+            hold = movieGoerService.holdBestSeats(showTime, Integer.parseInt(required(body, "numOfSeats")), customer);
+        }
+        if (hold == null) throw new ApiException(409, "The seats are not available");
+        try {
+            Booking booking = movieGoerService.book(hold, ageGroup);
+            if (booking == null) throw new ApiException(409, "The hold on the seats has expired or the showtime was cancelled");
+            Json json = new Json();
+            writeBooking(json, booking);
+            return json.toString();
+        } finally {
+            movieGoerService.releaseHold(hold);
+        }
+    }
+
+    /**
+     * Method to cancel a booking of a customer
+     * @param session
+     * @param transactionID
+     * @return the refund
+     */
+    private String cancelBooking(Session session, String transactionID) {
+        Booking booking = transactionID == null ? null : dbController.findBooking(transactionID);
+        if (booking == null || booking.getCustomerId() != customer(session).getId()) {
+            throw new ApiException(404, "No such booking");
+        }
+        Refund refund = dbController.cancelBooking(booking);
+        if (refund == null) throw new ApiException(409, "The booking is already cancelled");
+        return new Json().beginObject()
+                .member("transactionID", refund.getTransactionID())
+                .member("amount", refund.getAmount())
+                .member("refundedAt", refund.getRefundedAt().toString())
+                .endObject().toString();
+    }
+
+    /**
+     * Method to put a customer on the waitlist of a showtime
+     * @param session
+     * @param body
+     * @return the place on the waitlist
+     */
+    private String joinWaitlist(Session session, HashMap<String, String> body) {
+        Customer customer = customer(session);
+        ShowTime showTime = showTime(required(body, "showTime"));
+        WaitlistEntry entry = movieGoerService.joinWaitlist(showTime,
+                Integer.parseInt(required(body, "numOfSeats")), customer);
+        if (entry == null) throw new ApiException(400, "The showtime does not have that many seats");
+        return new Json().beginObject()
+                .member("showTime", showTime.getId())
+                .member("numOfSeats", entry.getNumOfSeats())
+                .member("seatsHeld", entry.getHold() != null)
+                .endObject().toString();
+    }
+
+    /**
+     * Method to show the ticket prices
+     * @return the prices
+     */
+    private String prices() {
+        return new Json().beginObject()
+                .member("basePrice", TicketPriceService.getBasePrice())
+                .member("weekendCharges", TicketPriceService.getWeekendCharges())
+                .member("publicHolidayCharges", TicketPriceService.getPublicHolidayCharges())
+                .endObject().toString();
+    }
+
+    /**
+     * Method to set the ticket prices
+     * @param body
+     * @return the prices
+     */
+    private String setPrices(HashMap<String, String> body) {
+        if (body.containsKey("basePrice")) TicketPriceService.setBasePrice(Double.parseDouble(body.get("basePrice")));
+        if (body.containsKey("weekendCharges")) {
+            TicketPriceService.setWeekendCharges(Double.parseDouble(body.get("weekendCharges")));
+        }
+        if (body.containsKey("publicHolidayCharges")) {
+            TicketPriceService.setPublicHolidayCharges(Double.parseDouble(body.get("publicHolidayCharges")));
+        }
+        dbController.commitTicketDetails();
+        return prices();
+    }
+
+    /**
+     * Method to add a showtime
+     * @param body
+     * @return the showtime
+     */
+    private String addShowTime(HashMap<String, String> body) {
+        Movie movie = movie(required(body, "movie"));
+        Cineplex cineplex = dbController.getCineplex(Integer.parseInt(required(body, "cineplex")));
+        Cinema cinema = dbController.getCinema(Integer.parseInt(required(body, "cinema")));
+        if (cineplex == null || cinema == null || !cineplex.getCinemas().contains(cinema)) {
+            throw new ApiException(404, "No such cinema in the cineplex");
+        }
+        ShowTime showTime = new ShowTime(movie, LocalDate.parse(required(body, "date")),
+                LocalTime.parse(required(body, "time")), cinema.copyCinemaLayout(), cineplex, cinema,
+                MovieEnums.Language.valueOf(body.getOrDefault("language", movie.getLanguage().name())),
+                MovieEnums.Subtitle.valueOf(body.getOrDefault("subtitle", movie.getSubtitle().name())),
+                MovieEnums.MovieType.valueOf(body.getOrDefault("movieType", movie.getMovieType().name())));
+        adminService.addShowTime(showTime);
+        Json json = new Json();
+        writeShowTime(json, showTime);
+        return json.toString();
+    }
+
+    /**
+     * Method to cancel a showtime and refund its bookings
+     * @param showTime
+     * @return the number and amount of the refunds
+     */
+    private String cancelShowTime(ShowTime showTime) {
+        ArrayList<Refund> refunds = adminService.cancelShowTime(showTime);
+        long refundedCents = 0;
+        for (Refund refund : refunds) refundedCents += refund.getAmountCents();
+        return new Json().beginObject()
+                .member("showTime", showTime.getId())
+                .member("refunds", refunds.size())
+                .member("amount", refundedCents / 100.0)
+                .endObject().toString();
+    }
+
+    /**
+     * Method to write a movie as JSON
+     * @param json
+     * @param movie
+     */
+    private void writeMovie(Json json, Movie movie) {
+        json.beginObject()
+                .member("id", movie.getId())
+                .member("title", movie.getTitle())
+                .member("director", movie.getDirector())
+                .member("synopsis", movie.getSynopsis())
+                .member("language", movie.getLanguage().name())
+                .member("subtitle", movie.getSubtitle().name())
+                .member("status", movie.getMovieStatus().name())
+                .member("rating", movie.getMovieRating().name())
+                .member("type", movie.getMovieType().name())
+                .member("averageRating", movie.getAverageRating())
+                .member("ratingCount", movie.getRatingCount());
+        json.name("cast").beginArray();
+        for (String cast : movie.getCast()) json.value(cast);
+        json.endArray().endObject();
+    }
+
+    /**
+     * Method to write a showtime as JSON
+     * @param json
+     * @param showTime
+     */
+    private void writeShowTime(Json json, ShowTime showTime) {
+        json.beginObject()
+                .member("id", showTime.getId())
+                .member("movie", showTime.getMovie().getId())
+                .member("title", showTime.getMovie().getTitle())
+                .member("cineplex", showTime.getCineplex().getName())
+                .member("cinema", showTime.getCinema().getName())
+                .member("date", showTime.getDateOfMovie().toString())
+                .member("time", showTime.getTimeOfMovie().toString())
+                .member("language", showTime.getLanguage().name())
+                .member("subtitle", showTime.getSubtitle().name())
+                .member("movieType", showTime.getMovieType().name())
+                .member("available", showTime.getSeatMap().getAvailableCount())
+                .endObject();
+    }
+
+    /**
+     * Method to write a booking as JSON
+     * @param json
+     * @param booking
+     */
+    private void writeBooking(Json json, Booking booking) {
+        ShowTime showTime = dbController.getShowTime(booking);
+        json.beginObject()
+                .member("transactionID", booking.getTransactionID())
+                .member("showTime", booking.getShowTimeId())
+                .member("title", showTime.getMovie().getTitle())
+                .member("date", showTime.getDateOfMovie().toString())
+                .member("time", showTime.getTimeOfMovie().toString())
+                .member("price", booking.getPrice())
+                .member("bookedAt", booking.getDateOfBooking() + "T" + booking.getTimeOfBooking())
+                .member("cancelled", booking.isCancelled());
+        json.name("seats").beginArray();
+        for (Seat seat : booking.getSeats()) json.value(seat.toString());
+        json.endArray().endObject();
+    }
+
+    /**
+     * Method to get the session of a request
+     * @param exchange
+     * @param admin true if the request is only for admins
+     * @return the session
+     */
+    private Session session(HttpExchange exchange, boolean admin) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        Session session = authorization != null && authorization.startsWith("Bearer ")
+                ? sessions.get(authorization.substring("Bearer ".length()).trim()) : null;
+        if (session == null) throw new ApiException(401, "Please log in");
+        if (admin && !session.isAdmin()) throw new ApiException(403, "Only admins can do this");
+        return session;
+    }
+
+    /**
+     * Method to get the customer of a session
+     * @param session
+     * @return the customer
+     */
+    private Customer customer(Session session) {
+        if (session.isAdmin()) throw new ApiException(403, "Only customers can do this");
+        return session.getCustomer();
+    }
+
+    /**
+     * Method to get a movie by its ID
+     * @param id
+     * @return the movie
+     */
+    private Movie movie(String id) {
+        Movie movie = dbController.getMovie(Integer.parseInt(id));
+        if (movie == null) throw new ApiException(404, "No such movie");
+        return movie;
+    }
+
+    /**
+     * Method to get a showtime by its ID
+     * @param id
+     * @return the showtime
+     */
+    private ShowTime showTime(String id) {
+        ShowTime showTime = dbController.getShowTime(Integer.parseInt(id));
+        if (showTime == null) throw new ApiException(404, "No such showtime");
+        return showTime;
+    }
+
+    /**
+     * Method to get a member of a request body that must be there
+     * @param body
+     * @param name
+     * @return the value of the member
+     */
+    private static String required(HashMap<String, String> body, String name) {
+        String value = body.get(name);
+        if (value == null) throw new ApiException(400, "Missing " + name);
+        return value;
+    }
+
+    /**
+     * Method to write an error as JSON
+     * @param message
+     * @return the JSON text
+     */
+    private static String error(String message) {
+        return new Json().beginObject().member("error", message).endObject().toString();
+    }
+
+    /**
+     * Method to read the parameters of a query string
+     * @param rawQuery
+     * @return the parameters
+     */
+    private static HashMap<String, String> parseQuery(String rawQuery) {
+        HashMap<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals < 0) continue;
+            query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Method to read the body of a request
+     * @param in
+     * @return the body as text
+     * @throws IOException if the body cannot be read
+     */
+    private static String readBody(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
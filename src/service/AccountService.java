@@ -4,8 +4,6 @@ import controller.DBController;
 import model.account.Admin;
 import model.account.Customer;
 
-import java.util.ArrayList;
-
 /**
  * Class to provide account creation and login services
  */
@@ -30,7 +28,11 @@ public class AccountService {
             System.out.println("Phone number is invalid. Please try again");
             return false;
         }
-        dbController.addCustomer(new Customer(username, password, phoneNumber, email));
+        Customer customer = new Customer(username, PasswordHasher.hash(password), phoneNumber, email);
+        if (!dbController.addCustomer(customer)) {
+            System.out.println("Username is already taken. Please try again");
+            return false;
+        }
         return true;
     }
 
@@ -39,27 +41,37 @@ public class AccountService {
      * Method to create an Admin account
      * @param username
      * @param password
+     * @return true if the account is created, false if the username is already taken
      */
-    public static void createAdminAccount(String username, String password) {
-        dbController.addAdmin(username, password);
+    public static boolean createAdminAccount(String username, String password) {
+        return dbController.addAdmin(username, PasswordHasher.hash(password)) != null;
     }
 
     /**
      * Method to check if a Customer Account exists
      * @param username
      * @param password
-     * @return
+     * @return true if there is a customer with the username and the password matches
      */
     public static boolean checkIfCustomerAccountExists(String username, String password) {
-        ArrayList<Customer> customers = dbController.getCustomer();
-
-        ArrayList<String> usernames = new ArrayList<>();
-        ArrayList<String> passwords = new ArrayList<>();
-        for (Customer customer : customers) {
-            usernames.add(customer.getUserName());
-            passwords.add(customer.getPassword());
+        Customer customer = dbController.findCustomer(username);
+        if (customer == null || !PasswordHasher.verify(password, customer.getPassword())) {
+            return false;
+        }
+        // accounts from before passwords were hashed are hashed on their first login
+        if (!PasswordHasher.isHashed(customer.getPassword())) {
+            dbController.setCustomerPassword(customer, PasswordHasher.hash(password));
         }
-        return usernames.contains(username) && passwords.contains(password);
+        return true;
+    }
+
+    /**
+     * Method to check if a Customer username is already taken
+     * @param username
+     * @return
+     */
+    public static boolean isCustomerUsernameTaken(String username) {
+        return dbController.findCustomer(username) != null;
     }
 
     /**
@@ -68,30 +80,33 @@ public class AccountService {
      * @return
      */
     public static Customer getCustomer(String username){
-        ArrayList<Customer> customers = dbController.getCustomer();
-        for(Customer customer : customers) {
-            if(customer.getUserName().equals(username)) {
-                return customer;
-            }
-        }
-        return null;
+        return dbController.findCustomer(username);
     }
 
     /**
      * Method to check if an admin account exists
      * @param username
      * @param password
-     * @return
+     * @return true if there is an admin with the username and the password matches
      */
     public static boolean checkIfAdminAccountExists(String username, String password) {
-        ArrayList<Admin> admins = dbController.getAdmin();
-        ArrayList<String> usernames = new ArrayList<>();
-        ArrayList<String> passwords = new ArrayList<>();
-
-        for (Admin admin : admins) {
-            usernames.add(admin.getUsername());
-            passwords.add(admin.getPassword());
+        Admin admin = dbController.findAdmin(username);
+        if (admin == null || !PasswordHasher.verify(password, admin.getPassword())) {
+            return false;
+        }
+        // accounts from before passwords were hashed are hashed on their first login
+        if (!PasswordHasher.isHashed(admin.getPassword())) {
+            dbController.setAdminPassword(admin, PasswordHasher.hash(password));
         }
-        return usernames.contains(username) && passwords.contains(password);
+        return true;
+    }
+
+    /**
+     * Method to check if an admin username is already taken
+     * @param username
+     * @return
+     */
+    public static boolean isAdminUsernameTaken(String username) {
+        return dbController.findAdmin(username) != null;
     }
 }
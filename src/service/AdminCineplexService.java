@@ -6,9 +6,11 @@ import model.cinema.Cineplex;
 import model.cinema.ShowTime;
 import model.movie.Movie;
 import model.movie.MovieEnums;
+import model.transaction.Refund;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
@@ -124,6 +126,15 @@ public class AdminCineplexService {
         dbController.removeShowTimes(movie, dateOfMovie, timeOfMovie,cinema, cineplex);
     }
 
+    /**
+     * Method to cancel a Show Time, refunding every booking made for it
+     * @param showTime
+     * @return the refunds of the bookings of the show time
+     */
+    public ArrayList<Refund> cancelShowTime(ShowTime showTime) {
+        return dbController.cancelShowTime(showTime);
+    }
+
     /**
      * Method to update show time
      * @param oldShowTime
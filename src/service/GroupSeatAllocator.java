@@ -0,0 +1,159 @@
+package service;
+
+import model.cinema.Seat;
+import model.cinema.SeatLayout;
+import model.cinema.ShowTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Class to seat several parties at a showtime at once, such as a school trip or a corporate screening booked as a
+ * block. Every party gets a block of seats side by side in one row, and the blocks follow the SeatingRules.
+ *
+ * The allocation works on a private copy of the occupancy words of the rows. Parties are seated largest first;
+ * for each one, the start seats of the free blocks of a row are found with the shifts of the SeatFinder, the starts
+ * too close to an occupied seat are removed with one mask per gap seat, and the blocks left are checked for single
+ * seats from the occupied seats on each side, found with a leading or trailing zero count. The block is then
+ * marked in the copy, so the next party keeps its distance from it as from any other booking.
+ *
+ * A first pass seats every party in the best block by SeatQuality. If that leaves a party without a block, a second
+ * pass packs the parties instead, taking only blocks at the left end of their free run, and the rows in order of
+ * quality.
+ */
+public class GroupSeatAllocator {
+
+    /**
+     * Method to find blocks of seats for several parties of a showtime
+     * @param showTime
+     * @param partySizes the number of seats of every party, each at most the number of seats in a row
+     * @param rules
+     * @param quality the ranking of the seats
+     * @return the seats of every party, in the order of the parties, or null if the parties cannot all be seated
+     */
+    public static Seat[][] allocate(ShowTime showTime, int[] partySizes, SeatingRules rules, SeatQuality quality) {
+        SeatLayout layout = showTime.getSeatMap().getLayout();
+        long[] occupied = new long[layout.getRows()];
+        for (int row = 0; row < occupied.length; row++) {
+            occupied[row] = showTime.getSeatMap().getRowBits(row);
+        }
+        Integer[] order = new Integer[partySizes.length];
+        for (int i = 0; i < order.length; i++) {
+            if (partySizes[i] < 1 || partySizes[i] > layout.getCols()) return null;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> partySizes[b] - partySizes[a]);
+        double[][] sums = quality.getSums(layout);
+
+        for (boolean packed : new boolean[]{false, true}) {
+            long[] rows = occupied.clone();
+            Seat[][] parties = new Seat[partySizes.length][];
+            boolean seated = true;
+            for (int party : order) {
+                int numOfSeats = partySizes[party];
+                long block = findBlock(layout, rows, numOfSeats, rules, sums, packed);
+                if (block < 0) {
+                    seated = false;
+                    break;
+                }
+                int row = (int) (block >>> 32);
+                int col = (int) block;
+                rows[row] |= (numOfSeats == 64 ? -1L : (1L << numOfSeats) - 1) << col;
+                parties[party] = new Seat[numOfSeats];
+                for (int i = 0; i < numOfSeats; i++) {
+                    parties[party][i] = layout.getSeat(row, col + i);
+                }
+            }
+            if (seated) return parties;
+        }
+        return null;
+    }
+
+    /**
+     * Method to find and reserve blocks of seats for several parties of a showtime, all of them or none
+     * @param showTime
+     * @param partySizes the number of seats of every party
+     * @param rules
+     * @return the seats reserved for every party, in the order of the parties, or null if they cannot all be seated
+     */
+    public static Seat[][] reserve(ShowTime showTime, int[] partySizes, SeatingRules rules) {
+        while (true) {
+            Seat[][] parties = allocate(showTime, partySizes, rules, SeatQuality.CENTRE);
+            if (parties == null || SeatReservationEngine.reserve(showTime, flatten(parties))) {
+                return parties;
+            }
+            // a seat was taken since the allocation, so allocate again from the new occupancy
+        }
+    }
+
+    /**
+     * Method to put the seats of several parties into one array
+     * @param parties
+     * @return the seats of every party, one party after the other
+     */
+    public static Seat[] flatten(Seat[][] parties) {
+        ArrayList<Seat> seats = new ArrayList<>();
+        for (Seat[] party : parties) {
+            seats.addAll(Arrays.asList(party));
+        }
+        return seats.toArray(new Seat[0]);
+    }
+
+    /**
+     * Method to find the block of seats for a party
+     * @param layout
+     * @param rows the occupancy words of the rows
+     * @param numOfSeats
+     * @param rules
+     * @param sums the running sums of the seat scores
+     * @param packed true to take only blocks at the left end of their free run
+     * @return the row of the block in the high 32 bits and its first column in the low 32 bits, or -1 if none
+     */
+    private static long findBlock(SeatLayout layout, long[] rows, int numOfSeats, SeatingRules rules,
+                                  double[][] sums, boolean packed) {
+        int gap = rules.getMinGap();
+        long best = -1;
+        double bestScore = Double.POSITIVE_INFINITY;
+        for (int row = 0; row < rows.length; row++) {
+            long occupied = rows[row];
+            long starts = SeatFinder.blockStarts(~occupied & layout.getRowMask(), numOfSeats);
+            for (int k = 1; k <= gap && starts != 0; k++) {
+                // no occupied seat k seats before the first seat or k seats after the last one
+                starts &= ~(occupied << k);
+                if (numOfSeats - 1 + k < 64) starts &= ~(occupied >>> (numOfSeats - 1 + k));
+            }
+            if (packed) starts &= ~(starts << 1);
+            while (starts != 0) {
+                int col = Long.numberOfTrailingZeros(starts);
+                starts &= starts - 1;
+                if (rules.isNoOrphans() && leavesOrphan(layout, occupied, col, numOfSeats, gap)) continue;
+                double score = packed ? sums[row][layout.getCols()] : sums[row][col + numOfSeats] - sums[row][col];
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = (long) row << 32 | col;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Method to check if seating a party would leave a single bookable seat on its own next to it
+     * @param layout
+     * @param occupied the occupancy word of the row
+     * @param col the first column of the block
+     * @param numOfSeats
+     * @param gap the number of empty seats kept next to occupied seats
+     * @return true if the free seats on either side of the block leave room for exactly one more seat
+     */
+    private static boolean leavesOrphan(SeatLayout layout, long occupied, int col, int numOfSeats, int gap) {
+        long left = occupied & ((1L << col) - 1);
+        int leftSeats = left == 0 ? col : col - (64 - Long.numberOfLeadingZeros(left));
+        if (leftSeats - gap - (left == 0 ? 0 : gap) == 1) return true;
+        int end = col + numOfSeats;
+        if (end >= layout.getCols()) return false;
+        long right = occupied >>> end;
+        int rightSeats = right == 0 ? layout.getCols() - end : Long.numberOfTrailingZeros(right);
+        return rightSeats - gap - (right == 0 ? 0 : gap) == 1;
+    }
+}
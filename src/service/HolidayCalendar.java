@@ -0,0 +1,176 @@
+package service;
+
+import model.PublicHoliday;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * This is the calendar of the public holidays, kept as a bitset with one bit per day counted from EARLIEST_DATE.
+ * Checking, adding and removing a holiday are a single bit operation, so pricing never scans the list of holidays.
+ * The names of the holidays are kept beside the bits, keyed by the same day.
+ *
+ * The bits and the names are copied on write: a change builds new ones under the lock of the calendar and
+ * publishes them together, so checking a date, which pricing does for every ticket, takes no lock.
+ */
+public class HolidayCalendar {
+    /**
+     * first day the calendar can hold
+     */
+    public static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
+    /**
+     * epoch day of the first day the calendar can hold
+     */
+    private static final long EARLIEST_EPOCH_DAY = EARLIEST_DATE.toEpochDay();
+    /**
+     * the bits and names published, replaced as a whole by every change
+     */
+    private volatile Days current = new Days(new BitSet(), new HashMap<>());
+
+    /**
+     * This is the constructor for an empty calendar
+     */
+    public HolidayCalendar() {
+    }
+
+    /**
+     * This is the constructor for a calendar holding a list of public holidays
+     *
+     * @param publicHolidays The public holidays
+     */
+    public HolidayCalendar(Collection<PublicHoliday> publicHolidays) {
+
+        if (publicHolidays != null) addAll(publicHolidays);
+    }
+
+    /**
+     * This method checks if a date is a public holiday
+     *
+     * @param date The date to check
+     * @return true if the date is a public holiday
+     */
+    public boolean isHoliday(LocalDate date) {
+
+        int bit = bitOf(date);
+        return bit >= 0 && current.days.get(bit);
+    }
+
+    /**
+     * This method adds a public holiday
+     *
+     * @param publicHoliday The public holiday to add
+     * @return true if it was added, false if its date is already a holiday or is before EARLIEST_DATE
+     */
+    public synchronized boolean add(PublicHoliday publicHoliday) {
+
+        return addAll(Collections.singletonList(publicHoliday)) == 1;
+    }
+
+    /**
+     * This method imports a list of public holidays, for example the holidays of several years at once. Dates that
+     * are already holidays are skipped.
+     *
+     * @param publicHolidays The public holidays to import
+     * @return The number of holidays added
+     */
+    public synchronized int addAll(Collection<PublicHoliday> publicHolidays) {
+
+        BitSet newDays = (BitSet) current.days.clone();
+        HashMap<Integer, PublicHoliday> newHolidays = new HashMap<>(current.holidays);
+        int added = 0;
+        for (PublicHoliday publicHoliday : publicHolidays) {
+            int bit = bitOf(publicHoliday.getPublicHolidayDate());
+            if (bit < 0 || newDays.get(bit)) continue;
+            newDays.set(bit);
+            newHolidays.put(bit, publicHoliday);
+            added++;
+        }
+        if (added > 0) current = new Days(newDays, newHolidays);
+        return added;
+    }
+
+    /**
+     * This method removes the public holiday on a date
+     *
+     * @param date The date of the holiday
+     * @return true if the date was a holiday
+     */
+    public synchronized boolean remove(LocalDate date) {
+
+        int bit = bitOf(date);
+        if (bit < 0 || !current.days.get(bit)) return false;
+        BitSet newDays = (BitSet) current.days.clone();
+        HashMap<Integer, PublicHoliday> newHolidays = new HashMap<>(current.holidays);
+        newDays.clear(bit);
+        newHolidays.remove(bit);
+        current = new Days(newDays, newHolidays);
+        return true;
+    }
+
+    /**
+     * This method returns the number of public holidays
+     *
+     * @return The number of public holidays
+     */
+    public int size() {
+
+        return current.holidays.size();
+    }
+
+    /**
+     * This method returns the public holidays in date order
+     *
+     * @return A new list of the public holidays
+     */
+    public ArrayList<PublicHoliday> toList() {
+
+        Days days = current;
+        ArrayList<PublicHoliday> list = new ArrayList<>(days.holidays.size());
+        for (int bit = days.days.nextSetBit(0); bit >= 0; bit = days.days.nextSetBit(bit + 1)) {
+            list.add(days.holidays.get(bit));
+        }
+        return list;
+    }
+
+    /**
+     * This method returns the bit of a date
+     *
+     * @param date The date
+     * @return The bit of the date, or -1 if the calendar cannot hold the date
+     */
+    private static int bitOf(LocalDate date) {
+
+        long bit = date.toEpochDay() - EARLIEST_EPOCH_DAY;
+        return bit < 0 || bit > Integer.MAX_VALUE ? -1 : (int) bit;
+    }
+
+    /**
+     * This is the bits and the names of the holidays as published together, never changed once published
+     */
+    private static final class Days {
+        /**
+         * one bit for every day, set if the day is a public holiday
+         */
+        private final BitSet days;
+        /**
+         * public holidays by their bit
+         */
+        private final HashMap<Integer, PublicHoliday> holidays;
+
+        /**
+         * This is the constructor for the bits and the names of the holidays
+         *
+         * @param days     The bits of the days
+         * @param holidays The public holidays by their bit
+         */
+        private Days(BitSet days, HashMap<Integer, PublicHoliday> holidays) {
+
+            this.days = days;
+            this.holidays = holidays;
+        }
+    }
+}
@@ -5,16 +5,17 @@ import model.AgeGroup;
 import model.account.Customer;
 import model.cinema.Cineplex;
 import model.cinema.Seat;
+import model.cinema.SeatLayout;
+import model.cinema.SeatMap;
 import model.cinema.ShowTime;
 import model.movie.Movie;
 import model.transaction.Booking;
+import model.transaction.Refund;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.TreeSet;
+import java.util.concurrent.Flow;
 
 /**
  * class to provide services to the Customer
@@ -25,6 +26,10 @@ public class MovieGoerCineplexService {
      * static instance of DBController to access DB
      */
     private static DBController dbController = DBController.getInstance();
+    /**
+     * static instance of SeatHoldService to hold seats during a booking
+     */
+    private static SeatHoldService seatHoldService = SeatHoldService.getInstance();
 
     /**
      * returns showtimes at a cineplex on a certain day
@@ -37,25 +42,8 @@ public class MovieGoerCineplexService {
      * returns showtimes for a certain movie for the next 3 days
      */
     public ArrayList<ShowTime> getShowTimes(ArrayList<Cineplex> cineplexes, Movie movie) {
-        LocalDate today = LocalDate.now();
-        LocalDate threeDaysLater = today.plusDays(3);
-
-        ArrayList<ShowTime> nextThreeDays = new ArrayList<>();
-
-        for (; !today.equals(threeDaysLater); today = today.plusDays(1)) {
-            for (Cineplex cineplex : cineplexes) {
-                // check for null to prevent NullPointerException
-                if (!(cineplex.getShowTimes().get(today) == null)) {
-                    ArrayList<ShowTime> showTimes = cineplex.getShowTimes().get(today);
-                    for (ShowTime showTime : showTimes) {
-                        if (showTime.getMovie() == movie) {
-                            nextThreeDays.add(showTime);
-                        }
-                    }
-                }
-            }
-        }
-
+        ArrayList<ShowTime> nextThreeDays = dbController.getShowTimes(movie, LocalDate.now(), 3);
+        nextThreeDays.removeIf(showTime -> !cineplexes.contains(showTime.getCineplex()));
         return nextThreeDays;
     }
 
@@ -83,24 +71,7 @@ public class MovieGoerCineplexService {
      * @return arraylist of showtimes
      */
     public ArrayList<ShowTime> getShowTimes(Movie movie) {
-        DBController dbController = DBController.getInstance();
-        LocalDate today = LocalDate.now();
-        LocalDate threeDaysLater = today.plusDays(3);
-        ArrayList<Cineplex> cineplexes = new ArrayList<>(dbController.getCineplexes().values());
-        ArrayList<ShowTime> nextThreeDays = new ArrayList<>();
-        for (; !today.equals(threeDaysLater); today = today.plusDays(1)) {
-            for (Cineplex cineplex : cineplexes) {
-                if (!(cineplex.getShowTimes().get(today) == null)) {
-                    ArrayList<ShowTime> showTimes = cineplex.getShowTimes().get(today);
-                    for (ShowTime showTime : showTimes) {
-                        if (showTime.getMovie().getTitle().toLowerCase().equals(movie.getTitle().toLowerCase())) {
-                            nextThreeDays.add(showTime);
-                        }
-                    }
-                }
-            }
-        }
-        return nextThreeDays;
+        return dbController.getShowTimes(movie, LocalDate.now(), 3);
     }
 
     /**
@@ -109,43 +80,166 @@ public class MovieGoerCineplexService {
      * @param seatPos
      * @param customer
      * @param ageGroup
+     * @return true if the booking is made, false if a seat does not exist or is already taken
      */
-    public void makeBooking(ShowTime showTime, String[] seatPos, Customer customer, AgeGroup ageGroup) {
-        HashMap<Character, Seat[]> layout = showTime.getSeatLayout();
-        Seat[] seats = new Seat[seatPos.length];
+    public boolean makeBooking(ShowTime showTime, String[] seatPos, Customer customer, AgeGroup ageGroup) {
+        SeatHold hold = holdSeats(showTime, seatPos, customer);
+        return hold != null && makeBooking(hold, ageGroup);
+    }
 
+    /**
+     * Method to hold seats for a customer while the booking is being completed
+     * @param showTime
+     * @param seatPos
+     * @param customer
+     * @return the hold on the seats, or null if a seat does not exist or is already taken
+     */
+    public SeatHold holdSeats(ShowTime showTime, String[] seatPos, Customer customer) {
+        Seat[] seats = SeatReservationEngine.parseSeats(showTime.getSeatMap().getLayout(), seatPos);
+        if (seats == null) {
+            System.out.println("One or more of the seats do not exist!");
+            return null;
+        }
+        // all the seats are held atomically, or none of them
+        SeatHold hold = seatHoldService.hold(showTime, seats, customer);
+        if (hold == null) {
+            System.out.println("One or more of the seats are already taken!");
+        }
+        return hold;
+    }
 
-        int count = 0;
-        for (String seat : seatPos) {
-            char row = Character.toUpperCase(seat.charAt(0));
-            int col = Character.digit(seat.charAt(1), 10);
-//            int col = Integer.parseInt(seat, 1, 1, 10);
-            layout.get(row)[col - 1].makeBooking();
-            seats[count++] = layout.get(row)[col - 1];
+    /**
+     * Method to hold the best seats side by side for a customer while the booking is being completed
+     * @param showTime
+     * @param numOfSeats
+     * @param customer
+     * @return the hold on the seats, or null if no row has that many free seats side by side
+     */
+    public SeatHold holdBestSeats(ShowTime showTime, int numOfSeats, Customer customer) {
+        while (true) {
+            Seat[] seats = SeatFinder.findBestSeats(showTime, numOfSeats);
+            if (seats == null) {
+                System.out.println("There are not " + numOfSeats + " seats left side by side!");
+                return null;
+            }
+            SeatHold hold = seatHoldService.hold(showTime, seats, customer);
+            if (hold != null) {
+                return hold;
+            }
+            // another customer took one of the seats since the search, so look again
         }
-        Booking booking = new Booking(LocalDate.now(), LocalTime.now(), showTime, seats, customer);
-        for (int i = 0; i < seats.length; i++) {
+    }
+
+    /**
+     * Method to hold seats for several parties booked together, such as a school trip, while the booking is being
+     * completed. Every party is seated side by side in one row, following the seating rules.
+     * @param showTime
+     * @param partySizes
+     * @param rules
+     * @param customer
+     * @return the hold on the seats of every party, one party after the other, or null if they cannot all be seated
+     */
+    public SeatHold holdGroupSeats(ShowTime showTime, int[] partySizes, SeatingRules rules, Customer customer) {
+        while (true) {
+            Seat[][] parties = GroupSeatAllocator.allocate(showTime, partySizes, rules, SeatQuality.CENTRE);
+            if (parties == null) {
+                System.out.println("There are not enough seats left to seat every party!");
+                return null;
+            }
+            SeatHold hold = seatHoldService.hold(showTime, GroupSeatAllocator.flatten(parties), customer);
+            if (hold != null) {
+                return hold;
+            }
+            // another customer took one of the seats since the allocation, so allocate again
+        }
+    }
+
+    /**
+     * Method to put a customer on the waitlist of a sold-out show time. The seats are held for the customer at once
+     * if they are free and nobody is waiting.
+     * @param showTime
+     * @param numOfSeats
+     * @param customer
+     * @return the place of the customer on the waitlist, or null if the show time does not have that many seats
+     */
+    public WaitlistEntry joinWaitlist(ShowTime showTime, int numOfSeats, Customer customer) {
+        return WaitlistService.getInstance().join(showTime, customer, numOfSeats);
+    }
+
+    /**
+     * Method to get the seats given to a customer from the waitlists, held until the customer books them
+     * @param customer
+     * @return the holds on the seats
+     */
+    public ArrayList<SeatHold> getWaitlistHolds(Customer customer) {
+        return WaitlistService.getInstance().getHolds(customer);
+    }
+
+    /**
+     * Method to make Booking from held seats
+     * @param hold
+     * @param ageGroup
+     * @return true if the booking is made, false if the hold has expired or the showtime has been cancelled
+     */
+    public boolean makeBooking(SeatHold hold, AgeGroup ageGroup) {
+        Booking booking = book(hold, ageGroup);
+        if (booking == null) {
+            System.out.println("Your hold on the seats has expired, or the showtime has been cancelled!");
+            return false;
+        }
+        System.out.println("Total Price: " + booking.getPrice());
+        return true;
+    }
+
+    /**
+     * Method to turn held seats into a Booking
+     * @param hold
+     * @param ageGroup
+     * @return the booking, or null if the hold has expired or the showtime has been cancelled
+     */
+    public Booking book(SeatHold hold, AgeGroup ageGroup) {
+        if (!seatHoldService.confirm(hold)) {
+            return null;
+        }
+        Booking booking = new Booking(LocalDate.now(), LocalTime.now(), hold.getShowTime(), hold.getSeats(),
+                hold.getCustomer());
+        for (int i = 0; i < hold.getSeats().length; i++) {
             booking.makeBooking(ageGroup);
         }
-        customer.getBookingHistory().add(booking);
-        dbController.addSales(booking);
-        System.out.println("Total Price: " + booking.getPrice(booking.getShowTime().getDateOfMovie()));
+        if (!dbController.addBooking(booking)) {
+            SeatReservationEngine.release(hold.getShowTime(), hold.getSeats());
+            return null;
+        }
+        return booking;
     }
 
+    /**
+     * Method to release held seats that will not be booked
+     * @param hold
+     */
+    public void releaseHold(SeatHold hold) {
+        seatHoldService.release(hold);
+    }
 
     /**
-     * Method to cancel Booking
-     * @param showTime
-     * @param seatPos
-     * @param name
+     * Method to cancel a Booking of a customer and refund it
+     * @param transactionID
+     * @param customer
+     * @return true if the booking is cancelled, false if it is not found or is already cancelled
      */
-    public void cancelBooking(ShowTime showTime, String[] seatPos, String name) {
-        HashMap<Character, Seat[]> layout = showTime.getSeatLayout();
-        for (String seat : seatPos) {
-            char row = Character.toUpperCase(seat.charAt(0));
-            int col = seat.charAt(1);
-            layout.get(row)[col - 1].cancelBooking();
+    public boolean cancelBooking(String transactionID, Customer customer) {
+        Booking booking = dbController.findBooking(transactionID.trim());
+        if (booking == null || customer == null || booking.getCustomerId() != customer.getId()) {
+            System.out.println("No booking with this transaction ID was found!");
+            return false;
         }
+        Refund refund = dbController.cancelBooking(booking);
+        if (refund == null) {
+            System.out.println("This booking has already been cancelled!");
+            return false;
+        }
+        System.out.println("Amount Refunded: " + refund.getAmount());
+        return true;
     }
 
     /**
@@ -154,14 +248,17 @@ public class MovieGoerCineplexService {
      * @return
      */
     public Customer getCustomerByName(String name) {
-        ArrayList<Customer> customers = dbController.getCustomer();
-        for (Customer customer : customers) {
-            if (customer.getUserName().equals(name)) {
-                return customer;
-            }
-        }
-        return null; // assume customer always present
+        return AccountService.getCustomer(name);
+    }
 
+    /**
+     * Method to watch the seats of a showtime instead of showing them again: the watcher is sent the seat map, then
+     * a delta for every change, as it requests them
+     * @param showTime
+     * @param subscriber
+     */
+    public void watchAvailableSeats(ShowTime showTime, Flow.Subscriber<? super SeatDelta> subscriber) {
+        SeatAvailabilityService.getInstance().watch(showTime, subscriber);
     }
 
     /**
@@ -170,10 +267,9 @@ public class MovieGoerCineplexService {
      * @param showTime
      */
     public void showAvailableSeats(ShowTime showTime) {
-        HashMap<Character, Seat[]> layout = showTime.getSeatLayout();
-        TreeSet<Character> rows = new TreeSet<>(layout.keySet());
-        Iterator<Character> it = rows.descendingIterator();
-        int rowLength = layout.get('A').length;
+        SeatMap seatMap = showTime.getSeatMap();
+        SeatLayout layout = seatMap.getLayout();
+        int rowLength = layout.getCols();
 //        int length = rows.size() * 3
         for (int i = 0; i < rowLength / 2; i++) {
             System.out.print("===");
@@ -185,20 +281,18 @@ public class MovieGoerCineplexService {
         System.out.print("\n\n");
 
 
-        while (it.hasNext()) {
-            Character row = it.next();
-            Seat[] seats = layout.get(row);
-            System.out.print(row + "  ");
-            for (int i = 0; i < seats.length / 2; i++) {
-                System.out.print(seats[i]);
-            }
-            for (int i = 0; i < 3; i++) {
-                System.out.print("   ");
-            }
-            for (int i = seats.length / 2; i < seats.length; i++) {
-                System.out.print(seats[i]);
+        StringBuilder line = new StringBuilder(rowLength * 3 + 16);
+        for (int row = layout.getRows() - 1; row >= 0; row--) {
+            long bits = seatMap.getRowBits(row);
+            line.setLength(0);
+            line.append((char) ('A' + row)).append("  ");
+            for (int i = 0; i < rowLength; i++) {
+                if (i == rowLength / 2) {
+                    line.append("         ");
+                }
+                line.append((bits & (1L << i)) != 0 ? "[X]" : "[ ]");
             }
-            System.out.println();
+            System.out.println(line);
         }
         System.out.print("\n\n");
 
@@ -0,0 +1,109 @@
+package service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Class to hash and verify passwords. A password is stored as "pbkdf2$iterations$salt$hash", with a random salt for
+ * every account, so the database never holds a password in the clear and two equal passwords have different hashes.
+ */
+public class PasswordHasher {
+    /**
+     * prefix of a hashed password
+     */
+    private static final String PREFIX = "pbkdf2$";
+    /**
+     * algorithm used to derive the hash
+     */
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    /**
+     * number of iterations of the key derivation
+     */
+    private static final int ITERATIONS = 65536;
+    /**
+     * length of the salt in bytes
+     */
+    private static final int SALT_BYTES = 16;
+    /**
+     * length of the hash in bits
+     */
+    private static final int HASH_BITS = 256;
+    /**
+     * source of the salts
+     */
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * Method to hash a password with a new random salt
+     * @param password
+     * @return the stored form of the password
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + ITERATIONS + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(password, salt, ITERATIONS));
+    }
+
+    /**
+     * Method to check a password against its stored form. A stored password that is not hashed is an account from
+     * before passwords were hashed and is compared as it is.
+     * @param password
+     * @param stored
+     * @return true if the password matches
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[3]);
+            byte[] actual = derive(password, decoder.decode(parts[2]), Integer.parseInt(parts[1]));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method to check if a stored password is hashed
+     * @param stored
+     * @return true if the password is in the hashed form
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    /**
+     * Method to derive the hash of a password
+     * @param password
+     * @param salt
+     * @param iterations
+     * @return the hash
+     */
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
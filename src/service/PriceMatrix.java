@@ -0,0 +1,123 @@
+package service;
+
+import model.AgeGroup;
+import model.cinema.CinemaType;
+import model.movie.MovieEnums;
+
+/**
+ * This is the ticket pricing configuration compiled into one dense array. For every combination of cinema type,
+ * movie type, age group and kind of day it holds the charges added to the base price of a ticket, so quoting a
+ * ticket is a single array load. A PriceMatrix never changes; TicketPriceService builds a new one whenever a price
+ * is set and publishes it with a single volatile write.
+ */
+public final class PriceMatrix {
+    /**
+     * kind of day of a weekday that is not a public holiday
+     */
+    public static final int WEEKDAY = 0;
+    /**
+     * kind of day of a Saturday or Sunday that is not a public holiday
+     */
+    public static final int WEEKEND = 1;
+    /**
+     * kind of day of a public holiday
+     */
+    public static final int HOLIDAY = 2;
+    /**
+     * number of kinds of day
+     */
+    private static final int DAY_KINDS = 3;
+    /**
+     * number of movie types
+     */
+    private static final int MOVIE_TYPES = MovieEnums.MovieType.values().length;
+    /**
+     * number of age groups
+     */
+    private static final int AGE_GROUPS = AgeGroup.values().length;
+    /**
+     * charges indexed by ((cinema type * MOVIE_TYPES + movie type) * AGE_GROUPS + age group) * DAY_KINDS + kind of day
+     */
+    private final double[] charges;
+
+    /**
+     * This is the constructor for the price matrix, which compiles the given configuration
+     *
+     * @param cinemaTypeCharges    The extra charges of every cinema type, by ordinal
+     * @param movieTypeCharges     The extra charges of every movie type, by ordinal
+     * @param ageGroupDiscounts    The discount of every age group, by ordinal
+     * @param weekendCharges       The extra charges during weekends
+     * @param publicHolidayCharges The extra charges during public holidays
+     */
+    public PriceMatrix(double[] cinemaTypeCharges, double[] movieTypeCharges, double[] ageGroupDiscounts,
+                       double weekendCharges, double publicHolidayCharges) {
+
+        double[] dayCharges = {0, weekendCharges, publicHolidayCharges};
+        charges = new double[cinemaTypeCharges.length * MOVIE_TYPES * AGE_GROUPS * DAY_KINDS];
+        int i = 0;
+        for (double cinemaTypeCharge : cinemaTypeCharges) {
+            for (double movieTypeCharge : movieTypeCharges) {
+                for (double ageGroupDiscount : ageGroupDiscounts) {
+                    for (double dayCharge : dayCharges) {
+                        charges[i++] = cinemaTypeCharge + movieTypeCharge - ageGroupDiscount + dayCharge;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method compiles the prices currently set on the enums
+     *
+     * @param weekendCharges       The extra charges during weekends
+     * @param publicHolidayCharges The extra charges during public holidays
+     * @return The compiled price matrix
+     */
+    public static PriceMatrix compile(double weekendCharges, double publicHolidayCharges) {
+
+        CinemaType[] cinemaTypes = CinemaType.values();
+        double[] cinemaTypeCharges = new double[cinemaTypes.length];
+        for (int i = 0; i < cinemaTypes.length; i++) {
+            cinemaTypeCharges[i] = cinemaTypes[i].getTicketPrice();
+        }
+        MovieEnums.MovieType[] movieTypes = MovieEnums.MovieType.values();
+        double[] movieTypeCharges = new double[movieTypes.length];
+        for (int i = 0; i < movieTypes.length; i++) {
+            movieTypeCharges[i] = movieTypes[i].getTicketPrice();
+        }
+        AgeGroup[] ageGroups = AgeGroup.values();
+        double[] ageGroupDiscounts = new double[ageGroups.length];
+        for (int i = 0; i < ageGroups.length; i++) {
+            ageGroupDiscounts[i] = ageGroups[i].getTicketPrice();
+        }
+        return new PriceMatrix(cinemaTypeCharges, movieTypeCharges, ageGroupDiscounts, weekendCharges,
+                publicHolidayCharges);
+    }
+
+    /**
+     * This method returns the kind of a day
+     *
+     * @param isHoliday true if the day is a public holiday
+     * @param isWeekend true if the day is a Saturday or Sunday
+     * @return HOLIDAY, WEEKEND or WEEKDAY; a public holiday on a weekend is charged as a holiday
+     */
+    public static int dayKind(boolean isHoliday, boolean isWeekend) {
+
+        return isHoliday ? HOLIDAY : isWeekend ? WEEKEND : WEEKDAY;
+    }
+
+    /**
+     * This method returns the charges added to the base price of a ticket
+     *
+     * @param cinemaType The cinema type of the ticket
+     * @param movieType  The movie type of the ticket
+     * @param ageGroup   The age group of the ticket
+     * @param dayKind    The kind of day of the showtime
+     * @return The charges of the ticket on top of its base price
+     */
+    public double getCharges(CinemaType cinemaType, MovieEnums.MovieType movieType, AgeGroup ageGroup, int dayKind) {
+
+        return charges[((cinemaType.ordinal() * MOVIE_TYPES + movieType.ordinal()) * AGE_GROUPS + ageGroup.ordinal())
+                * DAY_KINDS + dayKind];
+    }
+}
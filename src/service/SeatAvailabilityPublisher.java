@@ -0,0 +1,337 @@
+package service;
+
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class to push the changes of the occupied seats of one showtime to its watchers, as a Flow.Publisher of SeatDelta.
+ * Obtain the publisher of a showtime from the SeatAvailabilityService.
+ *
+ * The publisher listens to the SeatMap of the showtime. The first change after a quiet spell starts a window of
+ * COALESCE_MILLIS, and the seat map is read once at the end of the window: every change made in the window, however
+ * many, becomes one new version of the seat map. The versions are immutable snapshots of the rows, and the delta
+ * from the previous version is worked out once and shared by every watcher that is up to date.
+ *
+ * A watcher is never sent more deltas than it requested, and the publisher keeps nothing for it but the last
+ * version it was sent. A watcher that is slow to request is sent one delta from that version to the latest once it
+ * requests again, so a slow watcher costs no memory and skips the versions it missed instead of falling behind.
+ * Deltas are delivered on the executor of the publisher, one at a time for each watcher.
+ */
+public class SeatAvailabilityPublisher implements Flow.Publisher<SeatDelta> {
+    /**
+     * milliseconds the changes of a burst are gathered for before they are pushed as one delta
+     */
+    public static final long COALESCE_MILLIS = 25;
+
+    /**
+     * An immutable version of the occupied seats
+     */
+    private static final class Snapshot {
+        /**
+         * number of the version
+         */
+        private final long version;
+        /**
+         * occupied seats of each row
+         */
+        private final long[] rows;
+
+        /**
+         * This is the constructor for the snapshot
+         * @param version
+         * @param rows
+         */
+        private Snapshot(long version, long[] rows) {
+            this.version = version;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * the showtime watched
+     */
+    private final ShowTime showTime;
+    /**
+     * executor the deltas are delivered on
+     */
+    private final Executor executor;
+    /**
+     * scheduler of the ends of the coalescing windows
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * the empty seat map every watcher starts from
+     */
+    private final Snapshot empty;
+    /**
+     * the latest version of the seat map
+     */
+    private volatile Snapshot latest;
+    /**
+     * delta from the version before the latest to the latest, shared by the watchers that were up to date
+     */
+    private volatile SeatDelta latestDelta;
+    /**
+     * true once the seat map has changed since it was last read
+     */
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    /**
+     * true while the end of a coalescing window is scheduled
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * true once the showtime is no longer listed, after which the watchers are completed
+     */
+    private volatile boolean closed;
+    /**
+     * subscriptions of the watchers
+     */
+    private final Set<SeatSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The subscription of one watcher
+     */
+    private final class SeatSubscription implements Flow.Subscription, Runnable {
+        /**
+         * the watcher
+         */
+        private final Flow.Subscriber<? super SeatDelta> subscriber;
+        /**
+         * number of deltas requested and not yet sent
+         */
+        private final AtomicLong demand = new AtomicLong();
+        /**
+         * number of times the subscription was signalled while it was being drained, so that one thread delivers
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * the last version sent, only used by the thread delivering
+         */
+        private Snapshot sent = empty;
+        /**
+         * true once onSubscribe has been called
+         */
+        private boolean started;
+        /**
+         * true once the subscription is cancelled or its watcher completed
+         */
+        private volatile boolean done;
+        /**
+         * error to give the watcher for a bad request, null if there is none
+         */
+        private volatile IllegalArgumentException error;
+
+        /**
+         * This is the constructor for the subscription
+         * @param subscriber
+         */
+        private SeatSubscription(Flow.Subscriber<? super SeatDelta> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Method to ask for more deltas
+         * @param n the number of deltas, at least 1
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("A watcher must request at least one delta, not " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            signal();
+        }
+
+        /**
+         * Method to stop receiving deltas
+         */
+        @Override
+        public void cancel() {
+            done = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Method to have the subscription drained on the executor, unless it is being drained already
+         */
+        private void signal() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    cancel();
+                    System.out.println("[System: Error in delivering the seats of showtime " + showTime.getId()
+                            + ": " + e + "]");
+                }
+            }
+        }
+
+        /**
+         * Method to send the watcher the deltas it has asked for, then its completion or its error
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                if (!started) {
+                    started = true;
+                    if (!call(() -> subscriber.onSubscribe(this))) return;
+                }
+                while (!done) {
+                    IllegalArgumentException badRequest = error;
+                    if (badRequest != null) {
+                        cancel();
+                        call(() -> subscriber.onError(badRequest));
+                        return;
+                    }
+                    if (closed) {
+                        cancel();
+                        call(subscriber::onComplete);
+                        return;
+                    }
+                    Snapshot current = latest;
+                    if (current == sent || demand.get() == 0) break;
+                    SeatDelta delta = deltaFrom(sent, current);
+                    sent = current;
+                    if (demand.get() != Long.MAX_VALUE) demand.decrementAndGet();
+                    if (!call(() -> subscriber.onNext(delta))) return;
+                }
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) return;
+            }
+        }
+
+        /**
+         * Method to call the watcher, cancelling the subscription if the watcher fails
+         * @param signal
+         * @return true if the watcher returned normally
+         */
+        private boolean call(Runnable signal) {
+            try {
+                signal.run();
+                return true;
+            } catch (RuntimeException e) {
+                cancel();
+                System.out.println("[System: Error in a watcher of showtime " + showTime.getId() + ": " + e + "]");
+                return false;
+            }
+        }
+    }
+
+    /**
+     * This is the constructor for the publisher, use SeatAvailabilityService to obtain the publisher of a showtime
+     * @param showTime
+     * @param executor the executor the deltas are delivered on
+     * @param scheduler the scheduler of the ends of the coalescing windows
+     */
+    SeatAvailabilityPublisher(ShowTime showTime, Executor executor, ScheduledExecutorService scheduler) {
+        this.showTime = showTime;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.empty = new Snapshot(SeatDelta.EMPTY_VERSION, new long[showTime.getSeatMap().getLayout().getRows()]);
+        this.latest = empty;
+        showTime.getSeatMap().setOccupancyListener(this::occupancyChanged);
+        dirty.set(true);
+        refresh();
+    }
+
+    /**
+     * Method to get the showtime watched
+     * @return the showtime
+     */
+    public ShowTime getShowTime() {
+        return showTime;
+    }
+
+    /**
+     * Method to get the number of watchers
+     * @return the number of subscriptions not cancelled
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Method to start sending a watcher the seat map, as a first delta from the empty seat map, then its changes
+     * @param subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super SeatDelta> subscriber) {
+        if (subscriber == null) throw new NullPointerException("The watcher is null");
+        SeatSubscription subscription = new SeatSubscription(subscriber);
+        subscriptions.add(subscription);
+        // the changes made while nobody was watching are not pushed, so the watcher starts from the seat map now
+        if (dirty.get()) refresh();
+        subscription.signal();
+    }
+
+    /**
+     * Method to stop listening to the seat map and to complete every watcher
+     */
+    void close() {
+        closed = true;
+        showTime.getSeatMap().setOccupancyListener(null);
+        for (SeatSubscription subscription : subscriptions) subscription.signal();
+    }
+
+    /**
+     * Method called by the seat map when the occupancy changes, which starts a coalescing window if none is open
+     */
+    private void occupancyChanged() {
+        dirty.set(true);
+        if (subscriptions.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+        try {
+            scheduler.schedule(() -> {
+                scheduled.set(false);
+                refresh();
+            }, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+        }
+    }
+
+    /**
+     * Method to read the seat map into a new version if it has changed, and to signal the watchers
+     */
+    private synchronized void refresh() {
+        if (!dirty.getAndSet(false)) return;
+        SeatMap seatMap = showTime.getSeatMap();
+        Snapshot previous = latest;
+        long[] rows = new long[previous.rows.length];
+        boolean changed = false;
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = seatMap.getRowBits(row);
+            changed |= rows[row] != previous.rows[row];
+        }
+        if (!changed) return;
+        Snapshot current = new Snapshot(previous.version + 1, rows);
+        latestDelta = SeatDelta.between(showTime.getId(), previous.version, previous.rows, current.version, rows);
+        latest = current;
+        for (SeatSubscription subscription : subscriptions) subscription.signal();
+    }
+
+    /**
+     * Method to get the delta from a version sent to a watcher to a later version
+     * @param base
+     * @param current
+     * @return the delta, shared with the other watchers when the base is the version before the latest
+     */
+    private SeatDelta deltaFrom(Snapshot base, Snapshot current) {
+        SeatDelta shared = latestDelta;
+        if (shared != null && shared.getBaseVersion() == base.version && shared.getVersion() == current.version) {
+            return shared;
+        }
+        return SeatDelta.between(showTime.getId(), base.version, base.rows, current.version, current.rows);
+    }
+}
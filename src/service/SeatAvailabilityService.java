@@ -0,0 +1,119 @@
+package service;
+
+import controller.DBController;
+import event.DomainEvent;
+import event.ShowTimeRemoved;
+import model.cinema.ShowTime;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class to keep the SeatAvailabilityPublisher of each watched showtime, so that every watcher of a showtime shares
+ * one publisher, one coalescing window and one delta per change. A publisher is made when its showtime is first
+ * watched. When a showtime is removed, its publisher completes its watchers and is dropped: the service follows the
+ * ShowTimeRemoved events of the DBController.
+ *
+ * The deltas of every publisher are delivered on a fixed pool of DELIVERY_THREADS daemon threads, so that a showtime
+ * with thousands of watchers never starts thousands of threads.
+ */
+public class SeatAvailabilityService {
+    /**
+     * number of threads the deltas are delivered on
+     */
+    public static final int DELIVERY_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    /**
+     * singleton instance of SeatAvailabilityService
+     */
+    private static SeatAvailabilityService seatAvailabilityService = null;
+    /**
+     * publishers by the ID of their showtime
+     */
+    private final ConcurrentHashMap<Integer, SeatAvailabilityPublisher> publishers = new ConcurrentHashMap<>();
+    /**
+     * threads the deltas are delivered on
+     */
+    private final ExecutorService delivery;
+    /**
+     * thread closing the coalescing windows
+     */
+    private final ScheduledExecutorService coalescer;
+
+    /**
+     * private constructor for SeatAvailabilityService
+     */
+    private SeatAvailabilityService() {
+        AtomicInteger count = new AtomicInteger();
+        delivery = Executors.newFixedThreadPool(DELIVERY_THREADS, task -> {
+            Thread thread = new Thread(task, "moblima-seat-delivery-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        coalescer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "moblima-seat-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        DBController.getInstance().getEventBus().subscribe("seat-availability", this::showTimesRemoved);
+    }
+
+    /**
+     * Method to get the singleton instance of SeatAvailabilityService
+     * @return the instance of SeatAvailabilityService
+     */
+    public static synchronized SeatAvailabilityService getInstance() {
+        if (seatAvailabilityService == null)
+            seatAvailabilityService = new SeatAvailabilityService();
+        return seatAvailabilityService;
+    }
+
+    /**
+     * Method to get the publisher of the seat changes of a showtime
+     * @param showTime
+     * @return the publisher, already closed if the showtime is no longer listed
+     */
+    public SeatAvailabilityPublisher getPublisher(ShowTime showTime) {
+        SeatAvailabilityPublisher publisher = publishers.computeIfAbsent(showTime.getId(),
+                id -> new SeatAvailabilityPublisher(showTime, delivery, coalescer));
+        // a showtime removed before its publisher was kept here has no event left to close the publisher
+        if (!DBController.getInstance().isListed(showTime) && publishers.remove(showTime.getId(), publisher)) {
+            publisher.close();
+        }
+        return publisher;
+    }
+
+    /**
+     * Method to start pushing the seat map of a showtime and its changes to a watcher
+     * @param showTime
+     * @param subscriber
+     */
+    public void watch(ShowTime showTime, Flow.Subscriber<? super SeatDelta> subscriber) {
+        getPublisher(showTime).subscribe(subscriber);
+    }
+
+    /**
+     * Method to get the number of showtimes watched
+     * @return the number of publishers
+     */
+    public int getPublisherCount() {
+        return publishers.size();
+    }
+
+    /**
+     * Method to close the publishers of the showtimes removed
+     * @param events the events published by the DBController
+     */
+    private void showTimesRemoved(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof ShowTimeRemoved) {
+                SeatAvailabilityPublisher publisher = publishers.remove(((ShowTimeRemoved) event).getShowTime().getId());
+                if (publisher != null) publisher.close();
+            }
+        }
+    }
+}
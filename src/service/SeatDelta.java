@@ -0,0 +1,229 @@
+package service;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A change of the occupied seats of a showtime, pushed to its watchers by its SeatAvailabilityPublisher. A delta
+ * takes the seat map from its base version to its version: each changed row carries the seats that flipped, as one
+ * bit per seat (bit 0 is seat 1), so a watcher applies it with an exclusive or on its own copy of the rows.
+ * The first delta of a watcher has base version 0, the empty seat map, and so carries the whole seat map.
+ *
+ * encode() writes a delta in a few bytes: the showtime ID, the version and the distance to the base version, the
+ * number of changed rows, then for each changed row the gap from the previous one and its flipped seats, all as
+ * unsigned varints. Booking one seat is usually encoded in less than ten bytes.
+ */
+public final class SeatDelta {
+    /**
+     * version of the empty seat map every watcher starts from
+     */
+    public static final long EMPTY_VERSION = 0;
+    /**
+     * ID of the showtime
+     */
+    private final int showTimeId;
+    /**
+     * version the delta applies to
+     */
+    private final long baseVersion;
+    /**
+     * version of the seat map once the delta is applied
+     */
+    private final long version;
+    /**
+     * indexes of the changed rows, in ascending order
+     */
+    private final int[] rows;
+    /**
+     * seats that flipped in each changed row
+     */
+    private final long[] flipped;
+
+    /**
+     * This is the constructor for the delta
+     * @param showTimeId
+     * @param baseVersion
+     * @param version
+     * @param rows the indexes of the changed rows, in ascending order
+     * @param flipped the seats that flipped in each changed row
+     */
+    public SeatDelta(int showTimeId, long baseVersion, long version, int[] rows, long[] flipped) {
+        if (rows.length != flipped.length) throw new IllegalArgumentException("Every changed row needs its seats");
+        this.showTimeId = showTimeId;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.rows = rows;
+        this.flipped = flipped;
+    }
+
+    /**
+     * Method to work out the delta between two versions of the occupied seats
+     * @param showTimeId
+     * @param baseVersion
+     * @param base the occupied seats of each row at the base version
+     * @param version
+     * @param occupied the occupied seats of each row at the version
+     * @return the delta
+     */
+    public static SeatDelta between(int showTimeId, long baseVersion, long[] base, long version, long[] occupied) {
+        int changed = 0;
+        for (int row = 0; row < occupied.length; row++) {
+            if (base[row] != occupied[row]) changed++;
+        }
+        int[] rows = new int[changed];
+        long[] flipped = new long[changed];
+        int i = 0;
+        for (int row = 0; row < occupied.length; row++) {
+            if (base[row] != occupied[row]) {
+                rows[i] = row;
+                flipped[i++] = base[row] ^ occupied[row];
+            }
+        }
+        return new SeatDelta(showTimeId, baseVersion, version, rows, flipped);
+    }
+
+    /**
+     * Method to get the ID of the showtime
+     * @return the ID
+     */
+    public int getShowTimeId() {
+        return showTimeId;
+    }
+
+    /**
+     * Method to get the version the delta applies to
+     * @return the base version, EMPTY_VERSION for a delta carrying the whole seat map
+     */
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Method to get the version of the seat map once the delta is applied
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Method to get the number of changed rows
+     * @return the number of rows
+     */
+    public int getChangedRowCount() {
+        return rows.length;
+    }
+
+    /**
+     * Method to get the index of a changed row
+     * @param i the position of the row among the changed rows
+     * @return the row index, 0 for row A
+     */
+    public int getRow(int i) {
+        return rows[i];
+    }
+
+    /**
+     * Method to get the seats that flipped in a changed row
+     * @param i the position of the row among the changed rows
+     * @return one bit per seat that was booked or freed, bit 0 for seat 1
+     */
+    public long getFlipped(int i) {
+        return flipped[i];
+    }
+
+    /**
+     * Method to apply the delta to a copy of the occupied seats at the base version
+     * @param occupied the occupied seats of each row, changed in place
+     */
+    public void applyTo(long[] occupied) {
+        for (int i = 0; i < rows.length; i++) occupied[rows[i]] ^= flipped[i];
+    }
+
+    /**
+     * Method to encode the delta
+     * @return the encoded delta
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + rows.length * 4);
+        writeVarLong(out, showTimeId);
+        writeVarLong(out, version);
+        writeVarLong(out, version - baseVersion);
+        writeVarLong(out, rows.length);
+        int previous = -1;
+        for (int i = 0; i < rows.length; i++) {
+            writeVarLong(out, rows[i] - previous - 1);
+            writeVarLong(out, flipped[i]);
+            previous = rows[i];
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Method to decode a delta written by encode()
+     * @param bytes
+     * @return the delta
+     * @throws IllegalArgumentException if the bytes are not a delta
+     */
+    public static SeatDelta decode(byte[] bytes) {
+        int[] position = {0};
+        int showTimeId = (int) readVarLong(bytes, position);
+        long version = readVarLong(bytes, position);
+        long baseVersion = version - readVarLong(bytes, position);
+        int count = (int) readVarLong(bytes, position);
+        if (count < 0 || count > bytes.length) throw new IllegalArgumentException("Bad seat delta");
+        int[] rows = new int[count];
+        long[] flipped = new long[count];
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            rows[i] = previous + 1 + (int) readVarLong(bytes, position);
+            flipped[i] = readVarLong(bytes, position);
+            previous = rows[i];
+        }
+        if (position[0] != bytes.length) throw new IllegalArgumentException("Bad seat delta");
+        return new SeatDelta(showTimeId, baseVersion, version, rows, flipped);
+    }
+
+    /**
+     * Method to write an unsigned varint, seven bits per byte
+     * @param out
+     * @param value
+     */
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Method to read an unsigned varint
+     * @param bytes
+     * @param position the position to read at, moved past the varint
+     * @return the value
+     */
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) throw new IllegalArgumentException("Bad seat delta");
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Bad seat delta");
+    }
+
+    /**
+     * Method to describe the delta
+     * @return the showtime, the versions and the flipped seats of each changed row
+     */
+    @Override
+    public String toString() {
+        StringBuilder flippedRows = new StringBuilder();
+        for (int i = 0; i < rows.length; i++) {
+            if (i > 0) flippedRows.append(", ");
+            flippedRows.append((char) ('A' + rows[i])).append('=').append(Long.toHexString(flipped[i]));
+        }
+        return "SeatDelta{showTime=" + showTimeId + ", " + baseVersion + "->" + version + ", " + flippedRows + "}";
+    }
+}
@@ -0,0 +1,103 @@
+package service;
+
+import model.cinema.Seat;
+import model.cinema.SeatLayout;
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+
+/**
+ * Class to find the best free block of seats side by side in a row of a showtime. The search works on the occupancy
+ * words of the SeatMap: the free seats of a row are the complement of its word, and the seats that start a free
+ * block of n seats are found by ANDing the free word with itself shifted, doubling the length covered each time, so
+ * a row is searched in O(log n) word operations plus one step per candidate block. Candidate blocks are ranked by a
+ * SeatQuality.
+ *
+ * The search reads the rows without a lock, so the seats found may be taken before they are reserved. Reserving
+ * goes through the all-or-nothing SeatReservationEngine, and the search is simply run again when it fails.
+ */
+public class SeatFinder {
+
+    /**
+     * Method to find the best free block of seats of a showtime, ranked by distance from the centre of the screen
+     * @param showTime
+     * @param numOfSeats
+     * @return the seats, or null if no row has that many free seats side by side
+     */
+    public static Seat[] findBestSeats(ShowTime showTime, int numOfSeats) {
+        return findBestSeats(showTime, numOfSeats, SeatQuality.CENTRE);
+    }
+
+    /**
+     * Method to find the best free block of seats of a showtime
+     * @param showTime
+     * @param numOfSeats
+     * @param quality the ranking of the seats
+     * @return the seats, or null if no row has that many free seats side by side
+     */
+    public static Seat[] findBestSeats(ShowTime showTime, int numOfSeats, SeatQuality quality) {
+        SeatMap seatMap = showTime.getSeatMap();
+        SeatLayout layout = seatMap.getLayout();
+        if (numOfSeats < 1 || numOfSeats > layout.getCols()) {
+            return null;
+        }
+        int bestRow = -1;
+        int bestCol = -1;
+        double bestScore = Double.POSITIVE_INFINITY;
+        double[][] sums = quality.getSums(layout);
+        for (int row = 0; row < layout.getRows(); row++) {
+            long starts = blockStarts(~seatMap.getRowBits(row) & layout.getRowMask(), numOfSeats);
+            while (starts != 0) {
+                int col = Long.numberOfTrailingZeros(starts);
+                starts &= starts - 1;
+                double score = sums[row][col + numOfSeats] - sums[row][col];
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestRow = row;
+                    bestCol = col;
+                }
+            }
+        }
+        if (bestRow < 0) {
+            return null;
+        }
+        Seat[] seats = new Seat[numOfSeats];
+        for (int i = 0; i < numOfSeats; i++) {
+            seats[i] = layout.getSeat(bestRow, bestCol + i);
+        }
+        return seats;
+    }
+
+    /**
+     * Method to find and reserve the best free block of seats of a showtime
+     * @param showTime
+     * @param numOfSeats
+     * @param quality the ranking of the seats
+     * @return the seats reserved, or null if no row has that many free seats side by side
+     */
+    public static Seat[] reserveBestSeats(ShowTime showTime, int numOfSeats, SeatQuality quality) {
+        while (true) {
+            Seat[] seats = findBestSeats(showTime, numOfSeats, quality);
+            if (seats == null || SeatReservationEngine.reserve(showTime, seats)) {
+                return seats;
+            }
+            // a seat was taken since the search, so the row words have changed and the search is run again
+        }
+    }
+
+    /**
+     * Method to find the seats of a row that start a block of free seats
+     * @param free the free seats of the row, one bit per seat
+     * @param length the number of seats of the block
+     * @return one bit for every seat followed by length - 1 free seats, itself included
+     */
+    static long blockStarts(long free, int length) {
+        long starts = free;
+        int covered = 1;
+        while (covered < length) {
+            int shift = Math.min(covered, length - covered);
+            starts &= starts >>> shift;
+            covered += shift;
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,138 @@
+package service;
+
+import model.account.Customer;
+import model.cinema.Seat;
+import model.cinema.ShowTime;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is a temporary hold of a customer on a set of seats of a showtime. The seats are reserved in the SeatMap
+ * for as long as the hold is HELD; the hold then ends exactly once, by being confirmed into a booking, released by
+ * the customer or expired by the SeatHoldService.
+ */
+public class SeatHold {
+    /**
+     * the seats are reserved for the customer
+     */
+    public static final int HELD = 0;
+    /**
+     * the hold has been turned into a booking
+     */
+    public static final int CONFIRMED = 1;
+    /**
+     * the customer gave the seats back
+     */
+    public static final int RELEASED = 2;
+    /**
+     * the hold ran out of time and the seats were given back
+     */
+    public static final int EXPIRED = 3;
+
+    /**
+     * showtime of the seats
+     */
+    private final ShowTime showTime;
+    /**
+     * seats that are held
+     */
+    private final Seat[] seats;
+    /**
+     * customer holding the seats
+     */
+    private final Customer customer;
+    /**
+     * time at which the hold expires
+     */
+    private final LocalDateTime expiresAt;
+    /**
+     * state of the hold, moved out of HELD by compare-and-set only
+     */
+    private final AtomicInteger state = new AtomicInteger(HELD);
+    /**
+     * handle of the expiry in the timing wheel
+     */
+    private volatile TimingWheel.Timeout expiry;
+
+    /**
+     * This is the constructor for the seat hold
+     *
+     * @param showTime  The showtime of the seats
+     * @param seats     The seats that are held
+     * @param customer  The customer holding the seats
+     * @param expiresAt The time at which the hold expires
+     */
+    SeatHold(ShowTime showTime, Seat[] seats, Customer customer, LocalDateTime expiresAt) {
+
+        this.showTime = showTime;
+        this.seats = seats;
+        this.customer = customer;
+        this.expiresAt = expiresAt;
+    }
+
+    /**This method will return the showtime of the hold
+     * @return The showtime of the seats
+     */
+    public ShowTime getShowTime() {
+
+        return showTime;
+    }
+
+    /**This method will return the seats of the hold
+     * @return The seats that are held
+     */
+    public Seat[] getSeats() {
+
+        return seats;
+    }
+
+    /**This method will return the customer of the hold
+     * @return The customer holding the seats
+     */
+    public Customer getCustomer() {
+
+        return customer;
+    }
+
+    /**This method will return the expiry time of the hold
+     * @return The time at which the hold expires
+     */
+    public LocalDateTime getExpiresAt() {
+
+        return expiresAt;
+    }
+
+    /**This method will return the state of the hold
+     * @return HELD, CONFIRMED, RELEASED or EXPIRED
+     */
+    public int getState() {
+
+        return state.get();
+    }
+
+    /**This method will end the hold if it is still held
+     * @param newState  The state the hold ends in
+     * @return true if the hold was still held and has now ended in the given state
+     */
+    boolean end(int newState) {
+
+        return state.compareAndSet(HELD, newState);
+    }
+
+    /**This method will return the handle of the expiry of the hold
+     * @return The timeout in the timing wheel
+     */
+    TimingWheel.Timeout getExpiry() {
+
+        return expiry;
+    }
+
+    /**This method will set the handle of the expiry of the hold
+     * @param expiry  The timeout in the timing wheel
+     */
+    void setExpiry(TimingWheel.Timeout expiry) {
+
+        this.expiry = expiry;
+    }
+}
@@ -0,0 +1,132 @@
+package service;
+
+import model.account.Customer;
+import model.cinema.Seat;
+import model.cinema.ShowTime;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class to hold seats for a customer while the booking is being completed. A hold reserves the seats in the
+ * SeatMap straight away, then either is confirmed into a booking, released, or expires after HOLD_MINUTES, and the
+ * WaitlistService is told when it ends. Expired
+ * holds are reclaimed by a hashed TimingWheel, so the cost of a hold does not depend on how many holds are
+ * outstanding and there is no thread or scan per hold.
+ */
+public class SeatHoldService {
+    /**
+     * number of minutes seats are held for
+     */
+    public static final long HOLD_MINUTES = 5;
+    /**
+     * length of one tick of the timing wheel in milliseconds
+     */
+    private static final long TICK_MILLIS = 1000;
+    /**
+     * number of buckets of the timing wheel, one turn covers the hold duration
+     */
+    private static final int WHEEL_SIZE = 512;
+    /**
+     * singleton instance of SeatHoldService
+     */
+    private static SeatHoldService seatHoldService = null;
+    /**
+     * timing wheel expiring the holds
+     */
+    private final TimingWheel wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE);
+
+    /**
+     * private constructor for SeatHoldService
+     */
+    private SeatHoldService() {
+
+        wheel.start("seat-hold-expiry");
+    }
+
+    /**
+     * Method to get the singleton instance of SeatHoldService
+     * @return the instance of SeatHoldService
+     */
+    public static synchronized SeatHoldService getInstance() {
+        if (seatHoldService == null)
+            seatHoldService = new SeatHoldService();
+        return seatHoldService;
+    }
+
+    /**
+     * Method to hold a set of seats of a showtime for HOLD_MINUTES
+     * @param showTime
+     * @param seats
+     * @param customer
+     * @return the hold, or null if one of the seats is already taken or held
+     */
+    public SeatHold hold(ShowTime showTime, Seat[] seats, Customer customer) {
+        if (!SeatReservationEngine.reserve(showTime, seats)) {
+            return null;
+        }
+        return holdReserved(showTime, seats, customer);
+    }
+
+    /**
+     * Method to hold seats of a showtime that the caller has already reserved in the SeatMap, such as the seats
+     * kept for a waitlist, for HOLD_MINUTES
+     * @param showTime
+     * @param seats
+     * @param customer
+     * @return the hold
+     */
+    SeatHold holdReserved(ShowTime showTime, Seat[] seats, Customer customer) {
+        SeatHold hold = new SeatHold(showTime, seats, customer, LocalDateTime.now().plusMinutes(HOLD_MINUTES));
+        hold.setExpiry(wheel.schedule(() -> expire(hold), HOLD_MINUTES, TimeUnit.MINUTES));
+        return hold;
+    }
+
+    /**
+     * Method to confirm a hold, after which the seats belong to the booking made from it
+     * @param hold
+     * @return true if the hold was confirmed, false if it had expired or been released
+     */
+    public boolean confirm(SeatHold hold) {
+        if (!hold.end(SeatHold.CONFIRMED)) {
+            return false;
+        }
+        hold.getExpiry().cancel();
+        WaitlistService.getInstance().holdEnded(hold);
+        return true;
+    }
+
+    /**
+     * Method to release a hold and give its seats back
+     * @param hold
+     * @return true if the hold was released, false if it had already been confirmed, released or expired
+     */
+    public boolean release(SeatHold hold) {
+        if (!hold.end(SeatHold.RELEASED)) {
+            return false;
+        }
+        hold.getExpiry().cancel();
+        WaitlistService.getInstance().holdEnded(hold);
+        SeatReservationEngine.release(hold.getShowTime(), hold.getSeats());
+        return true;
+    }
+
+    /**
+     * Method to get the number of holds waiting to expire
+     * @return the number of outstanding holds
+     */
+    public int getOutstandingHolds() {
+        return wheel.size();
+    }
+
+    /**
+     * Method called by the timing wheel to expire a hold and give its seats back
+     * @param hold
+     */
+    private void expire(SeatHold hold) {
+        if (hold.end(SeatHold.EXPIRED)) {
+            WaitlistService.getInstance().holdEnded(hold);
+            SeatReservationEngine.release(hold.getShowTime(), hold.getSeats());
+        }
+    }
+}
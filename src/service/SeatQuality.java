@@ -0,0 +1,91 @@
+package service;
+
+import model.cinema.SeatLayout;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class to rank the seats of a cinema hall for the SeatFinder. The score of a seat is given by a Score function,
+ * lower being better; the score of a block of seats in a row is the sum of the scores of its seats. The scores are
+ * worked out once per layout and kept as running sums along each row, so the score of any block is one subtraction.
+ */
+public class SeatQuality {
+
+    /**
+     * Function giving the score of a seat of a layout, lower being better
+     */
+    public interface Score {
+        /**
+         * Method to score a seat
+         * @param layout
+         * @param row the row index, 0 for row A, nearest the screen
+         * @param col the column index, 0 for seat 1
+         * @return the score of the seat
+         */
+        double score(SeatLayout layout, int row, int col);
+    }
+
+    /**
+     * seats ranked by their distance from the centre of the screen, taken two thirds of the way back from the
+     * screen so that the front rows are not preferred
+     */
+    public static final SeatQuality CENTRE = new SeatQuality((layout, row, col) -> {
+        double across = col - (layout.getCols() - 1) / 2.0;
+        double back = row - (layout.getRows() - 1) * 2 / 3.0;
+        return Math.sqrt(across * across + back * back);
+    });
+
+    /**
+     * score of every seat
+     */
+    private final Score score;
+    /**
+     * running sums of the scores along each row, by layout: sums[row][col] is the score of the seats before col
+     */
+    private final ConcurrentHashMap<SeatLayout, double[][]> sums = new ConcurrentHashMap<>();
+
+    /**
+     * This constructor is for the seat quality
+     * @param score the score of every seat
+     */
+    public SeatQuality(Score score) {
+        this.score = score;
+    }
+
+    /**
+     * Method to get the score of a block of seats in a row
+     * @param layout
+     * @param row the row index
+     * @param col the column index of the first seat of the block
+     * @param length the number of seats of the block
+     * @return the sum of the scores of the seats
+     */
+    public double getScore(SeatLayout layout, int row, int col, int length) {
+        double[] rowSums = getSums(layout)[row];
+        return rowSums[col + length] - rowSums[col];
+    }
+
+    /**
+     * Method to get the running sums of the scores of a layout, used by the SeatFinder to score many blocks
+     * @param layout
+     * @return the running sums by row: sums[row][col] is the score of the seats before col
+     */
+    double[][] getSums(SeatLayout layout) {
+        return sums.computeIfAbsent(layout, this::sumScores);
+    }
+
+    /**
+     * Method to work out the running sums of the scores of a layout
+     * @param layout
+     * @return the running sums, by row
+     */
+    private double[][] sumScores(SeatLayout layout) {
+        double[][] rowSums = new double[layout.getRows()][layout.getCols() + 1];
+        for (int row = 0; row < layout.getRows(); row++) {
+            for (int col = 0; col < layout.getCols(); col++) {
+                rowSums[row][col + 1] = rowSums[row][col] + score.score(layout, row, col);
+            }
+        }
+        return rowSums;
+    }
+}
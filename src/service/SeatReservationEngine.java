@@ -0,0 +1,64 @@
+package service;
+
+import model.cinema.Seat;
+import model.cinema.SeatLayout;
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+
+/**
+ * Class to reserve and release sets of seats of a showtime. A reservation either takes every requested seat or
+ * none of them, and is made with compare-and-set on the occupancy words of the SeatMap. Reservations within one row
+ * take no lock, so many customers can book the same showtime at the same time; reservations over several rows are
+ * made one at a time under the lock of the seat map of the showtime, and a reservation that needs a seat they hold
+ * waits for them.
+ * Released seats are passed to the WaitlistService.
+ */
+public class SeatReservationEngine {
+
+    /**
+     * Method to parse the seat codes entered by a customer
+     * @param layout
+     * @param seatCodes
+     * @return the seats, or null if a code is not a seat of the layout
+     */
+    public static Seat[] parseSeats(SeatLayout layout, String[] seatCodes) {
+        Seat[] seats = new Seat[seatCodes.length];
+        for (int i = 0; i < seatCodes.length; i++) {
+            seats[i] = layout.parseSeat(seatCodes[i]);
+            if (seats[i] == null) {
+                return null;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Method to reserve a set of seats of a showtime all-or-nothing
+     * @param showTime
+     * @param seats
+     * @return true if every seat is now reserved for the caller, false if a seat was taken or given twice
+     */
+    public static boolean reserve(ShowTime showTime, Seat[] seats) {
+        SeatMap seatMap = showTime.getSeatMap();
+        long[] rowMasks = seatMap.toRowMasks(seats);
+        return rowMasks != null && seatMap.reserve(rowMasks);
+    }
+
+    /**
+     * Method to release a set of seats of a showtime
+     * @param showTime
+     * @param seats
+     * @return true if every seat was reserved before it was released
+     */
+    public static boolean release(ShowTime showTime, Seat[] seats) {
+        SeatMap seatMap = showTime.getSeatMap();
+        long[] rowMasks = seatMap.toRowMasks(seats);
+        if (rowMasks == null) {
+            return false;
+        }
+        boolean released = seatMap.release(rowMasks);
+        // customers waiting for the showtime get the seats before anyone else
+        WaitlistService.getInstance().seatsReleased(showTime, rowMasks);
+        return released;
+    }
+}
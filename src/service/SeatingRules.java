@@ -0,0 +1,52 @@
+package service;
+
+/**
+ * Class containing the rules followed by the GroupSeatAllocator when it seats several parties at a showtime
+ */
+public class SeatingRules {
+
+    /**
+     * parties may sit right next to each other and may leave single seats
+     */
+    public static final SeatingRules NONE = new SeatingRules(0, false);
+    /**
+     * at least one empty seat between parties, and no single seat left that nobody could book
+     */
+    public static final SeatingRules DISTANCED = new SeatingRules(1, true);
+
+    /**
+     * number of empty seats kept between a party and any other occupied seat of the row
+     */
+    private final int minGap;
+    /**
+     * true if a party may not be seated where it leaves a single bookable seat on its own
+     */
+    private final boolean noOrphans;
+
+    /**
+     * This constructor is for the seating rules
+     * @param minGap the number of empty seats kept between a party and any other occupied seat of the row
+     * @param noOrphans true if a party may not be seated where it leaves a single bookable seat on its own
+     */
+    public SeatingRules(int minGap, boolean noOrphans) {
+        if (minGap < 0) throw new IllegalArgumentException("The gap between parties cannot be negative");
+        this.minGap = minGap;
+        this.noOrphans = noOrphans;
+    }
+
+    /**
+     * Method to get the number of empty seats kept between a party and any other occupied seat of the row
+     * @return the gap in seats
+     */
+    public int getMinGap() {
+        return minGap;
+    }
+
+    /**
+     * Method to get whether single seats on their own are avoided
+     * @return true if a party may not be seated where it leaves a single bookable seat on its own
+     */
+    public boolean isNoOrphans() {
+        return noOrphans;
+    }
+}
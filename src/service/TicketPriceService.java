@@ -14,14 +14,16 @@ import java.time.temporal.ChronoField;
 import java.util.ArrayList;
 
 /**
- * Class to provide pricing services
+ * Class to provide pricing services. The charges are volatile and every change of a charge recompiles the price
+ * matrix under the lock of this class, so a change is published to every thread at once and two changes made
+ * together cannot publish a matrix missing one of them. Prices are read from the immutable matrix without a lock.
  */
 public class TicketPriceService {
 
     /**
-     * array list of public holiday dates determined by admin
+     * calendar of the public holiday dates determined by admin
      */
-    private static ArrayList<PublicHoliday> publicHolidayDates = new ArrayList<PublicHoliday>();
+    private static volatile HolidayCalendar holidayCalendar = new HolidayCalendar();
     /**
      * static instance of SerializedDB
      */
@@ -29,25 +31,55 @@ public class TicketPriceService {
     /**
      * charges for public holiday charges
      */
-    private static double publicHolidayCharges;
+    private static volatile double publicHolidayCharges;
     /**
      * charges for weekends
      */
-    private static double weekendCharges;
+    private static volatile double weekendCharges;
     /**
      * universal base price
      */
-    private static double basePrice; //Universal Base Price
+    private static volatile double basePrice; //Universal Base Price
+    /**
+     * charges of every cinema type, movie type, age group and kind of day, rebuilt whenever a charge is set
+     */
+    private static volatile PriceMatrix priceMatrix = PriceMatrix.compile(0, 0);
 
     /**
      * This method will set all the prices during startup of the application
      */
-    public static void setAllPrices(){
+    public static synchronized void setAllPrices(){
 
-        publicHolidayDates = serializedDB.getPublicHolidayDates();
+        holidayCalendar = new HolidayCalendar(serializedDB.getPublicHolidayDates());
         publicHolidayCharges = serializedDB.getPublicHolidayCharges();
         weekendCharges = serializedDB.getWeekendCharges();
         basePrice = serializedDB.getBasePrice();
+        rebuildPriceMatrix();
+    }
+
+    /**
+     * This method will compile the current charges into a new price matrix and publish it
+     */
+    public static synchronized void rebuildPriceMatrix() {
+
+        priceMatrix = PriceMatrix.compile(weekendCharges, publicHolidayCharges);
+    }
+
+    /**This method will return the current price matrix
+     * @return The charges of every cinema type, movie type, age group and kind of day
+     */
+    public static PriceMatrix getPriceMatrix() {
+
+        return priceMatrix;
+    }
+
+    /**This method will return the kind of day of a date for the price matrix
+     * @param date                 The date in the ticket when the movie will show
+     * @return PriceMatrix.HOLIDAY, PriceMatrix.WEEKEND or PriceMatrix.WEEKDAY
+     */
+    public static int getDayKind(LocalDate date) {
+
+        return PriceMatrix.dayKind(isHoliday(date), isWeekend(date));
     }
 
     /**
@@ -56,12 +88,13 @@ public class TicketPriceService {
      * @param opt    The selected movie type which is given by the user
      * @param prices The charges for the specific movie type
      */
-    public static void setMovieTypeCharges(int opt, double prices) {
+    public static synchronized void setMovieTypeCharges(int opt, double prices) {
 
         if (prices < 0) {
             System.out.println("[System: Negative Input Detected!]");
         } else {
             MovieEnums.MovieType.values()[opt - 1].setTicketPrice(prices);
+            rebuildPriceMatrix();
             System.out.println("[System: Movie Type Charges Set Successfully]");
         }
 
@@ -71,12 +104,13 @@ public class TicketPriceService {
      * @param opt                  The selected cinema type which is given by the user
      * @param prices               The charges for the specific cinema type
      */
-    public static void setCinemaTypeCharges(int opt, double prices) {
+    public static synchronized void setCinemaTypeCharges(int opt, double prices) {
 
         if (prices < 0) {
             System.out.println("[System: Negative Input Detected!]");
         } else {
             CinemaType.values()[opt - 1].setTicketPrice(prices);
+            rebuildPriceMatrix();
             System.out.println("[System: Cinema Type Charges Set Successfully]");
         }
     }
@@ -85,12 +119,13 @@ public class TicketPriceService {
      * @param opt                  The selected age group which is given by the user
      * @param prices               The discount for the specific age group
      */
-    public static void setAgeGroupCharges(int opt, double prices) {
+    public static synchronized void setAgeGroupCharges(int opt, double prices) {
 
         if (prices < 0) {
             System.out.println("[System: Negative Input Detected!]");
         } else {
             AgeGroup.values()[opt].setTicketPrice(prices);
+            rebuildPriceMatrix();
             System.out.println("[System: Special Citizen Discounts Set Successfully]");
         }
     }
@@ -98,12 +133,13 @@ public class TicketPriceService {
     /**This method will set the extra charges during public holiday
      * @param charges              The extra charges during public holiday
      */
-    public static void setPublicHolidayCharges(double charges) {
+    public static synchronized void setPublicHolidayCharges(double charges) {
 
         if (charges < 0) {
             System.out.println("[System: Negative Input Detected!]");
         } else {
             publicHolidayCharges = charges;
+            rebuildPriceMatrix();
             System.out.println("[System: Public Holiday Charges Set Successfully]");
         }
     }
@@ -121,27 +157,28 @@ public class TicketPriceService {
      */
     public static void setPublicHolidayDates(ArrayList<PublicHoliday> publicHolidays) {
 
-        publicHolidayDates = publicHolidays;
+        holidayCalendar = new HolidayCalendar(publicHolidays);
     }
 
     /**This method will return an array list of public holiday dates
-     * @return An array list containing dates of each public holiday
+     * @return An array list containing dates of each public holiday, in date order
      */
     public static ArrayList<PublicHoliday> getPublicHolidayDates() {
 
-        return publicHolidayDates;
+        return holidayCalendar.toList();
     }
 
 
     /**This method will set the extra charges during weekends
      * @param charges              The extra charges that occurs during weekends
      */
-    public static void setWeekendCharges(double charges) {
+    public static synchronized void setWeekendCharges(double charges) {
 
         if (charges < 0) {
             System.out.println("[System: Negative Input Detected!]");
         } else {
             weekendCharges = charges;
+            rebuildPriceMatrix();
             System.out.println("[System: Weekend Charges Set Successfully]");
         }
     }
@@ -201,17 +238,25 @@ public class TicketPriceService {
             System.out.println("[System: " + date.format(dateFormat) + " is before today's date, " + LocalDate.now().format(dateFormat) + "]");
             return;
         }
-        for (PublicHoliday publicHoliday : publicHolidayDates) {
-            if (publicHoliday.getPublicHolidayDate().equals(date)) {
-                System.out.println("[System: Duplicated Date detected!]");
-                return;
-            }
+        if (!holidayCalendar.add(new PublicHoliday(name, date))) {
+            System.out.println("[System: Duplicated Date detected!]");
+            return;
         }
-        PublicHoliday publicHoliday = new PublicHoliday(name, date);
-        publicHolidayDates.add(publicHoliday);
         System.out.println("[System: Public Holiday has been added!]");
     }
 
+    /**This method will import a list of public holidays at once, such as the public holidays of several years.
+     * Dates that are already public holidays are skipped.
+     * @param publicHolidays       The public holidays to be imported
+     * @return the number of public holidays added
+     */
+    public static int importPublicHolidayDates(ArrayList<PublicHoliday> publicHolidays) {
+
+        int added = holidayCalendar.addAll(publicHolidays);
+        System.out.println("[System: " + added + " Public Holidays have been added!]");
+        return added;
+    }
+
 
     /**This method will remove the public holiday dates given by the user from the publicHolidayDates list that
      * consist of all the public holiday dates.
@@ -221,13 +266,7 @@ public class TicketPriceService {
      */
     public static boolean removePublicHolidayDates(LocalDate date) {
 
-        for (PublicHoliday publicHoliday : publicHolidayDates) {
-            if (publicHoliday.getPublicHolidayDate().equals(date)) {
-                publicHolidayDates.remove(publicHoliday);
-                return true;
-            }
-        }
-        return false;
+        return holidayCalendar.remove(date);
     }
 
     /**This method will check if the date provided is a holiday.
@@ -237,12 +276,7 @@ public class TicketPriceService {
      */
     public static boolean isHoliday(LocalDate date) {
 
-        for (PublicHoliday publicHoliday : publicHolidayDates) {
-            if (date.equals(publicHoliday.getPublicHolidayDate())) {
-                return true;
-            }
-        }
-        return false;
+        return holidayCalendar.isHoliday(date);
     }
 
     /**This method is defined to confirm the changes of the ticket when exiting the configure system settings panel
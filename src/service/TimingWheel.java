@@ -0,0 +1,244 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is a hashed timing wheel that runs tasks after a delay. Time is cut into ticks of tickMillis and every
+ * tick owns a bucket of the wheel; a task is put in the bucket of the tick it expires in, so scheduling, cancelling
+ * and expiring a task are all O(1) whatever the number of outstanding tasks. A delay longer than one turn of the
+ * wheel lands in the same bucket as a shorter one and simply stays there until its own deadline tick comes round.
+ *
+ * The wheel is advanced by a daemon thread once per tick. Expired tasks are run on that thread, outside the lock
+ * of the wheel, so a task may schedule or cancel other tasks.
+ */
+public class TimingWheel {
+    /**
+     * length of one tick in milliseconds
+     */
+    private final long tickMillis;
+    /**
+     * heads of the doubly linked list of timeouts of every bucket
+     */
+    private final Timeout[] buckets;
+    /**
+     * number of buckets minus one, the number of buckets being a power of two
+     */
+    private final int mask;
+    /**
+     * time at which tick 0 started
+     */
+    private final long startNanos;
+    /**
+     * last tick whose bucket has been expired
+     */
+    private long currentTick;
+    /**
+     * number of timeouts waiting in the wheel
+     */
+    private int size;
+    /**
+     * background thread that advances the wheel
+     */
+    private ScheduledExecutorService ticker;
+
+    /**
+     * This is a task waiting in the wheel. It is also the handle used to cancel the task.
+     */
+    public static final class Timeout {
+        /**
+         * task to run when the timeout expires
+         */
+        private final Runnable task;
+        /**
+         * tick in which the timeout expires
+         */
+        private final long deadlineTick;
+        /**
+         * neighbours in the bucket, null at the ends
+         */
+        private Timeout prev, next;
+        /**
+         * wheel the timeout is scheduled in
+         */
+        private final TimingWheel wheel;
+        /**
+         * true while the timeout is in a bucket, guarded by the lock of the wheel
+         */
+        private boolean pending = true;
+
+        /**
+         * This is the constructor for the timeout
+         *
+         * @param wheel        The wheel the timeout is scheduled in
+         * @param task         The task to run when the timeout expires
+         * @param deadlineTick The tick in which the timeout expires
+         */
+        private Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * This method removes the timeout from the wheel so that its task never runs
+         *
+         * @return true if the timeout was cancelled, false if it had already expired or been cancelled
+         */
+        public boolean cancel() {
+
+            return wheel.remove(this);
+        }
+    }
+
+    /**
+     * This is the constructor for the timing wheel
+     *
+     * @param tickMillis The length of one tick in milliseconds
+     * @param wheelSize  The number of buckets, rounded up to a power of two
+     */
+    public TimingWheel(long tickMillis, int wheelSize) {
+
+        if (tickMillis <= 0 || wheelSize <= 0) throw new IllegalArgumentException("invalid timing wheel");
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new Timeout[size];
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * This method starts the daemon thread that advances the wheel once per tick
+     *
+     * @param threadName The name of the thread
+     */
+    public synchronized void start(String threadName) {
+
+        if (ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method stops the thread that advances the wheel. Timeouts still in the wheel are kept.
+     */
+    public synchronized void stop() {
+
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker = null;
+        }
+    }
+
+    /**
+     * This method schedules a task to run after a delay. The delay is rounded up to whole ticks.
+     *
+     * @param task  The task to run
+     * @param delay The delay before the task runs
+     * @param unit  The unit of the delay
+     * @return The handle to cancel the task
+     */
+    public synchronized Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+
+        long ticks = Math.max(1, (unit.toMillis(delay) + tickMillis - 1) / tickMillis);
+        Timeout timeout = new Timeout(this, task, Math.max(currentTick, tickOf(System.nanoTime())) + ticks);
+        int bucket = (int) (timeout.deadlineTick & mask);
+        timeout.next = buckets[bucket];
+        if (timeout.next != null) timeout.next.prev = timeout;
+        buckets[bucket] = timeout;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * This method expires every timeout whose deadline tick has passed and runs their tasks. Ticks missed because
+     * the thread was late are caught up on.
+     */
+    public void advance() {
+
+        ArrayList<Runnable> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = tickOf(System.nanoTime());
+            // a full turn of the wheel visits every bucket, so there is no need to walk more ticks than that
+            long from = Math.max(currentTick + 1, now - mask);
+            for (long tick = from; tick <= now; tick++) {
+                Timeout timeout = buckets[(int) (tick & mask)];
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    if (timeout.deadlineTick <= now) {
+                        unlink(timeout);
+                        expired.add(timeout.task);
+                    }
+                    timeout = next;
+                }
+            }
+            currentTick = Math.max(currentTick, now);
+        }
+        for (Runnable task : expired) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("[System: Error in running an expired task]");
+            }
+        }
+    }
+
+    /**
+     * This method returns the number of timeouts waiting in the wheel
+     *
+     * @return The number of outstanding timeouts
+     */
+    public synchronized int size() {
+
+        return size;
+    }
+
+    /**
+     * This method removes a timeout from its bucket if it is still in the wheel
+     *
+     * @param timeout The timeout to remove
+     * @return true if the timeout was in the wheel
+     */
+    private synchronized boolean remove(Timeout timeout) {
+
+        if (!timeout.pending) return false;
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * This method unlinks a timeout from its bucket in O(1)
+     *
+     * @param timeout The timeout to unlink
+     */
+    private void unlink(Timeout timeout) {
+
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[(int) (timeout.deadlineTick & mask)] = timeout.next;
+        }
+        if (timeout.next != null) timeout.next.prev = timeout.prev;
+        timeout.prev = timeout.next = null;
+        timeout.pending = false;
+        size--;
+    }
+
+    /**
+     * This method returns the tick a point in time falls in
+     *
+     * @param nanos The point in time from System.nanoTime
+     * @return The tick of the point in time
+     */
+    private long tickOf(long nanos) {
+
+        return (nanos - startNanos) / TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    }
+}
@@ -0,0 +1,139 @@
+package service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class to issue the transaction IDs of the bookings. A transaction ID is a 64-bit number made of, from the highest
+ * bits down, the milliseconds since EPOCH_MILLIS (41 bits), the ID of the node issuing it (10 bits) and a sequence
+ * within the millisecond (12 bits), so IDs are unique across nodes and sort by the time they were issued.
+ *
+ * The time and sequence are kept together in one AtomicLong that only moves forward, so IDs are issued without any
+ * lock. When more than 4096 IDs are asked for within a millisecond, the time of the IDs runs ahead of the clock until
+ * the clock catches up, instead of waiting.
+ *
+ * IDs are printed in Crockford base32 as 13 characters, which sort in the same order as the numbers.
+ */
+public class TransactionIdService {
+
+    /**
+     * start of the time of the IDs, 2020-01-01T00:00:00Z
+     */
+    public static final long EPOCH_MILLIS = 1577836800000L;
+    /**
+     * number of bits of the sequence within a millisecond
+     */
+    private static final int SEQUENCE_BITS = 12;
+    /**
+     * number of bits of the node ID
+     */
+    private static final int NODE_BITS = 10;
+    /**
+     * highest sequence within a millisecond
+     */
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    /**
+     * number of characters of a printed ID
+     */
+    public static final int ENCODED_LENGTH = 13;
+    /**
+     * digits of the Crockford base32 encoding
+     */
+    private static final char[] DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    /**
+     * value of every character that is a digit, -1 for the others
+     */
+    private static final byte[] VALUES = new byte[128];
+    /**
+     * ID of this node, set with the system property moblima.node
+     */
+    private static final long NODE_ID = Integer.getInteger("moblima.node", 0) & ((1L << NODE_BITS) - 1);
+    /**
+     * time and sequence of the last ID issued, as (milliseconds since EPOCH_MILLIS) << SEQUENCE_BITS | sequence
+     */
+    private static final AtomicLong last = new AtomicLong();
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte) i;
+            VALUES[Character.toLowerCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    /**
+     * Method to issue a new transaction ID
+     * @return the transaction ID, greater than every ID issued before by this node
+     */
+    public static long next() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        return compose(last.accumulateAndGet(now, (previous, clock) -> Math.max(clock, previous + 1)), NODE_ID);
+    }
+
+    /**
+     * Method to make the transaction ID of a booking made before transaction IDs were issued, from the time of the
+     * booking and its position among the bookings made in the same second
+     * @param epochMillis
+     * @param sequence
+     * @return the transaction ID, with node ID 0
+     */
+    public static long fromTimestamp(long epochMillis, int sequence) {
+        return compose((epochMillis - EPOCH_MILLIS) << SEQUENCE_BITS | (sequence & SEQUENCE_MASK), 0);
+    }
+
+    /**
+     * Method to get the time a transaction ID was issued
+     * @param transactionId
+     * @return the milliseconds since the Java epoch
+     */
+    public static long getTimestamp(long transactionId) {
+        return (transactionId >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * Method to print a transaction ID
+     * @param transactionId
+     * @return the 13 characters of the ID in Crockford base32
+     */
+    public static String encode(long transactionId) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (transactionId & 31)];
+            transactionId >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Method to read a printed transaction ID
+     * @param encoded
+     * @return the transaction ID, or -1 if the text is not a transaction ID
+     */
+    public static long decode(String encoded) {
+        if (encoded == null || encoded.length() != ENCODED_LENGTH) {
+            return -1;
+        }
+        long transactionId = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            char c = encoded.charAt(i);
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            // IDs are 63 bits, so the first character carries only 3 of them and a larger one would be negative
+            if (value < 0 || (i == 0 && value > 7)) {
+                return -1;
+            }
+            transactionId = transactionId << 5 | value;
+        }
+        return transactionId;
+    }
+
+    /**
+     * Method to put together the time and sequence with a node ID
+     * @param timeAndSequence
+     * @param nodeId
+     * @return the transaction ID
+     */
+    private static long compose(long timeAndSequence, long nodeId) {
+        return (timeAndSequence >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS
+                | (timeAndSequence & SEQUENCE_MASK);
+    }
+}
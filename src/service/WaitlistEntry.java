@@ -0,0 +1,100 @@
+package service;
+
+import model.account.Customer;
+import model.cinema.ShowTime;
+
+/**
+ * This is the place of a customer on the waitlist of a sold-out showtime. The entry waits until enough seats are
+ * released, and is then given a SeatHold on them that the customer completes into a booking like any other hold.
+ */
+public class WaitlistEntry {
+    /**
+     * showtime waited for
+     */
+    private final ShowTime showTime;
+    /**
+     * customer waiting
+     */
+    private final Customer customer;
+    /**
+     * number of seats wanted
+     */
+    private final int numOfSeats;
+    /**
+     * hold on the seats given to the customer, null while the customer is waiting
+     */
+    private volatile SeatHold hold;
+    /**
+     * true once the customer has left the waitlist
+     */
+    private volatile boolean left;
+
+    /**
+     * This is the constructor for the waitlist entry
+     *
+     * @param showTime   The showtime waited for
+     * @param customer   The customer waiting
+     * @param numOfSeats The number of seats wanted
+     */
+    WaitlistEntry(ShowTime showTime, Customer customer, int numOfSeats) {
+
+        this.showTime = showTime;
+        this.customer = customer;
+        this.numOfSeats = numOfSeats;
+    }
+
+    /**This method will return the showtime of the entry
+     * @return The showtime waited for
+     */
+    public ShowTime getShowTime() {
+
+        return showTime;
+    }
+
+    /**This method will return the customer of the entry
+     * @return The customer waiting
+     */
+    public Customer getCustomer() {
+
+        return customer;
+    }
+
+    /**This method will return the number of seats wanted
+     * @return The number of seats
+     */
+    public int getNumOfSeats() {
+
+        return numOfSeats;
+    }
+
+    /**This method will return the hold on the seats given to the customer
+     * @return The hold, or null if the customer is still waiting
+     */
+    public SeatHold getHold() {
+
+        return hold;
+    }
+
+    /**This method will give the customer a hold on released seats
+     * @param hold  The hold on the seats
+     */
+    void setHold(SeatHold hold) {
+
+        this.hold = hold;
+    }
+
+    /**This method will return whether the customer has left the waitlist
+     * @return true if the customer has left
+     */
+    public boolean hasLeft() {
+
+        return left;
+    }
+
+    /**This method will mark the customer as having left the waitlist
+     */
+    void leave() {
+
+        this.left = true;
+    }
+}
@@ -0,0 +1,338 @@
+package service;
+
+import model.account.Customer;
+import model.cinema.Seat;
+import model.cinema.SeatLayout;
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class to keep the waitlists of sold-out showtimes. A waitlist is a FIFO of customers with the number of seats they
+ * want. Whenever seats of a showtime are released, by a cancellation or an expired or released hold, the
+ * SeatReservationEngine passes the released seats here. If customers are waiting, those seats are reserved again at
+ * once for the waitlist so that nobody jumps the queue. They are then given to the customers at the head of the
+ * queue as soon as there are enough of them, as a SeatHold that the customer completes into a booking.
+ *
+ * A customer who joins with nobody ahead while the showtime still has enough free seats is not made to wait for a
+ * release: the free seats are kept for the waitlist at once and given to the customer as a hold straight away.
+ *
+ * Matching only ever looks at the released seats kept for the waitlist, never at the whole layout, and a customer
+ * leaving the waitlist is only marked and skipped when reached, so every operation costs the same however long the
+ * waitlist is. A hold given from the waitlist that is not completed releases its seats again, which passes them on
+ * to the next customer. The holds given are indexed by customer until the SeatHoldService confirms, releases or
+ * expires them. Waitlists are not saved with the database, like holds, and neither are the seats kept for them:
+ * the snapshot only saves the seats of bookings, so kept seats are free again after a restart.
+ */
+public class WaitlistService {
+    /**
+     * singleton instance of WaitlistService
+     */
+    private static WaitlistService waitlistService = null;
+    /**
+     * waitlists by the ID of their showtime
+     */
+    private final ConcurrentHashMap<Integer, Waitlist> waitlists = new ConcurrentHashMap<>();
+    /**
+     * holds given from the waitlists and not yet ended, by customer; the lists are replaced, never changed
+     */
+    private final ConcurrentHashMap<Customer, List<SeatHold>> holds = new ConcurrentHashMap<>();
+
+    /**
+     * private constructor for WaitlistService
+     */
+    private WaitlistService() {
+    }
+
+    /**
+     * Method to get the singleton instance of WaitlistService
+     * @return the instance of WaitlistService
+     */
+    public static synchronized WaitlistService getInstance() {
+        if (waitlistService == null)
+            waitlistService = new WaitlistService();
+        return waitlistService;
+    }
+
+    /**
+     * Method to put a customer on the waitlist of a showtime
+     * @param showTime
+     * @param customer
+     * @param numOfSeats
+     * @return the place of the customer on the waitlist, already given a hold if the seats were free, or null if the
+     * showtime does not have that many seats
+     */
+    public WaitlistEntry join(ShowTime showTime, Customer customer, int numOfSeats) {
+        if (numOfSeats < 1 || numOfSeats > showTime.getSeatMap().getLayout().getCapacity()) {
+            return null;
+        }
+        WaitlistEntry entry = new WaitlistEntry(showTime, customer, numOfSeats);
+        Waitlist waitlist = waitlists.computeIfAbsent(showTime.getId(), id -> new Waitlist(showTime));
+        synchronized (waitlist) {
+            waitlist.entries.add(entry);
+            waitlist.waiting++;
+            // with nobody ahead, seats still free are not left to the next customer to come
+            if (waitlist.waiting == 1) waitlist.keepFree(numOfSeats);
+            waitlist.match();
+        }
+        return entry;
+    }
+
+    /**
+     * Method to take a customer off a waitlist. A customer already given seats keeps the hold on them.
+     * @param entry
+     */
+    public void leave(WaitlistEntry entry) {
+        Waitlist waitlist = waitlists.get(entry.getShowTime().getId());
+        if (waitlist == null) {
+            entry.leave();
+            return;
+        }
+        synchronized (waitlist) {
+            if (entry.hasLeft() || entry.getHold() != null) return;
+            entry.leave();
+            waitlist.waiting--;
+            // the customer may have been holding up the ones behind
+            waitlist.match();
+        }
+    }
+
+    /**
+     * Method to get the holds given from the waitlists to a customer and not completed yet
+     * @param customer
+     * @return the holds on the seats given to the customer
+     */
+    public ArrayList<SeatHold> getHolds(Customer customer) {
+        ArrayList<SeatHold> held = new ArrayList<>();
+        for (SeatHold hold : holds.getOrDefault(customer, List.of())) {
+            if (hold.getState() == SeatHold.HELD) held.add(hold);
+        }
+        return held;
+    }
+
+    /**
+     * Method to get the number of customers waiting for a showtime
+     * @param showTime
+     * @return the number of customers waiting
+     */
+    public int getWaiting(ShowTime showTime) {
+        Waitlist waitlist = waitlists.get(showTime.getId());
+        if (waitlist == null) return 0;
+        synchronized (waitlist) {
+            return waitlist.waiting;
+        }
+    }
+
+    /**
+     * Method to close the waitlist of a showtime that is cancelled, giving back the seats kept for it
+     * @param showTime
+     */
+    public void close(ShowTime showTime) {
+        Waitlist waitlist = waitlists.remove(showTime.getId());
+        if (waitlist == null) return;
+        synchronized (waitlist) {
+            for (WaitlistEntry entry : waitlist.entries) entry.leave();
+            waitlist.entries.clear();
+            waitlist.waiting = 0;
+            waitlist.giveBack();
+        }
+    }
+
+    /**
+     * Method called by the SeatReservationEngine when seats of a showtime are released
+     * @param showTime
+     * @param rowMasks the seats released, one mask per row
+     */
+    void seatsReleased(ShowTime showTime, long[] rowMasks) {
+        Waitlist waitlist = waitlists.get(showTime.getId());
+        if (waitlist == null) return;
+        synchronized (waitlist) {
+            if (waitlist.waiting == 0) return;
+            waitlist.keep(rowMasks);
+            waitlist.match();
+        }
+    }
+
+    /**
+     * Method called by the SeatHoldService when a hold is confirmed, released or expired, to drop it from the holds
+     * given
+     * @param hold
+     */
+    void holdEnded(SeatHold hold) {
+        if (hold.getCustomer() == null) return;
+        holds.computeIfPresent(hold.getCustomer(), (customer, given) -> {
+            if (!given.contains(hold)) return given;
+            ArrayList<SeatHold> left = new ArrayList<>(given);
+            left.remove(hold);
+            return left.isEmpty() ? null : left;
+        });
+    }
+
+    /**
+     * Method to add a hold given from a waitlist to the holds of its customer
+     * @param hold
+     */
+    private void holdGiven(SeatHold hold) {
+        if (hold.getCustomer() == null) return;
+        holds.compute(hold.getCustomer(), (customer, given) -> {
+            ArrayList<SeatHold> added = given == null ? new ArrayList<>() : new ArrayList<>(given);
+            added.add(hold);
+            return added;
+        });
+        // a hold that ended before it was added is not dropped by holdEnded
+        if (hold.getState() != SeatHold.HELD) holdEnded(hold);
+    }
+
+    /**
+     * The waitlist of one showtime, used under its own lock
+     */
+    private class Waitlist {
+        /**
+         * showtime of the waitlist
+         */
+        private final ShowTime showTime;
+        /**
+         * customers in the order they joined, including ones who left and are not reached yet
+         */
+        private final ArrayDeque<WaitlistEntry> entries = new ArrayDeque<>();
+        /**
+         * number of customers still waiting
+         */
+        private int waiting;
+        /**
+         * released seats reserved for the waitlist, one mask per row
+         */
+        private final long[] kept;
+        /**
+         * number of seats in kept
+         */
+        private int numOfKept;
+
+        /**
+         * This is the constructor for the waitlist
+         * @param showTime
+         */
+        private Waitlist(ShowTime showTime) {
+            this.showTime = showTime;
+            this.kept = new long[showTime.getSeatMap().getLayout().getRows()];
+        }
+
+        /**
+         * Method to reserve released seats for the waitlist. A seat taken by someone else in the meantime is skipped.
+         * @param rowMasks the seats released, one mask per row
+         */
+        private void keep(long[] rowMasks) {
+            SeatMap seatMap = showTime.getSeatMap();
+            SeatLayout layout = seatMap.getLayout();
+            for (int row = 0; row < rowMasks.length; row++) {
+                for (long seats = rowMasks[row]; seats != 0; seats &= seats - 1) {
+                    int col = Long.numberOfTrailingZeros(seats);
+                    if (seatMap.book(layout.getSeat(row, col))) {
+                        kept[row] |= 1L << col;
+                        numOfKept++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Method to keep free seats of the showtime for the waitlist, a block side by side if there is one, when
+         * there are enough of them for a customer
+         * @param numOfSeats the number of seats the customer wants
+         */
+        private void keepFree(int numOfSeats) {
+            SeatMap seatMap = showTime.getSeatMap();
+            SeatLayout layout = seatMap.getLayout();
+            int needed = numOfSeats - numOfKept;
+            if (needed <= 0 || seatMap.getAvailableCount() < needed) return;
+            Seat[] block = SeatFinder.reserveBestSeats(showTime, needed, SeatQuality.CENTRE);
+            if (block != null) {
+                for (Seat seat : block) {
+                    kept[seat.getRow() - 'A'] |= 1L << (seat.getCol() - 1);
+                    numOfKept++;
+                }
+                return;
+            }
+            for (int row = 0; row < kept.length && numOfKept < numOfSeats; row++) {
+                long free = ~seatMap.getRowBits(row) & layout.getRowMask();
+                for (; free != 0 && numOfKept < numOfSeats; free &= free - 1) {
+                    int col = Long.numberOfTrailingZeros(free);
+                    if (seatMap.book(layout.getSeat(row, col))) {
+                        kept[row] |= 1L << col;
+                        numOfKept++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Method to give the kept seats to the customers at the head of the queue for as long as there are enough
+         */
+        private void match() {
+            while (!entries.isEmpty()) {
+                WaitlistEntry head = entries.peek();
+                if (head.hasLeft()) {
+                    entries.poll();
+                    continue;
+                }
+                if (head.getNumOfSeats() > numOfKept) break;
+                Seat[] seats = take(head.getNumOfSeats());
+                SeatHold hold = SeatHoldService.getInstance().holdReserved(showTime, seats, head.getCustomer());
+                // indexed before the customer can see the hold, and so before it can end
+                holdGiven(hold);
+                head.setHold(hold);
+                entries.poll();
+                waiting--;
+            }
+            if (entries.isEmpty()) giveBack();
+        }
+
+        /**
+         * Method to take kept seats for a customer, side by side in one row if possible
+         * @param numOfSeats
+         * @return the seats taken
+         */
+        private Seat[] take(int numOfSeats) {
+            SeatLayout layout = showTime.getSeatMap().getLayout();
+            Seat[] seats = new Seat[numOfSeats];
+            numOfKept -= numOfSeats;
+            if (numOfSeats <= layout.getCols()) {
+                for (int row = 0; row < kept.length; row++) {
+                    long starts = SeatFinder.blockStarts(kept[row], numOfSeats);
+                    if (starts != 0) {
+                        int col = Long.numberOfTrailingZeros(starts);
+                        for (int i = 0; i < numOfSeats; i++) {
+                            seats[i] = layout.getSeat(row, col + i);
+                            kept[row] &= ~(1L << (col + i));
+                        }
+                        return seats;
+                    }
+                }
+            }
+            int i = 0;
+            for (int row = 0; row < kept.length && i < numOfSeats; row++) {
+                while (kept[row] != 0 && i < numOfSeats) {
+                    int col = Long.numberOfTrailingZeros(kept[row]);
+                    seats[i++] = layout.getSeat(row, col);
+                    kept[row] &= kept[row] - 1;
+                }
+            }
+            return seats;
+        }
+
+        /**
+         * Method to give the kept seats back to the showtime once nobody is waiting for them
+         */
+        private void giveBack() {
+            if (numOfKept == 0) return;
+            showTime.getSeatMap().release(kept.clone());
+            Arrays.fill(kept, 0);
+            numOfKept = 0;
+        }
+    }
+}
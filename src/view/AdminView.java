@@ -92,7 +92,7 @@ public class AdminView {
                                 ChangeShowtimeListingView.update();
                                 break;
                             case 3:
-                                //  ChangeShowtimeListing.Remove();
+                                ChangeShowtimeListingView.delete();
                                 break;
                             default:
                                 break;
@@ -128,6 +128,7 @@ public class ChangeMovieListingView {
                 //This is used to go back to the previous interface
                 return;
             }
+            dbController.updateMovie(movieOption - 1, movies.get(movieOption - 1));
         }
     }
 
@@ -158,7 +159,7 @@ public class ChangeMovieListingView {
             System.out.print("Which movie do you want to remove?: ");
 
             int option = sc.nextInt();
-            movies.remove(option - 1);
+            dbController.removeMovie(option - 1);
         }
     }
 
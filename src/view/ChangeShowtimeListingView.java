@@ -6,6 +6,7 @@ import model.cinema.Cineplex;
 import model.cinema.ShowTime;
 import model.movie.Movie;
 import model.movie.MovieEnums;
+import model.transaction.Refund;
 import service.AdminCineplexService;
 
 import java.time.LocalDate;
@@ -176,9 +177,32 @@ public class ChangeShowtimeListingView {
     }
 
 
+    /**
+     * view for deleting a showtime, refunding every booking made for it
+     */
     public static void delete() {
-        System.out.println("Which cineplex do you want to delete show time from?");
+        ArrayList<String> cineplexNames = new ArrayList<>(dbController.getCineplexes().keySet());
+        HashMap<String, Cineplex> cineplexes = dbController.getCineplexes();
         printCineplex();
+        System.out.println("Which cineplex do you want to delete show time from?");
+        int choice = scanner.nextInt();
+        Cineplex cineplexOfChoice = cineplexes.get(cineplexNames.get(choice - 1));
+        printShowTimes(cineplexOfChoice);
+        System.out.println("What is the date of the show time you wish to delete?");
+        LocalDate dateOfChoice = stringToDate(scanner.next());
+        ArrayList<ShowTime> showTimes = cineplexOfChoice.getShowTimes().get(dateOfChoice);
+        if (showTimes == null || showTimes.isEmpty()) {
+            System.out.println("There are no show times on this date!");
+            return;
+        }
+        System.out.println("Which show time do you wish to delete?");
+        int count = 0;
+        for (ShowTime showTime : showTimes) {
+            System.out.println((++count) + ": " + showTime);
+        }
+        ShowTime showTime = showTimes.get(scanner.nextInt() - 1);
+        ArrayList<Refund> refunds = adminCineplexService.cancelShowTime(showTime);
+        System.out.println("Show time deleted, " + refunds.size() + " booking(s) refunded.");
     }
 
     /**
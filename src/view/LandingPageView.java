@@ -44,8 +44,8 @@ public class LandingPageView {
         System.out.print("Enter a password: ");
         String password = scanner.next();
 
-        while (checkIfAdminAccountExists(username, password)) {
-            System.out.println("Sorry, that username or password is already taken. Please try again. (Enter 'q' to go back)");
+        while (isAdminUsernameTaken(username)) {
+            System.out.println("Sorry, that username is already taken. Please try again. (Enter 'q' to go back)");
             System.out.print("Enter your username: ");
             username = scanner.next();
             if (username.equals("q")) return;
@@ -87,8 +87,8 @@ public class LandingPageView {
         System.out.print("Enter a password: ");
         String password = scanner.next();
 
-        while (checkIfCustomerAccountExists(username, password)) {
-            System.out.println("Sorry, that username or password is already taken. Please try again. (Enter 'q' to go back)");
+        while (isCustomerUsernameTaken(username)) {
+            System.out.println("Sorry, that username is already taken. Please try again. (Enter 'q' to go back)");
             System.out.print("Enter your username: ");
             username = scanner.next();
             if (username.equals("q")) return;
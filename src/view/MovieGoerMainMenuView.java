@@ -1,15 +1,20 @@
 package view;
 
 import controller.DBController;
+import controller.ReviewStore;
 import model.AgeGroup;
 import model.account.Customer;
 import model.cinema.Cineplex;
+import model.cinema.Seat;
 import model.cinema.ShowTime;
 import model.movie.Movie;
 import model.movie.Review;
 import model.transaction.Booking;
 import service.MovieGoerCineplexService;
+import service.SeatHold;
+import service.SeatHoldService;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Scanner;
@@ -29,6 +34,10 @@ public class MovieGoerMainMenuView {
      * Static instance of MovieGoerCineplexService
      */
     private static MovieGoerCineplexService services = new MovieGoerCineplexService();
+    /**
+     * number of latest reviews listed with the details of a movie
+     */
+    private static final int LATEST_REVIEWS = 3;
 
     /**
      * Method to show all movies
@@ -85,18 +94,67 @@ public class MovieGoerMainMenuView {
                     System.out.println(" (" + i + ") " + cast);
                     i++;
                 }
-                for (Review review : movie.getReviews()){
-                    System.out.println(" ------------------------");
-                    System.out.println(" Rating: " + review.getRating() + "\n Review: " + review.getReview());
+                if (movie.getRatingCount() == 0) {
+                    System.out.println(" Overall Rating: NA");
+                } else {
+                    System.out.printf(" Overall Rating: %.1f (%d reviews)\n", movie.getAverageRating(),
+                            movie.getRatingCount());
+                    int[] histogram = movie.getRatingHistogram();
+                    for (int rating = Movie.MAX_RATING; rating >= 1; rating--) {
+                        System.out.println(" " + rating + " stars: " + histogram[rating - 1]);
+                    }
                 }
+                // only the latest reviews are listed, however many the movie has
+                printReviews(dbController.getReviews(movie, null, LATEST_REVIEWS).getReviews());
                 System.out.println(" ------------------------\n");
             }
 
+            if (!movies.isEmpty()) {
+                System.out.println("Enter the movie you wish to read all reviews of (1, 2 and so on, enter 0 to go back): ");
+                int choice = scanner.nextInt();
+                if (choice >= 1 && choice <= movies.size()) {
+                    readReviews(movies.get(choice - 1));
+                }
+            }
+
         } catch (NullPointerException e) {
             System.out.println("There are no cineplexes available right now! Sorry!");
         }
     }
 
+    /**
+     * Method to page through the reviews of a movie, newest first
+     *
+     * @param movie
+     */
+    public static void readReviews(Movie movie) {
+        ReviewStore.Cursor cursor = null;
+        do {
+            ReviewStore.Page page = dbController.getReviews(movie, cursor, ReviewStore.PAGE_SIZE);
+            if (page.getReviews().isEmpty()) {
+                System.out.println("There are no more reviews.");
+                return;
+            }
+            printReviews(page.getReviews());
+            System.out.println(" ------------------------\n");
+            cursor = page.getNext();
+            if (cursor == null) return;
+            System.out.println("Enter n for the next page, or any other key to go back: ");
+        } while (scanner.next().equalsIgnoreCase("n"));
+    }
+
+    /**
+     * Method to print reviews
+     *
+     * @param reviews
+     */
+    private static void printReviews(ArrayList<Review> reviews) {
+        for (Review review : reviews) {
+            System.out.println(" ------------------------");
+            System.out.println(" Rating: " + review.getRating() + "\n Review: " + review.getReview());
+        }
+    }
+
     /**
      * Method to show all cineplexes
      */
@@ -288,24 +346,23 @@ public class MovieGoerMainMenuView {
                         System.out.println("Enter choice of show time to book available seats");
                         selected = scanner.next();
                     }
-                    System.out.println("How many seats would you like to book? ");
-                    int numOfSeats;
-                    numOfSeats = scanner.nextInt();
-                    String dummy = scanner.nextLine();
-                    String[] seatSelection = new String[numOfSeats];
-                    for (int j = 0; j < numOfSeats; j++) {
-                        System.out.println("Enter the seat you would like to book ; For Eg: (A1): ");
-                        seatSelection[j] = scanner.nextLine();
-                    }
+                    SeatHold hold = holdSeats(thisMovieShows.get(Integer.parseInt(selected) - 1), customer);
+                    if (hold == null) return;
                     int i = 1;
                     for (AgeGroup a : AgeGroup.values()){
                         System.out.println("(" + i + ") " + a.getGroupType());
                         i++;
                     }
-                    System.out.print("Select citizen type: ");
-                    int opt = scanner.nextInt();
-                    services.makeBooking(thisMovieShows.get(Integer.parseInt(selected) - 1), seatSelection, customer, AgeGroup.values()[opt-1]);
-                    System.out.println("Booking successful!");
+                    try {
+                        System.out.print("Select citizen type: ");
+                        int opt = scanner.nextInt();
+                        if (services.makeBooking(hold, AgeGroup.values()[opt-1])) {
+                            System.out.println("Booking successful!");
+                        }
+                    } finally {
+                        // gives the seats back if the booking was not completed
+                        services.releaseHold(hold);
+                    }
 
                     //Should we call the method to add to the booking history?
 
@@ -347,25 +404,23 @@ public class MovieGoerMainMenuView {
                         showTimeIndex = scanner.nextInt();
                     }
                     if (showTimeIndex == (int) ('b')) return;
-                    System.out.println("How many seats would you like to book? ");
-                    int numOfSeats;
-                    numOfSeats = scanner.nextInt();
-                    String dummy = scanner.nextLine();
-                    String[] seatSelection = new String[numOfSeats];
-                    for (int j = 0; j < numOfSeats; j++) {
-                        System.out.println("Enter the seat you would like to book ; For Eg: (A1): ");
-                        seatSelection[j] = scanner.nextLine();
-                    }
+                    SeatHold hold = holdSeats(showTimes.get(showTimeIndex-1), customer);
+                    if (hold == null) return;
                     i = 1;
                     for (AgeGroup a : AgeGroup.values()){
                         System.out.println("(" + i + ") " + a.getGroupType());
                         i++;
                     }
-                    System.out.print("Select citizen type: ");
-                    int opt = scanner.nextInt();
-                    services.makeBooking(showTimes.get(showTimeIndex-1), seatSelection, customer, AgeGroup.values()[opt-1]);
-
-                    System.out.println("Booking successful!");
+                    try {
+                        System.out.print("Select citizen type: ");
+                        int opt = scanner.nextInt();
+                        if (services.makeBooking(hold, AgeGroup.values()[opt-1])) {
+                            System.out.println("Booking successful!");
+                        }
+                    } finally {
+                        // gives the seats back if the booking was not completed
+                        services.releaseHold(hold);
+                    }
                     //Should we call the method to add to the booking history?
                 }
             }
@@ -375,6 +430,76 @@ public class MovieGoerMainMenuView {
         }
     }
 
+    /**
+     * Method to let a customer hold seats of a show time, either chosen one by one or the best ones available
+     * side by side
+     * @param showTime
+     * @param customer
+     * @return the hold on the seats, or null if the seats could not be held
+     */
+    private static SeatHold holdSeats(ShowTime showTime, Customer customer) {
+        System.out.println("How many seats would you like to book? ");
+        int numOfSeats;
+        numOfSeats = scanner.nextInt();
+        System.out.println("Would you like to (1) choose your seats or (2) get the best seats available together?");
+        int choice = scanner.nextInt();
+        String dummy = scanner.nextLine();
+        SeatHold hold;
+        if (choice == 2) {
+            hold = services.holdBestSeats(showTime, numOfSeats, customer);
+        } else {
+            String[] seatSelection = new String[numOfSeats];
+            for (int j = 0; j < numOfSeats; j++) {
+                System.out.println("Enter the seat you would like to book ; For Eg: (A1): ");
+                seatSelection[j] = scanner.nextLine();
+            }
+            hold = services.holdSeats(showTime, seatSelection, customer);
+        }
+        if (hold == null && showTime.getSeatMap().getAvailableCount() < numOfSeats) {
+            System.out.println("This show time is sold out. Would you like to join the waitlist? (Y/N)");
+            if (scanner.next().equalsIgnoreCase("Y") && services.joinWaitlist(showTime, numOfSeats, customer) != null)
+                System.out.println("You are on the waitlist. Seats released for this show time will be held for you.");
+            return null;
+        }
+        if (hold == null) return null;
+        StringBuilder seats = new StringBuilder();
+        for (Seat seat : hold.getSeats()) seats.append(seat).append(' ');
+        System.out.println("Your seats " + seats + "are held for " + SeatHoldService.HOLD_MINUTES + " minutes.");
+        return hold;
+    }
+
+    /**
+     * Method to let a customer book the seats held for them from the waitlists
+     * @param customer
+     */
+    public static void claimWaitlistSeats(Customer customer) {
+        for (SeatHold hold : services.getWaitlistHolds(customer)) {
+            StringBuilder seats = new StringBuilder();
+            for (Seat seat : hold.getSeats()) seats.append(seat).append(' ');
+            System.out.println("Seats " + seats + "are held for you from the waitlist of " + hold.getShowTime());
+            System.out.println("Would you like to book them? (Y/N)");
+            if (!scanner.next().equalsIgnoreCase("Y")) {
+                services.releaseHold(hold);
+                continue;
+            }
+            int i = 1;
+            for (AgeGroup a : AgeGroup.values()){
+                System.out.println("(" + i + ") " + a.getGroupType());
+                i++;
+            }
+            try {
+                System.out.print("Select citizen type: ");
+                int opt = scanner.nextInt();
+                if (services.makeBooking(hold, AgeGroup.values()[opt-1])) {
+                    System.out.println("Booking successful!");
+                }
+            } finally {
+                // gives the seats back if the booking was not completed
+                services.releaseHold(hold);
+            }
+        }
+    }
+
     /**
      * Method to show booking history of a customer
      */
@@ -396,7 +521,10 @@ public class MovieGoerMainMenuView {
                         System.out.println("Date of Booking: " + booked.get(j).getDateOfBooking());
                         System.out.println("Time of Booking: " + booked.get(j).getTimeOfBooking());
                         System.out.println("Transaction ID Details : " + booked.get(j).getTransactionID());
-                        System.out.println("ShowTime Details : " + booked.get(j).getShowTime().toString());
+                        System.out.println("ShowTime Details : " + dbController.getShowTime(booked.get(j)).toString());
+                        System.out.println("Price : " + booked.get(j).getPrice());
+                        if (booked.get(j).isCancelled())
+                            System.out.println("Status : Cancelled and refunded");
 
                     }
                     break;
@@ -407,6 +535,17 @@ public class MovieGoerMainMenuView {
             System.out.println("Invalid email ID entered!");
     }
 
+    /**
+     * Method to let a customer cancel one of their bookings
+     * @param customer
+     */
+    public static void cancelBooking(Customer customer) {
+        System.out.println("Enter the transaction ID of the booking to be cancelled: ");
+        String transactionID = scanner.next();
+        if (services.cancelBooking(transactionID, customer))
+            System.out.println("Your booking has been cancelled.");
+    }
+
     /**
      * Method to display options for a customer to leave review
      * @param customer
@@ -430,7 +569,11 @@ public class MovieGoerMainMenuView {
         } while(rating < 1  || rating > 5);
         Movie movie = movies.get(movieIndex-1);
         Review review = new Review(LocalDateTime.now(), rating, reviewContent, customer.getUserName(), movie);
-        dbController.addReview(movie, review);
+        try {
+            dbController.addReview(movie, review);
+        } catch (UncheckedIOException e) {
+            System.out.println("[System: Error in writing the review, it is not saved]");
+        }
     }
 
 }
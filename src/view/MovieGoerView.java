@@ -39,6 +39,7 @@ public class MovieGoerView {
         ArrayList<Movie> moviesList = dbController.getMovies();
         //Movie[] moviesList = new Movie[15];
         Cineplex[] cathay = new Cineplex[10];
+        claimWaitlistSeats(customer);
         while (continueRunning) {
             System.out.println("--------------------------------------------------------------------");
             System.out.println("                           Booking Menu                             ");
@@ -53,7 +54,8 @@ public class MovieGoerView {
             System.out.println("(8) View Top 5 movies ranked by overall reviewers’ ratings: ");  //yet to do
             System.out.println("(9) Show booking history"); //done
             System.out.println("(10) Leave Rating"); //done
-            System.out.println("(11) Quit");
+            System.out.println("(11) Cancel booking");
+            System.out.println("(12) Quit");
             System.out.println("--------------------------------------------------------------------");
             System.out.println("Enter your choice:");
 
@@ -98,6 +100,9 @@ public class MovieGoerView {
                     leaveReview(customer);
                     break;
                 case 11:
+                    cancelBooking(customer);
+                    break;
+                case 12:
                     continueRunning = false;
                     break;
 
@@ -4,6 +4,7 @@ import controller.DBController;
 import model.cinema.Cinema;
 import model.cinema.CinemaType;
 import model.cinema.Cineplex;
+import model.cinema.SeatLayout;
 import service.AdminCineplexService;
 
 import java.util.ArrayList;
@@ -65,9 +66,17 @@ public class UpdateCineplexOrCinemaView {
                         System.out.println("What is the name of a new cinema?");
                         cinemaName = sc1.nextLine();
                         System.out.println("What is the maximum amount of rows in a new cinema?");
-                        char maxRow = sc.next().charAt(0);
+                        char maxRow = Character.toUpperCase(sc.next().charAt(0));
+                        while (maxRow < 'A' || maxRow > 'Z') {
+                            System.out.println("Please, enter a row between A and Z");
+                            maxRow = Character.toUpperCase(sc.next().charAt(0));
+                        }
                         System.out.println("What is the maximum amount of columns in a new cinema?");
                         int maxCol = sc.nextInt();
+                        while (maxCol < 1 || maxCol > SeatLayout.MAX_COLS) {
+                            System.out.println("Please, enter between 1 and " + SeatLayout.MAX_COLS + " columns");
+                            maxCol = sc.nextInt();
+                        }
                         System.out.println("What is the type of a new cinema? Choose 1, 2 or 3.\n" +
                                 "1. Standard\n" +
                                 "2. Suites\n" +
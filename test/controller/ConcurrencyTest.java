@@ -0,0 +1,350 @@
+package controller;
+
+import model.AgeGroup;
+import model.account.Customer;
+import model.cinema.Cinema;
+import model.cinema.CinemaType;
+import model.cinema.Cineplex;
+import model.cinema.Seat;
+import model.cinema.SeatMap;
+import model.cinema.ShowTime;
+import model.movie.Movie;
+import model.transaction.Booking;
+import service.AccountService;
+import service.AdminCineplexService;
+import service.MovieGoerCineplexService;
+import service.SeatHold;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test of the concurrency model of the DBController. Admins add and cancel showtimes in every cineplex while
+ * customers book and cancel seats across the cineplexes and readers walk the catalog, all at once. Once they are
+ * done, the seat maps, the sales, the showtime index and the bookings must agree; the database is then saved and
+ * loaded again in a new JVM, where they must still agree and be unchanged.
+ *
+ * The DBController keeps its database in src/database under the working directory, so each step runs in a JVM of
+ * its own in a temporary directory and the database of the application is never touched. Run it with
+ *     javac -d out $(find src test -name '*.java') && java -cp out controller.ConcurrencyTest
+ * It exits with status 1 if a check fails.
+ */
+public class ConcurrencyTest {
+    /**
+     * number of cineplexes, each with an admin thread of its own
+     */
+    private static final int CINEPLEXES = 6;
+    /**
+     * number of customer threads booking across the cineplexes
+     */
+    private static final int CUSTOMER_THREADS = 6;
+    /**
+     * number of reader threads walking the catalog
+     */
+    private static final int READER_THREADS = 2;
+    /**
+     * number of customer accounts
+     */
+    private static final int CUSTOMERS = 30;
+    /**
+     * number of showtimes each admin thread adds
+     */
+    private static final int SHOWTIMES = 120;
+    /**
+     * number of bookings each customer thread tries to make
+     */
+    private static final int BOOKINGS = 300;
+    /**
+     * file the summary of the database is written to before the reload
+     */
+    private static final String SUMMARY = "summary.txt";
+
+    /**
+     * the database under test
+     */
+    private static DBController db;
+
+    /**
+     * Method to run the test, or one of its steps when called with "write" or "reload"
+     * @param args no argument to run the whole test, or the step to run in the working directory
+     * @throws Exception if the test cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            File dir = Files.createTempDirectory("moblima-concurrency").toFile();
+            int status = step(dir, "write");
+            if (status == 0) status = step(dir, "reload");
+            System.out.println(status == 0 ? "ConcurrencyTest passed" : "ConcurrencyTest FAILED");
+            System.exit(status);
+        }
+        new File("src/database").mkdirs();
+        db = DBController.getInstance();
+        db.load();
+        try {
+            if (args[0].equals("write")) {
+                write();
+            } else {
+                reload();
+            }
+        } catch (AssertionError e) {
+            System.out.println("FAILED " + e.getMessage());
+            Runtime.getRuntime().halt(1);
+        }
+        // the threads of the services are not waited for
+        Runtime.getRuntime().halt(0);
+    }
+
+    /**
+     * Method to run a step of the test in a new JVM. What the services print goes to the log of the step, and only
+     * its result is shown.
+     * @param dir the working directory of the step
+     * @param name the name of the step
+     * @return the exit status of the step
+     * @throws Exception if the JVM cannot be started
+     */
+    private static int step(File dir, String name) throws Exception {
+        StringBuilder classPath = new StringBuilder();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (classPath.length() > 0) classPath.append(File.pathSeparator);
+            classPath.append(new File(entry).getAbsolutePath());
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        File log = new File(dir, name + ".log");
+        Process process = new ProcessBuilder(java, "-cp", classPath.toString(), ConcurrencyTest.class.getName(), name)
+                .directory(dir).redirectErrorStream(true).redirectOutput(log).start();
+        int status = process.waitFor();
+        for (String line : Files.readAllLines(log.toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith(name + " ") || line.startsWith("FAILED ")) System.out.println(line);
+        }
+        if (status != 0) System.out.println("See " + log);
+        return status;
+    }
+
+    /**
+     * Method to make the concurrent changes, check the database and save it
+     * @throws Exception if a thread cannot be joined
+     */
+    private static void write() throws Exception {
+        db.addMovies(new Movie("Dune", "Villeneuve", new ArrayList<>(List.of("Chalamet")), "Sand"));
+        Movie movie = db.findMovie("Dune");
+        for (int i = 0; i < CINEPLEXES; i++) {
+            Cineplex cineplex = new Cineplex("Cineplex " + i);
+            db.addCineplex(cineplex);
+            db.addCinema(cineplex, new Cinema("Hall " + i, 'J', 10, CinemaType.STANDARD));
+            // the customers have a showtime to book from the start
+            new AdminCineplexService().addShowTime(movie, LocalDate.now(), LocalTime.of(23, 0),
+                    cineplex.getCinemas().get(0), cineplex);
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            AccountService.createMovieGoerAccount("user" + i, "password", "91234567", "user" + i + "@mail.com");
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        ArrayList<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < CINEPLEXES; i++) {
+            int k = i;
+            writers.add(new Thread(() -> run(error, () -> addAndCancelShowTimes(movie, k))));
+        }
+        for (int i = 0; i < CUSTOMER_THREADS; i++) {
+            int k = i;
+            writers.add(new Thread(() -> run(error, () -> bookAndCancel(k))));
+        }
+        ArrayList<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < READER_THREADS; i++) {
+            readers.add(new Thread(() -> run(error, () -> {
+                while (!stop.get()) read();
+            })));
+        }
+        for (Thread thread : readers) thread.start();
+        for (Thread thread : writers) thread.start();
+        for (Thread thread : writers) thread.join();
+        stop.set(true);
+        for (Thread thread : readers) thread.join();
+        if (error.get() != null) {
+            error.get().printStackTrace();
+            throw new AssertionError("A thread failed: " + error.get());
+        }
+
+        db.awaitEvents();
+        String summary = check();
+        System.out.println("write " + summary);
+        db.save();
+        Files.write(new File(SUMMARY).toPath(), summary.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to check the database loaded in a new JVM against the summary written before the save
+     * @throws IOException if the summary cannot be read
+     */
+    private static void reload() throws IOException {
+        db.awaitEvents();
+        String summary = check();
+        System.out.println("reload " + summary);
+        String written = new String(Files.readAllBytes(new File(SUMMARY).toPath()), StandardCharsets.UTF_8);
+        check(summary.equals(written), "The reloaded database differs from the one saved");
+    }
+
+    /**
+     * Method to add showtimes to a cineplex and to cancel some of them, as an admin
+     * @param movie the movie shown
+     * @param k the number of the cineplex
+     */
+    private static void addAndCancelShowTimes(Movie movie, int k) {
+        Random random = new Random(k);
+        Cineplex cineplex = db.getCineplexes().get("Cineplex " + k);
+        Cinema cinema = cineplex.getCinemas().get(0);
+        AdminCineplexService admin = new AdminCineplexService();
+        for (int n = 0; n < SHOWTIMES; n++) {
+            admin.addShowTime(movie, LocalDate.now().plusDays(n % 5), LocalTime.of(8 + n / 60, n % 60), cinema,
+                    cineplex);
+            if (random.nextInt(3) == 0) {
+                ArrayList<ShowTime> showTimes = showTimesOf(cineplex);
+                if (!showTimes.isEmpty()) admin.cancelShowTime(showTimes.get(random.nextInt(showTimes.size())));
+            }
+        }
+    }
+
+    /**
+     * Method to book seats in random showtimes of every cineplex and to cancel some of the bookings, as customers
+     * @param k the number of the thread
+     */
+    private static void bookAndCancel(int k) {
+        Random random = new Random(100 + k);
+        MovieGoerCineplexService service = new MovieGoerCineplexService();
+        for (int n = 0; n < BOOKINGS; n++) {
+            Customer customer = db.findCustomer("user" + random.nextInt(CUSTOMERS));
+            ArrayList<ShowTime> showTimes =
+                    showTimesOf(db.getCineplexes().get("Cineplex " + random.nextInt(CINEPLEXES)));
+            if (showTimes.isEmpty()) continue;
+            ShowTime showTime = showTimes.get(random.nextInt(showTimes.size()));
+            SeatHold hold = service.holdBestSeats(showTime, 1 + random.nextInt(3), customer);
+            if (hold == null) continue;
+            Booking booking = service.book(hold, AgeGroup.STANDARD);
+            if (booking != null && random.nextInt(4) == 0) service.cancelBooking(booking.getTransactionID(), customer);
+        }
+    }
+
+    /**
+     * Method to walk the catalog and the leaderboards, as the views do
+     */
+    private static void read() {
+        for (Cineplex cineplex : db.getCineplexes().values()) {
+            for (Cinema cinema : cineplex.getCinemas()) cinema.getName();
+            for (ShowTime showTime : showTimesOf(cineplex)) showTime.getSeatMap().getAvailableCount();
+        }
+        for (Customer customer : db.getCustomer()) customer.getBookingHistory().size();
+        db.getTopMoviesByTickets(3);
+    }
+
+    /**
+     * Method to check that the seats, the sales, the indexes and the bookings agree
+     * @return the summary of the database, to compare it after the reload
+     */
+    private static String check() {
+        long tickets = 0;
+        long revenueCents = 0;
+        int numOfBookings = 0;
+        HashMap<Integer, long[]> bookedSeats = new HashMap<>();
+        for (Customer customer : db.getCustomer()) {
+            for (Booking booking : customer.getBookingHistory()) {
+                numOfBookings++;
+                check(db.findBooking(booking.getTransactionNumber()) == booking,
+                        "Booking " + booking.getTransactionID() + " is not indexed");
+                if (booking.isCancelled()) continue;
+                tickets += booking.getNumOfTickets();
+                revenueCents += booking.getPriceCents();
+                ShowTime showTime = db.getShowTime(booking.getShowTimeId());
+                check(showTime != null, "Booking " + booking.getTransactionID() + " is live for a removed showtime");
+                long[] rows = bookedSeats.computeIfAbsent(showTime.getId(),
+                        id -> new long[showTime.getSeatMap().getLayout().getRows()]);
+                for (Seat seat : booking.getSeats()) {
+                    long bit = 1L << (seat.getCol() - 1);
+                    check((rows[seat.getRow() - 'A'] & bit) == 0, "Seat " + seat + " is booked twice");
+                    rows[seat.getRow() - 'A'] |= bit;
+                }
+            }
+        }
+
+        long soldTickets = 0;
+        long soldCents = 0;
+        for (SalesLedger.Entry sale : db.getSalesLedger().getEntries()) {
+            soldTickets += sale.getTickets();
+            soldCents += sale.getRevenueCents();
+        }
+        check(soldTickets == tickets, "The sales have " + soldTickets + " tickets, the bookings " + tickets);
+        check(soldCents == revenueCents, "The sales have " + soldCents + " cents, the bookings " + revenueCents);
+
+        TreeSet<Integer> listed = new TreeSet<>();
+        int occupied = 0;
+        for (Cineplex cineplex : db.getCineplexes().values()) {
+            for (ShowTime showTime : showTimesOf(cineplex)) {
+                listed.add(showTime.getId());
+                SeatMap seatMap = showTime.getSeatMap();
+                long[] rows = bookedSeats.get(showTime.getId());
+                for (int row = 0; row < seatMap.getLayout().getRows(); row++) {
+                    long booked = rows == null ? 0 : rows[row];
+                    check(seatMap.getRowBits(row) == booked, "The seats of row " + (char) ('A' + row)
+                            + " of showtime " + showTime.getId() + " are not the seats of its bookings");
+                    occupied += Long.bitCount(booked);
+                }
+            }
+        }
+        TreeSet<Integer> indexed = new TreeSet<>();
+        for (Movie movie : db.getMovies()) {
+            for (ShowTime showTime : db.getShowTimes(movie, LocalDate.now(), 30)) indexed.add(showTime.getId());
+        }
+        check(indexed.equals(listed), "The showtime index has " + indexed.size() + " showtimes, the cineplexes "
+                + listed.size());
+
+        return "bookings=" + numOfBookings + " tickets=" + tickets + " revenueCents=" + revenueCents + " showTimes="
+                + listed.size() + " occupied=" + occupied + " refunds=" + db.getRefunds().size();
+    }
+
+    /**
+     * Method to get the showtimes of a cineplex
+     * @param cineplex
+     * @return the showtimes of every day
+     */
+    private static ArrayList<ShowTime> showTimesOf(Cineplex cineplex) {
+        ArrayList<ShowTime> showTimes = new ArrayList<>();
+        for (Map.Entry<LocalDate, ArrayList<ShowTime>> day : cineplex.getShowTimes().entrySet()) {
+            showTimes.addAll(day.getValue());
+        }
+        return showTimes;
+    }
+
+    /**
+     * Method to run the work of a thread, keeping the first failure
+     * @param error the first failure of the threads
+     * @param work
+     */
+    private static void run(AtomicReference<Throwable> error, Runnable work) {
+        try {
+            work.run();
+        } catch (Throwable e) {
+            error.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Method to fail the test if a condition does not hold
+     * @param condition
+     * @param message the failure
+     */
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}